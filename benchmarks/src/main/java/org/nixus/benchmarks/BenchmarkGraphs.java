@@ -0,0 +1,86 @@
+package org.nixus.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Builds the graphs the benchmarks run on. They are directed acyclic, so every 
+ * shortest path strategy and the topological order can run on them, and every node 
+ * is reachable from the first one. The same size and seed always give the same graph.
+ * */
+public final class BenchmarkGraphs {
+	
+	public static final long SEED = 42;
+	
+	/**
+	 * Arcs leaving each node, one of them to the next node
+	 * */
+	public static final int ARCS_PER_NODE = 4;
+	
+	public static final int MAX_WEIGHT = 100;
+	
+	private BenchmarkGraphs() {
+	}
+	
+	/**
+	 * Arcs of a graph of the given size, as three arrays of the same length: sources, 
+	 * targets and weights. There are no parallel arcs, the map graphs keep only one.
+	 * */
+	public static int[][] arcs(int numNodes) {
+		Random random = new Random(SEED);
+		int maxArcs = Math.max(0, numNodes - 1) * ARCS_PER_NODE;
+		int[] sources = new int[maxArcs];
+		int[] targets = new int[maxArcs];
+		int[] weights = new int[maxArcs];
+		int arc = 0;
+		for (int node = 0; node < numNodes - 1; node++) {
+			int nodeArcs = Math.min(ARCS_PER_NODE, numNodes - node - 1);
+			int firstArc = arc;
+			while(arc - firstArc < nodeArcs){
+				//only forward arcs, so there are no cycles
+				int target = arc == firstArc ? node + 1 : node + 1 + random.nextInt(numNodes - node - 1);
+				if(!contains(targets, firstArc, arc, target)){
+					sources[arc] = node;
+					targets[arc] = target;
+					weights[arc] = 1 + random.nextInt(MAX_WEIGHT);
+					arc++;
+				}
+			}
+		}
+		return new int[][]{Arrays.copyOf(sources, arc), Arrays.copyOf(targets, arc), Arrays.copyOf(weights, arc)};
+	}
+	
+	private static boolean contains(int[] values, int from, int to, int value) {
+		for (int i = from; i < to; i++) {
+			if(values[i] == value){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	public static Graph build(GraphType graphType, int numNodes) {
+		return build(graphType.instantiate(), numNodes, arcs(numNodes));
+	}
+	
+	/**
+	 * Adds the nodes and arcs to the graph
+	 * @return the graph
+	 * */
+	public static Graph build(Graph graph, int numNodes, int[][] arcs) {
+		Node[] nodes = new Node[numNodes];
+		for (int i = 0; i < numNodes; i++) {
+			nodes[i] = graph.addNode(Weight.ZERO);
+		}
+		int[] sources = arcs[0];
+		int[] targets = arcs[1];
+		int[] weights = arcs[2];
+		for (int i = 0; i < sources.length; i++) {
+			nodes[sources[i]].addArcTo(nodes[targets[i]], new Weight(weights[i]));
+		}
+		return graph;
+	}
+}
@@ -0,0 +1,71 @@
+package org.nixus.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.impl.ConcurrentGraphBuilder;
+import org.nixus.core.structure.impl.GraphBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to fill a graph from a {@link GraphBuilder} and from a {@link ConcurrentGraphBuilder}
+ * holding the same arcs, the latter linking them with <code>threads</code> threads.
+ * Both builders are filled once, only building is measured.
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BuilderBenchmark {
+
+	@Param({"MAP"})
+	public GraphType graphType;
+
+	@Param({"5000", "50000"})
+	public int size;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	private GraphBuilder builder;
+
+	private ConcurrentGraphBuilder concurrentBuilder;
+
+	@Setup
+	public void setUp() {
+		int[][] arcs = BenchmarkGraphs.arcs(size);
+		this.builder = new GraphBuilder(size, arcs[0].length);
+		this.concurrentBuilder = new ConcurrentGraphBuilder(size);
+		for (int i = 0; i < size; i++) {
+			builder.addNode(Weight.ZERO);
+			concurrentBuilder.addNode(Weight.ZERO);
+		}
+		for (int i = 0; i < arcs[0].length; i++) {
+			Weight weight = new Weight(arcs[2][i]);
+			builder.addArcTo(arcs[0][i], arcs[1][i], weight);
+			concurrentBuilder.addArcTo(arcs[0][i], arcs[1][i], weight);
+		}
+	}
+
+	@Benchmark
+	public Graph graphBuilder() {
+		return builder.build(graphType.instantiate());
+	}
+
+	@Benchmark
+	public Graph concurrentGraphBuilder() {
+		return concurrentBuilder.build(graphType.instantiate(), threads);
+	}
+}
@@ -0,0 +1,93 @@
+package org.nixus.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.impl.CompressedGraph;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.NodePath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Queries on the benchmark graphs as built, or compressed into a {@link CompressedGraph},
+ * and a scan of the successors of every node in order
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressedGraphBenchmark {
+
+	@Param({"false", "true"})
+	public boolean compressed;
+
+	@Param({"5000", "100000"})
+	public int size;
+
+	private Graph graph;
+
+	private CompressedGraph compressedGraph;
+
+	private Node source;
+
+	private Node destination;
+
+	@Setup
+	public void setUp() {
+		Graph mapGraph = BenchmarkGraphs.build(GraphType.MAP, size);
+		this.compressedGraph = CompressedGraph.compress(mapGraph);
+		this.graph = compressed ? compressedGraph : mapGraph;
+		this.source = graph.getNodes().get(0);
+		this.destination = graph.getNodes().get(size - 1);
+	}
+
+	@Benchmark
+	public List<Node> breathFirstTraversal() {
+		return graph.breathFirstTraversal(source);
+	}
+
+	@Benchmark
+	public NodePath findShortestPathTo() {
+		return source.findShortestPathTo(destination, ShortestPathStrategy.BINARY_DIJKSTRA);
+	}
+
+	/**
+	 * Sums the indexes of the successors of every node, decoded in order when compressed
+	 * */
+	@Benchmark
+	public long scanSuccessors() {
+		long sum = 0;
+		if(compressed){
+			CompressedGraph.NodeIterator iterator = compressedGraph.nodeIterator();
+			while(iterator.hasNext()){
+				iterator.nextNode();
+				for (int successor : iterator.successors()) {
+					sum += successor;
+				}
+			}
+		} else {
+			for (Node node : graph.getNodes()) {
+				for (Arc arc : node.getArcsOut()) {
+					sum += ((HiddenNodeAbstraction)arc.getTargetNode()).getInsertionOrder();
+				}
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,120 @@
+package org.nixus.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.nodes.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scaling of {@link org.nixus.core.structure.impl.ConcurrentAdjacencyMapGraph} ingest 
+ * with the number of threads adding arcs at once. Arcs join random nodes, or leave one 
+ * of a few hot nodes when <code>hotNodes</code> isn't 0, so their monitors are contended.
+ * The graph is created again on every iteration so it doesn't grow without bound.
+ * Any other number of threads is measured running one of them with <code>-t</code>, 
+ * which overrides the threads of the annotation.
+ * <p>
+ * Scaling has not been measured yet: the only results so far come from a single CPU host,
+ * where every thread count gives the same throughput. Run it on a multi-core host before
+ * drawing conclusions about contention.
+ * */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentIngestBenchmark {
+	
+	@Param({"20000"})
+	public int size;
+	
+	@Param({"0", "16"})
+	public int hotNodes;
+	
+	private Node[] nodes;
+	
+	private final AtomicLong seeds = new AtomicLong(BenchmarkGraphs.SEED);
+	
+	@Setup(Level.Iteration)
+	public void setUp() {
+		Graph graph = GraphFactory.instantiateConcurrentAdjacencyMapGraph();
+		this.nodes = new Node[size];
+		for (int i = 0; i < size; i++) {
+			nodes[i] = graph.addNode(Weight.ZERO);
+		}
+	}
+	
+	/**
+	 * Random numbers of each thread
+	 * */
+	@State(Scope.Thread)
+	public static class ThreadRandom {
+		
+		Random random;
+		
+		@Setup
+		public void setUp(ConcurrentIngestBenchmark benchmark) {
+			this.random = new Random(benchmark.seeds.getAndIncrement());
+		}
+	}
+	
+	private Arc addArcTo(ThreadRandom threadRandom) {
+		Random random = threadRandom.random;
+		Node source = nodes[random.nextInt(hotNodes > 0 ? hotNodes : size)];
+		Node target = nodes[random.nextInt(size)];
+		return source.addArcTo(target, Weight.ZERO);
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public Arc addArcTo1Thread(ThreadRandom random) {
+		return addArcTo(random);
+	}
+	
+	@Benchmark
+	@Threads(2)
+	public Arc addArcTo2Threads(ThreadRandom random) {
+		return addArcTo(random);
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public Arc addArcTo4Threads(ThreadRandom random) {
+		return addArcTo(random);
+	}
+	
+	@Benchmark
+	@Threads(8)
+	public Arc addArcTo8Threads(ThreadRandom random) {
+		return addArcTo(random);
+	}
+	
+	@Benchmark
+	@Threads(16)
+	public Arc addArcTo16Threads(ThreadRandom random) {
+		return addArcTo(random);
+	}
+	
+	@Benchmark
+	@Threads(32)
+	public Arc addArcTo32Threads(ThreadRandom random) {
+		return addArcTo(random);
+	}
+}
@@ -0,0 +1,57 @@
+package org.nixus.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.nixus.core.structure.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to build a whole graph, with {@link Graph#addNode} alone and followed by 
+ * {@link org.nixus.core.structure.nodes.Node#addArcTo}. The difference between both 
+ * is the cost of the arcs.
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConstructionBenchmark {
+	
+	@Param({"MAP", "MATRIX", "ADAPTIVE"})
+	public GraphType graphType;
+	
+	@Param({"1000", "5000"})
+	public int size;
+	
+	private int[][] arcs;
+	
+	@Setup
+	public void setUp() {
+		this.arcs = BenchmarkGraphs.arcs(size);
+	}
+	
+	@Benchmark
+	public Graph addNode() {
+		Graph graph = graphType.instantiate();
+		for (int i = 0; i < size; i++) {
+			graph.addNode(Weight.ZERO);
+		}
+		return graph;
+	}
+	
+	@Benchmark
+	public Graph addNodeAndAddArcTo() {
+		return BenchmarkGraphs.build(graphType.instantiate(), size, arcs);
+	}
+}
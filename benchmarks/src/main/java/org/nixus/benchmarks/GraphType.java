@@ -0,0 +1,30 @@
+package org.nixus.benchmarks;
+
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.impl.GraphFactory;
+
+/**
+ * Graph representations compared by the benchmarks
+ * */
+public enum GraphType {
+	MAP {
+		@Override
+		public Graph instantiate() {
+			return GraphFactory.instantiateAdjacencyMapGraph();
+		}
+	},
+	MATRIX {
+		@Override
+		public Graph instantiate() {
+			return GraphFactory.instantiateAdjacencyMatrixGraph();
+		}
+	},
+	ADAPTIVE {
+		@Override
+		public Graph instantiate() {
+			return GraphFactory.instantiateAdaptiveGraph();
+		}
+	};
+	
+	public abstract Graph instantiate();
+}
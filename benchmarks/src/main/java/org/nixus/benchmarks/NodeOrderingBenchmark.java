@@ -0,0 +1,89 @@
+package org.nixus.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.nixus.core.strategies.NodeOrdering;
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.NodePath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Shortest path between opposite corners of a square grid, which settles most of its
+ * nodes, with the weights snapshot. The nodes are added in random order, and then
+ * renumbered by each ordering, or not at all.
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NodeOrderingBenchmark {
+
+	@Param({"MAP"})
+	public GraphType graphType;
+
+	/**
+	 * Nodes on each side of the grid
+	 * */
+	@Param({"100", "300"})
+	public int side;
+
+	@Param({"NONE", "BREADTH_FIRST", "REVERSE_CUTHILL_MCKEE", "DEGREE"})
+	public String ordering;
+
+	private Node source;
+
+	private Node destination;
+
+	@Setup
+	public void setUp() {
+		AbstractGraph graph = (AbstractGraph) graphType.instantiate();
+		int numNodes = side * side;
+		List<Integer> cells = new ArrayList<Integer>();
+		for (int i = 0; i < numNodes; i++) {
+			cells.add(i);
+		}
+		Random random = new Random(BenchmarkGraphs.SEED);
+		Collections.shuffle(cells, random);
+		Node[] nodes = new Node[numNodes];
+		for (int cell : cells) {
+			nodes[cell] = graph.addNode(Weight.ZERO);
+		}
+		for (int cell = 0; cell < numNodes; cell++) {
+			if(cell % side + 1 < side){
+				nodes[cell].addArcTo(nodes[cell + 1], new Weight(1 + random.nextInt(BenchmarkGraphs.MAX_WEIGHT)));
+			}
+			if(cell + side < numNodes){
+				nodes[cell].addArcTo(nodes[cell + side], new Weight(1 + random.nextInt(BenchmarkGraphs.MAX_WEIGHT)));
+			}
+		}
+		if(!"NONE".equals(ordering)){
+			graph.reorder(NodeOrdering.valueOf(ordering));
+		}
+		graph.setSnapshotWeights(true);
+		this.source = nodes[0];
+		this.destination = nodes[numNodes - 1];
+	}
+
+	@Benchmark
+	public NodePath findShortestPathTo() {
+		return source.findShortestPathTo(destination, ShortestPathStrategy.BINARY_DIJKSTRA);
+	}
+}
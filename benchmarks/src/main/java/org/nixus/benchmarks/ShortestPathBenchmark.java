@@ -0,0 +1,65 @@
+package org.nixus.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.NodePath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Shortest paths from the first node with every strategy, to the last node and to 
+ * every other node
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShortestPathBenchmark {
+	
+	@Param({"MAP", "MATRIX", "ADAPTIVE"})
+	public GraphType graphType;
+	
+	@Param({"1000", "5000"})
+	public int size;
+	
+	@Param({"BINARY_DIJKSTRA", "BELLMAN_FORD", "DAG"})
+	public ShortestPathStrategy strategy;
+	
+	private Node source;
+	
+	private Node destination;
+	
+	@Setup
+	public void setUp() {
+		Graph graph = BenchmarkGraphs.build(graphType, size);
+		List<Node> nodes = graph.getNodes();
+		this.source = nodes.get(0);
+		this.destination = nodes.get(size - 1);
+	}
+	
+	@Benchmark
+	public NodePath findShortestPathTo() {
+		return source.findShortestPathTo(destination, strategy);
+	}
+	
+	@Benchmark
+	public Map<Node, NodePath> findShortestPathToEveryOtherNode() {
+		return source.findShortestPathToEveryOtherNode(strategy);
+	}
+}
@@ -0,0 +1,62 @@
+package org.nixus.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.nodes.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Depth and breadth first traversals from the first node, which reach the whole graph, 
+ * and the topological order
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TraversalBenchmark {
+	
+	@Param({"MAP", "MATRIX", "ADAPTIVE"})
+	public GraphType graphType;
+	
+	@Param({"1000", "5000"})
+	public int size;
+	
+	private Graph graph;
+	
+	private Node start;
+	
+	@Setup
+	public void setUp() {
+		this.graph = BenchmarkGraphs.build(graphType, size);
+		this.start = graph.getNodes().get(0);
+	}
+	
+	@Benchmark
+	public List<Node> depthFirstTraversal() {
+		return graph.depthFirstTraversal(start);
+	}
+	
+	@Benchmark
+	public List<Node> breathFirstTraversal() {
+		return graph.breathFirstTraversal(start);
+	}
+	
+	@Benchmark
+	public List<Node> getNodesInTopologicalOrder() {
+		return graph.getNodesInTopologicalOrder();
+	}
+}
@@ -0,0 +1,22 @@
+package org.nixus.benchmarks;
+
+import org.nixus.core.structure.auxiliary.Measurable;
+
+/**
+ * Content of the nodes and arcs of the benchmark graphs
+ * */
+public final class Weight implements Measurable<Weight> {
+	
+	public static final Weight ZERO = new Weight(0);
+	
+	private final int value;
+	
+	public Weight(int value) {
+		this.value = value;
+	}
+	
+	@Override
+	public int measure() {
+		return value;
+	}
+}
@@ -0,0 +1,344 @@
+package org.nixus.core.generators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.ConstantMeasure;
+import org.nixus.core.structure.impl.ConcurrentGraphBuilder;
+import org.nixus.core.structure.impl.ConcurrentGraphBuilder.ArcBuffer;
+
+/**
+ * Generates synthetic graphs for load testing, filling any empty graph from 
+ * {@link org.nixus.core.structure.impl.GraphFactory}.
+ * <p>
+ * The arcs are generated in blocks of a fixed size by a pool of threads, each block with 
+ * its own random numbers derived from the seed and the block number, and handed to a 
+ * {@link ConcurrentGraphBuilder} which links them using the same threads. The same seed 
+ * always gives the same graph, whatever the number of threads.
+ * <p>
+ * Node contents measure 0 and arc contents are {@link ConstantMeasure}s of the weights. 
+ * R-MAT, Erd&#337;s-R&eacute;nyi and scale free graphs may have parallel arcs, of which the 
+ * map and matrix graphs keep the last one on the adjacency of their source.
+ * */
+public class GraphGenerator {
+
+	/**
+	 * Arcs, or nodes for the generators that walk the nodes, of each block
+	 * */
+	static final int BLOCK_SIZE = 1 << 16;
+
+	private final long seed;
+
+	private WeightDistribution weights = WeightDistribution.constant(1);
+
+	private int numThreads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Creates a generator of unit weight arcs using as many threads as processors are available
+	 * */
+	public GraphGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	public void setWeights(WeightDistribution weights) {
+		this.weights = weights;
+	}
+
+	public void setNumThreads(int numThreads) {
+		this.numThreads = Math.max(1, numThreads);
+	}
+
+	/**
+	 * Generates a Graph500 like R-MAT graph, see {@link #rmat(Graph, int, int, double, double, double)}
+	 * */
+	public Graph rmat(Graph emptyGraph, int scale, int numArcs) {
+		return rmat(emptyGraph, scale, numArcs, 0.57, 0.19, 0.19);
+	}
+
+	/**
+	 * Generates a recursive matrix (R-MAT, a stochastic Kronecker graph) with 2^scale nodes. 
+	 * Every arc is placed by choosing one quadrant of the adjacency matrix at a time, 
+	 * with probabilities a, b, c and 1 - a - b - c, so a few nodes get most of the arcs.
+	 * */
+	public Graph rmat(Graph emptyGraph, final int scale, int numArcs, final double a, final double b, final double c) {
+		if(scale < 0 || scale > 30){
+			throw new IllegalArgumentException("Scale must be between 0 and 30");
+		}
+		if(a < 0 || b < 0 || c < 0 || a + b + c > 1){
+			throw new IllegalArgumentException("Quadrant probabilities must be positive and add up to 1 at most");
+		}
+		final double ab = a + b;
+		final double abc = a + b + c;
+		return generate(emptyGraph, 1 << scale, numArcs, new BlockGenerator() {
+			@Override
+			public void generate(ArcBuffer buffer, SplittableRandom random, int from, int to) {
+				for (int i = from; i < to; i++) {
+					int source = 0;
+					int target = 0;
+					for (int bit = scale - 1; bit >= 0; bit--) {
+						double p = random.nextDouble();
+						if(p >= abc){
+							source |= 1 << bit;
+							target |= 1 << bit;
+						} else if(p >= ab){
+							source |= 1 << bit;
+						} else if(p >= a){
+							target |= 1 << bit;
+						}
+					}
+					addArc(buffer, random, source, target);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Generates an Erd&#337;s-R&eacute;nyi G(n, p) graph, where every arc between two 
+	 * different nodes exists with probability p. On undirected graphs every pair of nodes 
+	 * is considered once. The arcs of each node are found by jumping over the missing 
+	 * ones, so the time taken is proportional to the arcs generated.
+	 * */
+	public Graph erdosRenyi(Graph emptyGraph, final int numNodes, final double p) {
+		if(p < 0 || p > 1){
+			throw new IllegalArgumentException("Probability must be between 0 and 1");
+		}
+		final boolean directed = emptyGraph.isDirected();
+		return generate(emptyGraph, numNodes, numNodes, new BlockGenerator() {
+			@Override
+			public void generate(ArcBuffer buffer, SplittableRandom random, int from, int to) {
+				if(p == 0){
+					return;
+				}
+				double logMiss = Math.log(1 - p);
+				for (int source = from; source < to; source++) {
+					//candidates are the other nodes, or the following ones on undirected graphs
+					int first = directed ? 0 : source + 1;
+					long numCandidates = (directed ? numNodes - 1 : numNodes - first);
+					long candidate = -1;
+					while(true){
+						candidate += p == 1 ? 1 : 1 + (long) Math.floor(Math.log(1 - random.nextDouble()) / logMiss);
+						if(candidate >= numCandidates){
+							break;
+						}
+						int target = (int) (first + candidate);
+						if(directed && target >= source){
+							target++;
+						}
+						addArc(buffer, random, source, target);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Generates a road like grid of rows x columns nodes, numbered by rows, with an arc 
+	 * joining every node with the next one on its row and on its column. On directed 
+	 * graphs there is an arc in each direction.
+	 * */
+	public Graph grid(Graph emptyGraph, final int rows, final int columns) {
+		if(rows < 0 || columns < 0 || (long) rows * columns > Integer.MAX_VALUE){
+			throw new IllegalArgumentException("Invalid grid size: " + rows + "x" + columns);
+		}
+		final boolean directed = emptyGraph.isDirected();
+		int numNodes = rows * columns;
+		return generate(emptyGraph, numNodes, numNodes, new BlockGenerator() {
+			@Override
+			public void generate(ArcBuffer buffer, SplittableRandom random, int from, int to) {
+				for (int node = from; node < to; node++) {
+					if((node + 1) % columns != 0){
+						addEdge(buffer, random, node, node + 1, directed);
+					}
+					if(node + columns < rows * columns){
+						addEdge(buffer, random, node, node + columns, directed);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Generates a random directed acyclic graph, where each node has arcs to arcsPerNode 
+	 * different nodes added after it, or to all of them when there are fewer. Insertion 
+	 * order is a topological order.
+	 * */
+	public Graph randomDag(Graph emptyGraph, final int numNodes, final int arcsPerNode) {
+		if(!emptyGraph.isDirected()){
+			throw new IllegalArgumentException("A DAG can only be generated into a directed graph");
+		}
+		return generate(emptyGraph, numNodes, numNodes, new BlockGenerator() {
+			@Override
+			public void generate(ArcBuffer buffer, SplittableRandom random, int from, int to) {
+				int[] targets = new int[arcsPerNode];
+				for (int source = from; source < to; source++) {
+					int numFollowing = numNodes - source - 1;
+					int numTargets = Math.min(arcsPerNode, numFollowing);
+					int found = 0;
+					while(found < numTargets){
+						int target = source + 1 + random.nextInt(numFollowing);
+						if(!contains(targets, found, target)){
+							targets[found++] = target;
+							addArc(buffer, random, source, target);
+						}
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Generates a scale free graph following the Chung-Lu model: both ends of every arc are 
+	 * drawn with a probability proportional to a power law weight of the node, 
+	 * (i + 1)^(-1 / (exponent - 1)), so the degrees follow a power law of the given exponent. 
+	 * Unlike preferential attachment, the arcs don't depend on each other and can be 
+	 * generated in parallel. There are no self loops.
+	 * @param exponent usually between 2 and 3
+	 * */
+	public Graph scaleFree(Graph emptyGraph, final int numNodes, int numArcs, double exponent) {
+		if(exponent <= 1){
+			throw new IllegalArgumentException("The exponent must be greater than 1");
+		}
+		if(numNodes < 2 && numArcs > 0){
+			throw new IllegalArgumentException("Arcs need at least two nodes");
+		}
+		final double[] cumulativeWeights = new double[numNodes];
+		double total = 0;
+		for (int i = 0; i < numNodes; i++) {
+			total += Math.pow(i + 1, -1 / (exponent - 1));
+			cumulativeWeights[i] = total;
+		}
+		final double totalWeight = total;
+		return generate(emptyGraph, numNodes, numArcs, new BlockGenerator() {
+			@Override
+			public void generate(ArcBuffer buffer, SplittableRandom random, int from, int to) {
+				for (int i = from; i < to; i++) {
+					int source = pick(cumulativeWeights, random.nextDouble() * totalWeight);
+					int target;
+					do {
+						target = pick(cumulativeWeights, random.nextDouble() * totalWeight);
+					} while(target == source);
+					addArc(buffer, random, source, target);
+				}
+			}
+		});
+	}
+
+	/**
+	 * @return the first node whose cumulative weight is greater than the value
+	 * */
+	private static int pick(double[] cumulativeWeights, double value) {
+		int low = 0;
+		int high = cumulativeWeights.length - 1;
+		while(low < high){
+			int middle = (low + high) >>> 1;
+			if(cumulativeWeights[middle] > value){
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return low;
+	}
+
+	private static boolean contains(int[] values, int size, int value) {
+		for (int i = 0; i < size; i++) {
+			if(values[i] == value){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the nodes and runs the generator over [0, numItems) in blocks
+	 * @param numItems arcs or nodes to generate, split in blocks
+	 * */
+	private Graph generate(Graph emptyGraph, int numNodes, int numItems, final BlockGenerator generator) {
+		if(!emptyGraph.isEmpty()){
+			throw new IllegalArgumentException("Graphs can only be generated from scratch");
+		}
+		if(numNodes < 0 || numItems < 0){
+			throw new IllegalArgumentException("Sizes can't be negative");
+		}
+		ConcurrentGraphBuilder builder = new ConcurrentGraphBuilder(numNodes);
+		ConstantMeasure nodeContent = ConstantMeasure.valueOf(0);
+		for (int i = 0; i < numNodes; i++) {
+			builder.addNode(nodeContent);
+		}
+		int numBlocks = (int) (((long) numItems + BLOCK_SIZE - 1) / BLOCK_SIZE);
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(numBlocks);
+		for (int block = 0; block < numBlocks; block++) {
+			//buffers are created in block order, so are the arcs of the graph
+			final ArcBuffer buffer = builder.newArcBuffer();
+			final SplittableRandom random = new SplittableRandom(blockSeed(block));
+			final int from = block * BLOCK_SIZE;
+			final int to = (int) Math.min(numItems, (long) from + BLOCK_SIZE);
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					generator.generate(buffer, random, from, to);
+					return null;
+				}
+			});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while generating the graph", e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException){
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+		return builder.build(emptyGraph, numThreads);
+	}
+
+	/**
+	 * Seed of the random numbers of a block, spread so consecutive blocks don't start 
+	 * on related sequences
+	 * */
+	private long blockSeed(int block) {
+		long z = seed + (block + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	private void addArc(ArcBuffer buffer, SplittableRandom random, int source, int target) {
+		buffer.addArcTo(source, target, ConstantMeasure.valueOf(weights.nextWeight(random)));
+	}
+
+	/**
+	 * Adds an edge once on undirected graphs and as an arc each way on directed ones, 
+	 * both with the same weight
+	 * */
+	private void addEdge(ArcBuffer buffer, SplittableRandom random, int node, int neighbor, boolean directed) {
+		ConstantMeasure weight = ConstantMeasure.valueOf(weights.nextWeight(random));
+		buffer.addArcTo(node, neighbor, weight);
+		if(directed){
+			buffer.addArcTo(neighbor, node, weight);
+		}
+	}
+
+	/**
+	 * Generates the arcs of the items in [from, to) of a block
+	 * */
+	private interface BlockGenerator {
+
+		void generate(ArcBuffer buffer, SplittableRandom random, int from, int to);
+	}
+}
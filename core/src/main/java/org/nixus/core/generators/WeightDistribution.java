@@ -0,0 +1,75 @@
+package org.nixus.core.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distribution of the arc weights of the generated graphs. Weights are drawn from the 
+ * random numbers of the block being generated, so the same seed gives the same weights.
+ * */
+public abstract class WeightDistribution {
+
+	/**
+	 * @return the weight of the next arc
+	 * */
+	public abstract int nextWeight(SplittableRandom random);
+
+	/**
+	 * Every arc weighs the same
+	 * */
+	public static WeightDistribution constant(final int weight) {
+		return new WeightDistribution() {
+			@Override
+			public int nextWeight(SplittableRandom random) {
+				return weight;
+			}
+		};
+	}
+
+	/**
+	 * Weights uniformly distributed in [min, max]
+	 * */
+	public static WeightDistribution uniform(final int min, final int max) {
+		if(min > max){
+			throw new IllegalArgumentException("The minimum weight can't be greater than the maximum");
+		}
+		return new WeightDistribution() {
+			@Override
+			public int nextWeight(SplittableRandom random) {
+				return (int) (min + random.nextLong((long) max - min + 1));
+			}
+		};
+	}
+
+	/**
+	 * Exponentially distributed weights, rounded up so no arc weighs less than 1. Most 
+	 * arcs are cheap and a few are very expensive, as the roads of a road network.
+	 * */
+	public static WeightDistribution exponential(final double mean) {
+		if(mean <= 0){
+			throw new IllegalArgumentException("The mean must be positive");
+		}
+		return new WeightDistribution() {
+			@Override
+			public int nextWeight(SplittableRandom random) {
+				double weight = Math.ceil(-mean * Math.log(1 - random.nextDouble()));
+				return (int) Math.max(1, Math.min(Integer.MAX_VALUE, weight));
+			}
+		};
+	}
+
+	/**
+	 * Normally distributed weights, rounded and clamped to [min, Integer.MAX_VALUE]
+	 * */
+	public static WeightDistribution normal(final double mean, final double standardDeviation, final int min) {
+		return new WeightDistribution() {
+			@Override
+			public int nextWeight(SplittableRandom random) {
+				//Box-Muller, one value per pair
+				double u = 1 - random.nextDouble();
+				double v = random.nextDouble();
+				double weight = mean + standardDeviation * Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+				return (int) Math.max(min, Math.min(Integer.MAX_VALUE, Math.round(weight)));
+			}
+		};
+	}
+}
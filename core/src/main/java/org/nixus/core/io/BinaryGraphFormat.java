@@ -0,0 +1,211 @@
+package org.nixus.core.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.ConstantMeasure;
+import org.nixus.core.structure.exceptions.GraphFormatException;
+import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.impl.GraphBuilder;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Compact binary format for graphs, streamed through NIO channels. It replaces default java
+ * serialization, which is bloated and recurses through the node references.
+ * <p>
+ * Layout, all integers being varints unless noted:
+ * <pre>
+ * header:    magic (int), version (byte), flags (byte), number of nodes, number of arcs
+ * nodes:     for each node, its content measure (zig-zag) and its tag length + 1, followed
+ *            by the UTF-8 tag bytes. A 0 length marks the graph default tag.
+ * adjacency: for each node, its number of arcs and for each arc, sorted by target, the gap
+ *            to the previous target index (the first one relative to the node index, in
+ *            zig-zag) followed by the arc content measure (zig-zag).
+ * </pre>
+ * Parallel arcs are kept, each with its measure. Version 1 files, whose targets weren't
+ * sorted and had every gap in zig-zag, are still read.
+ * Contents are persisted by their measure only, they are read back as {@link ConstantMeasure}s.
+ * Undirected arcs are written once, from its source node.
+ * */
+public class BinaryGraphFormat {
+
+	/**
+	 * "JFGB"
+	 * */
+	static final int MAGIC = 0x4A464742;
+
+	static final int VERSION = 2;
+
+	static final int FLAG_UNDIRECTED = 1;
+
+	static final int BUFFER_SIZE = 64 * 1024;
+
+	private BinaryGraphFormat() {
+	}
+
+	/**
+	 * Writes the graph into the channel. The channel is not closed.
+	 * */
+	public static void write(Graph graph, WritableByteChannel channel) throws IOException {
+		ChannelEncoder encoder = new ChannelEncoder(channel, BUFFER_SIZE);
+		List<Node> nodes = graph.getNodes();
+		int[] positions = AbstractGraph.getNodePositions(graph);
+
+		encoder.writeInt(MAGIC);
+		encoder.writeByte(VERSION);
+		encoder.writeByte(graph.isDirected() ? 0 : FLAG_UNDIRECTED);
+		encoder.writeVarInt(nodes.size());
+		List<Arc> arcs = graph.getArcs();
+		encoder.writeVarInt(arcs.size());
+
+		int index = 0;
+		for (Node node : nodes) {
+			encoder.writeSignedVarInt(node.getContent().measure());
+			String tag = node.getTag();
+			if(tag == null || tag.equals(AbstractGraph.defaultTag(index))){
+				encoder.writeVarInt(0);
+			} else {
+				byte[] bytes = tag.getBytes(ChannelEncoder.UTF_8);
+				encoder.writeVarInt(bytes.length + 1);
+				encoder.writeBytes(bytes);
+			}
+			index++;
+		}
+
+		//the arcs of the graph, not the adjacency of the nodes, which keeps one arc per target,
+		//bucketed by source and then sorted by target, each with its position in the graph arcs
+		int numArcs = arcs.size();
+		int[] measures = new int[numArcs];
+		int[] sources = new int[numArcs];
+		int[] firstArc = new int[nodes.size() + 1];
+		long[] targets = new long[numArcs];
+		int k = 0;
+		for (Arc arc : arcs) {
+			sources[k] = positions[indexOf(arc.getSourceNode())];
+			targets[k] = positions[indexOf(arc.getTargetNode())];
+			measures[k] = arc.getArcContent().measure();
+			firstArc[sources[k] + 1]++;
+			k++;
+		}
+		for (int i = 0; i < nodes.size(); i++) {
+			firstArc[i + 1] += firstArc[i];
+		}
+		long[] sorted = new long[numArcs];
+		int[] nextArc = Arrays.copyOf(firstArc, nodes.size());
+		for (k = 0; k < numArcs; k++) {
+			sorted[nextArc[sources[k]]++] = (targets[k] << 32) | k;
+		}
+		for (int source = 0; source < nodes.size(); source++) {
+			Arrays.sort(sorted, firstArc[source], firstArc[source + 1]);
+			encoder.writeVarInt(firstArc[source + 1] - firstArc[source]);
+			int previousTarget = source;
+			for (k = firstArc[source]; k < firstArc[source + 1]; k++) {
+				int target = (int) (sorted[k] >>> 32);
+				if(k == firstArc[source]){
+					encoder.writeSignedVarInt(target - source);
+				} else {
+					encoder.writeVarInt(target - previousTarget);
+				}
+				encoder.writeSignedVarInt(measures[(int) sorted[k]]);
+				previousTarget = target;
+			}
+		}
+		encoder.flush();
+	}
+
+	/**
+	 * Writes the graph into a file, replacing it if it exists.
+	 * */
+	public static void write(Graph graph, Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			write(graph, channel);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Reads a graph from the channel. The channel is not closed.
+	 * @param emptyGraph a graph without nodes, as returned by {@link org.nixus.core.structure.impl.GraphFactory}.
+	 * It must be undirected only if the written graph was.
+	 * @return the given graph, filled with the read nodes and arcs
+	 * @throws GraphFormatException if the data isn't a graph in this format
+	 * */
+	public static Graph read(ReadableByteChannel channel, Graph emptyGraph) throws IOException {
+		ChannelDecoder decoder = new ChannelDecoder(channel, BUFFER_SIZE);
+
+		if(decoder.readInt() != MAGIC){
+			throw new GraphFormatException("Not a binary graph");
+		}
+		int version = decoder.readByte();
+		if(version != 1 && version != VERSION){
+			throw new GraphFormatException("Unsupported binary graph version " + version);
+		}
+		boolean undirected = (decoder.readByte() & FLAG_UNDIRECTED) != 0;
+		if(undirected == emptyGraph.isDirected()){
+			throw new IllegalArgumentException("The graph was written as " + (undirected ? "undirected" : "directed"));
+		}
+		int numNodes = decoder.readVarInt();
+		int numArcs = decoder.readVarInt();
+		if(numNodes < 0 || numArcs < 0){
+			throw new GraphFormatException("Malformed header");
+		}
+
+		GraphBuilder builder = new GraphBuilder(numNodes, numArcs);
+		for (int i = 0; i < numNodes; i++) {
+			ConstantMeasure content = ConstantMeasure.valueOf(decoder.readSignedVarInt());
+			int tagLength = decoder.readVarInt();
+			if(tagLength == 0){
+				builder.addNode(content);
+			} else {
+				builder.addNode(content, new String(decoder.readBytes(tagLength - 1), ChannelEncoder.UTF_8));
+			}
+		}
+
+		int readArcs = 0;
+		for (int source = 0; source < numNodes; source++) {
+			int numNodeArcs = decoder.readVarInt();
+			int target = source;
+			for (int k = 0; k < numNodeArcs; k++) {
+				target += k == 0 || version == 1 ? decoder.readSignedVarInt() : decoder.readVarInt();
+				builder.addArcTo(source, target, ConstantMeasure.valueOf(decoder.readSignedVarInt()));
+			}
+			readArcs += numNodeArcs;
+		}
+		if(readArcs != numArcs){
+			throw new GraphFormatException("Expected " + numArcs + " arcs but found " + readArcs);
+		}
+		try {
+			return builder.build(emptyGraph);
+		} catch (IndexOutOfBoundsException e) {
+			throw new GraphFormatException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads a graph from a file, see {@link #read(ReadableByteChannel, Graph)}.
+	 * */
+	public static Graph read(Path file, Graph emptyGraph) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			return read(channel, emptyGraph);
+		} finally {
+			channel.close();
+		}
+	}
+
+	private static int indexOf(Node node) {
+		return ((HiddenNodeAbstraction) node).getInsertionOrder();
+	}
+}
@@ -0,0 +1,106 @@
+package org.nixus.core.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import org.nixus.core.structure.exceptions.GraphFormatException;
+
+/**
+ * Buffered reader of the values written by {@link ChannelEncoder} from a channel.
+ * */
+class ChannelDecoder {
+
+	private final ReadableByteChannel channel;
+
+	private final ByteBuffer buffer;
+
+	private boolean endOfChannel;
+
+	ChannelDecoder(ReadableByteChannel channel, int bufferSize) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocateDirect(bufferSize);
+		this.buffer.flip();
+	}
+
+	int readByte() throws IOException {
+		ensureAvailable(1);
+		return buffer.get();
+	}
+
+	int readInt() throws IOException {
+		ensureAvailable(4);
+		return buffer.getInt();
+	}
+
+	long readLong() throws IOException {
+		ensureAvailable(8);
+		return buffer.getLong();
+	}
+
+	int readVarInt() throws IOException {
+		int value = 0;
+		for(int shift = 0; shift < 35; shift += 7){
+			int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0){
+				return value;
+			}
+		}
+		throw new GraphFormatException("Malformed varint");
+	}
+
+	int readSignedVarInt() throws IOException {
+		int value = readVarInt();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	String readString() throws IOException {
+		return new String(readBytes(readVarInt()), ChannelEncoder.UTF_8);
+	}
+
+	byte[] readBytes(int length) throws IOException {
+		if(length < 0){
+			throw new GraphFormatException("Malformed length " + length);
+		}
+		byte[] bytes = new byte[length];
+		int offset = 0;
+		while(offset < length){
+			ensureAvailable(1);
+			int chunk = Math.min(buffer.remaining(), length - offset);
+			buffer.get(bytes, offset, chunk);
+			offset += chunk;
+		}
+		return bytes;
+	}
+
+	/**
+	 * @return true if there are bytes left to read on the channel
+	 * */
+	boolean hasRemaining() throws IOException {
+		if(buffer.hasRemaining()){
+			return true;
+		}
+		fill();
+		return buffer.hasRemaining();
+	}
+
+	private void ensureAvailable(int numBytes) throws IOException {
+		while(buffer.remaining() < numBytes){
+			if(endOfChannel){
+				throw new EOFException("Unexpected end of graph data");
+			}
+			fill();
+		}
+	}
+
+	private void fill() throws IOException {
+		buffer.compact();
+		int read = channel.read(buffer);
+		if(read < 0){
+			endOfChannel = true;
+		}
+		buffer.flip();
+	}
+}
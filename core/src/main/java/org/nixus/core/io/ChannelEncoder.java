@@ -0,0 +1,108 @@
+package org.nixus.core.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Buffered writer of the primitive values used by the binary graph formats into a channel.
+ * Integers are written as little endian base 128 varints, signed ones zig-zag encoded first.
+ * */
+class ChannelEncoder {
+
+	static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final WritableByteChannel channel;
+
+	private final ByteBuffer buffer;
+
+	/**
+	 * Total of bytes written into the channel, including the ones still buffered
+	 * */
+	private long position;
+
+	ChannelEncoder(WritableByteChannel channel, int bufferSize) {
+		this(channel, bufferSize, ByteOrder.BIG_ENDIAN);
+	}
+
+	/**
+	 * @param order byte order of the fixed width values
+	 * */
+	ChannelEncoder(WritableByteChannel channel, int bufferSize, ByteOrder order) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocateDirect(bufferSize).order(order);
+	}
+
+	void writeByte(int value) throws IOException {
+		ensureRemaining(1);
+		buffer.put((byte) value);
+		position++;
+	}
+
+	void writeInt(int value) throws IOException {
+		ensureRemaining(4);
+		buffer.putInt(value);
+		position += 4;
+	}
+
+	void writeLong(long value) throws IOException {
+		ensureRemaining(8);
+		buffer.putLong(value);
+		position += 8;
+	}
+
+	void writeVarInt(int value) throws IOException {
+		ensureRemaining(5);
+		while((value & ~0x7F) != 0){
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+			position++;
+		}
+		buffer.put((byte) value);
+		position++;
+	}
+
+	void writeSignedVarInt(int value) throws IOException {
+		writeVarInt((value << 1) ^ (value >> 31));
+	}
+
+	void writeString(String value) throws IOException {
+		byte[] bytes = value.getBytes(UTF_8);
+		writeVarInt(bytes.length);
+		writeBytes(bytes);
+	}
+
+	void writeBytes(byte[] bytes) throws IOException {
+		int offset = 0;
+		while(offset < bytes.length){
+			ensureRemaining(1);
+			int length = Math.min(buffer.remaining(), bytes.length - offset);
+			buffer.put(bytes, offset, length);
+			offset += length;
+		}
+		position += bytes.length;
+	}
+
+	long position() {
+		return position;
+	}
+
+	/**
+	 * Writes the buffered bytes into the channel
+	 * */
+	void flush() throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()){
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private void ensureRemaining(int numBytes) throws IOException {
+		if(buffer.remaining() < numBytes){
+			flush();
+		}
+	}
+}
@@ -0,0 +1,552 @@
+package org.nixus.core.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.ConstantMeasure;
+import org.nixus.core.structure.auxiliary.GraphChangeListener;
+import org.nixus.core.structure.exceptions.GraphFormatException;
+import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Persists a graph incrementally: a {@link BinaryGraphFormat} snapshot plus an append-only
+ * log of the nodes and arcs added or removed and the tags changed since it was taken, so saving
+ * a change costs a few bytes instead of rewriting the whole graph.
+ * <p>
+ * Changes are buffered and written as a single checksummed frame every
+ * <code>recordsPerSync</code> changes, or on {@link #sync()}, followed by a single fsync.
+ * Changes not synced yet are lost on a crash, a frame torn by one is dropped when the log is opened.
+ * {@link #compact()} folds the log into a new snapshot, also done automatically once the log
+ * grows past {@link #setCompactionThreshold(long)}.
+ * <p>
+ * Log layout:
+ * <pre>
+ * header: magic (int), version (byte), flags (byte), nodes and arcs of the snapshot it follows (ints)
+ * frames: length (int), CRC32 of the payload (int), payload
+ * record: type (byte) and, for a node, its measure (zig-zag varint) and tag length + 1 followed
+ *         by the UTF-8 tag bytes (0 for the default tag), for an arc its source and target
+ *         indexes (varints) and its measure (zig-zag varint), for a tag change the node index
+ *         (varint) and the tag length + 1 followed by the UTF-8 tag bytes (0 for no tag),
+ *         for a removed node its index (varint), for a removed arc its source and target indexes
+ *         and its position among the arcs between both (varints), nothing for a renumbering
+ *         or a snapshot
+ * </pre>
+ * Nodes are referenced by insertion order. A compaction of the graph renumbers them, so it is
+ * logged too, see {@link GraphChangeListener#nodesRenumbered()}. The position of a removed arc
+ * is 1 plus its position among the arcs leaving its source towards its target or, when
+ * the graph kept only a later parallel arc there, 0 followed by its position among those arcs
+ * of the graph.
+ * <p>
+ * A snapshot record, in a frame of its own, is written right before the new snapshot replaces
+ * the old one. A log ending with it while no new snapshot is left aside is already in the snapshot.
+ * */
+public class GraphChangeLog implements GraphChangeListener, Closeable {
+
+	/**
+	 * "JFGL"
+	 * */
+	static final int MAGIC = 0x4A46474C;
+
+	static final int VERSION = 2;
+
+	static final int HEADER_SIZE = 14;
+
+	private static final int FRAME_HEADER_SIZE = 8;
+
+	private static final int NODE_RECORD = 1;
+
+	private static final int ARC_RECORD = 2;
+
+	private static final int TAG_RECORD = 3;
+
+	private static final int NODE_REMOVED_RECORD = 4;
+
+	private static final int ARC_REMOVED_RECORD = 5;
+
+	private static final int RENUMBERING_RECORD = 6;
+
+	private static final int SNAPSHOT_RECORD = 7;
+
+	private static final int RECORD_BUFFER_SIZE = 1024;
+
+	private final Path snapshot;
+
+	private final Path log;
+
+	private final Graph graph;
+
+	private final int recordsPerSync;
+
+	private FileChannel channel;
+
+	/**
+	 * Changes not written yet
+	 * */
+	private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+	private final ChannelEncoder encoder = new ChannelEncoder(Channels.newChannel(pending), RECORD_BUFFER_SIZE);
+
+	private int pendingRecords;
+
+	private int numRecords;
+
+	private long compactionThreshold = Long.MAX_VALUE;
+
+	private GraphChangeLog(Path snapshot, Path log, Graph graph, int recordsPerSync) {
+		this.snapshot = snapshot;
+		this.log = log;
+		this.graph = graph;
+		this.recordsPerSync = recordsPerSync;
+	}
+
+	/**
+	 * Restores a graph from its snapshot and log, creating them if they don't exist, and starts
+	 * logging its changes.
+	 * @param emptyGraph a graph without nodes, as returned by {@link org.nixus.core.structure.impl.GraphFactory},
+	 * where the graph is restored
+	 * @param recordsPerSync number of changes written and synced at once, 1 to sync every change
+	 * @throws GraphFormatException if the files aren't a snapshot and a log of the given kind of graph
+	 * */
+	public static GraphChangeLog open(Path snapshot, Path log, Graph emptyGraph, int recordsPerSync) throws IOException {
+		if(recordsPerSync < 1){
+			throw new IllegalArgumentException("At least one record per sync is needed: " + recordsPerSync);
+		}
+		Graph graph = emptyGraph;
+		if(Files.exists(snapshot)){
+			graph = BinaryGraphFormat.read(snapshot, emptyGraph);
+		}
+		GraphChangeLog changeLog = new GraphChangeLog(snapshot, log, graph, recordsPerSync);
+		changeLog.channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			changeLog.replay();
+		} catch (IOException e) {
+			changeLog.channel.close();
+			throw e;
+		}
+		((AbstractGraph) graph).addChangeListener(changeLog);
+		return changeLog;
+	}
+
+	/**
+	 * @return the restored graph, whose changes are logged
+	 * */
+	public Graph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return number of changes in the log, including the ones not synced yet
+	 * */
+	public synchronized int getNumRecords() {
+		return numRecords;
+	}
+
+	/**
+	 * @return size in bytes of the log file, not counting the changes not synced yet
+	 * */
+	public synchronized long getLogSize() throws IOException {
+		return channel.size();
+	}
+
+	/**
+	 * Sets the log size, in bytes, past which the log is compacted after a sync. Disabled by default.
+	 * */
+	public synchronized void setCompactionThreshold(long compactionThreshold) {
+		this.compactionThreshold = compactionThreshold;
+	}
+
+	@Override
+	public synchronized void nodeAdded(Node node) {
+		try {
+			encoder.writeByte(NODE_RECORD);
+			encoder.writeSignedVarInt(node.getContent().measure());
+			String tag = node.getTag();
+			writeTag(tag == null || tag.equals(AbstractGraph.defaultTag(indexOf(node))) ? null : tag);
+			recordAdded();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public synchronized void arcAdded(Arc arc) {
+		try {
+			encoder.writeByte(ARC_RECORD);
+			encoder.writeVarInt(indexOf(arc.getSourceNode()));
+			encoder.writeVarInt(indexOf(arc.getTargetNode()));
+			encoder.writeSignedVarInt(arc.getArcContent().measure());
+			recordAdded();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public synchronized void nodeTagChanged(Node node, String oldTag) {
+		try {
+			encoder.writeByte(TAG_RECORD);
+			encoder.writeVarInt(indexOf(node));
+			writeTag(node.getTag());
+			recordAdded();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes the length of the tag plus one and its bytes, 0 for null
+	 * */
+	private void writeTag(String tag) throws IOException {
+		if(tag == null){
+			encoder.writeVarInt(0);
+		} else {
+			byte[] bytes = tag.getBytes(ChannelEncoder.UTF_8);
+			encoder.writeVarInt(bytes.length + 1);
+			encoder.writeBytes(bytes);
+		}
+	}
+
+	@Override
+	public synchronized void nodeRemoved(Node node) {
+		try {
+			encoder.writeByte(NODE_REMOVED_RECORD);
+			encoder.writeVarInt(indexOf(node));
+			recordAdded();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public synchronized void arcRemoved(Arc arc) {
+		try {
+			Node source = arc.getSourceNode();
+			Node target = arc.getTargetNode();
+			encoder.writeByte(ARC_REMOVED_RECORD);
+			encoder.writeVarInt(indexOf(source));
+			encoder.writeVarInt(indexOf(target));
+			int position = positionOf(arc, source.getArcsOut());
+			if(position >= 0){
+				encoder.writeVarInt(position + 1);
+			} else {
+				//hidden by a later parallel arc
+				encoder.writeVarInt(0);
+				encoder.writeVarInt(positionOf(arc, graph.getArcs()));
+			}
+			recordAdded();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public synchronized void nodesRenumbered() {
+		try {
+			encoder.writeByte(RENUMBERING_RECORD);
+			recordAdded();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return the position of the arc among the given arcs with its same source and target,
+	 * -1 if it isn't there
+	 * */
+	private static int positionOf(Arc arc, Collection<Arc> arcs) {
+		int position = 0;
+		for (Arc other : arcs) {
+			if(other == arc){
+				return position;
+			}
+			if(other.getSourceNode() == arc.getSourceNode() && other.getTargetNode() == arc.getTargetNode()){
+				position++;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the arc at the given position among the given arcs from the source to the target
+	 * */
+	private static Arc arcAt(Node source, Node target, int position, Collection<Arc> arcs) throws GraphFormatException {
+		for (Arc arc : arcs) {
+			if(arc.getSourceNode() == source && arc.getTargetNode() == target && position-- == 0){
+				return arc;
+			}
+		}
+		throw new GraphFormatException("Removed arc [" + source.getTag() + ", " + target.getTag() + "] isn't in the graph");
+	}
+
+	/**
+	 * Writes the pending changes and forces them to disk
+	 * */
+	public synchronized void sync() throws IOException {
+		checkOpen();
+		if(pendingRecords == 0){
+			return;
+		}
+		encoder.flush();
+		writeFrame(pending.toByteArray());
+		pending.reset();
+		pendingRecords = 0;
+		if(channel.size() > compactionThreshold){
+			compact();
+		}
+	}
+
+	/**
+	 * Writes a frame with the given records and forces it to disk
+	 * */
+	private void writeFrame(byte[] payload) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + payload.length);
+		frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+		frame.flip();
+		writeFully(frame, channel.size());
+		channel.force(false);
+	}
+
+	/**
+	 * Replaces the snapshot with the current graph and empties the log. The graph is compacted
+	 * first, as the snapshot numbers the nodes by position, see {@link Graph#compact()}.
+	 * The new snapshot is written aside and moved over the old one, so a crash leaves either of them.
+	 * */
+	public synchronized void compact() throws IOException {
+		graph.compact();
+		sync();
+		Path temporary = temporarySnapshot();
+		FileChannel snapshotChannel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			BinaryGraphFormat.write(graph, snapshotChannel);
+			snapshotChannel.force(true);
+		} finally {
+			snapshotChannel.close();
+		}
+		//a crash from here until the log is reset leaves the snapshot record last
+		writeFrame(new byte[]{SNAPSHOT_RECORD});
+		Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		resetLog();
+	}
+
+	/**
+	 * Syncs the pending changes and stops logging the changes of the graph
+	 * */
+	@Override
+	public synchronized void close() throws IOException {
+		if(channel == null){
+			return;
+		}
+		try {
+			sync();
+		} finally {
+			((AbstractGraph) graph).removeChangeListener(this);
+			channel.close();
+			channel = null;
+		}
+	}
+
+	private void recordAdded() throws IOException {
+		numRecords++;
+		pendingRecords++;
+		if(pendingRecords >= recordsPerSync){
+			sync();
+		}
+	}
+
+	/**
+	 * Applies the log records unless the snapshot already has them, and drops a torn last frame
+	 * */
+	private void replay() throws IOException {
+		if(channel.size() < HEADER_SIZE){
+			//new log, or a crash while it was being reset
+			resetLog();
+			return;
+		}
+		ChannelDecoder decoder = new ChannelDecoder(channel.position(0), BinaryGraphFormat.BUFFER_SIZE);
+		if(decoder.readInt() != MAGIC){
+			throw new GraphFormatException("Not a graph change log");
+		}
+		int version = decoder.readByte();
+		//version 1 has no removals
+		if(version != 1 && version != VERSION){
+			throw new GraphFormatException("Unsupported graph change log version " + version);
+		}
+		boolean undirected = (decoder.readByte() & BinaryGraphFormat.FLAG_UNDIRECTED) != 0;
+		if(undirected == graph.isDirected()){
+			throw new IllegalArgumentException("The graph was logged as " + (undirected ? "undirected" : "directed"));
+		}
+		int numNodes = decoder.readInt();
+		int numArcs = decoder.readInt();
+
+		List<byte[]> frames = new ArrayList<byte[]>();
+		long validEnd = HEADER_SIZE;
+		CRC32 crc = new CRC32();
+		while(decoder.hasRemaining()){
+			byte[] payload;
+			try {
+				int length = decoder.readInt();
+				int checksum = decoder.readInt();
+				if(length <= 0 || length > channel.size() - validEnd - FRAME_HEADER_SIZE){
+					break;
+				}
+				payload = decoder.readBytes(length);
+				crc.reset();
+				crc.update(payload);
+				if((int) crc.getValue() != checksum){
+					break;
+				}
+			} catch (EOFException e) {
+				break;
+			}
+			frames.add(payload);
+			validEnd += FRAME_HEADER_SIZE + payload.length;
+		}
+
+		Path temporary = temporarySnapshot();
+		boolean snapshotMoved = !frames.isEmpty() && isSnapshotFrame(frames.get(frames.size() - 1))
+				&& !Files.exists(temporary);
+		Files.deleteIfExists(temporary);
+		if(snapshotMoved){
+			//a crash before the log was reset
+			resetLog();
+			return;
+		}
+		if(numNodes < 0 || numArcs < 0 || numNodes > graph.size() || numArcs > graph.getArcs().size()){
+			throw new GraphFormatException("The log doesn't follow the snapshot, it starts at " + numNodes
+					+ " nodes and " + numArcs + " arcs");
+		}
+		if(numNodes < graph.size() || numArcs < graph.getArcs().size()){
+			//the snapshot is newer than the whole log, which has no snapshot record before version 2
+			resetLog();
+			return;
+		}
+
+		List<Node> nodes = new ArrayList<Node>(graph.getNodes());
+		boolean nodesRemoved = false;
+		for (byte[] payload : frames) {
+			ChannelDecoder records = new ChannelDecoder(Channels.newChannel(new ByteArrayInputStream(payload)), RECORD_BUFFER_SIZE);
+			while(records.hasRemaining()){
+				int type = records.readByte();
+				if(type == NODE_RECORD){
+					ConstantMeasure content = ConstantMeasure.valueOf(records.readSignedVarInt());
+					String tag = readTag(records);
+					//the default tag of the logged graph, which the restored one may have compacted apart
+					nodes.add(graph.addNode(content, tag == null ? AbstractGraph.defaultTag(nodes.size()) : tag));
+				} else if(type == ARC_RECORD){
+					Node source = nodeAt(nodes, records.readVarInt());
+					Node target = nodeAt(nodes, records.readVarInt());
+					ConstantMeasure content = ConstantMeasure.valueOf(records.readSignedVarInt());
+					source.addArcTo(target, content);
+				} else if(type == TAG_RECORD){
+					Node node = nodeAt(nodes, records.readVarInt());
+					node.setTag(readTag(records));
+				} else if(type == NODE_REMOVED_RECORD){
+					int node = records.readVarInt();
+					graph.remove(nodeAt(nodes, node));
+					nodes.set(node, null);
+					nodesRemoved = true;
+				} else if(type == ARC_REMOVED_RECORD){
+					Node source = nodeAt(nodes, records.readVarInt());
+					Node target = nodeAt(nodes, records.readVarInt());
+					int position = records.readVarInt();
+					graph.removeArc(position > 0 ? arcAt(source, target, position - 1, source.getArcsOut())
+							: arcAt(source, target, records.readVarInt(), graph.getArcs()));
+				} else if(type == RENUMBERING_RECORD){
+					graph.compact();
+					nodes.removeAll(Collections.singleton(null));
+					nodesRemoved = false;
+				} else if(type == SNAPSHOT_RECORD){
+					//a compaction which didn't replace the snapshot
+					continue;
+				} else {
+					throw new GraphFormatException("Unknown record type " + type);
+				}
+				numRecords++;
+			}
+		}
+
+		if(validEnd < channel.size()){
+			channel.truncate(validEnd);
+			channel.force(false);
+		}
+		if(nodesRemoved){
+			//the graph may have compacted at other times than the logged one
+			graph.compact();
+			nodesRenumbered();
+		}
+	}
+
+	private static boolean isSnapshotFrame(byte[] payload) {
+		return payload.length == 1 && payload[0] == SNAPSHOT_RECORD;
+	}
+
+	private static Node nodeAt(List<Node> nodes, int index) throws GraphFormatException {
+		Node node = index < nodes.size() ? nodes.get(index) : null;
+		if(node == null){
+			throw new GraphFormatException("Node " + index + " isn't in the graph, which had " + nodes.size() + " nodes");
+		}
+		return node;
+	}
+
+	private static String readTag(ChannelDecoder records) throws IOException {
+		int tagLength = records.readVarInt();
+		return tagLength == 0 ? null : new String(records.readBytes(tagLength - 1), ChannelEncoder.UTF_8);
+	}
+
+	/**
+	 * Empties the log, which then follows the current graph
+	 * */
+	private void resetLog() throws IOException {
+		channel.truncate(0);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).put((byte) VERSION).put((byte) (graph.isDirected() ? 0 : BinaryGraphFormat.FLAG_UNDIRECTED));
+		header.putInt(graph.size()).putInt(graph.getArcs().size());
+		header.flip();
+		writeFully(header, 0);
+		channel.force(true);
+		numRecords = 0;
+	}
+
+	private void writeFully(ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining()){
+			position += channel.write(buffer, position);
+		}
+	}
+
+	private Path temporarySnapshot() {
+		return snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+	}
+
+	private void checkOpen() {
+		if(channel == null){
+			throw new IllegalStateException("The change log is closed");
+		}
+	}
+
+	private static int indexOf(Node node) {
+		return ((HiddenNodeAbstraction) node).getInsertionOrder();
+	}
+}
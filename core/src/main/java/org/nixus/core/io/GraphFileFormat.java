@@ -0,0 +1,28 @@
+package org.nixus.core.io;
+
+/**
+ * Text graph formats read by {@link GraphImporter}
+ * */
+public enum GraphFileFormat {
+
+	/**
+	 * 9th DIMACS implementation challenge shortest path format (.gr). A "p sp nodes arcs"
+	 * problem line followed by "a source target weight" arc lines, with nodes numbered
+	 * from 1. Lines starting with "c" are comments.
+	 * */
+	DIMACS,
+
+	/**
+	 * One arc per line as "source target [weight]", where nodes are any integer id and
+	 * the weight defaults to 1. Lines starting with "#" or "%" are comments.
+	 * */
+	EDGE_LIST,
+
+	/**
+	 * METIS/Chaco graph format. A "nodes edges [fmt [ncon]]" header followed by a line
+	 * per node listing its neighbors, numbered from 1, with their edge weights if fmt ends
+	 * in 1. Node weights, when present, become the node contents. Every edge is listed by
+	 * both of its nodes. Lines starting with "%" are comments.
+	 * */
+	METIS
+}
@@ -0,0 +1,494 @@
+package org.nixus.core.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.ConstantMeasure;
+import org.nixus.core.structure.auxiliary.LongIntHashMap;
+import org.nixus.core.structure.exceptions.GraphFormatException;
+import org.nixus.core.structure.impl.ConcurrentGraphBuilder;
+import org.nixus.core.structure.impl.ConcurrentGraphBuilder.ArcBuffer;
+
+/**
+ * Reads graphs from the text formats of {@link GraphFileFormat}, parsing the file in parallel.
+ * <p>
+ * The file is split in chunks of about the same size, each chunk owning the lines that start
+ * within it, and every chunk is parsed by a pool of threads through positional reads. The
+ * parsed arcs are then translated to node indexes in parallel and handed to a
+ * {@link ConcurrentGraphBuilder}, which links them using the same threads.
+ * <p>
+ * Nodes numbered from 1 on DIMACS and METIS files get index id - 1 and the graph default
+ * tags. Edge list ids are mapped to indexes by order of appearance through a primitive
+ * hash map, and the nodes are tagged with their id. Arc contents are
+ * {@link ConstantMeasure}s of the weights.
+ * */
+public class GraphImporter {
+
+	/**
+	 * Smallest chunk worth a task of its own
+	 * */
+	static final int MIN_CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * Chunks per thread, so threads with slow chunks don't stall the rest
+	 * */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private GraphImporter() {
+	}
+
+	/**
+	 * Reads a graph using as many threads as processors are available, see
+	 * {@link #read(Path, GraphFileFormat, Graph, int, int)}.
+	 * */
+	public static Graph read(Path file, GraphFileFormat format, Graph emptyGraph) throws IOException {
+		return read(file, format, emptyGraph, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Reads a graph, see {@link #read(Path, GraphFileFormat, Graph, int, int)}.
+	 * */
+	public static Graph read(Path file, GraphFileFormat format, Graph emptyGraph, int numThreads) throws IOException {
+		return read(file, format, emptyGraph, numThreads, 0);
+	}
+
+	/**
+	 * Reads a graph from a text file.
+	 * @param emptyGraph a graph without nodes, as returned by {@link org.nixus.core.structure.impl.GraphFactory}.
+	 * METIS edges are added once on undirected graphs and once per direction on directed ones.
+	 * @param numThreads number of threads parsing the file and building the graph
+	 * @param chunkSize size in bytes of the chunks parsed by each task, 0 to split the file
+	 * in a few chunks per thread
+	 * @return the given graph
+	 * @throws GraphFormatException if the file doesn't follow the format
+	 * @throws IllegalArgumentException if the graph isn't empty
+	 * */
+	public static Graph read(Path file, GraphFileFormat format, Graph emptyGraph, int numThreads, int chunkSize)
+			throws IOException {
+		if(!emptyGraph.isEmpty()){
+			throw new IllegalArgumentException("Graphs can only be read from scratch");
+		}
+		numThreads = Math.max(1, numThreads);
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			MetisHeader header = null;
+			long start = 0;
+			if(format == GraphFileFormat.METIS){
+				header = readMetisHeader(channel);
+				start = header.end;
+			}
+
+			List<ParsedChunk> chunks = parseChunks(executor, channel, format, header, start, numThreads, chunkSize);
+
+			ConcurrentGraphBuilder builder;
+			switch (format) {
+				case DIMACS:
+					builder = prepareDimacs(chunks);
+					break;
+				case EDGE_LIST:
+					builder = prepareEdgeList(chunks);
+					break;
+				default:
+					builder = prepareMetis(chunks, header);
+					break;
+			}
+			translateArcs(executor, builder, chunks, format == GraphFileFormat.METIS && !emptyGraph.isDirected());
+			return builder.build(emptyGraph, numThreads);
+		} catch (IndexOutOfBoundsException e) {
+			throw new GraphFormatException(e.getMessage());
+		} finally {
+			executor.shutdown();
+			channel.close();
+		}
+	}
+
+	private static List<ParsedChunk> parseChunks(ExecutorService executor, final FileChannel channel,
+			final GraphFileFormat format, final MetisHeader header, long start, int numThreads, int chunkSize)
+			throws IOException {
+		long size = channel.size() - start;
+		long numChunks;
+		if(chunkSize > 0){
+			numChunks = (size + chunkSize - 1) / chunkSize;
+		} else {
+			numChunks = Math.min((long) numThreads * CHUNKS_PER_THREAD, size / MIN_CHUNK_SIZE);
+		}
+		numChunks = Math.max(1, numChunks);
+		if(numChunks > Integer.MAX_VALUE){
+			throw new IllegalArgumentException("Chunks too small for a file of " + size + " bytes");
+		}
+
+		List<Callable<ParsedChunk>> tasks = new ArrayList<Callable<ParsedChunk>>();
+		for (long c = 0; c < numChunks; c++) {
+			final long from = start + size * c / numChunks;
+			final long to = start + size * (c + 1) / numChunks;
+			tasks.add(new Callable<ParsedChunk>() {
+				@Override
+				public ParsedChunk call() throws IOException {
+					TextChunkReader reader = new TextChunkReader(channel, from, to, BUFFER_SIZE);
+					ParsedChunk chunk = new ParsedChunk();
+					switch (format) {
+						case DIMACS:
+							parseDimacs(reader, chunk);
+							break;
+						case EDGE_LIST:
+							parseEdgeList(reader, chunk);
+							break;
+						default:
+							parseMetis(reader, chunk, header);
+							break;
+					}
+					return chunk;
+				}
+			});
+		}
+		return runAll(executor, tasks);
+	}
+
+	private static void parseDimacs(TextChunkReader reader, ParsedChunk chunk) throws IOException {
+		while(reader.nextLine()){
+			int first = reader.firstChar();
+			if(first == -1 || first == 'c'){
+				continue;
+			}
+			if(first == 'a'){
+				reader.skipToken();
+				int source = numberedNode(reader.nextLong());
+				int target = numberedNode(reader.nextLong());
+				chunk.addArc(source, target, reader.nextInt());
+			} else if(first == 'p'){
+				reader.skipToken();
+				String problem = reader.nextToken();
+				if(!"sp".equals(problem)){
+					throw new GraphFormatException("Not a shortest path problem: " + problem);
+				}
+				chunk.declaredNodes = reader.nextLong();
+				chunk.declaredArcs = reader.nextLong();
+			} else {
+				throw new GraphFormatException("Unexpected DIMACS line at byte " + reader.position());
+			}
+		}
+	}
+
+	private static void parseEdgeList(TextChunkReader reader, ParsedChunk chunk) throws IOException {
+		chunk.ids = new LongIntHashMap();
+		chunk.idsInOrder = new long[16];
+		while(reader.nextLine()){
+			int first = reader.firstChar();
+			if(first == -1 || first == '#' || first == '%'){
+				continue;
+			}
+			int source = chunk.localNode(reader.nextLong());
+			int target = chunk.localNode(reader.nextLong());
+			chunk.addArc(source, target, reader.hasMoreTokens() ? reader.nextInt() : 1);
+		}
+	}
+
+	private static void parseMetis(TextChunkReader reader, ParsedChunk chunk, MetisHeader header) throws IOException {
+		chunk.nodeWeights = new int[16];
+		while(reader.nextLine()){
+			if(reader.firstChar() == '%'){
+				continue;
+			}
+			//every other line is a node, even if blank
+			int node = chunk.numNodes++;
+			if(node == chunk.nodeWeights.length){
+				chunk.nodeWeights = Arrays.copyOf(chunk.nodeWeights, node * 2);
+			}
+			if(header.nodeSizes){
+				reader.skipToken();
+			}
+			if(header.nodeWeights){
+				chunk.nodeWeights[node] = reader.nextInt();
+				for (int i = 1; i < header.numConstraints; i++) {
+					reader.skipToken();
+				}
+			}
+			while(reader.hasMoreTokens()){
+				int neighbor = numberedNode(reader.nextLong());
+				chunk.addArc(node, neighbor, header.edgeWeights ? reader.nextInt() : 1);
+			}
+		}
+	}
+
+	/**
+	 * Reads the first line that isn't a comment
+	 * */
+	private static MetisHeader readMetisHeader(FileChannel channel) throws IOException {
+		TextChunkReader reader = new TextChunkReader(channel, 0, channel.size(), BUFFER_SIZE);
+		while(reader.nextLine()){
+			int first = reader.firstChar();
+			if(first == '%' || first == -1){
+				continue;
+			}
+			MetisHeader header = new MetisHeader();
+			header.numNodes = reader.nextLong();
+			header.numEdges = reader.nextLong();
+			if(reader.hasMoreTokens()){
+				String fmt = reader.nextToken();
+				if(fmt.length() > 3 || !fmt.matches("[01]+")){
+					throw new GraphFormatException("Unknown METIS fmt " + fmt);
+				}
+				fmt = "000".substring(fmt.length()) + fmt;
+				header.nodeSizes = fmt.charAt(0) == '1';
+				header.nodeWeights = fmt.charAt(1) == '1';
+				header.edgeWeights = fmt.charAt(2) == '1';
+			}
+			if(reader.hasMoreTokens()){
+				header.numConstraints = reader.nextInt();
+			}
+			if(header.numNodes < 0 || header.numNodes > Integer.MAX_VALUE || header.numEdges < 0 || header.numConstraints < 1){
+				throw new GraphFormatException("Malformed METIS header");
+			}
+			//the lines start right after the header
+			reader.nextLine();
+			header.end = reader.position();
+			return header;
+		}
+		throw new GraphFormatException("Missing METIS header");
+	}
+
+	private static ConcurrentGraphBuilder prepareDimacs(List<ParsedChunk> chunks) throws GraphFormatException {
+		long numNodes = -1;
+		long numArcs = -1;
+		long foundArcs = 0;
+		for (ParsedChunk chunk : chunks) {
+			if(chunk.declaredNodes >= 0){
+				if(numNodes >= 0){
+					throw new GraphFormatException("More than one DIMACS problem line");
+				}
+				numNodes = chunk.declaredNodes;
+				numArcs = chunk.declaredArcs;
+			}
+			foundArcs += chunk.numArcs;
+		}
+		if(numNodes < 0 || numNodes > Integer.MAX_VALUE){
+			throw new GraphFormatException("Missing or malformed DIMACS problem line");
+		}
+		if(foundArcs != numArcs){
+			throw new GraphFormatException("Expected " + numArcs + " arcs but found " + foundArcs);
+		}
+		ConcurrentGraphBuilder builder = new ConcurrentGraphBuilder((int) numNodes);
+		for (int i = 0; i < numNodes; i++) {
+			builder.addNode(ConstantMeasure.valueOf(0));
+		}
+		return builder;
+	}
+
+	/**
+	 * Numbers the ids of every chunk in order of appearance
+	 * */
+	private static ConcurrentGraphBuilder prepareEdgeList(List<ParsedChunk> chunks) {
+		int expectedNodes = 0;
+		for (ParsedChunk chunk : chunks) {
+			expectedNodes = (int) Math.min((long) expectedNodes + chunk.ids.size(), Integer.MAX_VALUE);
+		}
+		LongIntHashMap nodes = new LongIntHashMap(expectedNodes);
+		ConcurrentGraphBuilder builder = new ConcurrentGraphBuilder(expectedNodes);
+		for (ParsedChunk chunk : chunks) {
+			int numIds = chunk.ids.size();
+			chunk.localToGlobal = new int[numIds];
+			for (int i = 0; i < numIds; i++) {
+				long id = chunk.idsInOrder[i];
+				int node = nodes.putIfAbsent(id, nodes.size());
+				if(node < 0){
+					node = builder.addNode(ConstantMeasure.valueOf(0), String.valueOf(id));
+				}
+				chunk.localToGlobal[i] = node;
+			}
+			chunk.ids = null;
+			chunk.idsInOrder = null;
+		}
+		return builder;
+	}
+
+	/**
+	 * Numbers the node lines of the chunks
+	 * */
+	private static ConcurrentGraphBuilder prepareMetis(List<ParsedChunk> chunks, MetisHeader header) throws GraphFormatException {
+		long numNodes = 0;
+		long numEntries = 0;
+		for (ParsedChunk chunk : chunks) {
+			numNodes += chunk.numNodes;
+			numEntries += chunk.numArcs;
+		}
+		if(numNodes != header.numNodes){
+			throw new GraphFormatException("Expected " + header.numNodes + " nodes but found " + numNodes);
+		}
+		if(numEntries != 2 * header.numEdges){
+			throw new GraphFormatException("Expected " + header.numEdges + " edges listed twice but found "
+					+ numEntries + " neighbors");
+		}
+		ConcurrentGraphBuilder builder = new ConcurrentGraphBuilder((int) numNodes);
+		for (ParsedChunk chunk : chunks) {
+			chunk.firstNode = builder.getNumNodes();
+			for (int i = 0; i < chunk.numNodes; i++) {
+				builder.addNode(ConstantMeasure.valueOf(chunk.nodeWeights[i]));
+			}
+		}
+		return builder;
+	}
+
+	/**
+	 * Hands the arcs of every chunk to the builder, one task per chunk
+	 * @param singleEdges keep one of the two arcs METIS lists for every edge
+	 * */
+	private static void translateArcs(ExecutorService executor, final ConcurrentGraphBuilder builder,
+			List<ParsedChunk> chunks, final boolean singleEdges) throws IOException {
+		List<Callable<ParsedChunk>> tasks = new ArrayList<Callable<ParsedChunk>>();
+		for (final ParsedChunk chunk : chunks) {
+			final ArcBuffer buffer = builder.newArcBuffer();
+			tasks.add(new Callable<ParsedChunk>() {
+				@Override
+				public ParsedChunk call() {
+					int[] localToGlobal = chunk.localToGlobal;
+					for (int i = 0; i < chunk.numArcs; i++) {
+						int source = chunk.sources[i];
+						int target = chunk.targets[i];
+						if(localToGlobal != null){
+							source = localToGlobal[source];
+							target = localToGlobal[target];
+						} else {
+							source += chunk.firstNode;
+						}
+						if(singleEdges && source > target){
+							continue;
+						}
+						buffer.addArcTo(source, target, ConstantMeasure.valueOf(chunk.weights[i]));
+					}
+					return chunk;
+				}
+			});
+		}
+		runAll(executor, tasks);
+	}
+
+	/**
+	 * @return the index of a node numbered from 1
+	 * */
+	private static int numberedNode(long id) throws GraphFormatException {
+		if(id < 1 || id > Integer.MAX_VALUE){
+			throw new GraphFormatException("Node " + id + " out of range");
+		}
+		return (int) (id - 1);
+	}
+
+	private static <T> List<T> runAll(ExecutorService executor, List<Callable<T>> tasks) throws IOException {
+		List<T> results = new ArrayList<T>(tasks.size());
+		try {
+			for (Future<T> future : executor.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading the graph", e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof IOException){
+				throw (IOException) e.getCause();
+			}
+			if(e.getCause() instanceof RuntimeException){
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		return results;
+	}
+
+	/**
+	 * Arcs of a chunk. DIMACS and METIS arcs hold node indexes, METIS sources relative to
+	 * the first node of the chunk. Edge list arcs hold indexes of the ids of the chunk.
+	 * */
+	private static final class ParsedChunk {
+
+		private int[] sources = new int[16];
+
+		private int[] targets = new int[16];
+
+		private int[] weights = new int[16];
+
+		private int numArcs;
+
+		/**
+		 * DIMACS problem line, if this chunk has it
+		 * */
+		private long declaredNodes = -1;
+
+		private long declaredArcs = -1;
+
+		/**
+		 * Edge list ids, by order of appearance
+		 * */
+		private LongIntHashMap ids;
+
+		private long[] idsInOrder;
+
+		private int[] localToGlobal;
+
+		/**
+		 * METIS node lines
+		 * */
+		private int numNodes;
+
+		private int[] nodeWeights;
+
+		private int firstNode;
+
+		private void addArc(int source, int target, int weight) {
+			if(numArcs == sources.length){
+				sources = Arrays.copyOf(sources, numArcs * 2);
+				targets = Arrays.copyOf(targets, numArcs * 2);
+				weights = Arrays.copyOf(weights, numArcs * 2);
+			}
+			sources[numArcs] = source;
+			targets[numArcs] = target;
+			weights[numArcs] = weight;
+			numArcs++;
+		}
+
+		private int localNode(long id) {
+			int numIds = ids.size();
+			int local = ids.putIfAbsent(id, numIds);
+			if(local >= 0){
+				return local;
+			}
+			if(numIds == idsInOrder.length){
+				idsInOrder = Arrays.copyOf(idsInOrder, numIds * 2);
+			}
+			idsInOrder[numIds] = id;
+			return numIds;
+		}
+	}
+
+	private static final class MetisHeader {
+
+		private long numNodes;
+
+		private long numEdges;
+
+		private boolean nodeSizes;
+
+		private boolean nodeWeights;
+
+		private boolean edgeWeights;
+
+		private int numConstraints = 1;
+
+		/**
+		 * Start of the node lines
+		 * */
+		private long end;
+	}
+}
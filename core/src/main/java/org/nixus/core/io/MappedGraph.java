@@ -0,0 +1,141 @@
+package org.nixus.core.io;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.impl.IndexedGraph;
+
+/**
+ * Read only graph queried straight from the buffers of a file mapped by
+ * {@link MappedGraphFormat#open(java.nio.file.Path)}. Nothing is copied into the heap
+ * but the node handles, which are created as the nodes are accessed.
+ * <p>
+ * Indexes are not validated when the file is opened, a corrupted file shows up as
+ * {@link IndexOutOfBoundsException}s when the broken parts are queried.
+ * */
+public class MappedGraph extends IndexedGraph {
+
+	private static final long serialVersionUID = 5470123934710405473L;
+
+	private final boolean directed;
+
+	private final int numArcs;
+
+	private final transient IntBuffer nodeMeasures;
+
+	private final transient IntBuffer outOffsets;
+
+	/**
+	 * Arc ids of the adjacency of each node, null on directed graphs where the
+	 * position of an arc in the adjacency is its id
+	 * */
+	private final transient IntBuffer outArcs;
+
+	/**
+	 * Reverse adjacency, null on undirected graphs
+	 * */
+	private final transient IntBuffer inOffsets;
+
+	private final transient IntBuffer inArcs;
+
+	private final transient IntBuffer arcSources;
+
+	private final transient IntBuffer arcTargets;
+
+	private final transient IntBuffer arcMeasures;
+
+	private final transient IntBuffer tagOffsets;
+
+	private final transient ByteBuffer tagBytes;
+
+	MappedGraph(boolean directed, int numNodes, int numArcs, IntBuffer nodeMeasures,
+			IntBuffer outOffsets, IntBuffer outArcs, IntBuffer inOffsets, IntBuffer inArcs,
+			IntBuffer arcSources, IntBuffer arcTargets, IntBuffer arcMeasures,
+			IntBuffer tagOffsets, ByteBuffer tagBytes) {
+		this.directed = directed;
+		this.nodeCount = numNodes;
+		this.numArcs = numArcs;
+		this.nodeMeasures = nodeMeasures;
+		this.outOffsets = outOffsets;
+		this.outArcs = outArcs;
+		this.inOffsets = inOffsets;
+		this.inArcs = inArcs;
+		this.arcSources = arcSources;
+		this.arcTargets = arcTargets;
+		this.arcMeasures = arcMeasures;
+		this.tagOffsets = tagOffsets;
+		this.tagBytes = tagBytes;
+	}
+
+	@Override
+	public boolean isDirected() {
+		return directed;
+	}
+
+	@Override
+	public int getNumArcs() {
+		return numArcs;
+	}
+
+	@Override
+	public int getOutDegree(int node) {
+		return outOffsets.get(node + 1) - outOffsets.get(node);
+	}
+
+	@Override
+	public int getArcOut(int node, int k) {
+		int position = outOffsets.get(node) + k;
+		return directed ? position : outArcs.get(position);
+	}
+
+	@Override
+	public int getInDegree(int node) {
+		if(!directed){
+			return getOutDegree(node);
+		}
+		return inOffsets.get(node + 1) - inOffsets.get(node);
+	}
+
+	@Override
+	public int getArcIn(int node, int k) {
+		if(!directed){
+			return getArcOut(node, k);
+		}
+		return inArcs.get(inOffsets.get(node) + k);
+	}
+
+	@Override
+	public int getArcSource(int arc) {
+		return arcSources.get(arc);
+	}
+
+	@Override
+	public int getArcTarget(int arc) {
+		return arcTargets.get(arc);
+	}
+
+	@Override
+	public int getArcMeasure(int arc) {
+		return arcMeasures.get(arc);
+	}
+
+	@Override
+	public int getNodeMeasure(int node) {
+		return nodeMeasures.get(node);
+	}
+
+	@Override
+	public String getNodeTag(int node) {
+		int start = tagOffsets.get(node);
+		int end = tagOffsets.get(node + 1);
+		if(start == end){
+			return AbstractGraph.defaultTag(node);
+		}
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = tagBytes.get(start + i);
+		}
+		return new String(bytes, ChannelEncoder.UTF_8);
+	}
+}
@@ -0,0 +1,286 @@
+package org.nixus.core.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.exceptions.GraphFormatException;
+import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Fixed width graph format meant to be memory mapped, so graphs are queried from the
+ * file without being deserialized. Opening a file only maps it, the pages are loaded
+ * by the operating system as the graph is queried and are shared by every process
+ * mapping the same file. Larger than {@link BinaryGraphFormat} files, which are
+ * meant for streaming and storage.
+ * <p>
+ * Layout, all values being little endian 4 byte integers but the tags:
+ * <pre>
+ * header:     magic, version, flags, number of nodes, number of arcs, number of
+ *             adjacency entries, size of the tags in bytes, reserved
+ * nodes:      content measure of each node
+ * adjacency:  number of nodes + 1 offsets into the adjacency entries, followed by the
+ *             entries (arc ids) on undirected graphs only. Directed arcs are numbered
+ *             by source node, so the entries would be their own position.
+ * reverse:    on directed graphs only, number of nodes + 1 offsets into the arc ids
+ *             reaching each node, followed by the number of arcs ids
+ * arcs:       sources, targets and content measures of the arcs, by arc id
+ * tags:       number of nodes + 1 offsets into the UTF-8 tag bytes, followed by the
+ *             bytes. Empty tags stand for the graph default tag.
+ * </pre>
+ * Every section must be smaller than 2GB, which is the most a single buffer can map.
+ * */
+public class MappedGraphFormat {
+
+	/**
+	 * "JFGM"
+	 * */
+	static final int MAGIC = 0x4A46474D;
+
+	static final int VERSION = 1;
+
+	static final int FLAG_UNDIRECTED = 1;
+
+	static final int HEADER_SIZE = 32;
+
+	private MappedGraphFormat() {
+	}
+
+	/**
+	 * Writes the graph into a file, replacing it if it exists.
+	 * */
+	public static void write(Graph graph, Path file) throws IOException {
+		List<Node> nodes = graph.getNodes();
+		int numNodes = nodes.size();
+		int[] positions = AbstractGraph.getNodePositions(graph);
+		boolean directed = graph.isDirected();
+		int numArcs = graph.getArcs().size();
+
+		//number the arcs by source node
+		int[] arcSources = new int[numArcs];
+		int[] arcTargets = new int[numArcs];
+		int[] arcMeasures = new int[numArcs];
+		int[] outOffsets = new int[numNodes + 1];
+		int arcId = 0;
+		for (Node node : nodes) {
+			int source = positions[indexOf(node)];
+			for (Arc arc : node.getArcsOut()) {
+				//undirected arcs show up on both of its nodes
+				if(arc.getSourceNode() == node){
+					if(arcId == numArcs){
+						throw new IllegalStateException("The graph has more arcs than " + numArcs);
+					}
+					arcSources[arcId] = source;
+					arcTargets[arcId] = positions[indexOf(arc.getTargetNode())];
+					arcMeasures[arcId] = arc.getArcContent().measure();
+					arcId++;
+				}
+			}
+			outOffsets[source + 1] = arcId;
+		}
+		if(arcId != numArcs){
+			throw new IllegalStateException("The graph has " + numArcs + " arcs but its nodes " + arcId);
+		}
+
+		int[] inOffsets = null;
+		int[] inArcs = null;
+		int[] outArcs = new int[0];
+		if(directed){
+			inOffsets = new int[numNodes + 1];
+			inArcs = bucketArcs(arcTargets, null, numNodes, inOffsets);
+		} else {
+			outArcs = bucketArcs(arcSources, arcTargets, numNodes, outOffsets);
+		}
+
+		int[] tagOffsets = new int[numNodes + 1];
+		byte[][] tags = new byte[numNodes][];
+		long tagSize = 0;
+		for (Node node : nodes) {
+			int index = positions[indexOf(node)];
+			String tag = node.getTag();
+			if(tag == null || tag.equals(AbstractGraph.defaultTag(index))){
+				tags[index] = new byte[0];
+			} else {
+				tags[index] = tag.getBytes(ChannelEncoder.UTF_8);
+			}
+			tagSize += tags[index].length;
+			if(tagSize > Integer.MAX_VALUE){
+				throw new IllegalArgumentException("Tags too large to be mapped");
+			}
+			tagOffsets[index + 1] = (int) tagSize;
+		}
+
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			ChannelEncoder encoder = new ChannelEncoder(channel, BinaryGraphFormat.BUFFER_SIZE, ByteOrder.LITTLE_ENDIAN);
+			encoder.writeInt(MAGIC);
+			encoder.writeInt(VERSION);
+			encoder.writeInt(directed ? 0 : FLAG_UNDIRECTED);
+			encoder.writeInt(numNodes);
+			encoder.writeInt(numArcs);
+			encoder.writeInt(outArcs.length);
+			encoder.writeInt((int) tagSize);
+			encoder.writeInt(0);
+
+			writeInts(encoder, nodeMeasures(nodes));
+			writeInts(encoder, outOffsets);
+			if(directed){
+				writeInts(encoder, inOffsets);
+				writeInts(encoder, inArcs);
+			} else {
+				writeInts(encoder, outArcs);
+			}
+			writeInts(encoder, arcSources);
+			writeInts(encoder, arcTargets);
+			writeInts(encoder, arcMeasures);
+			writeInts(encoder, tagOffsets);
+			for (byte[] tag : tags) {
+				encoder.writeBytes(tag);
+			}
+			encoder.flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Maps a file written by {@link #write(Graph, Path)}. The file is not read, only
+	 * its header is validated.
+	 * @throws GraphFormatException if the file isn't a graph in this format
+	 * */
+	public static MappedGraph open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long fileSize = channel.size();
+			if(fileSize < HEADER_SIZE){
+				throw new GraphFormatException("Not a mapped graph");
+			}
+			IntBuffer header = map(channel, 0, HEADER_SIZE).asIntBuffer();
+			if(header.get(0) != MAGIC){
+				throw new GraphFormatException("Not a mapped graph");
+			}
+			if(header.get(1) != VERSION){
+				throw new GraphFormatException("Unsupported mapped graph version " + header.get(1));
+			}
+			boolean directed = (header.get(2) & FLAG_UNDIRECTED) == 0;
+			int numNodes = header.get(3);
+			int numArcs = header.get(4);
+			int numAdjacency = header.get(5);
+			int tagSize = header.get(6);
+			if(numNodes < 0 || numArcs < 0 || numAdjacency < 0 || tagSize < 0){
+				throw new GraphFormatException("Malformed header");
+			}
+
+			long expectedSize = HEADER_SIZE + 4L * (numNodes + (numNodes + 1) * 2L + numAdjacency + numArcs * 3L) + tagSize;
+			if(directed){
+				expectedSize += 4L * (numNodes + 1 + numArcs);
+			}
+			if(fileSize != expectedSize){
+				throw new GraphFormatException("Expected " + expectedSize + " bytes but the file has " + fileSize);
+			}
+
+			long position = HEADER_SIZE;
+			IntBuffer nodeMeasures = mapInts(channel, position, numNodes);
+			position += 4L * numNodes;
+			IntBuffer outOffsets = mapInts(channel, position, numNodes + 1);
+			position += 4L * (numNodes + 1);
+			IntBuffer outArcs = null;
+			IntBuffer inOffsets = null;
+			IntBuffer inArcs = null;
+			if(directed){
+				inOffsets = mapInts(channel, position, numNodes + 1);
+				position += 4L * (numNodes + 1);
+				inArcs = mapInts(channel, position, numArcs);
+				position += 4L * numArcs;
+			} else {
+				outArcs = mapInts(channel, position, numAdjacency);
+				position += 4L * numAdjacency;
+			}
+			IntBuffer arcSources = mapInts(channel, position, numArcs);
+			position += 4L * numArcs;
+			IntBuffer arcTargets = mapInts(channel, position, numArcs);
+			position += 4L * numArcs;
+			IntBuffer arcMeasures = mapInts(channel, position, numArcs);
+			position += 4L * numArcs;
+			IntBuffer tagOffsets = mapInts(channel, position, numNodes + 1);
+			position += 4L * (numNodes + 1);
+			ByteBuffer tagBytes = map(channel, position, tagSize);
+
+			//mappings stay valid once the channel is closed
+			return new MappedGraph(directed, numNodes, numArcs, nodeMeasures, outOffsets, outArcs,
+					inOffsets, inArcs, arcSources, arcTargets, arcMeasures, tagOffsets, tagBytes);
+		} finally {
+			channel.close();
+		}
+	}
+
+	private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+		if(size > Integer.MAX_VALUE){
+			throw new GraphFormatException("Section of " + size + " bytes too large to be mapped");
+		}
+		return channel.map(MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static IntBuffer mapInts(FileChannel channel, long position, long numInts) throws IOException {
+		return map(channel, position, 4L * numInts).asIntBuffer();
+	}
+
+	/**
+	 * Counting sort of the arc ids by node. When targets are given, arcs are
+	 * bucketed under both of its nodes.
+	 * @param offsets filled with the start of the bucket of each node
+	 * @return the bucketed arc ids
+	 * */
+	private static int[] bucketArcs(int[] nodesOfArcs, int[] otherNodesOfArcs, int numNodes, int[] offsets) {
+		int numArcs = nodesOfArcs.length;
+		int[] counts = new int[numNodes + 1];
+		for (int arc = 0; arc < numArcs; arc++) {
+			counts[nodesOfArcs[arc] + 1]++;
+			if(otherNodesOfArcs != null && otherNodesOfArcs[arc] != nodesOfArcs[arc]){
+				counts[otherNodesOfArcs[arc] + 1]++;
+			}
+		}
+		for (int node = 0; node < numNodes; node++) {
+			counts[node + 1] += counts[node];
+		}
+		System.arraycopy(counts, 0, offsets, 0, numNodes + 1);
+		int[] bucketed = new int[counts[numNodes]];
+		for (int arc = 0; arc < numArcs; arc++) {
+			bucketed[counts[nodesOfArcs[arc]]++] = arc;
+			if(otherNodesOfArcs != null && otherNodesOfArcs[arc] != nodesOfArcs[arc]){
+				bucketed[counts[otherNodesOfArcs[arc]]++] = arc;
+			}
+		}
+		return bucketed;
+	}
+
+	private static int[] nodeMeasures(List<Node> nodes) {
+		int[] measures = new int[nodes.size()];
+		int position = 0;
+		for (Node node : nodes) {
+			measures[position++] = node.getContent().measure();
+		}
+		return measures;
+	}
+
+	private static void writeInts(ChannelEncoder encoder, int[] values) throws IOException {
+		for (int value : values) {
+			encoder.writeInt(value);
+		}
+	}
+
+	private static int indexOf(Node node) {
+		return ((HiddenNodeAbstraction) node).getInsertionOrder();
+	}
+}
@@ -0,0 +1,219 @@
+package org.nixus.core.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.nixus.core.structure.exceptions.GraphFormatException;
+
+/**
+ * Reads the lines of a text file that start within a region, tokenizing them as
+ * whitespace separated values. A line belongs to the region where it starts, so
+ * several readers over consecutive regions read every line once, whatever the
+ * line lengths. Uses positional reads, so many readers can share a channel.
+ * */
+class TextChunkReader {
+
+	private final FileChannel channel;
+
+	private final ByteBuffer buffer;
+
+	/**
+	 * End of the region, exclusive
+	 * */
+	private final long end;
+
+	/**
+	 * File position of the first byte of the buffer
+	 * */
+	private long bufferStart;
+
+	private boolean endOfFile;
+
+	/**
+	 * True once a line was started and its line feed wasn't consumed yet
+	 * */
+	private boolean inLine;
+
+	/**
+	 * @param start start of the region. If it falls in the middle of a line, the
+	 * reading starts on the next one.
+	 * @param end end of the region, exclusive. The last line read may go beyond it.
+	 * */
+	TextChunkReader(FileChannel channel, long start, long end, int bufferSize) throws IOException {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(bufferSize);
+		this.buffer.flip();
+		this.end = end;
+		if(start > 0){
+			//the previous byte tells whether a line starts right at the start
+			this.bufferStart = start - 1;
+			if(read() != '\n'){
+				skipRestOfLine();
+			}
+		} else {
+			this.bufferStart = 0;
+		}
+	}
+
+	/**
+	 * Moves to the start of the next line, skipping whatever is left of the current one.
+	 * @return false if there are no more lines starting within the region
+	 * */
+	boolean nextLine() throws IOException {
+		if(inLine){
+			skipRestOfLine();
+		}
+		inLine = false;
+		if(position() >= end || peek() < 0){
+			return false;
+		}
+		inLine = true;
+		return true;
+	}
+
+	/**
+	 * @return the first non blank character of the current line, or -1 if the line is blank
+	 * */
+	int firstChar() throws IOException {
+		return hasMoreTokens() ? peek() : -1;
+	}
+
+	/**
+	 * Skips the blanks before the next value of the line.
+	 * @return false if the line has no more values
+	 * */
+	boolean hasMoreTokens() throws IOException {
+		int b = peek();
+		while(b == ' ' || b == '\t' || b == '\r'){
+			buffer.get();
+			b = peek();
+		}
+		return b >= 0 && b != '\n';
+	}
+
+	/**
+	 * Skips the next value of the line
+	 * */
+	void skipToken() throws IOException {
+		if(!hasMoreTokens()){
+			throw new GraphFormatException("Missing value at byte " + position());
+		}
+		while(!isDelimiter(peek())){
+			buffer.get();
+		}
+	}
+
+	/**
+	 * @return the next value of the line as an integer
+	 * @throws GraphFormatException if there are no more values or it isn't an integer
+	 * */
+	long nextLong() throws IOException {
+		if(!hasMoreTokens()){
+			throw new GraphFormatException("Missing value at byte " + position());
+		}
+		long valueStart = position();
+		boolean negative = false;
+		if(peek() == '-'){
+			negative = true;
+			buffer.get();
+		}
+		long value = 0;
+		int digits = 0;
+		int b = peek();
+		while(b >= '0' && b <= '9'){
+			if(value > (Long.MAX_VALUE - (b - '0')) / 10){
+				throw new GraphFormatException("Integer too large at byte " + valueStart);
+			}
+			value = value * 10 + (b - '0');
+			digits++;
+			buffer.get();
+			b = peek();
+		}
+		if(digits == 0 || !isDelimiter(b)){
+			throw new GraphFormatException("Not an integer at byte " + valueStart);
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * @return the next value of the line as an integer
+	 * @throws GraphFormatException if there are no more values or it isn't an int
+	 * */
+	int nextInt() throws IOException {
+		long valueStart = position();
+		long value = nextLong();
+		if(value < Integer.MIN_VALUE || value > Integer.MAX_VALUE){
+			throw new GraphFormatException("Integer too large at byte " + valueStart);
+		}
+		return (int) value;
+	}
+
+	/**
+	 * @return the next value of the line, as text
+	 * */
+	String nextToken() throws IOException {
+		if(!hasMoreTokens()){
+			throw new GraphFormatException("Missing value at byte " + position());
+		}
+		StringBuilder token = new StringBuilder();
+		while(!isDelimiter(peek())){
+			token.append((char) buffer.get());
+		}
+		return token.toString();
+	}
+
+	/**
+	 * @return the file position of the next byte to read
+	 * */
+	long position() {
+		return bufferStart + buffer.position();
+	}
+
+	private static boolean isDelimiter(int b) {
+		return b < 0 || b == ' ' || b == '\t' || b == '\r' || b == '\n';
+	}
+
+	private void skipRestOfLine() throws IOException {
+		int b = read();
+		while(b >= 0 && b != '\n'){
+			b = read();
+		}
+	}
+
+	private int read() throws IOException {
+		int b = peek();
+		if(b >= 0){
+			buffer.get();
+		}
+		return b;
+	}
+
+	/**
+	 * @return the next byte without consuming it, or -1 at the end of the file
+	 * */
+	private int peek() throws IOException {
+		if(!buffer.hasRemaining()){
+			if(endOfFile || !fill()){
+				return -1;
+			}
+		}
+		return buffer.get(buffer.position()) & 0xFF;
+	}
+
+	private boolean fill() throws IOException {
+		bufferStart += buffer.position();
+		buffer.clear();
+		int read = 0;
+		while(buffer.hasRemaining()){
+			int count = channel.read(buffer, bufferStart + buffer.position());
+			if(count < 0){
+				endOfFile = true;
+				break;
+			}
+			read += count;
+		}
+		buffer.flip();
+		return read > 0;
+	}
+}
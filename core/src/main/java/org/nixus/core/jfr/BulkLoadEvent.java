@@ -0,0 +1,35 @@
+package org.nixus.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a graph filled at once by a builder, which is how the 
+ * importer and the generators load graphs too
+ * */
+@Name("org.nixus.core.BulkLoad")
+@Label("Graph Bulk Load")
+@Category({"Graph", "Mutations"})
+@Description("Graph filled with nodes and arcs at once by a builder")
+public class BulkLoadEvent extends Event {
+
+	@Label("Loader")
+	@Description("Class of the builder")
+	public String loader;
+
+	@Label("Graph")
+	@Description("Class of the loaded graph")
+	public String graphType;
+
+	@Label("Graph Size")
+	public int graphSize;
+
+	@Label("Arcs")
+	public int numArcs;
+
+	@Label("Threads")
+	public int numThreads;
+}
@@ -0,0 +1,109 @@
+package org.nixus.core.jfr;
+
+/**
+ * Hooks the graphs call to record their mutation events. The flight recorder is looked up
+ * once, on runtimes without it the hooks do nothing, and only {@link Recorder} links
+ * against it, so the graphs load on any runtime.
+ * <p>
+ * Each event is started before the mutation and finished after it, passing along the
+ * object the start returned, which is null unless the event is recorded.
+ * */
+public final class JfrEvents {
+
+	private static final boolean AVAILABLE = isAvailable();
+
+	private JfrEvents() {
+	}
+
+	/**
+	 * @return true if the runtime has the flight recorder
+	 * */
+	public static boolean isAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event", false, JfrEvents.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException e) {
+			return false;
+		} catch (LinkageError e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Starts a {@link MatrixExpansionEvent}
+	 * */
+	public static Object matrixExpansionStarted() {
+		return AVAILABLE ? Recorder.matrixExpansionStarted() : null;
+	}
+
+	public static void matrixExpansionFinished(Object event, int graphSize, int oldCapacity, int newCapacity) {
+		if(event != null){
+			Recorder.matrixExpansionFinished(event, graphSize, oldCapacity, newCapacity);
+		}
+	}
+
+	/**
+	 * Starts a {@link BulkLoadEvent}
+	 * */
+	public static Object bulkLoadStarted() {
+		return AVAILABLE ? Recorder.bulkLoadStarted() : null;
+	}
+
+	/**
+	 * @param loader class of the builder
+	 * @param graphType class of the loaded graph
+	 * */
+	public static void bulkLoadFinished(Object event, Class<?> loader, Class<?> graphType, int graphSize,
+			int numArcs, int numThreads) {
+		if(event != null){
+			Recorder.bulkLoadFinished(event, loader, graphType, graphSize, numArcs, numThreads);
+		}
+	}
+
+	/**
+	 * Creates the events, only loaded once the flight recorder was found
+	 * */
+	private static final class Recorder {
+
+		static Object matrixExpansionStarted() {
+			MatrixExpansionEvent event = new MatrixExpansionEvent();
+			if(!event.isEnabled()){
+				return null;
+			}
+			event.begin();
+			return event;
+		}
+
+		static void matrixExpansionFinished(Object started, int graphSize, int oldCapacity, int newCapacity) {
+			MatrixExpansionEvent event = (MatrixExpansionEvent) started;
+			if(event.shouldCommit()){
+				event.graphSize = graphSize;
+				event.oldCapacity = oldCapacity;
+				event.newCapacity = newCapacity;
+				event.commit();
+			}
+		}
+
+		static Object bulkLoadStarted() {
+			BulkLoadEvent event = new BulkLoadEvent();
+			if(!event.isEnabled()){
+				return null;
+			}
+			event.begin();
+			return event;
+		}
+
+		static void bulkLoadFinished(Object started, Class<?> loader, Class<?> graphType, int graphSize,
+				int numArcs, int numThreads) {
+			BulkLoadEvent event = (BulkLoadEvent) started;
+			if(event.shouldCommit()){
+				event.loader = loader.getSimpleName();
+				event.graphType = graphType.getSimpleName();
+				event.graphSize = graphSize;
+				event.numArcs = numArcs;
+				event.numThreads = numThreads;
+				event.commit();
+			}
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package org.nixus.core.jfr;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.NoOpQueryListener;
+import org.nixus.core.structure.auxiliary.QueryListener;
+import org.nixus.core.structure.auxiliary.QueryProbe;
+import org.nixus.core.structure.auxiliary.QueryType;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Records every query as a {@link QueryEvent} while a flight recording has the event 
+ * enabled, and leaves the queries alone otherwise. Install it on a graph with 
+ * {@link org.nixus.core.structure.impl.AbstractGraph#setQueryListener} or on all of them 
+ * with {@link org.nixus.core.structure.impl.AbstractGraph#setDefaultQueryListener}.
+ * */
+public final class JfrQueryListener implements QueryListener {
+
+	public static final JfrQueryListener INSTANCE = new JfrQueryListener();
+
+	private JfrQueryListener() {
+	}
+
+	@Override
+	public QueryProbe queryStarted(Graph graph, QueryType type, Node source, ShortestPathStrategy strategy) {
+		QueryEvent event = new QueryEvent();
+		if(!event.isEnabled()){
+			return NoOpQueryListener.INSTANCE;
+		}
+		event.query = type.name();
+		event.strategy = strategy != null ? strategy.name() : "";
+		event.graphType = graph.getClass().getSimpleName();
+		event.graphSize = graph.size();
+		event.begin();
+		return event;
+	}
+}
@@ -0,0 +1,27 @@
+package org.nixus.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of an adjacency matrix growing, which copies the whole matrix
+ * */
+@Name("org.nixus.core.MatrixExpansion")
+@Label("Adjacency Matrix Expansion")
+@Category({"Graph", "Mutations"})
+@Description("Adjacency matrix of a graph grown to hold more nodes")
+public class MatrixExpansionEvent extends Event {
+
+	@Label("Graph Size")
+	public int graphSize;
+
+	@Label("Old Capacity")
+	@Description("Nodes the matrix held before growing")
+	public int oldCapacity;
+
+	@Label("New Capacity")
+	public int newCapacity;
+}
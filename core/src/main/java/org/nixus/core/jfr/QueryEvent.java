@@ -0,0 +1,85 @@
+package org.nixus.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import org.nixus.core.structure.auxiliary.QueryPhase;
+import org.nixus.core.structure.auxiliary.QueryProbe;
+
+/**
+ * Flight recorder event of a query, which is also the probe counting its work. 
+ * Created by {@link JfrQueryListener}, its duration spans the whole query.
+ * */
+@Name("org.nixus.core.Query")
+@Label("Graph Query")
+@Category({"Graph", "Queries"})
+@Description("Shortest path query, traversal or topological order of a graph")
+public class QueryEvent extends Event implements QueryProbe {
+
+	@Label("Query")
+	String query;
+
+	@Label("Strategy")
+	@Description("Shortest path strategy, empty for traversals and topological orders")
+	String strategy;
+
+	@Label("Graph")
+	@Description("Class of the queried graph")
+	String graphType;
+
+	@Label("Graph Size")
+	int graphSize;
+
+	@Label("Explored Nodes")
+	@Description("Nodes settled, taken in topological order or visited")
+	long exploredNodes;
+
+	@Label("Scanned Arcs")
+	long scannedArcs;
+
+	@Label("Relaxations")
+	long relaxations;
+
+	@Override
+	public void phaseStarted(QueryPhase phase) {
+	}
+
+	@Override
+	public void nodeSettled() {
+		exploredNodes++;
+	}
+
+	@Override
+	public void arcScanned() {
+		scannedArcs++;
+	}
+
+	@Override
+	public void relaxed() {
+		relaxations++;
+	}
+
+	@Override
+	public void heapInserted() {
+	}
+
+	@Override
+	public void heapRemoved() {
+	}
+
+	@Override
+	public void heapSifted() {
+	}
+
+	@Override
+	public void bellmanFordPassDone() {
+	}
+
+	@Override
+	public void queryFinished() {
+		commit();
+	}
+}
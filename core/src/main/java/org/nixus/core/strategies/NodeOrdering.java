@@ -0,0 +1,152 @@
+package org.nixus.core.strategies;
+
+import java.util.Arrays;
+
+import org.nixus.core.structure.impl.AbstractGraph;
+
+/**
+ * Orders given to the nodes by {@link AbstractGraph#reorder(NodeOrdering)}. The shortest path
+ * strategies and the weight snapshots keep their state in arrays indexed by insertion order,
+ * so numbering neighbors close to each other keeps the reads of a query close in memory.
+ * Arcs are taken in both directions, whatever the graph.
+ * */
+public enum NodeOrdering {
+	/**
+	 * Breadth first from the first node of each connected part of the graph, so every node
+	 * is numbered right after the other neighbors of the node it was reached from.
+	 * Takes O(E + V) time.
+	 * */
+	BREADTH_FIRST {
+		@Override
+		public int[] order(int numNodes, int[] offsets, int[] neighbors) {
+			int[] order = new int[numNodes];
+			boolean[] visited = new boolean[numNodes];
+			int end = 0;
+			for (int start = 0; start < numNodes; start++) {
+				if(!visited[start]){
+					visited[start] = true;
+					order[end++] = start;
+					end = visit(order, end - 1, end, visited, offsets, neighbors, null);
+				}
+			}
+			return order;
+		}
+	},
+	/**
+	 * Reverse Cuthill-McKee: breadth first from a node of the lowest degree of each connected
+	 * part, taking the neighbors by increasing degree, and reversed at the end. Keeps the arcs
+	 * between nodes with close numbers, the bandwidth of the adjacency matrix, lower than a
+	 * plain breadth first order. Takes O(E.log(E) + V) time.
+	 * */
+	REVERSE_CUTHILL_MCKEE {
+		@Override
+		public int[] order(int numNodes, int[] offsets, int[] neighbors) {
+			int[] order = new int[numNodes];
+			boolean[] visited = new boolean[numNodes];
+			int end = 0;
+			for (int start : byDegree(numNodes, offsets, false)) {
+				if(!visited[start]){
+					visited[start] = true;
+					order[end++] = start;
+					end = visit(order, end - 1, end, visited, offsets, neighbors, new long[0]);
+				}
+			}
+			for (int i = 0, j = numNodes - 1; i < j; i++, j--) {
+				int node = order[i];
+				order[i] = order[j];
+				order[j] = node;
+			}
+			return order;
+		}
+	},
+	/**
+	 * By decreasing degree, so the hubs most queries go through are numbered together.
+	 * Nodes with the same degree keep their order. Takes O(V.log(V) + E) time.
+	 * */
+	DEGREE {
+		@Override
+		public int[] order(int numNodes, int[] offsets, int[] neighbors) {
+			return byDegree(numNodes, offsets, true);
+		}
+	};
+
+	/**
+	 * @param numNodes number of nodes, numbered from 0
+	 * @param offsets start of the neighbors of each node within neighbors, plus their end
+	 * @param neighbors the nodes connected to each node, by either direction
+	 * @return the current number of each node, in the new order
+	 * */
+	public abstract int[] order(int numNodes, int[] offsets, int[] neighbors);
+
+	/**
+	 * Visits breadth first from the nodes in the order between first and end, appending the
+	 * nodes reached to it. Nodes reached from the same node are sorted by degree when a sort
+	 * buffer is given.
+	 * @return the new end of the order
+	 * */
+	private static int visit(int[] order, int first, int end, boolean[] visited, int[] offsets, int[] neighbors, long[] sortBuffer) {
+		for (int next = first; next < end; next++) {
+			int node = order[next];
+			int reached = end;
+			for (int k = offsets[node]; k < offsets[node + 1]; k++) {
+				int neighbor = neighbors[k];
+				if(!visited[neighbor]){
+					visited[neighbor] = true;
+					order[end++] = neighbor;
+				}
+			}
+			if(sortBuffer != null && end - reached > 1){
+				sortBuffer = sortByDegree(order, reached, end, offsets, sortBuffer);
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Sorts a range of the order by increasing degree, keeping the order of the nodes with
+	 * the same degree
+	 * @return the buffer used, grown if needed
+	 * */
+	private static long[] sortByDegree(int[] order, int from, int to, int[] offsets, long[] buffer) {
+		int length = to - from;
+		if(buffer.length < length){
+			buffer = new long[Math.max(length, buffer.length * 2)];
+		}
+		for (int i = 0; i < length; i++) {
+			buffer[i] = key(order[from + i], offsets, i);
+		}
+		Arrays.sort(buffer, 0, length);
+		//the order is only read until every node is in the buffer
+		for (int i = 0; i < length; i++) {
+			buffer[i] = order[from + (int) buffer[i]];
+		}
+		for (int i = 0; i < length; i++) {
+			order[from + i] = (int) buffer[i];
+		}
+		return buffer;
+	}
+
+	/**
+	 * @return the nodes by increasing or decreasing degree, those with the same degree by number
+	 * */
+	private static int[] byDegree(int numNodes, int[] offsets, boolean decreasing) {
+		long[] keys = new long[numNodes];
+		for (int node = 0; node < numNodes; node++) {
+			long degree = offsets[node + 1] - offsets[node];
+			keys[node] = ((decreasing ? Integer.MAX_VALUE - degree : degree) << 32) | node;
+		}
+		Arrays.sort(keys);
+		int[] order = new int[numNodes];
+		for (int i = 0; i < numNodes; i++) {
+			order[i] = (int) keys[i];
+		}
+		return order;
+	}
+
+	/**
+	 * @return a key sorting by the degree of the node and then by the position given
+	 * */
+	private static long key(int node, int[] offsets, int position) {
+		return ((long) (offsets[node + 1] - offsets[node]) << 32) | position;
+	}
+}
@@ -0,0 +1,27 @@
+package org.nixus.core.strategies;
+
+import org.nixus.core.structure.auxiliary.DoubleMeasurable;
+import org.nixus.core.structure.auxiliary.LongMeasurable;
+import org.nixus.core.structure.auxiliary.Measurable;
+
+/**
+ * Type of the arc weights summed by the shortest path strategies. Every type runs its own 
+ * primitive code path, so wider weights are neither boxed nor truncated.
+ * */
+public enum WeightType {
+	/**
+	 * Weights read from {@link Measurable#measure()}. Distances are summed as longs so they 
+	 * never wrap around. Unreachable nodes are at Integer.MAX_VALUE.
+	 * */
+	INT,
+	/**
+	 * Weights read from {@link LongMeasurable#measureLong()}, or from {@link Measurable#measure()} 
+	 * for other contents. Sums that overflow saturate. Unreachable nodes are at Long.MAX_VALUE.
+	 * */
+	LONG,
+	/**
+	 * Weights read from {@link DoubleMeasurable#measureDouble()}, or as a LONG weight for other 
+	 * contents. Unreachable nodes are at an infinite weight.
+	 * */
+	DOUBLE
+}
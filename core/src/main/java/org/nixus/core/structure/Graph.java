@@ -44,6 +44,35 @@ public interface Graph extends Serializable, Collection<Node>{
 	@Override
 	public int size();
 	
+	/**
+	 * Removes a node along with its arcs. Its insertion order stays unused until the 
+	 * graph is compacted, which the removal itself may do, see {@link #compact()}.
+	 * @return false if the node isn't in this graph
+	 * */
+	@Override
+	public boolean remove(Object node);
+	
+	/**
+	 * Removes an arc from its nodes. It stays in the arcs of the graph, hidden, until the 
+	 * graph is compacted.
+	 * @return false if the arc isn't in this graph
+	 * */
+	public boolean removeArc(Arc arc);
+	
+	/**
+	 * Reclaims the space held by the removed nodes and arcs. The nodes get consecutive 
+	 * insertion orders again, so their ids change. Graphs compact themselves once the 
+	 * removed nodes or arcs outnumber the remaining ones, unless told otherwise with 
+	 * {@link org.nixus.core.structure.impl.AbstractGraph#setCompactionThreshold(float)}.
+	 * */
+	public void compact();
+	
+	/**
+	 * @return true if the arcs of this graph have a direction, false if every arc 
+	 * connects both of its nodes in both directions.
+	 * */
+	public boolean isDirected();
+	
 	/**
 	 * Returns the nodes of this graph. The list is expected to be used as a read only.  
 	 * Modifications may turn in unexpected results.
@@ -56,6 +85,23 @@ public interface Graph extends Serializable, Collection<Node>{
 	 * */
 	public List<Arc> getArcs();
 	
+	/**
+	 * Ids are only stable while no node is removed: removing nodes may compact the graph, 
+	 * which gives the nodes after the removed ones lower ids, see {@link #compact()}. Keep 
+	 * the nodes themselves, or their tags, to find them again after removals.
+	 * @return the node with the given insertion order, in constant time
+	 * @throws IndexOutOfBoundsException when the graph has no node with that insertion order, 
+	 * removed nodes included
+	 * */
+	public Node getNodeById(int id);
+	
+	/**
+	 * @return a node with the given tag, null if there is none. When many nodes share 
+	 * the tag, the first one that took it. The tags are indexed on the first lookup and 
+	 * kept up to date afterwards, so lookups take constant time.
+	 * */
+	public Node getNodeByTag(String tag);
+	
 	/**
 	 * Makes a depth first traversal on the graph, applies the transformer to the content of the nodes 
 	 * and finally returns the List of nodes in the traverse order.
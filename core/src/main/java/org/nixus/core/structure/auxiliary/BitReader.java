@@ -0,0 +1,93 @@
+package org.nixus.core.structure.auxiliary;
+
+/**
+ * Reads the codes written by a {@link BitWriter} from its words, starting at any bit.
+ * Readers are cheap, one is meant to be created for each run of codes read. Not thread
+ * safe, the words are never modified.
+ * */
+public class BitReader {
+
+	private final long[] words;
+
+	private long position;
+
+	/**
+	 * @param position the bit to start reading at
+	 * */
+	public BitReader(long[] words, long position) {
+		this.words = words;
+		this.position = position;
+	}
+
+	/**
+	 * @return the next bit to read
+	 * */
+	public long getPosition() {
+		return position;
+	}
+
+	/**
+	 * @param numBits number of bits to read, from 0 to 64
+	 * */
+	public long readBits(int numBits) {
+		if(numBits == 0){
+			return 0;
+		}
+		int word = (int) (position >>> 6);
+		int used = (int) (position & 63);
+		int available = 64 - used;
+		position += numBits;
+		if(numBits <= available){
+			return (words[word] << used) >>> (64 - numBits);
+		}
+		long high = words[word] & ((1L << available) - 1);
+		int rest = numBits - available;
+		return (high << rest) | (words[word + 1] >>> (64 - rest));
+	}
+
+	/**
+	 * @return the number of zeros before the next one, skipping both
+	 * */
+	public int readUnary() {
+		int zeros = 0;
+		while(true){
+			int word = (int) (position >>> 6);
+			int used = (int) (position & 63);
+			long bits = words[word] << used;
+			if(bits != 0){
+				int leading = Long.numberOfLeadingZeros(bits);
+				position += leading + 1;
+				return zeros + leading;
+			}
+			zeros += 64 - used;
+			position += 64 - used;
+		}
+	}
+
+	/**
+	 * @see BitWriter#writeGamma(long)
+	 * */
+	public long readGamma() {
+		int log = readUnary();
+		return ((1L << log) | readBits(log)) - 1;
+	}
+
+	/**
+	 * @see BitWriter#writeZeta(long, int)
+	 * */
+	public long readZeta(int k) {
+		int h = readUnary();
+		long left = 1L << (h * k);
+		long range = (1L << ((h + 1) * k)) - left;
+		int numBits = BitWriter.minimalBinaryBits(range);
+		if(numBits == 0){
+			return left - 1;
+		}
+		long shortValues = (1L << numBits) - range;
+		long value = readBits(numBits - 1);
+		if(value >= shortValues){
+			value = ((value << 1) | readBits(1)) - shortValues;
+		}
+		return left + value - 1;
+	}
+}
@@ -0,0 +1,153 @@
+package org.nixus.core.structure.auxiliary;
+
+import java.util.Arrays;
+
+/**
+ * Growable stream of bits, written most significant bit first into an array of longs,
+ * with the instantaneous codes used to compress the adjacency of graphs: unary, Elias
+ * gamma and Boldi-Vigna zeta codes. Every code but unary is given naturals, from 0.
+ * {@link BitReader} reads them back. Not thread safe.
+ * */
+public class BitWriter {
+
+	private static final int MAX_WORDS = Integer.MAX_VALUE - 8;
+
+	private long[] words;
+
+	/**
+	 * Number of bits written
+	 * */
+	private long length;
+
+	/**
+	 * @param expectedBits number of bits the stream holds before growing
+	 * */
+	public BitWriter(long expectedBits) {
+		this.words = new long[(int) Math.min(MAX_WORDS, Math.max(16, (expectedBits >>> 6) + 1))];
+	}
+
+	/**
+	 * Writes the lowest bits of the value
+	 * @param numBits number of bits to write, from 0 to 64
+	 * @return the number of bits written
+	 * */
+	public int writeBits(long value, int numBits) {
+		if(numBits == 0){
+			return 0;
+		}
+		ensureCapacity(length + numBits);
+		if(numBits < 64){
+			value &= (1L << numBits) - 1;
+		}
+		int word = (int) (length >>> 6);
+		int free = 64 - (int) (length & 63);
+		if(numBits <= free){
+			words[word] |= value << (free - numBits);
+		} else {
+			words[word] |= value >>> (numBits - free);
+			words[word + 1] |= value << (64 - numBits + free);
+		}
+		length += numBits;
+		return numBits;
+	}
+
+	/**
+	 * Writes n zeros followed by a one
+	 * @return the number of bits written
+	 * */
+	public int writeUnary(int n) {
+		ensureCapacity(length + n + 1);
+		//the words are zero until written
+		length += n;
+		writeBits(1, 1);
+		return n + 1;
+	}
+
+	/**
+	 * Writes n + 1 as its number of bits minus one in unary, followed by its bits but the
+	 * leading one
+	 * @param n a natural
+	 * @return the number of bits written
+	 * */
+	public int writeGamma(long n) {
+		long x = n + 1;
+		int log = 63 - Long.numberOfLeadingZeros(x);
+		return writeUnary(log) + writeBits(x, log);
+	}
+
+	/**
+	 * Writes n + 1 with the zeta code of shrinking factor k: the number of k bit groups it
+	 * takes beyond the first in unary, followed by its offset within that range in minimal
+	 * binary. Better than gamma codes for values following a power law, as the gaps between
+	 * the neighbors of a node do.
+	 * @param n a natural smaller than 2^62
+	 * @return the number of bits written
+	 * */
+	public int writeZeta(long n, int k) {
+		long x = n + 1;
+		int h = (63 - Long.numberOfLeadingZeros(x)) / k;
+		long left = 1L << (h * k);
+		long range = (1L << ((h + 1) * k)) - left;
+		return writeUnary(h) + writeMinimalBinary(x - left, range);
+	}
+
+	/**
+	 * Writes a value lower than the range with the fewest bits, the lowest values taking
+	 * one bit less than the rest when the range isn't a power of two
+	 * */
+	private int writeMinimalBinary(long value, long range) {
+		int numBits = minimalBinaryBits(range);
+		long shortValues = (1L << numBits) - range;
+		if(value < shortValues){
+			return writeBits(value, numBits - 1);
+		}
+		return writeBits(value + shortValues, numBits);
+	}
+
+	static int minimalBinaryBits(long range) {
+		return range <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(range - 1);
+	}
+
+	/**
+	 * @return the number of bits {@link #writeGamma(long)} takes for n
+	 * */
+	public static int gammaLength(long n) {
+		return 2 * (63 - Long.numberOfLeadingZeros(n + 1)) + 1;
+	}
+
+	/**
+	 * @return the number of bits {@link #writeZeta(long, int)} takes for n
+	 * */
+	public static int zetaLength(long n, int k) {
+		long x = n + 1;
+		int h = (63 - Long.numberOfLeadingZeros(x)) / k;
+		long left = 1L << (h * k);
+		long range = (1L << ((h + 1) * k)) - left;
+		int numBits = minimalBinaryBits(range);
+		return h + 1 + (x - left < (1L << numBits) - range ? numBits - 1 : numBits);
+	}
+
+	private void ensureCapacity(long numBits) {
+		long numWords = (numBits >>> 6) + 1;
+		if(numWords > words.length){
+			if(numWords > MAX_WORDS){
+				throw new IllegalStateException("More than " + MAX_WORDS + " words of bits");
+			}
+			words = Arrays.copyOf(words, (int) Math.min(MAX_WORDS, Math.max(numWords, words.length * 2L)));
+		}
+	}
+
+	/**
+	 * @return the number of bits written
+	 * */
+	public long length() {
+		return length;
+	}
+
+	/**
+	 * @return the bits written, in as many words as they take
+	 * */
+	public long[] toArray() {
+		return Arrays.copyOf(words, (int) ((length + 63) >>> 6));
+	}
+}
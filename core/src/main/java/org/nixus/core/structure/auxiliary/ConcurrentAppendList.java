@@ -0,0 +1,109 @@
+package org.nixus.core.structure.auxiliary;
+
+import java.util.AbstractList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * List that many threads can append to at once without locking. Appending claims the next
+ * index with an atomic increment and then stores the element in it, so the order of the list
+ * is the order of the claims. Elements are kept in segments that double in size and are
+ * never copied.
+ * <p>
+ * Elements can't be removed nor replaced and must not be null. A thread reading an index
+ * claimed but not stored yet waits for the element to be stored.
+ * */
+public class ConcurrentAppendList<E> extends AbstractList<E> {
+
+	private static final int FIRST_SEGMENT_BITS = 4;
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * Segment k holds 2^(k + FIRST_SEGMENT_BITS) elements, created by the first thread
+	 * that needs it
+	 * */
+	private final AtomicReferenceArray<AtomicReferenceArray<E>> segments =
+			new AtomicReferenceArray<AtomicReferenceArray<E>>(32 - FIRST_SEGMENT_BITS);
+
+	@Override
+	public boolean add(E element) {
+		publish(claim(), element);
+		return true;
+	}
+
+	/**
+	 * Reserves the next index of the list, where the element must be stored by
+	 * {@link #publish(int, Object)} right after. Used to know the index of an element
+	 * before it becomes visible.
+	 * */
+	public int claim() {
+		int index = size.getAndIncrement();
+		if(index < 0){
+			size.decrementAndGet();
+			throw new IllegalStateException("List full");
+		}
+		return index;
+	}
+
+	/**
+	 * Stores the element in an index returned by {@link #claim()}
+	 * */
+	public void publish(int index, E element) {
+		if(element == null){
+			throw new NullPointerException();
+		}
+		int position = index + (1 << FIRST_SEGMENT_BITS);
+		int segment = segmentOf(position);
+		AtomicReferenceArray<E> elements = segments.get(segment);
+		if(elements == null){
+			segments.compareAndSet(segment, null, new AtomicReferenceArray<E>(1 << (segment + FIRST_SEGMENT_BITS)));
+			elements = segments.get(segment);
+		}
+		elements.set(position - (1 << (segment + FIRST_SEGMENT_BITS)), element);
+	}
+
+	@Override
+	public E get(int index) {
+		if(index < 0 || index >= size.get()){
+			throw new IndexOutOfBoundsException("Index " + index + " of " + size.get());
+		}
+		int position = index + (1 << FIRST_SEGMENT_BITS);
+		int segment = segmentOf(position);
+		int offset = position - (1 << (segment + FIRST_SEGMENT_BITS));
+		while(true){
+			AtomicReferenceArray<E> elements = segments.get(segment);
+			if(elements != null){
+				E element = elements.get(offset);
+				if(element != null){
+					return element;
+				}
+			}
+			//claimed but not published yet
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * @return the element at the index, or null if it was claimed but not stored yet or 
+	 * not claimed at all. Never waits.
+	 * */
+	public E getIfPublished(int index) {
+		if(index < 0 || index >= size.get()){
+			return null;
+		}
+		int position = index + (1 << FIRST_SEGMENT_BITS);
+		int segment = segmentOf(position);
+		AtomicReferenceArray<E> elements = segments.get(segment);
+		return elements == null ? null : elements.get(position - (1 << (segment + FIRST_SEGMENT_BITS)));
+	}
+
+	@Override
+	public int size() {
+		return size.get();
+	}
+
+	private static int segmentOf(int position) {
+		return 31 - Integer.numberOfLeadingZeros(position) - FIRST_SEGMENT_BITS;
+	}
+}
@@ -0,0 +1,59 @@
+package org.nixus.core.structure.auxiliary;
+
+/**
+ * Measurable holding a fixed value. Used as content when only the measure of the 
+ * original content is known, for example after loading a graph from a file.
+ * */
+public final class ConstantMeasure implements Measurable<Integer> {
+
+	private static final int CACHE_LOW = -128;
+	
+	private static final int CACHE_HIGH = 1024;
+	
+	/**
+	 * Shared instances for the most common values, as graphs tend to repeat them a lot
+	 * */
+	private static final ConstantMeasure[] CACHE = new ConstantMeasure[CACHE_HIGH - CACHE_LOW + 1];
+	
+	static {
+		for (int i = 0; i < CACHE.length; i++) {
+			CACHE[i] = new ConstantMeasure(i + CACHE_LOW);
+		}
+	}
+	
+	private final int value;
+	
+	private ConstantMeasure(int value) {
+		this.value = value;
+	}
+	
+	/**
+	 * @return a measurable whose measure is the given value
+	 * */
+	public static ConstantMeasure valueOf(int value) {
+		if(value >= CACHE_LOW && value <= CACHE_HIGH){
+			return CACHE[value - CACHE_LOW];
+		}
+		return new ConstantMeasure(value);
+	}
+
+	@Override
+	public int measure() {
+		return value;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ConstantMeasure && ((ConstantMeasure) obj).value == this.value;
+	}
+	
+	@Override
+	public int hashCode() {
+		return value;
+	}
+	
+	@Override
+	public String toString() {
+		return String.valueOf(value);
+	}
+}
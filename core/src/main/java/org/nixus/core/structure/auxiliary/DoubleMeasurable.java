@@ -0,0 +1,14 @@
+package org.nixus.core.structure.auxiliary;
+
+/**
+ * Measurable object with a fractional value. Read by the shortest path strategies run 
+ * with {@link org.nixus.core.strategies.WeightType#DOUBLE} weights.
+ * */
+public interface DoubleMeasurable<T> extends Measurable<T> {
+
+	/**
+	 * Returns the value of this object. {@link #measure()} is still used by the int weighted 
+	 * strategies, and is expected to return this value rounded.
+	 * */
+	double measureDouble();
+}
@@ -0,0 +1,44 @@
+package org.nixus.core.structure.auxiliary;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Object to be implemented to be told about the changes of a graph, for example to persist them.
+ * Listeners are called by the thread changing the graph, right after each change.
+ * */
+public interface GraphChangeListener {
+
+	/**
+	 * Called after a node was added, with its tag already set
+	 * */
+	public void nodeAdded(Node node);
+
+	/**
+	 * Called after an arc was added and linked to its nodes
+	 * */
+	public void arcAdded(Arc arc);
+
+	/**
+	 * Called after the tag of a node in the graph changed
+	 * @param oldTag the tag the node had before
+	 * */
+	public void nodeTagChanged(Node node, String oldTag);
+
+	/**
+	 * Called before a node is removed, with its arcs still linked. The arcs are removed 
+	 * along with it without further calls. Throwing leaves the graph unchanged.
+	 * */
+	public void nodeRemoved(Node node);
+
+	/**
+	 * Called before an arc is removed. Throwing leaves the graph unchanged.
+	 * */
+	public void arcRemoved(Arc arc);
+
+	/**
+	 * Called after a compaction dropped the removed nodes, giving the rest consecutive
+	 * insertion orders in the same order
+	 * */
+	public void nodesRenumbered();
+}
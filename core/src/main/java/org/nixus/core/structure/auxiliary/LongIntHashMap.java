@@ -0,0 +1,148 @@
+package org.nixus.core.structure.auxiliary;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from long keys to non negative int values, without boxing. Open addressing
+ * with linear probing, so a lookup is usually a single array access. Used to map external
+ * node ids to node indexes. Not thread safe.
+ * */
+public class LongIntHashMap {
+
+	private static final float LOAD_FACTOR = 0.5F;
+
+	/**
+	 * Value of the empty slots
+	 * */
+	private static final int FREE = -1;
+
+	private long[] keys;
+
+	private int[] values;
+
+	private int size;
+
+	/**
+	 * Number of entries the map holds before growing
+	 * */
+	private int threshold;
+
+	private int mask;
+
+	public LongIntHashMap() {
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize number of entries the map holds without growing
+	 * */
+	public LongIntHashMap(int expectedSize) {
+		allocate(tableSizeFor(expectedSize));
+	}
+
+	/**
+	 * @return the value of the key, or -1 if it isn't in the map
+	 * */
+	public int get(long key) {
+		int slot = slotOf(key);
+		while(values[slot] != FREE){
+			if(keys[slot] == key){
+				return values[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return FREE;
+	}
+
+	/**
+	 * @return true if the key is in the map
+	 * */
+	public boolean containsKey(long key) {
+		return get(key) != FREE;
+	}
+
+	/**
+	 * Maps the key to the value.
+	 * @param value a non negative value
+	 * @return the previous value of the key, or -1 if it wasn't in the map
+	 * */
+	public int put(long key, int value) {
+		return put(key, value, true);
+	}
+
+	/**
+	 * Maps the key to the value unless it is already in the map.
+	 * @param value a non negative value
+	 * @return the current value of the key, or -1 if it wasn't in the map and got the given one
+	 * */
+	public int putIfAbsent(long key, int value) {
+		return put(key, value, false);
+	}
+
+	/**
+	 * @return the number of keys in the map
+	 * */
+	public int size() {
+		return size;
+	}
+
+	private int put(long key, int value, boolean replace) {
+		if(value < 0){
+			throw new IllegalArgumentException("Values must not be negative: " + value);
+		}
+		int slot = slotOf(key);
+		while(values[slot] != FREE){
+			if(keys[slot] == key){
+				int previous = values[slot];
+				if(replace){
+					values[slot] = value;
+				}
+				return previous;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if(++size > threshold){
+			rehash();
+		}
+		return FREE;
+	}
+
+	private int slotOf(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private void rehash() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate(oldValues.length * 2);
+		for (int i = 0; i < oldValues.length; i++) {
+			if(oldValues[i] != FREE){
+				int slot = slotOf(oldKeys[i]);
+				while(values[slot] != FREE){
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	private void allocate(int tableSize) {
+		if(tableSize <= 0){
+			throw new IllegalStateException("Too many entries for a hash map");
+		}
+		keys = new long[tableSize];
+		values = new int[tableSize];
+		Arrays.fill(values, FREE);
+		mask = tableSize - 1;
+		threshold = (int) (tableSize * LOAD_FACTOR);
+	}
+
+	private static int tableSizeFor(int expectedSize) {
+		int needed = (int) Math.min((long) Math.max(expectedSize, 4) * 2, 1 << 30);
+		return Integer.highestOneBit(needed - 1) << 1;
+	}
+}
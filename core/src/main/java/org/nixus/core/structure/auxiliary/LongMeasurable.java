@@ -0,0 +1,14 @@
+package org.nixus.core.structure.auxiliary;
+
+/**
+ * Measurable object whose value may not fit in an int. Read by the shortest path 
+ * strategies run with {@link org.nixus.core.strategies.WeightType#LONG} or DOUBLE weights.
+ * */
+public interface LongMeasurable<T> extends Measurable<T> {
+
+	/**
+	 * Returns the value of this object. {@link #measure()} is still used by the int weighted 
+	 * strategies, and is expected to return this value clamped to the int range.
+	 * */
+	long measureLong();
+}
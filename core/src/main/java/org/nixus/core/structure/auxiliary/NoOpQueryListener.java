@@ -0,0 +1,58 @@
+package org.nixus.core.structure.auxiliary;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Listener and probe ignoring every query, the default of the graphs. As long as it is the 
+ * only probe queries see, the JIT inlines its empty methods away.
+ * */
+public final class NoOpQueryListener implements QueryListener, QueryProbe {
+
+	public static final NoOpQueryListener INSTANCE = new NoOpQueryListener();
+
+	private NoOpQueryListener() {
+	}
+
+	@Override
+	public QueryProbe queryStarted(Graph graph, QueryType type, Node source, ShortestPathStrategy strategy) {
+		return this;
+	}
+
+	@Override
+	public void phaseStarted(QueryPhase phase) {
+	}
+
+	@Override
+	public void nodeSettled() {
+	}
+
+	@Override
+	public void arcScanned() {
+	}
+
+	@Override
+	public void relaxed() {
+	}
+
+	@Override
+	public void heapInserted() {
+	}
+
+	@Override
+	public void heapRemoved() {
+	}
+
+	@Override
+	public void heapSifted() {
+	}
+
+	@Override
+	public void bellmanFordPassDone() {
+	}
+
+	@Override
+	public void queryFinished() {
+	}
+}
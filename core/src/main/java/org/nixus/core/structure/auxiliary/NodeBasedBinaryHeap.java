@@ -49,6 +49,11 @@ public class NodeBasedBinaryHeap  implements java.io.Serializable {
      */
     private transient int modCount = 0;
 
+    /**
+     * Told about the inserts, removes and sifts of the query using this queue
+     */
+    private transient QueryProbe probe;
+
     /**
      * Creates a {@code PriorityQueue} containing the elements in the
      * specified collection.  If the specified collection is an instance of
@@ -66,10 +71,18 @@ public class NodeBasedBinaryHeap  implements java.io.Serializable {
      *         of its elements are null
      */
 	public NodeBasedBinaryHeap(Collection<? extends AbstractNode> c, Comparator<AbstractNode> comparator) {
+        this(c, comparator, NoOpQueryListener.INSTANCE);
+    }
+
+    /**
+     * Same as {@link #NodeBasedBinaryHeap(Collection, Comparator)}, reporting the
+     * operations on the queue to the probe of a query, the initial sifts included.
+     */
+	public NodeBasedBinaryHeap(Collection<? extends AbstractNode> c, Comparator<AbstractNode> comparator, QueryProbe probe) {
         initFromCollection(c);
         this.comparator = comparator;
+        this.probe = probe;
         heapify();
-
     }
 
     /**
@@ -83,7 +96,12 @@ public class NodeBasedBinaryHeap  implements java.io.Serializable {
        
         queue = a;
         size = a.length;
-        nodeIndexesInQueue = new int[size]; 
+        //insertion orders go past the size while the graph holds removed nodes
+        int numIds = size;
+        for (int i = 0; i < a.length; i++) {
+        	numIds = Math.max(numIds, a[i].getInsertionOrder() + 1);
+        }
+        nodeIndexesInQueue = new int[numIds]; 
         for (int i = 0; i < a.length; i++) {
 			nodeIndexesInQueue[a[i].getInsertionOrder()] = i;
 		}
@@ -115,6 +133,7 @@ public class NodeBasedBinaryHeap  implements java.io.Serializable {
         if (e == null)
             throw new NullPointerException();
         modCount++;
+        probe.heapInserted();
         int i = size;
         size = i + 1;
         if (i == 0){
@@ -373,6 +392,7 @@ public class NodeBasedBinaryHeap  implements java.io.Serializable {
             return null;
         int s = --size;
         modCount++;
+        probe.heapRemoved();
         AbstractNode result = queue[0];
         AbstractNode x = queue[s];
         nodeIndexesInQueue[result.getInsertionOrder()] = -1;
@@ -398,6 +418,7 @@ public class NodeBasedBinaryHeap  implements java.io.Serializable {
     private AbstractNode removeAt(int i, int insertionOrder) {
         assert i >= 0 && i < size;
         modCount++;
+        probe.heapRemoved();
         int s = --size;
         if (s == i) {// removed last element
         	nodeIndexesInQueue[insertionOrder] = -1;
@@ -446,6 +467,7 @@ public class NodeBasedBinaryHeap  implements java.io.Serializable {
             nodeIndexesInQueue[e.getInsertionOrder()] = k;
             queue[k] = e;
             k = parent;
+            probe.heapSifted();
         }
         nodeIndexesInQueue[((AbstractNode) key).getInsertionOrder()] = k;
         queue[k] = (AbstractNode) key;
@@ -460,6 +482,7 @@ public class NodeBasedBinaryHeap  implements java.io.Serializable {
             nodeIndexesInQueue[e.getInsertionOrder()] = k;
             queue[k] = e;
             k = parent;
+            probe.heapSifted();
         }
         nodeIndexesInQueue[x.getInsertionOrder()] = k;
         queue[k] = x;
@@ -495,6 +518,7 @@ public class NodeBasedBinaryHeap  implements java.io.Serializable {
             nodeIndexesInQueue[c.getInsertionOrder()] = k;
             queue[k] = c;
             k = child;
+            probe.heapSifted();
         }
         nodeIndexesInQueue[((AbstractNode) key).getInsertionOrder()] = k;
         queue[k] = (AbstractNode) key;
@@ -514,6 +538,7 @@ public class NodeBasedBinaryHeap  implements java.io.Serializable {
             nodeIndexesInQueue[c.getInsertionOrder()] = k;
             queue[k] = c;
             k = child;
+            probe.heapSifted();
         }
         nodeIndexesInQueue[x.getInsertionOrder()] = k;
         queue[k] = x;
@@ -575,6 +600,7 @@ public class NodeBasedBinaryHeap  implements java.io.Serializable {
         throws java.io.IOException, ClassNotFoundException {
         // Read in size, and any hidden stuff
         s.defaultReadObject();
+        probe = NoOpQueryListener.INSTANCE;
 
         // Read in (and discard) array length
         s.readInt();
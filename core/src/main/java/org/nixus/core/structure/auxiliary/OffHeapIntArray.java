@@ -0,0 +1,175 @@
+package org.nixus.core.structure.auxiliary;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Growable array of ints kept in direct memory, out of the reach of the garbage collector.
+ * The memory is split in chunks so the array isn't limited by the 2GB of a single buffer.
+ * <p>
+ * {@link #free()} releases the memory right away when the running JVM allows it, otherwise
+ * it is released once the array is garbage collected. Any access after freeing it throws
+ * an {@link IllegalStateException}. Not thread safe.
+ * */
+public class OffHeapIntArray {
+
+	/**
+	 * 2^26 ints per chunk, 256MB
+	 * */
+	private static final int CHUNK_SHIFT = 26;
+
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private static final int MIN_CAPACITY = 16;
+
+	private static final Object UNSAFE;
+
+	private static final Method INVOKE_CLEANER;
+
+	/**
+	 * Frees direct buffers right away, available since java 9
+	 * */
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			unsafe = field.get(null);
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (Exception e) {
+			//before java 9 or not allowed, buffers are released by the garbage collector
+			unsafe = null;
+			invokeCleaner = null;
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	private IntBuffer[] chunks;
+
+	/**
+	 * Buffers backing the chunks, kept to free them
+	 * */
+	private ByteBuffer[] buffers;
+
+	private int capacity;
+
+	/**
+	 * @param initialCapacity number of ints the array holds without growing
+	 * */
+	public OffHeapIntArray(int initialCapacity) {
+		this.chunks = new IntBuffer[0];
+		this.buffers = new ByteBuffer[0];
+		ensureCapacity(Math.max(initialCapacity, MIN_CAPACITY));
+	}
+
+	public int get(int index) {
+		return chunks()[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+	}
+
+	public void set(int index, int value) {
+		chunks()[index >>> CHUNK_SHIFT].put(index & CHUNK_MASK, value);
+	}
+
+	/**
+	 * @return the number of ints this array holds without growing
+	 * */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Grows the array, at least doubling it while it fits in a single chunk. New positions are 0.
+	 * */
+	public void ensureCapacity(int minCapacity) {
+		chunks();
+		if(minCapacity <= capacity){
+			return;
+		}
+		if(minCapacity < 0){
+			throw new IllegalArgumentException("Off heap arrays can't hold more than " + Integer.MAX_VALUE + " ints");
+		}
+		if(capacity < CHUNK_SIZE){
+			//a single chunk, grown by copying it
+			int newSize = (int) Math.min(Math.max(minCapacity, (long) capacity * 2), CHUNK_SIZE);
+			ByteBuffer buffer = allocate(newSize);
+			IntBuffer chunk = buffer.asIntBuffer();
+			if(capacity > 0){
+				IntBuffer old = chunks[0].duplicate();
+				old.clear();
+				chunk.put(old);
+				chunk.clear();
+				release(buffers[0]);
+			}
+			chunks = new IntBuffer[]{chunk};
+			buffers = new ByteBuffer[]{buffer};
+			capacity = newSize;
+		}
+		//full chunks from here on
+		while(capacity < minCapacity){
+			int numChunks = chunks.length;
+			IntBuffer[] newChunks = new IntBuffer[numChunks + 1];
+			ByteBuffer[] newBuffers = new ByteBuffer[numChunks + 1];
+			System.arraycopy(chunks, 0, newChunks, 0, numChunks);
+			System.arraycopy(buffers, 0, newBuffers, 0, numChunks);
+			newBuffers[numChunks] = allocate(CHUNK_SIZE);
+			newChunks[numChunks] = newBuffers[numChunks].asIntBuffer();
+			chunks = newChunks;
+			buffers = newBuffers;
+			capacity = (int) Math.min((long) capacity + CHUNK_SIZE, Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Releases the memory of this array, it can't be used afterwards
+	 * */
+	public void free() {
+		if(chunks == null){
+			return;
+		}
+		ByteBuffer[] toRelease = buffers;
+		chunks = null;
+		buffers = null;
+		capacity = 0;
+		for (ByteBuffer buffer : toRelease) {
+			release(buffer);
+		}
+	}
+
+	/**
+	 * @return true if {@link #free()} was called
+	 * */
+	public boolean isFreed() {
+		return chunks == null;
+	}
+
+	private IntBuffer[] chunks() {
+		IntBuffer[] current = chunks;
+		if(current == null){
+			throw new IllegalStateException("Off heap array already freed");
+		}
+		return current;
+	}
+
+	private static ByteBuffer allocate(int numInts) {
+		return ByteBuffer.allocateDirect(numInts * 4).order(ByteOrder.nativeOrder());
+	}
+
+	private static void release(ByteBuffer buffer) {
+		if(INVOKE_CLEANER == null){
+			return;
+		}
+		try {
+			INVOKE_CLEANER.invoke(UNSAFE, buffer);
+		} catch (Exception e) {
+			//left to the garbage collector
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package org.nixus.core.structure.auxiliary;
+
+import static org.nixus.core.structure.auxiliary.PersistentVector.BITS;
+import static org.nixus.core.structure.auxiliary.PersistentVector.MASK;
+import static org.nixus.core.structure.auxiliary.PersistentVector.WIDTH;
+
+/**
+ * {@link PersistentVector} of primitive ints, kept in int array leaves.
+ * */
+public final class PersistentIntVector {
+
+	private static final int[] EMPTY_ARRAY = new int[0];
+
+	private static final PersistentIntVector EMPTY = new PersistentIntVector(0, BITS, new Object[WIDTH], EMPTY_ARRAY);
+
+	private final int size;
+
+	private final int shift;
+
+	/**
+	 * Tree of Object arrays with int array leaves
+	 * */
+	private final Object[] root;
+
+	private final int[] tail;
+
+	private PersistentIntVector(int size, int shift, Object[] root, int[] tail) {
+		this.size = size;
+		this.shift = shift;
+		this.root = root;
+		this.tail = tail;
+	}
+
+	/**
+	 * @return the empty vector
+	 * */
+	public static PersistentIntVector empty() {
+		return EMPTY;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int get(int index) {
+		return leafOf(index)[index & MASK];
+	}
+
+	/**
+	 * @return a vector with the value appended
+	 * */
+	public PersistentIntVector plus(int value) {
+		int tailSize = size - PersistentVector.tailOffset(size);
+		if(tailSize < WIDTH){
+			int[] newTail = new int[tailSize + 1];
+			System.arraycopy(tail, 0, newTail, 0, tailSize);
+			newTail[tailSize] = value;
+			return new PersistentIntVector(size + 1, shift, root, newTail);
+		}
+		Object[] newRoot;
+		int newShift = shift;
+		if((size >>> BITS) > (1 << shift)){
+			newRoot = new Object[WIDTH];
+			newRoot[0] = root;
+			newRoot[1] = PersistentVector.newPath(shift, tail);
+			newShift += BITS;
+		} else {
+			newRoot = PersistentVector.pushTail(size, shift, root, tail);
+		}
+		return new PersistentIntVector(size + 1, newShift, newRoot, new int[]{value});
+	}
+
+	/**
+	 * @return a vector with the value at the index replaced
+	 * */
+	public PersistentIntVector with(int index, int value) {
+		PersistentVector.checkIndex(index, size);
+		if(index >= PersistentVector.tailOffset(size)){
+			int[] newTail = tail.clone();
+			newTail[index & MASK] = value;
+			return new PersistentIntVector(size, shift, root, newTail);
+		}
+		return new PersistentIntVector(size, shift, replace(shift, root, index, value), tail);
+	}
+
+	private int[] leafOf(int index) {
+		PersistentVector.checkIndex(index, size);
+		if(index >= PersistentVector.tailOffset(size)){
+			return tail;
+		}
+		Object[] node = root;
+		for (int level = shift; level > BITS; level -= BITS) {
+			node = (Object[]) node[(index >>> level) & MASK];
+		}
+		return (int[]) node[(index >>> BITS) & MASK];
+	}
+
+	private static Object[] replace(int level, Object[] node, int index, int value) {
+		Object[] copy = node.clone();
+		int child = (index >>> level) & MASK;
+		if(level == BITS){
+			int[] leaf = ((int[]) node[child]).clone();
+			leaf[index & MASK] = value;
+			copy[child] = leaf;
+		} else {
+			copy[child] = replace(level - BITS, (Object[]) node[child], index, value);
+		}
+		return copy;
+	}
+}
@@ -0,0 +1,159 @@
+package org.nixus.core.structure.auxiliary;
+
+/**
+ * Immutable list that is changed by creating new lists, which share all but the changed
+ * path with the original one. Elements are kept in a tree of 32 wide arrays plus a tail
+ * array where they are appended, so changes and lookups take a few array accesses and
+ * appending copies the tail only.
+ * */
+public final class PersistentVector<E> {
+
+	static final int BITS = 5;
+
+	static final int WIDTH = 1 << BITS;
+
+	static final int MASK = WIDTH - 1;
+
+	private static final Object[] EMPTY_ARRAY = new Object[0];
+
+	private static final PersistentVector<Object> EMPTY = new PersistentVector<Object>(0, BITS, new Object[WIDTH], EMPTY_ARRAY);
+
+	private final int size;
+
+	/**
+	 * Levels under the root times BITS
+	 * */
+	private final int shift;
+
+	private final Object[] root;
+
+	private final Object[] tail;
+
+	private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+		this.size = size;
+		this.shift = shift;
+		this.root = root;
+		this.tail = tail;
+	}
+
+	/**
+	 * @return the empty vector
+	 * */
+	@SuppressWarnings("unchecked")
+	public static <E> PersistentVector<E> empty() {
+		return (PersistentVector<E>) EMPTY;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		return (E) leafOf(index)[index & MASK];
+	}
+
+	/**
+	 * @return a vector with the element appended
+	 * */
+	public PersistentVector<E> plus(E element) {
+		int tailSize = size - tailOffset();
+		if(tailSize < WIDTH){
+			Object[] newTail = new Object[tailSize + 1];
+			System.arraycopy(tail, 0, newTail, 0, tailSize);
+			newTail[tailSize] = element;
+			return new PersistentVector<E>(size + 1, shift, root, newTail);
+		}
+		Object[] newRoot;
+		int newShift = shift;
+		if((size >>> BITS) > (1 << shift)){
+			//the tree is full, it grows a level
+			newRoot = new Object[WIDTH];
+			newRoot[0] = root;
+			newRoot[1] = newPath(shift, tail);
+			newShift += BITS;
+		} else {
+			newRoot = pushTail(size, shift, root, tail);
+		}
+		return new PersistentVector<E>(size + 1, newShift, newRoot, new Object[]{element});
+	}
+
+	/**
+	 * @return a vector with the element at the index replaced
+	 * */
+	public PersistentVector<E> with(int index, E element) {
+		checkIndex(index, size);
+		if(index >= tailOffset()){
+			Object[] newTail = tail.clone();
+			newTail[index & MASK] = element;
+			return new PersistentVector<E>(size, shift, root, newTail);
+		}
+		return new PersistentVector<E>(size, shift, replace(shift, root, index, element), tail);
+	}
+
+	private int tailOffset() {
+		return tailOffset(size);
+	}
+
+	private Object[] leafOf(int index) {
+		checkIndex(index, size);
+		if(index >= tailOffset()){
+			return tail;
+		}
+		Object[] node = root;
+		for (int level = shift; level > 0; level -= BITS) {
+			node = (Object[]) node[(index >>> level) & MASK];
+		}
+		return node;
+	}
+
+	private static Object[] replace(int level, Object[] node, int index, Object element) {
+		Object[] copy = node.clone();
+		if(level == 0){
+			copy[index & MASK] = element;
+		} else {
+			int child = (index >>> level) & MASK;
+			copy[child] = replace(level - BITS, (Object[]) node[child], index, element);
+		}
+		return copy;
+	}
+
+	static int tailOffset(int size) {
+		return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+	}
+
+	static void checkIndex(int index, int size) {
+		if(index < 0 || index >= size){
+			throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+		}
+	}
+
+	/**
+	 * @return a copy of the node with the full tail of a vector of the given size
+	 * added as its last leaf
+	 * */
+	static Object[] pushTail(int size, int level, Object[] node, Object leaf) {
+		Object[] copy = node.clone();
+		int child = ((size - 1) >>> level) & MASK;
+		if(level == BITS){
+			copy[child] = leaf;
+		} else if(node[child] != null){
+			copy[child] = pushTail(size, level - BITS, (Object[]) node[child], leaf);
+		} else {
+			copy[child] = newPath(level - BITS, leaf);
+		}
+		return copy;
+	}
+
+	/**
+	 * @return a branch of the given height holding only the leaf
+	 * */
+	static Object newPath(int level, Object leaf) {
+		if(level == 0){
+			return leaf;
+		}
+		Object[] node = new Object[WIDTH];
+		node[0] = newPath(level - BITS, leaf);
+		return node;
+	}
+}
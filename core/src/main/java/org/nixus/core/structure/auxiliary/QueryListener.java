@@ -0,0 +1,22 @@
+package org.nixus.core.structure.auxiliary;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Object to be implemented to instrument the queries of a graph. Called by the thread 
+ * running the query as it starts, from then on the query reports to the returned probe.
+ * Queries running at once get a probe each.
+ * */
+public interface QueryListener {
+
+	/**
+	 * @param graph the graph being queried
+	 * @param source the node the query starts from, null for the topological order
+	 * @param strategy the strategy of a shortest path query, null for the rest
+	 * @return the probe the query will report to, {@link NoOpQueryListener#INSTANCE} to 
+	 * leave the query alone
+	 * */
+	public QueryProbe queryStarted(Graph graph, QueryType type, Node source, ShortestPathStrategy strategy);
+}
@@ -0,0 +1,19 @@
+package org.nixus.core.structure.auxiliary;
+
+/**
+ * Phases of a query, timed separately by {@link QueryStatistics}
+ * */
+public enum QueryPhase {
+	/**
+	 * Allocating the state of the query, filling the heap or sorting the nodes
+	 * */
+	INITIALIZATION,
+	/**
+	 * Settling the nodes and relaxing the arcs
+	 * */
+	SEARCH,
+	/**
+	 * Building the paths from the parents found
+	 * */
+	PATH_BUILDING
+}
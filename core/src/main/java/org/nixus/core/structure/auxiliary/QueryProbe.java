@@ -0,0 +1,47 @@
+package org.nixus.core.structure.auxiliary;
+
+/**
+ * Receives the events of a single query, always from the thread running it.
+ * See {@link QueryListener}.
+ * */
+public interface QueryProbe {
+
+	/**
+	 * Called as the query enters a phase, the previous one being finished
+	 * */
+	public void phaseStarted(QueryPhase phase);
+
+	/**
+	 * A node left the heap, or was taken in topological order or visited by a traversal
+	 * */
+	public void nodeSettled();
+
+	/**
+	 * An arc was looked at to relax its target, or followed by a traversal
+	 * */
+	public void arcScanned();
+
+	/**
+	 * A shorter distance to a node was found
+	 * */
+	public void relaxed();
+
+	public void heapInserted();
+
+	public void heapRemoved();
+
+	/**
+	 * A node moved one level up or down the heap
+	 * */
+	public void heapSifted();
+
+	/**
+	 * Bellman-Ford finished relaxing every arc once
+	 * */
+	public void bellmanFordPassDone();
+
+	/**
+	 * Called once the query finished, even if it failed
+	 * */
+	public void queryFinished();
+}
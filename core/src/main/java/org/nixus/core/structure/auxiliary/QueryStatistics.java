@@ -0,0 +1,226 @@
+package org.nixus.core.structure.auxiliary;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Counters and phase times of a single query. 
+ * {@link #samplingListener(int, Consumer)} creates a listener handing the statistics of 
+ * one of every few queries to a consumer, so it can stay enabled in production.
+ * */
+public class QueryStatistics implements QueryProbe {
+
+	private final QueryType type;
+
+	private final Node source;
+
+	private final ShortestPathStrategy strategy;
+
+	/**
+	 * Called with these statistics when the query finishes, null if none
+	 * */
+	private final Consumer<? super QueryStatistics> consumer;
+
+	private long nodesSettled;
+
+	private long arcsScanned;
+
+	private long relaxations;
+
+	private long heapInserts;
+
+	private long heapRemoves;
+
+	private long heapSifts;
+
+	private int bellmanFordPasses;
+
+	private final long[] phaseNanos = new long[QueryPhase.values().length];
+
+	private QueryPhase currentPhase;
+
+	private final long startNanos;
+
+	private long phaseStartNanos;
+
+	private long totalNanos;
+
+	public QueryStatistics(QueryType type, Node source, ShortestPathStrategy strategy, Consumer<? super QueryStatistics> consumer) {
+		this.type = type;
+		this.source = source;
+		this.strategy = strategy;
+		this.consumer = consumer;
+		this.startNanos = System.nanoTime();
+		this.phaseStartNanos = this.startNanos;
+	}
+
+	/**
+	 * @param samplingInterval 1 to instrument every query, n to instrument one of every n
+	 * @param consumer called by the thread that ran every instrumented query, once it finishes
+	 * */
+	public static QueryListener samplingListener(final int samplingInterval, final Consumer<? super QueryStatistics> consumer) {
+		if(samplingInterval < 1){
+			throw new IllegalArgumentException("The sampling interval must be at least 1");
+		}
+		final AtomicLong numQueries = new AtomicLong();
+		return new QueryListener() {
+			@Override
+			public QueryProbe queryStarted(Graph graph, QueryType type, Node source, ShortestPathStrategy strategy) {
+				if(numQueries.getAndIncrement() % samplingInterval != 0){
+					return NoOpQueryListener.INSTANCE;
+				}
+				return new QueryStatistics(type, source, strategy, consumer);
+			}
+		};
+	}
+
+	@Override
+	public void phaseStarted(QueryPhase phase) {
+		finishPhase(System.nanoTime());
+		this.currentPhase = phase;
+	}
+
+	private void finishPhase(long now) {
+		if(this.currentPhase != null){
+			this.phaseNanos[this.currentPhase.ordinal()] += now - this.phaseStartNanos;
+		}
+		this.phaseStartNanos = now;
+	}
+
+	@Override
+	public void nodeSettled() {
+		this.nodesSettled++;
+	}
+
+	@Override
+	public void arcScanned() {
+		this.arcsScanned++;
+	}
+
+	@Override
+	public void relaxed() {
+		this.relaxations++;
+	}
+
+	@Override
+	public void heapInserted() {
+		this.heapInserts++;
+	}
+
+	@Override
+	public void heapRemoved() {
+		this.heapRemoves++;
+	}
+
+	@Override
+	public void heapSifted() {
+		this.heapSifts++;
+	}
+
+	@Override
+	public void bellmanFordPassDone() {
+		this.bellmanFordPasses++;
+	}
+
+	@Override
+	public void queryFinished() {
+		long now = System.nanoTime();
+		finishPhase(now);
+		this.currentPhase = null;
+		this.totalNanos = now - this.startNanos;
+		if(this.consumer != null){
+			this.consumer.accept(this);
+		}
+	}
+
+	public QueryType getType() {
+		return type;
+	}
+
+	/**
+	 * @return the node the query started from, null for the topological order
+	 * */
+	public Node getSource() {
+		return source;
+	}
+
+	/**
+	 * @return the strategy of a shortest path query, null for the rest
+	 * */
+	public ShortestPathStrategy getStrategy() {
+		return strategy;
+	}
+
+	public long getNodesSettled() {
+		return nodesSettled;
+	}
+
+	public long getArcsScanned() {
+		return arcsScanned;
+	}
+
+	/**
+	 * @return the number of times a shorter distance was found
+	 * */
+	public long getRelaxations() {
+		return relaxations;
+	}
+
+	public long getHeapInserts() {
+		return heapInserts;
+	}
+
+	public long getHeapRemoves() {
+		return heapRemoves;
+	}
+
+	/**
+	 * @return the number of levels the nodes moved up or down the heap
+	 * */
+	public long getHeapSifts() {
+		return heapSifts;
+	}
+
+	public int getBellmanFordPasses() {
+		return bellmanFordPasses;
+	}
+
+	/**
+	 * @return the nanoseconds spent on the phase
+	 * */
+	public long getPhaseNanos(QueryPhase phase) {
+		return phaseNanos[phase.ordinal()];
+	}
+
+	/**
+	 * @return the nanoseconds the whole query took, 0 until it finishes
+	 * */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder description = new StringBuilder();
+		description.append(type);
+		if(strategy != null){
+			description.append(' ').append(strategy);
+		}
+		description.append(" from ").append(source)
+			.append(": settled ").append(nodesSettled)
+			.append(", scanned ").append(arcsScanned)
+			.append(", relaxed ").append(relaxations)
+			.append(", heap ").append(heapInserts).append('/').append(heapRemoves).append('/').append(heapSifts);
+		if(bellmanFordPasses > 0){
+			description.append(", passes ").append(bellmanFordPasses);
+		}
+		for (QueryPhase phase : QueryPhase.values()) {
+			description.append(", ").append(phase).append(' ').append(phaseNanos[phase.ordinal()] / 1000).append("us");
+		}
+		return description.append(", total ").append(totalNanos / 1000).append("us").toString();
+	}
+}
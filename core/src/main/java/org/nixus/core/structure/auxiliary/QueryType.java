@@ -0,0 +1,18 @@
+package org.nixus.core.structure.auxiliary;
+
+/**
+ * Queries reported to a {@link QueryListener}
+ * */
+public enum QueryType {
+	/**
+	 * {@link org.nixus.core.structure.nodes.Node#findShortestPathTo}
+	 * */
+	SHORTEST_PATH,
+	/**
+	 * {@link org.nixus.core.structure.nodes.Node#findShortestPathToEveryOtherNode}
+	 * */
+	SHORTEST_PATH_TO_EVERY_OTHER_NODE,
+	DEPTH_FIRST_TRAVERSAL,
+	BREATH_FIRST_TRAVERSAL,
+	TOPOLOGICAL_ORDER
+}
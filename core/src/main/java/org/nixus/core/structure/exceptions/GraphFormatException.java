@@ -0,0 +1,15 @@
+package org.nixus.core.structure.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown when reading a graph from data that doesn't follow the expected format.
+ * */
+public class GraphFormatException extends IOException {
+
+	private static final long serialVersionUID = -3095834717216813528L;
+
+	public GraphFormatException(String message) {
+		super(message);
+	}
+}
@@ -1,17 +1,28 @@
 package org.nixus.core.structure.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Stack;
 
+import org.nixus.core.strategies.NodeOrdering;
+import org.nixus.core.strategies.WeightType;
 import org.nixus.core.structure.Arc;
 import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.GraphChangeListener;
 import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.auxiliary.NoOpQueryListener;
 import org.nixus.core.structure.auxiliary.NodeVisitor;
+import org.nixus.core.structure.auxiliary.QueryListener;
+import org.nixus.core.structure.auxiliary.QueryPhase;
+import org.nixus.core.structure.auxiliary.QueryProbe;
+import org.nixus.core.structure.auxiliary.QueryType;
 import org.nixus.core.structure.exceptions.NotADirectedAcyclicGraphException;
 import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
 import org.nixus.core.structure.nodes.Node;
@@ -23,14 +34,72 @@ public abstract class AbstractGraph implements Graph {
 
 	private static final String NODE_DEFAULT_TAG_START = "Node ";
 
+	/**
+	 * Number of nodes added, the removed ones included until the next compaction
+	 * */
 	protected int nodeCount;
 
 	/**
-	 * Graph nodes
+	 * Graph nodes by insertion order, null in the place of the removed ones 
+	 * until the next compaction
 	 */
 	protected List<Node> nodes;
 	
+	/**
+	 * Graph arcs, the removed ones included until the next compaction
+	 * */
 	protected List<Arc> arcs;
+	
+	private int numRemovedNodes;
+	
+	private int numRemovedArcs;
+	
+	/**
+	 * Share of removed nodes or arcs that triggers a compaction
+	 * */
+	private float compactionThreshold = 0.5F;
+	
+	/**
+	 * Nodes and arcs not removed, built on demand while there are removed ones
+	 * */
+	private transient List<Node> liveNodes;
+	
+	private transient List<Arc> liveArcs;
+	
+	/**
+	 * Number of changes made to the nodes and arcs, see {@link #getModificationCount()}
+	 * */
+	private transient long modificationCount;
+	
+	/**
+	 * Whether the shortest path strategies run on weight snapshots
+	 * */
+	private boolean snapshotWeights;
+	
+	/**
+	 * Last weight snapshot taken of each weight type
+	 * */
+	private transient WeightSnapshot[] weightSnapshots;
+	
+	/**
+	 * Listeners of the changes of this graph, null if there are none
+	 * */
+	private transient List<GraphChangeListener> changeListeners;
+	
+	/**
+	 * Node of each tag, null until a node is looked up by tag
+	 * */
+	private transient Map<String, Node> tagIndex;
+	
+	/**
+	 * Listener of the queries of this graph, null if there is none
+	 * */
+	private transient QueryListener queryListener;
+	
+	/**
+	 * Listener of the queries of the graphs without one of their own
+	 * */
+	private static volatile QueryListener defaultQueryListener = NoOpQueryListener.INSTANCE;
 
 	public AbstractGraph(){
 		this.arcs = new ArrayList<Arc>();
@@ -42,36 +111,318 @@ public abstract class AbstractGraph implements Graph {
 	
 	@Override
 	public boolean isEmpty() {
-		return this.nodeCount == 0;
+		return this.size() == 0;
 	}
 
 	@Override
 	public int size() {
-		return this.nodeCount;
+		return this.nodeCount - this.numRemovedNodes;
 	}
 	
+	@Override
+	public boolean isDirected() {
+		return true;
+	}
+	
+	/**
+	 * While there are removed nodes, returns a copy without them made on the first call 
+	 * after every change.
+	 * */
 	@Override
 	public List<Node> getNodes() {
-		return this.nodes;
+		if(this.numRemovedNodes == 0){
+			return this.nodes;
+		}
+		if(this.liveNodes == null){
+			List<Node> live = new ArrayList<Node>(this.size());
+			for (Node node : this.nodes) {
+				if(node != null){
+					live.add(node);
+				}
+			}
+			this.liveNodes = live;
+		}
+		return this.liveNodes;
 	}
 	
+	/**
+	 * While there are removed arcs, returns a copy without them made on the first call 
+	 * after every change.
+	 * */
 	@Override
 	public List<Arc> getArcs(){
-		return this.arcs;
+		if(this.numRemovedArcs == 0){
+			return this.arcs;
+		}
+		if(this.liveArcs == null){
+			List<Arc> live = new ArrayList<Arc>(this.arcs.size() - this.numRemovedArcs);
+			for (Arc arc : this.arcs) {
+				if(!((ArcImpl)arc).removed){
+					live.add(arc);
+				}
+			}
+			this.liveArcs = live;
+		}
+		return this.liveArcs;
+	}
+	
+	/**
+	 * @return a number that changes every time a node or an arc is added or removed, or the 
+	 * graph is compacted. Changes to the contents are not counted.
+	 * */
+	public long getModificationCount() {
+		return this.modificationCount;
+	}
+	
+	/**
+	 * Makes the shortest path strategies read the arc weights from a {@link WeightSnapshot}, 
+	 * taken on the first query and reused until the graph changes. Arc contents must not 
+	 * change their measure while it is enabled, nor the graph be changed during a query. 
+	 * Queries running at once may take the same snapshot twice, only one is kept. 
+	 * Disabled by default.
+	 * */
+	public void setSnapshotWeights(boolean snapshotWeights) {
+		this.snapshotWeights = snapshotWeights;
+		this.weightSnapshots = null;
+	}
+	
+	public boolean isSnapshotWeights() {
+		return this.snapshotWeights;
+	}
+	
+	/**
+	 * @return a snapshot of the arc weights of this graph, the last one taken if the graph 
+	 * didn't change since
+	 * */
+	public WeightSnapshot getWeightSnapshot(WeightType weightType) {
+		WeightSnapshot[] snapshots = this.weightSnapshots;
+		if(snapshots == null){
+			snapshots = new WeightSnapshot[WeightType.values().length];
+			this.weightSnapshots = snapshots;
+		}
+		WeightSnapshot snapshot = snapshots[weightType.ordinal()];
+		if(snapshot == null || snapshot.getModificationCount() != this.modificationCount){
+			snapshot = WeightSnapshot.of(this, weightType);
+			snapshots[weightType.ordinal()] = snapshot;
+		}
+		return snapshot;
+	}
+	
+	/**
+	 * Sets the listener told about every shortest path query, traversal and topological 
+	 * order of this graph, null to stop instrumenting them. Queries already running 
+	 * keep reporting to their probes.
+	 * */
+	public void setQueryListener(QueryListener queryListener) {
+		this.queryListener = queryListener;
+	}
+	
+	/**
+	 * @return the listener of the queries of this graph, the default one if there is none
+	 * */
+	public QueryListener getQueryListener() {
+		QueryListener listener = this.queryListener;
+		return listener != null ? listener : defaultQueryListener;
+	}
+	
+	/**
+	 * Sets the listener of the queries of every graph without a listener of its own, 
+	 * for example {@link org.nixus.core.jfr.JfrQueryListener#INSTANCE} at startup. 
+	 * Null to go back to {@link NoOpQueryListener#INSTANCE}, the default.
+	 * */
+	public static void setDefaultQueryListener(QueryListener queryListener) {
+		defaultQueryListener = queryListener != null ? queryListener : NoOpQueryListener.INSTANCE;
+	}
+	
+	public static QueryListener getDefaultQueryListener() {
+		return defaultQueryListener;
+	}
+	
+	/**
+	 * @return an estimate of the heap retained by this graph, see {@link MemoryFootprint}. 
+	 * Walks every node and arc, so it takes linear time and must not run while the graph 
+	 * changes.
+	 * */
+	public MemoryFootprint getMemoryFootprint() {
+		long adjacencyBytes = this.estimateAdjacencyBytes();
+		WeightSnapshot[] snapshots = this.weightSnapshots;
+		if(snapshots != null){
+			for (WeightSnapshot snapshot : snapshots) {
+				if(snapshot != null){
+					adjacencyBytes += snapshot.estimateBytes();
+				}
+			}
+		}
+		long tagBytes = this.estimateTagBytes();
+		Map<String, Node> index = this.tagIndex;
+		if(index != null){
+			tagBytes += MemoryFootprint.hashMapBytes(index.size());
+		}
+		return new MemoryFootprint(this.size(), this.getArcs().size(), this.isDirected(), this.estimateNodeBytes(), 
+				this.estimateArcBytes(), adjacencyBytes, this.estimateMatrixSlackBytes(), tagBytes);
+	}
+	
+	/**
+	 * @return an estimate in bytes of the node objects and of the list holding them
+	 * */
+	protected long estimateNodeBytes() {
+		long bytes = MemoryFootprint.arrayListBytes(this.nodes.size());
+		for (Node node : this.nodes) {
+			if(node != null){
+				bytes += ((AbstractNode)node).estimateNodeBytes();
+			}
+		}
+		return bytes;
+	}
+	
+	/**
+	 * @return an estimate in bytes of the arc objects and of the list holding them
+	 * */
+	protected long estimateArcBytes() {
+		return MemoryFootprint.arrayListBytes(this.arcs.size()) + this.arcs.size() * MemoryFootprint.arcBytes();
+	}
+	
+	/**
+	 * @return an estimate in bytes of the structures holding the arcs of the nodes
+	 * */
+	protected long estimateAdjacencyBytes() {
+		long bytes = 0;
+		for (Node node : this.nodes) {
+			if(node != null){
+				bytes += ((AbstractNode)node).estimateAdjacencyBytes();
+			}
+		}
+		return bytes;
+	}
+	
+	/**
+	 * @return an estimate in bytes of the adjacency matrix not used by the nodes, none by default
+	 * */
+	protected long estimateMatrixSlackBytes() {
+		return 0;
+	}
+	
+	/**
+	 * @return an estimate in bytes of the tags of the nodes and of the arcs that built theirs
+	 * */
+	protected long estimateTagBytes() {
+		long bytes = 0;
+		for (Node node : this.nodes) {
+			if(node != null && node.getTag() != null){
+				bytes += MemoryFootprint.stringBytes(node.getTag());
+			}
+		}
+		for (Arc arc : this.arcs) {
+			String tag = ((ArcImpl)arc).getBuiltTag();
+			if(tag != null){
+				bytes += MemoryFootprint.stringBytes(tag);
+			}
+		}
+		return bytes;
+	}
+	
+	/**
+	 * @return the nodes of this graph indexed by insertion order, with null in the place 
+	 * of the removed ones until the next compaction. Used by the algorithms that keep 
+	 * their state by insertion order.
+	 * */
+	public List<Node> getNodesById() {
+		return this.nodes;
 	}
 	
 	@Override
 	public Node addNode(Measurable<? extends Object> content) {
-		String tag = NODE_DEFAULT_TAG_START + nodeCount;
+		String tag = defaultTag(nodeCount);
 		Node node = addNode(content, tag );
 		return node;
 	}
 	
+	@Override
+	public Node getNodeById(int id) {
+		Node node = this.nodes.get(id);
+		if(node == null){
+			throw new IndexOutOfBoundsException("Node " + id + " was removed");
+		}
+		return node;
+	}
+	
+	@Override
+	public Node getNodeByTag(String tag) {
+		if(this.tagIndex == null){
+			this.indexTags(new HashMap<String, Node>());
+		}
+		return this.tagIndex.get(tag);
+	}
+	
+	/**
+	 * Indexes the tags of the nodes in the given empty map, which is kept up to date 
+	 * from then on. Graphs changed by many threads at once give a concurrent map 
+	 * before adding any node.
+	 * */
+	protected void indexTags(Map<String, Node> index) {
+		for (Node node : this.nodes) {
+			String tag = node != null ? node.getTag() : null;
+			if(tag != null){
+				index.putIfAbsent(tag, node);
+			}
+		}
+		this.tagIndex = index;
+	}
+	
+	/**
+	 * Called by the nodes of this graph after their tag changes, keeps the tag index and
+	 * tells the listeners. Nodes being added or already removed are only indexed.
+	 * @param oldTag the tag the node had before, null if it had none
+	 * */
+	public void nodeTagChanged(Node node, String oldTag) {
+		this.indexTag(node, oldTag);
+		if(this.changeListeners != null && this.contains(node)){
+			for (GraphChangeListener listener : this.changeListeners) {
+				listener.nodeTagChanged(node, oldTag);
+			}
+		}
+	}
+	
+	private void indexTag(Node node, String oldTag) {
+		Map<String, Node> index = this.tagIndex;
+		if(index == null){
+			return;
+		}
+		unindexTag(index, node, oldTag);
+		String tag = node.getTag();
+		//removed nodes keep no tag
+		if(tag != null && (this.numRemovedNodes == 0 || this.contains(node))){
+			index.putIfAbsent(tag, node);
+		}
+	}
+	
+	/**
+	 * Drops the tag of the node from the index, handing it over to another node with the same tag
+	 * */
+	private void unindexTag(Map<String, Node> index, Node node, String tag) {
+		if(tag != null && index.get(tag) == node){
+			index.remove(tag);
+			for (Node other : this.nodes) {
+				if(other != null && other != node && tag.equals(other.getTag())){
+					index.putIfAbsent(tag, other);
+					break;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @return the tag given to a node added without one
+	 * @param insertionOrder the insertion order of the node
+	 * */
+	public static String defaultTag(int insertionOrder) {
+		return NODE_DEFAULT_TAG_START + insertionOrder;
+	}
+	
 	@Override
 	public List<Node> depthFirstTraversal(Node start, NodeVisitor transformer) {
 		List<Node> returnList = depthFirstTraverseOnly(start);
 		for (Node node : returnList) {
-			((AbstractNode)node).setVisited(false);
 			transformer.visit(node);
 		}
 		return returnList;
@@ -79,25 +430,118 @@ public abstract class AbstractGraph implements Graph {
 	
 	@Override
 	public List<Node> depthFirstTraversal(Node start) {
-		List<Node> returnList = depthFirstTraverseOnly(start);
-		for (Node node : returnList) {
-			((AbstractNode)node).setVisited(false);
-		}
-		return returnList;
+		return depthFirstTraverseOnly(start);
 	}
 
 	public void addArc(Arc arc) {
 		this.arcs.add(arc);
+		this.liveArcs = null;
+		this.fireArcAdded(arc);
+	}
+	
+	/**
+	 * Adds all the arcs at once. Used by bulk loaders, the arcs must be already 
+	 * linked to its nodes. 
+	 * */
+	public void addArcs(Collection<Arc> arcs) {
+		this.arcs.addAll(arcs);
+		this.liveArcs = null;
+		this.modificationCount++;
+		if(this.changeListeners != null){
+			for (Arc arc : arcs) {
+				this.fireArcAdded(arc);
+			}
+		}
+	}
+	
+	/**
+	 * Registers a listener to be told about the nodes and arcs added to this graph
+	 * */
+	public void addChangeListener(GraphChangeListener listener) {
+		if(this.changeListeners == null){
+			this.changeListeners = new ArrayList<GraphChangeListener>();
+		}
+		this.changeListeners.add(listener);
+	}
+	
+	/**
+	 * Unregisters a listener added by {@link #addChangeListener(GraphChangeListener)}
+	 * */
+	public void removeChangeListener(GraphChangeListener listener) {
+		if(this.changeListeners != null){
+			this.changeListeners.remove(listener);
+			if(this.changeListeners.isEmpty()){
+				this.changeListeners = null;
+			}
+		}
+	}
+	
+	protected void fireNodeAdded(Node node) {
+		this.liveNodes = null;
+		this.modificationCount++;
+		this.indexTag(node, null);
+		if(this.changeListeners != null){
+			for (GraphChangeListener listener : this.changeListeners) {
+				listener.nodeAdded(node);
+			}
+		}
+	}
+	
+	/**
+	 * Tells the listeners a node is about to be removed, they can stop the removal by throwing
+	 * */
+	protected void fireNodeRemoved(Node node) {
+		if(this.changeListeners != null){
+			for (GraphChangeListener listener : this.changeListeners) {
+				listener.nodeRemoved(node);
+			}
+		}
+	}
+	
+	/**
+	 * Tells the listeners an arc is about to be removed, they can stop the removal by throwing
+	 * */
+	protected void fireArcRemoved(Arc arc) {
+		if(this.changeListeners != null){
+			for (GraphChangeListener listener : this.changeListeners) {
+				listener.arcRemoved(arc);
+			}
+		}
+	}
+	
+	/**
+	 * Tells the listeners a compaction gave the nodes new insertion orders
+	 * */
+	protected void fireNodesRenumbered() {
+		if(this.changeListeners != null){
+			for (GraphChangeListener listener : this.changeListeners) {
+				listener.nodesRenumbered();
+			}
+		}
+	}
+	
+	protected void fireArcAdded(Arc arc) {
+		this.modificationCount++;
+		if(this.changeListeners != null){
+			for (GraphChangeListener listener : this.changeListeners) {
+				listener.arcAdded(arc);
+			}
+		}
+	}
+	
+	/**
+	 * Prepares this graph to hold the given number of nodes and arcs, so its 
+	 * structures don't grow on each insertion.
+	 * */
+	public void ensureCapacity(int numNodes, int numArcs) {
+		if(this.arcs instanceof ArrayList){
+			((ArrayList<Arc>)this.arcs).ensureCapacity(numArcs);
+		}
 	}
 	
 	@Override
 	public List<Node> breathFirstTraversal(Node start) {
-		List<Node> returnList = this.breathFirstTraverseOnly(start);
-		
-		for (Node node : returnList) {
-			((AbstractNode)node).setVisited(false);
-		}
-		return returnList;
+		return this.breathFirstTraverseOnly(start);
 	}
 	
 	@Override
@@ -106,93 +550,143 @@ public abstract class AbstractGraph implements Graph {
 		List<Node> returnList = this.breathFirstTraverseOnly(start);
 		
 		for (Node node : returnList) {
-			((AbstractNode)node).setVisited(false);
 			transformer.visit(node);
 		}
 		return returnList;
 	}
 	
 	/**
-	 * Doesn't clean the visited flags 
+	 * Doesn't visit the nodes. The visited flags are kept by the traversal, indexed by
+	 * insertion order, so traversals running at once on the same graph don't step on each other.
 	 * */
 	private List<Node> breathFirstTraverseOnly(Node start) {
-		Queue<Node> nodeQueue = new LinkedList<Node>();
-		List<Node> returnList = new LinkedList<Node>();
-		
-		nodeQueue.add(start);
-		while(!nodeQueue.isEmpty()){
-			Node parentNode = nodeQueue.poll();
-			returnList.add(parentNode);
-			((AbstractNode)parentNode).setVisited(true);
-			List<Node> neighbors = parentNode.getReachableNeighbors();
+		QueryProbe probe = this.getQueryListener().queryStarted(this, QueryType.BREATH_FIRST_TRAVERSAL, start, null);
+		try {
+			probe.phaseStarted(QueryPhase.INITIALIZATION);
+			Queue<Node> nodeQueue = new LinkedList<Node>();
+			List<Node> returnList = new LinkedList<Node>();
+			boolean[] visited = new boolean[this.nodes.size()];
 			
-			for (Node cNode : neighbors) {
-				if(!((AbstractNode)cNode).wasVisited()){
-					nodeQueue.add(cNode);
+			probe.phaseStarted(QueryPhase.SEARCH);
+			nodeQueue.add(start);
+			while(!nodeQueue.isEmpty()){
+				Node parentNode = nodeQueue.poll();
+				probe.nodeSettled();
+				returnList.add(parentNode);
+				visited[indexOf(parentNode)] = true;
+				List<Node> neighbors = parentNode.getReachableNeighbors();
+				
+				for (Node cNode : neighbors) {
+					probe.arcScanned();
+					if(!visited[indexOf(cNode)]){
+						nodeQueue.add(cNode);
+					}
 				}
 			}
+			
+			return returnList;
+		} finally {
+			probe.queryFinished();
 		}
-		
-		return returnList;
 	}
 	
 	/**
-	 * Doesn't clean the visited flags 
+	 * Doesn't visit the nodes, see {@link #breathFirstTraverseOnly(Node)}
 	 * */
 	private List<Node> depthFirstTraverseOnly(Node start){
-		Stack<Node> nodeStack = new Stack<Node>();
-		List<Node> returnList = new LinkedList<Node>();
-		nodeStack.push(start);
-		
-		while(!nodeStack.isEmpty()){
-			Node cNode = nodeStack.pop();
-			((AbstractNode)cNode).setVisited(true);
-			returnList.add(cNode);
-			List<Node> neighbors = cNode.getReachableNeighbors();
-			for (Node node : neighbors) {
-				if(!((AbstractNode)node).wasVisited()){
-					nodeStack.push(node);	
-				};
+		QueryProbe probe = this.getQueryListener().queryStarted(this, QueryType.DEPTH_FIRST_TRAVERSAL, start, null);
+		try {
+			probe.phaseStarted(QueryPhase.INITIALIZATION);
+			Stack<Node> nodeStack = new Stack<Node>();
+			List<Node> returnList = new LinkedList<Node>();
+			boolean[] visited = new boolean[this.nodes.size()];
+			
+			probe.phaseStarted(QueryPhase.SEARCH);
+			nodeStack.push(start);
+			while(!nodeStack.isEmpty()){
+				Node cNode = nodeStack.pop();
+				probe.nodeSettled();
+				visited[indexOf(cNode)] = true;
+				returnList.add(cNode);
+				List<Node> neighbors = cNode.getReachableNeighbors();
+				for (Node node : neighbors) {
+					probe.arcScanned();
+					if(!visited[indexOf(node)]){
+						nodeStack.push(node);	
+					};
+				}
 			}
+			
+			return returnList;
+		} finally {
+			probe.queryFinished();
 		}
-		
-		return returnList;
+	}
+	
+	private static int indexOf(Node node) {
+		return ((HiddenNodeAbstraction)node).getInsertionOrder();
+	}
+	
+	/**
+	 * @return the position of each node of the graph in {@link Graph#getNodes()}, by 
+	 * insertion order. Both are the same unless nodes were removed since the last compaction.
+	 * Used by the writers, which number the nodes by position.
+	 * */
+	public static int[] getNodePositions(Graph graph) {
+		List<Node> nodes = graph.getNodes();
+		int[] positions = new int[((AbstractGraph)graph).getNodesById().size()];
+		int position = 0;
+		for (Node node : nodes) {
+			positions[indexOf(node)] = position++;
+		}
+		return positions;
 	}
 	
 	protected void commonNodeAdd(Node node, String tag) {
-		this.nodes.add(node);
+		//tagged before it is in the graph, so the listeners aren't told about the tag
 		((HiddenNodeAbstraction)node).setInsertionOrder(nodeCount);
-		this.nodeCount++;
 		node.setTag(tag);
+		this.nodes.add(node);
+		this.nodeCount++;
+		this.fireNodeAdded(node);
 	}
 	
 	@Override
 	public List<Node> getNodesInTopologicalOrder() throws NotADirectedAcyclicGraphException{
-		List<Node> topologicalSortedNodeList = new ArrayList<Node>(this.nodeCount);
-		
-		Queue<Node> startNodes = initializeTopologicalOrder();
-		
-		int numEdges = this.getArcs().size();
-		
-		//process algorithm
-		while(!startNodes.isEmpty()){
-			Node from = startNodes.poll();
-			topologicalSortedNodeList.add(from);
-			for (Node to : from.getReachableNeighbors()) {
-				AbstractNode toNode = (AbstractNode)to;
-				toNode.decCurrentIncomingArcs();
-				numEdges--;
-				if(toNode.hasNoMoreIncomingArcs()){
-					startNodes.add(toNode);
+		QueryProbe probe = this.getQueryListener().queryStarted(this, QueryType.TOPOLOGICAL_ORDER, null, null);
+		try {
+			probe.phaseStarted(QueryPhase.INITIALIZATION);
+			List<Node> topologicalSortedNodeList = new ArrayList<Node>(this.size());
+			
+			//arcs of each node not processed yet
+			int[] pendingIncomingArcs = new int[this.nodes.size()];
+			Queue<Node> startNodes = initializeTopologicalOrder(pendingIncomingArcs);
+			
+			int numEdges = this.getArcs().size();
+			
+			//process algorithm
+			probe.phaseStarted(QueryPhase.SEARCH);
+			while(!startNodes.isEmpty()){
+				Node from = startNodes.poll();
+				probe.nodeSettled();
+				topologicalSortedNodeList.add(from);
+				for (Node to : from.getReachableNeighbors()) {
+					probe.arcScanned();
+					numEdges--;
+					if(--pendingIncomingArcs[indexOf(to)] == 0){
+						startNodes.add(to);
+					}
 				}
 			}
+			//Is this really a DAG?
+			if(numEdges > 0){
+				throw new NotADirectedAcyclicGraphException("his Graph is not a Directed Acyclic Graph.");
+			}
+			
+			return topologicalSortedNodeList;
+		} finally {
+			probe.queryFinished();
 		}
-		//Is this really a DAG?
-		if(numEdges > 0){
-			throw new NotADirectedAcyclicGraphException("his Graph is not a Directed Acyclic Graph.");
-		}
-		
-		return topologicalSortedNodeList;
 	}
 	
 	/**
@@ -200,10 +694,10 @@ public abstract class AbstractGraph implements Graph {
 	 * returns the start nodes of the algorithm (nodes 
 	 * with no incoming arcs/edges)
 	 * */
-	private Queue<Node> initializeTopologicalOrder() {
+	private Queue<Node> initializeTopologicalOrder(int[] pendingIncomingArcs) {
 		Queue<Node> startNodes = new LinkedList<Node>();
 		for (Node node : this.getNodes()) {
-			((AbstractNode)node).resetCurrentIncomingArcs();
+			pendingIncomingArcs[indexOf(node)] = ((AbstractNode)node).getNumIncomingArcs();
 			if(node.getArcsIn().size() == 0){
 				startNodes.add(node);
 			}
@@ -211,27 +705,34 @@ public abstract class AbstractGraph implements Graph {
 		return startNodes;
 	}
 
+	/**
+	 * Checks the position of the node instead of scanning the nodes
+	 * */
 	@Override
 	public boolean contains(Object o) {
-		return nodes.contains(o);
+		if(!(o instanceof AbstractNode) || ((AbstractNode)o).getOwner() != this){
+			return false;
+		}
+		int index = indexOf((AbstractNode)o);
+		return index >= 0 && index < this.nodes.size() && this.nodes.get(index) == o;
 	}
 
 
 	@Override
 	public Iterator<Node> iterator() {
-		return this.nodes.iterator();
+		return this.getNodes().iterator();
 	}
 
 
 	@Override
 	public Object[] toArray() {
-		return this.nodes.toArray();
+		return this.getNodes().toArray();
 	}
 
 
 	@Override
 	public <T> T[] toArray(T[] a) {
-		return this.nodes.toArray(a);
+		return this.getNodes().toArray(a);
 	}
 
 
@@ -241,19 +742,176 @@ public abstract class AbstractGraph implements Graph {
 		return true;
 	}
 
-	@Override
 	/**
-	 * Not supported
+	 * Unlinks the arcs of the node from its neighbors, taking time proportional to its 
+	 * degree. The node leaves an empty place in the nodes by insertion order, skipped 
+	 * by the algorithms until the graph is compacted.
 	 * */
+	@Override
 	public boolean remove(Object o) {
-		//TODO: implement
-		throw new RuntimeException("Not yet supported");
+		if(!this.contains(o)){
+			return false;
+		}
+		AbstractNode node = (AbstractNode) o;
+		this.fireNodeRemoved(node);
+		for (Arc arc : new ArrayList<Arc>(node.getArcsOut())) {
+			this.unlinkArc(arc);
+		}
+		for (Arc arc : new ArrayList<Arc>(node.getArcsIn())) {
+			//undirected nodes return the same arcs in and out
+			if(!((ArcImpl)arc).removed){
+				this.unlinkArc(arc);
+			}
+		}
+		this.nodes.set(indexOf(node), null);
+		this.numRemovedNodes++;
+		this.liveNodes = null;
+		this.modificationCount++;
+		if(this.tagIndex != null){
+			this.unindexTag(this.tagIndex, node, node.getTag());
+		}
+		this.compactIfNeeded();
+		return true;
+	}
+	
+	@Override
+	public boolean removeArc(Arc arc) {
+		if(!(arc instanceof ArcImpl) || ((ArcImpl)arc).removed || !this.contains(arc.getSourceNode())){
+			return false;
+		}
+		this.fireArcRemoved(arc);
+		this.unlinkArc(arc);
+		this.compactIfNeeded();
+		return true;
+	}
+	
+	private void unlinkArc(Arc arc) {
+		((AbstractNode)arc.getSourceNode()).unlinkArcOut(arc);
+		((AbstractNode)arc.getTargetNode()).unlinkArcIn(arc);
+		((ArcImpl)arc).removed = true;
+		this.numRemovedArcs++;
+		this.liveArcs = null;
+		this.modificationCount++;
+	}
+	
+	/**
+	 * Sets the share of removed nodes or arcs that makes the graph compact itself, 
+	 * 0.5 by default. 1 or more leaves the compaction to {@link #compact()} calls, so 
+	 * the ids of the nodes don't change until then.
+	 * */
+	public void setCompactionThreshold(float compactionThreshold) {
+		this.compactionThreshold = compactionThreshold;
+	}
+	
+	private void compactIfNeeded() {
+		if(this.numRemovedNodes > this.nodes.size() * this.compactionThreshold 
+				|| this.numRemovedArcs > this.arcs.size() * this.compactionThreshold){
+			this.compact();
+		}
+	}
+	
+	/**
+	 * Moves the nodes to the places left by the removed ones, keeping their order, and 
+	 * drops the removed arcs. Takes time proportional to the number of nodes and arcs.
+	 * */
+	@Override
+	public void compact() {
+		if(this.numRemovedNodes == 0 && this.numRemovedArcs == 0){
+			return;
+		}
+		boolean nodesMoved = this.numRemovedNodes > 0;
+		if(nodesMoved){
+			int numNodes = 0;
+			for (int i = 0; i < this.nodes.size(); i++) {
+				Node node = this.nodes.get(i);
+				if(node != null){
+					this.nodes.set(numNodes, node);
+					((HiddenNodeAbstraction)node).setInsertionOrder(numNodes++);
+				}
+			}
+			this.nodes.subList(numNodes, this.nodes.size()).clear();
+			this.nodeCount = numNodes;
+			this.numRemovedNodes = 0;
+			this.liveNodes = null;
+		}
+		if(this.numRemovedArcs > 0){
+			int numArcs = 0;
+			for (int i = 0; i < this.arcs.size(); i++) {
+				Arc arc = this.arcs.get(i);
+				if(!((ArcImpl)arc).removed){
+					this.arcs.set(numArcs++, arc);
+				}
+			}
+			this.arcs.subList(numArcs, this.arcs.size()).clear();
+			this.numRemovedArcs = 0;
+			this.liveArcs = null;
+		}
+		this.modificationCount++;
+		if(nodesMoved){
+			this.nodesRenumbered();
+			this.fireNodesRenumbered();
+		}
+	}
+	
+	/**
+	 * Compacts the graph and gives the nodes new insertion orders in the given ordering, so 
+	 * the nodes connected to each other get close ids. Queries keep their state by insertion 
+	 * order, see {@link NodeOrdering}. Takes time proportional to the number of nodes and arcs 
+	 * plus that of the ordering.
+	 * @throws IllegalStateException when the graph has change listeners, which tell the 
+	 * nodes apart by insertion order
+	 * */
+	public void reorder(NodeOrdering ordering) {
+		if(this.changeListeners != null){
+			throw new IllegalStateException("Graphs with change listeners can't be reordered");
+		}
+		this.compact();
+		int numNodes = this.nodes.size();
+		List<Arc> liveArcs = this.getArcs();
+		//neighbors in both directions by insertion order
+		int[] offsets = new int[numNodes + 1];
+		for (Arc arc : liveArcs) {
+			offsets[((HiddenNodeAbstraction)arc.getSourceNode()).getInsertionOrder() + 1]++;
+			offsets[((HiddenNodeAbstraction)arc.getTargetNode()).getInsertionOrder() + 1]++;
+		}
+		for (int i = 0; i < numNodes; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		int[] neighbors = new int[offsets[numNodes]];
+		int[] ends = Arrays.copyOf(offsets, numNodes);
+		for (Arc arc : liveArcs) {
+			int source = ((HiddenNodeAbstraction)arc.getSourceNode()).getInsertionOrder();
+			int target = ((HiddenNodeAbstraction)arc.getTargetNode()).getInsertionOrder();
+			neighbors[ends[source]++] = target;
+			neighbors[ends[target]++] = source;
+		}
+		int[] order = ordering.order(numNodes, offsets, neighbors);
+		Node[] oldNodes = this.nodes.toArray(new Node[numNodes]);
+		for (int i = 0; i < numNodes; i++) {
+			Node node = oldNodes[order[i]];
+			this.nodes.set(i, node);
+			((HiddenNodeAbstraction)node).setInsertionOrder(i);
+		}
+		this.modificationCount++;
+		this.nodesRenumbered();
+	}
+	
+	/**
+	 * Called once the nodes got new insertion orders, on compactions and reorderings, for 
+	 * the structures indexed by them to follow. Does nothing by default.
+	 * */
+	protected void nodesRenumbered() {
 	}
 
 
 	@Override
 	public boolean containsAll(Collection<?> c) {
-		return this.nodes.containsAll(c);
+		for (Object o : c) {
+			if(!this.contains(o)){
+				return false;
+			}
+		}
+		return true;
 	}
 
 
@@ -267,14 +925,12 @@ public abstract class AbstractGraph implements Graph {
 
 
 	@Override
-	/**
-	 * Not supported
-	 * */
 	public boolean removeAll(Collection<?> c) {
+		boolean changed = false;
 		for (Object node : c) {
-			this.remove(node);
+			changed |= this.remove(node);
 		}
-		return true;
+		return changed;
 	}
 
 
@@ -288,13 +944,11 @@ public abstract class AbstractGraph implements Graph {
 
 
 	@Override
-	/**
-	 * Not supported
-	 * */
 	public void clear() {
-		for (Object node : this.nodes) {
+		for (Node node : new ArrayList<Node>(this.getNodes())) {
 			this.remove(node);
 		}
+		this.compact();
 	}
 	
 }
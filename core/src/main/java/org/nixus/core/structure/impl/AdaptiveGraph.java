@@ -0,0 +1,230 @@
+package org.nixus.core.structure.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.nixus.core.jfr.JfrEvents;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.impl.AdaptiveNode;
+
+/**
+ * Directed graph that starts as an {@link AdjacencyMapGraph} and moves its arcs to an
+ * adjacency matrix, as an {@link AdjacencyMatrixGraph}, once it gets dense enough for the
+ * matrix to take less memory, see {@link MemoryFootprint}. Nodes and arcs stay the same
+ * objects, only where the nodes keep their arcs changes.
+ * <p>
+ * The density is checked as arcs are added, and on {@link #ensureCapacity(int, int)} from
+ * the numbers announced. The graph moves at most once on its own, since a matrix taken too
+ * early would grow with the square of the nodes added afterwards. Graphs of fewer than
+ * {@link #MIN_MATRIX_NODES} nodes stay sparse. Once the graph is built,
+ * {@link #adaptRepresentation()} picks the smaller representation either way.
+ * */
+public class AdaptiveGraph extends AbstractGraph {
+
+	private static final long serialVersionUID = -3290528913541766275L;
+
+	/**
+	 * Fewest nodes the graph moves to the matrix with on its own
+	 * */
+	public static final int MIN_MATRIX_NODES = 64;
+
+	private static final float GROWTH_FACTOR = 1.5F;
+
+	/**
+	 * Arcs of the nodes by insertion order, null while the graph is sparse
+	 * */
+	private Arc[][] adjacencyMatrix;
+
+	private int matrixCapacity;
+
+	/**
+	 * Whether the graph already moved to the matrix on its own, or was told its representation
+	 * */
+	private boolean adapted;
+
+	/**
+	 * Number of arcs to check the density again at
+	 * */
+	private int nextDensityCheck = MIN_MATRIX_NODES;
+
+	protected AdaptiveGraph() {
+		this.nodes = new ArrayList<Node>();
+		this.nodeCount = 0;
+	}
+
+	@Override
+	public Node addNode(Measurable<? extends Object> content, String tag) {
+		if(adjacencyMatrix != null && nodeCount >= matrixCapacity){
+			expandAdjacencyMatrix(Math.max((int)(matrixCapacity * GROWTH_FACTOR), matrixCapacity + 1));
+		}
+		Node node = new AdaptiveNode(this, content);
+		super.commonNodeAdd(node, tag);
+		return node;
+	}
+
+	@Override
+	public void addArc(Arc arc) {
+		super.addArc(arc);
+		this.checkDensity();
+	}
+
+	@Override
+	public void addArcs(Collection<Arc> arcs) {
+		super.addArcs(arcs);
+		this.checkDensity();
+	}
+
+	/**
+	 * Moves the arcs to the matrix when it would be smaller, every sixteenth more arcs
+	 * */
+	private void checkDensity() {
+		int numArcs = this.arcs.size();
+		if(adapted || numArcs < nextDensityCheck){
+			return;
+		}
+		nextDensityCheck = numArcs + numArcs / 16 + 1;
+		if(isMatrixSmaller(this.size(), this.getArcs().size())){
+			this.adapted = true;
+			this.useMatrix((int)(this.getNodesById().size() * GROWTH_FACTOR));
+		}
+	}
+
+	private static boolean isMatrixSmaller(int numNodes, int numArcs) {
+		return numNodes >= MIN_MATRIX_NODES && MemoryFootprint.estimateAdjacencyMatrixGraph(numNodes, numArcs)
+				< MemoryFootprint.estimateAdjacencyMapGraph(numNodes, numArcs, true);
+	}
+
+	/**
+	 * Picks the representation of the graph from the nodes and arcs it will hold, moving to
+	 * the matrix at once if it will be smaller. Further calls only grow the matrix, if any.
+	 * */
+	@Override
+	public void ensureCapacity(int numNodes, int numArcs) {
+		super.ensureCapacity(numNodes, numArcs);
+		if(adjacencyMatrix != null){
+			if(numNodes > matrixCapacity){
+				expandAdjacencyMatrix(numNodes);
+			}
+		} else if(!adapted && isMatrixSmaller(numNodes, numArcs)){
+			this.adapted = true;
+			this.useMatrix(Math.max(numNodes, this.getNodesById().size()));
+		}
+	}
+
+	/**
+	 * Moves the arcs to the representation that takes less memory for the nodes and arcs
+	 * the graph holds now, with a matrix of the exact size, and stops checking the density.
+	 * Meant for graphs done growing, whatever their number of nodes. Takes time
+	 * proportional to the number of arcs, plus the size of the matrix if used.
+	 * */
+	public void adaptRepresentation() {
+		this.adapted = true;
+		int numNodes = this.size();
+		int numArcs = this.getArcs().size();
+		boolean matrixSmaller = MemoryFootprint.estimateAdjacencyMatrixGraph(numNodes, numArcs)
+				< MemoryFootprint.estimateAdjacencyMapGraph(numNodes, numArcs, true);
+		if(matrixSmaller){
+			this.useMatrix(this.getNodesById().size());
+		} else if(adjacencyMatrix != null){
+			this.useMaps();
+		}
+	}
+
+	/**
+	 * @return true while the arcs are kept in the adjacency matrix
+	 * */
+	public boolean isDense() {
+		return adjacencyMatrix != null;
+	}
+
+	private void useMatrix(int capacity) {
+		Arc[][] newAdjacencyMatrix = new Arc[capacity][capacity];
+		fillAdjacencyMatrix(newAdjacencyMatrix);
+		for (Node node : this.nodes) {
+			if(node != null){
+				((AdaptiveNode)node).dropArcMaps();
+			}
+		}
+		this.adjacencyMatrix = newAdjacencyMatrix;
+		this.matrixCapacity = capacity;
+	}
+
+	/**
+	 * Links the arcs in the order they were added, so each cell holds the last arc between its nodes
+	 * */
+	private void fillAdjacencyMatrix(Arc[][] newAdjacencyMatrix) {
+		for (Arc arc : this.getArcs()) {
+			int source = ((HiddenNodeAbstraction)arc.getSourceNode()).getInsertionOrder();
+			int target = ((HiddenNodeAbstraction)arc.getTargetNode()).getInsertionOrder();
+			newAdjacencyMatrix[source][target] = arc;
+		}
+	}
+
+	private void useMaps() {
+		int[] numArcsOut = new int[this.getNodesById().size()];
+		for (Arc arc : this.getArcs()) {
+			numArcsOut[((HiddenNodeAbstraction)arc.getSourceNode()).getInsertionOrder()]++;
+		}
+		for (Node node : this.nodes) {
+			if(node != null){
+				((AdaptiveNode)node).createArcMaps(numArcsOut[((HiddenNodeAbstraction)node).getInsertionOrder()]);
+			}
+		}
+		this.adjacencyMatrix = null;
+		this.matrixCapacity = 0;
+		for (Arc arc : this.getArcs()) {
+			((AdaptiveNode)arc.getSourceNode()).linkArcOut(arc);
+			((AdaptiveNode)arc.getTargetNode()).relinkArcIn(arc);
+		}
+	}
+
+	private void expandAdjacencyMatrix(int newMSize) {
+		Object event = JfrEvents.matrixExpansionStarted();
+		Arc[][] newAdjacencyMatrix = new Arc[newMSize][newMSize];
+		for(int i = 0; i < matrixCapacity; i++){
+			System.arraycopy(adjacencyMatrix[i], 0, newAdjacencyMatrix[i], 0, matrixCapacity);
+		}
+		JfrEvents.matrixExpansionFinished(event, this.size(), matrixCapacity, newMSize);
+		this.adjacencyMatrix = newAdjacencyMatrix;
+		this.matrixCapacity = newMSize;
+	}
+
+	/**
+	 * Moves the arcs in the adjacency matrix, if used, to the new places of their nodes
+	 * */
+	@Override
+	protected void nodesRenumbered() {
+		if(adjacencyMatrix != null){
+			Arc[][] newAdjacencyMatrix = new Arc[matrixCapacity][matrixCapacity];
+			fillAdjacencyMatrix(newAdjacencyMatrix);
+			this.adjacencyMatrix = newAdjacencyMatrix;
+		}
+	}
+
+	@Override
+	protected long estimateAdjacencyBytes() {
+		long bytes = super.estimateAdjacencyBytes();
+		if(adjacencyMatrix != null){
+			bytes += MemoryFootprint.matrixBytes(this.size());
+		}
+		return bytes;
+	}
+
+	@Override
+	protected long estimateMatrixSlackBytes() {
+		if(adjacencyMatrix == null){
+			return 0;
+		}
+		return MemoryFootprint.matrixBytes(matrixCapacity) - MemoryFootprint.matrixBytes(this.size());
+	}
+
+	/**
+	 * @return the arcs of the nodes by insertion order, null while the graph is sparse
+	 * */
+	public Arc[][] getAdjacencyMatrix() {
+		return adjacencyMatrix;
+	}
+}
@@ -1,6 +1,6 @@
 package org.nixus.core.structure.impl;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 
 import org.nixus.core.structure.auxiliary.Measurable;
 import org.nixus.core.structure.nodes.Node;
@@ -15,17 +15,24 @@ public class AdjacencyMapGraph extends AbstractGraph {
 	 * Instantiates a new AdjacencyMapGraph
 	 * */
 	protected AdjacencyMapGraph() {
-		this.nodes = new LinkedList<Node>();
+		this.nodes = new ArrayList<Node>();
 		this.nodeCount = 0;
 	}
 	
 
 	@Override
 	public Node addNode(Measurable<? extends Object> content, String tag) {
-		Node node = new AdjacencyMapNode(this, content);
+		Node node = this.createNode(content);
 		super.commonNodeAdd(node, tag);
 		return node;
 	}
+	
+	/**
+	 * Creates a node of this graph, not added yet
+	 * */
+	protected Node createNode(Measurable<? extends Object> content) {
+		return new AdjacencyMapNode(this, content);
+	}
 
 
 	
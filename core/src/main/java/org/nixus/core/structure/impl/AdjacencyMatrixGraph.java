@@ -2,8 +2,10 @@ package org.nixus.core.structure.impl;
 
 import java.util.ArrayList;
 
+import org.nixus.core.jfr.JfrEvents;
 import org.nixus.core.structure.Arc;
 import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
 import org.nixus.core.structure.nodes.Node;
 import org.nixus.core.structure.nodes.impl.AdjacencyMatrixNode;
 
@@ -45,27 +47,91 @@ public class AdjacencyMatrixGraph extends AbstractGraph {
 
 	@Override
 	public Node addNode(Measurable<? extends Object> content, String tag) {
-		Node node = new AdjacencyMatrixNode(this, content, nodeCount);
+		Node node = createNode(content, nodeCount);
 		if(nodeCount >= currentMatrixSize){
 			expandAdjacencyMatrix();
 		}
 		super.commonNodeAdd(node, tag);
 		return node;
 	}
+	
+	/**
+	 * Creates a node of this graph for the given index of the adjacency matrix
+	 * */
+	protected Node createNode(Measurable<? extends Object> content, int index) {
+		return new AdjacencyMatrixNode(this, content, index);
+	}
 
 	private void expandAdjacencyMatrix() {
 		int newMSize = Math.max((int)(currentMatrixSize * growthFactor), currentMatrixSize + 1);
-		
+		expandAdjacencyMatrix(newMSize);
+	}
+
+	private void expandAdjacencyMatrix(int newMSize) {
+		Object event = JfrEvents.matrixExpansionStarted();
 		Arc[][] newAdjacencyMatrix = new Arc[newMSize][newMSize];
 		
 		for(int i = 0; i < currentMatrixSize; i++){
-			for(int j = 0; j < currentMatrixSize; j++){
-				newAdjacencyMatrix[i][j] = adjacencyMatrix[i][j];
+			System.arraycopy(adjacencyMatrix[i], 0, newAdjacencyMatrix[i], 0, currentMatrixSize);
+		}
+		JfrEvents.matrixExpansionFinished(event, this.size(), currentMatrixSize, newMSize);
+		this.adjacencyMatrix = newAdjacencyMatrix;
+		this.currentMatrixSize = newMSize;
+	}
+	
+	/**
+	 * Also grows the adjacency matrix at once to hold the given number of nodes.
+	 * */
+	@Override
+	public void ensureCapacity(int numNodes, int numArcs) {
+		super.ensureCapacity(numNodes, numArcs);
+		if(numNodes > currentMatrixSize){
+			expandAdjacencyMatrix(numNodes);
+		}
+	}
+
+	/**
+	 * Moves the arcs in the adjacency matrix to the new places of their nodes, reclaiming 
+	 * the rows and columns of the removed ones.
+	 * */
+	@Override
+	protected void nodesRenumbered() {
+		Arc[][] newAdjacencyMatrix = new Arc[currentMatrixSize][currentMatrixSize];
+		for (Arc arc : this.getArcs()) {
+			int source = ((HiddenNodeAbstraction)arc.getSourceNode()).getInsertionOrder();
+			int target = ((HiddenNodeAbstraction)arc.getTargetNode()).getInsertionOrder();
+			//only the last arc between two nodes is linked
+			newAdjacencyMatrix[source][target] = arc;
+			if(!this.isDirected()){
+				newAdjacencyMatrix[target][source] = arc;
 			}
 		}
 		this.adjacencyMatrix = newAdjacencyMatrix;
 	}
 
+	/**
+	 * The rows and columns of the nodes of this graph
+	 * */
+	@Override
+	protected long estimateAdjacencyBytes() {
+		return super.estimateAdjacencyBytes() + MemoryFootprint.matrixBytes(this.size());
+	}
+	
+	/**
+	 * The rows and columns beyond those of the nodes, left by growth or by removed nodes
+	 * */
+	@Override
+	protected long estimateMatrixSlackBytes() {
+		return MemoryFootprint.matrixBytes(currentMatrixSize) - MemoryFootprint.matrixBytes(this.size());
+	}
+	
+	/**
+	 * @return the number of nodes the adjacency matrix holds before growing
+	 * */
+	public int getMatrixCapacity() {
+		return currentMatrixSize;
+	}
+	
 	public Arc[][] getAdjacencyMatrix() {
 		return adjacencyMatrix;
 	}
@@ -14,14 +14,21 @@ public class ArcImpl implements Arc {
 	
 	private Node targetNode;
 	
-	private String tag; 
+	/**
+	 * Built on the first toString call, so bulk loads don't pay for it on every arc
+	 * */
+	private transient String tag; 
+	
+	/**
+	 * Set once the arc is removed from its graph, which drops it on the next compaction
+	 * */
+	boolean removed;
 	
 	public ArcImpl(Node sourceNode, Node targetNode,
 			Measurable<? extends Object> edgeContent) {
 		this.arcContent = edgeContent;
 		this.sourceNode = sourceNode;
 		this.targetNode = targetNode;
-		this.tag = "[ "+sourceNode+", "+targetNode+"]";
 	}
 
 	@Override
@@ -39,8 +46,18 @@ public class ArcImpl implements Arc {
 		return targetNode;
 	}
 
+	/**
+	 * @return the tag if {@link #toString()} built it already, null otherwise
+	 * */
+	String getBuiltTag() {
+		return tag;
+	}
+
 	@Override
 	public String toString() {
+		if(tag == null){
+			tag = "[ "+sourceNode+", "+targetNode+"]";
+		}
 		return tag;
 	}
 	
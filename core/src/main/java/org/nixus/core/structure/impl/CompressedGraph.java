@@ -0,0 +1,518 @@
+package org.nixus.core.structure.impl;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.BitReader;
+import org.nixus.core.structure.auxiliary.BitWriter;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Read only directed graph keeping the successors of its nodes compressed in a stream of
+ * bits, the way WebGraph does: sorted lists whose gaps are written with variable length
+ * codes, each copying blocks from a similar list among the previous ones. See
+ * {@link CompressedGraphBuilder} for the format. On link graphs of the web, where
+ * neighbors have close indexes and share most of their successors, arcs take a few bits
+ * each instead of an object.
+ * <p>
+ * Arcs are numbered by source node and then by target node. The list of a node is decoded
+ * whenever the last one decoded was another one, so the arcs of a node should be read
+ * together, as every traversal and shortest path strategy does. {@link NodeIterator}s
+ * decode every list in order, resolving references from the lists they just decoded.
+ * <p>
+ * The arcs reaching each node are compressed the same way the first time they are listed,
+ * see {@link #getArcIn(int, int)}, so graphs only traversed forward don't pay for them.
+ * <p>
+ * Nodes have no content and the graph default tags. Arcs measure 1 unless the graph was
+ * built weighted. Like the other graphs, it isn't thread safe.
+ * */
+public class CompressedGraph extends IndexedGraph {
+
+	private static final long serialVersionUID = -5403761829305671174L;
+
+	private static final int[] NO_SUCCESSORS = new int[0];
+
+	private final boolean weighted;
+
+	private final int windowSize;
+
+	private final long[] bits;
+
+	private final long numBits;
+
+	/**
+	 * Bit where the list of each node starts
+	 * */
+	private final long[] bitOffsets;
+
+	/**
+	 * Id of the first arc of each node, plus the number of arcs
+	 * */
+	private final int[] firstArcs;
+
+	private final int[] inDegrees;
+
+	/**
+	 * Last list decoded on random access
+	 * */
+	private transient DecodedList lastDecoded;
+
+	/**
+	 * Ids of the arcs reaching each node, sorted, the first in zeta of its signed distance
+	 * to the first arc of the node and the rest in zeta of the gap minus one to the previous
+	 * one. Null until the arcs reaching a node are first read.
+	 * */
+	private transient long[] inBits;
+
+	/**
+	 * Bit where the arcs reaching each node start
+	 * */
+	private transient long[] inBitOffsets;
+
+	/**
+	 * Arcs reaching the node whose arcs in were read last
+	 * */
+	private transient DecodedList lastDecodedIn;
+
+	CompressedGraph(int numNodes, boolean weighted, int windowSize, long[] bits, long numBits,
+			long[] bitOffsets, int[] firstArcs, int[] inDegrees) {
+		this.nodeCount = numNodes;
+		this.weighted = weighted;
+		this.windowSize = windowSize;
+		this.bits = bits;
+		this.numBits = numBits;
+		this.bitOffsets = bitOffsets;
+		this.firstArcs = firstArcs;
+		this.inDegrees = inDegrees;
+	}
+
+	/**
+	 * Compresses a directed graph, numbering its nodes by position. The graph is weighted
+	 * unless all its arcs measure 1.
+	 * @throws IllegalArgumentException if the graph is undirected or has parallel arcs
+	 * */
+	public static CompressedGraph compress(Graph graph) {
+		if(!graph.isDirected()){
+			throw new IllegalArgumentException("Only directed graphs can be compressed");
+		}
+		boolean weighted = false;
+		for (Arc arc : graph.getArcs()) {
+			if(arc.getArcContent().measure() != 1){
+				weighted = true;
+				break;
+			}
+		}
+		int[] positions = AbstractGraph.getNodePositions(graph);
+		CompressedGraphBuilder builder = new CompressedGraphBuilder(graph.getNodes().size(), weighted);
+		int[] successors = NO_SUCCESSORS;
+		int[] measures = NO_SUCCESSORS;
+		for (Node node : graph.getNodes()) {
+			int count = 0;
+			for (Arc arc : node.getArcsOut()) {
+				if(count == successors.length){
+					successors = Arrays.copyOf(successors, Math.max(16, count * 2));
+					measures = Arrays.copyOf(measures, successors.length);
+				}
+				successors[count] = positions[((HiddenNodeAbstraction)arc.getTargetNode()).getInsertionOrder()];
+				measures[count++] = arc.getArcContent().measure();
+			}
+			builder.addSuccessors(successors, measures, count);
+		}
+		return builder.build();
+	}
+
+	@Override
+	public boolean isDirected() {
+		return true;
+	}
+
+	/**
+	 * @return true if the measure of every arc is kept, false if they all measure 1
+	 * */
+	public boolean isWeighted() {
+		return weighted;
+	}
+
+	@Override
+	public int getNumArcs() {
+		return firstArcs[nodeCount];
+	}
+
+	/**
+	 * @return the number of bits of the compressed lists
+	 * */
+	public long getNumBits() {
+		return numBits;
+	}
+
+	/**
+	 * @return the bits the compressed lists take per arc
+	 * */
+	public double getBitsPerArc() {
+		return getNumArcs() == 0 ? 0 : (double) numBits / getNumArcs();
+	}
+
+	@Override
+	public int getOutDegree(int node) {
+		return firstArcs[node + 1] - firstArcs[node];
+	}
+
+	@Override
+	public int getArcOut(int node, int k) {
+		return firstArcs[node] + k;
+	}
+
+	@Override
+	public int getInDegree(int node) {
+		return inDegrees[node];
+	}
+
+	/**
+	 * The first call compresses the arcs reaching every node, taking time proportional to
+	 * the number of arcs. The arcs reaching a node are decoded whenever the last ones decoded
+	 * reached another node.
+	 * */
+	@Override
+	public int getArcIn(int node, int k) {
+		if(k < 0 || k >= getInDegree(node)){
+			throw new IndexOutOfBoundsException("Arc " + k + " of " + getInDegree(node) + " reaching node " + node);
+		}
+		DecodedList list = lastDecodedIn;
+		if(list == null || list.node != node){
+			list = decodeArcsIn(node);
+			this.lastDecodedIn = list;
+		}
+		return list.successors[k];
+	}
+
+	@Override
+	public int getArcSource(int arc) {
+		DecodedList list = lastDecoded;
+		if(list != null && list.contains(arc)){
+			return list.node;
+		}
+		return sourceOf(arc);
+	}
+
+	@Override
+	public int getArcTarget(int arc) {
+		DecodedList list = decodedListOf(arc);
+		return list.successors[arc - list.firstArc];
+	}
+
+	@Override
+	public int getArcMeasure(int arc) {
+		if(!weighted){
+			return 1;
+		}
+		DecodedList list = decodedListOf(arc);
+		return list.measures[arc - list.firstArc];
+	}
+
+	@Override
+	public int getNodeMeasure(int node) {
+		return 0;
+	}
+
+	@Override
+	public String getNodeTag(int node) {
+		return AbstractGraph.defaultTag(node);
+	}
+
+	/**
+	 * @return the indexes of the nodes the arcs of the node reach, sorted
+	 * */
+	public int[] getSuccessors(int node) {
+		if(node < 0 || node >= nodeCount){
+			throw new IndexOutOfBoundsException("Node " + node + " of " + nodeCount);
+		}
+		DecodedList list = lastDecoded;
+		if(list == null || list.node != node){
+			list = decode(node, true, null);
+			this.lastDecoded = list;
+		}
+		return list.successors.clone();
+	}
+
+	/**
+	 * @return an iterator decoding the lists of every node, in order
+	 * */
+	public NodeIterator nodeIterator() {
+		return new NodeIterator();
+	}
+
+	/**
+	 * @return the list holding the arc, decoded unless it is the last one
+	 * */
+	private DecodedList decodedListOf(int arc) {
+		DecodedList list = lastDecoded;
+		if(list == null || !list.contains(arc)){
+			list = decode(sourceOf(arc), true, null);
+			this.lastDecoded = list;
+		}
+		return list;
+	}
+
+	/**
+	 * @return the node the arc leaves
+	 * */
+	private int sourceOf(int arc) {
+		if(arc < 0 || arc >= getNumArcs()){
+			throw new IndexOutOfBoundsException("Arc " + arc + " of " + getNumArcs());
+		}
+		//last node whose first arc is not after the arc, which skips the nodes without arcs
+		int low = 0;
+		int high = nodeCount - 1;
+		while(low < high){
+			int middle = (low + high + 1) >>> 1;
+			if(firstArcs[middle] <= arc){
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Decodes the list of a node
+	 * @param withMeasures false to skip the measures, which only the lists read for
+	 * themselves need
+	 * @param window lists decoded last by node modulo the window size plus one, null to
+	 * decode every reference
+	 * */
+	private DecodedList decode(int node, boolean withMeasures, DecodedList[] window) {
+		BitReader reader = new BitReader(bits, bitOffsets[node]);
+		int degree = (int) reader.readGamma();
+		if(degree == 0){
+			return new DecodedList(node, firstArcs[node], NO_SUCCESSORS, weighted ? NO_SUCCESSORS : null);
+		}
+		int reference = windowSize > 0 ? (int) reader.readGamma() : 0;
+		int[] copied = NO_SUCCESSORS;
+		int numCopied = 0;
+		if(reference > 0){
+			int[] referenceList = referenceList(node - reference, window);
+			copied = new int[referenceList.length];
+			int numBlocks = (int) reader.readGamma();
+			int position = 0;
+			boolean copy = true;
+			for (int block = 0; block < numBlocks; block++) {
+				int length = (int) reader.readGamma() + (block == 0 ? 0 : 1);
+				if(copy){
+					System.arraycopy(referenceList, position, copied, numCopied, length);
+					numCopied += length;
+				}
+				position += length;
+				copy = !copy;
+			}
+			if(copy){
+				System.arraycopy(referenceList, position, copied, numCopied, referenceList.length - position);
+				numCopied += referenceList.length - position;
+			}
+		}
+		//merges the residuals with the successors copied
+		int[] successors = new int[degree];
+		int numResiduals = degree - numCopied;
+		int next = 0;
+		int copiedNext = 0;
+		int previous = 0;
+		for (int k = 0; k < numResiduals; k++) {
+			int residual;
+			if(k == 0){
+				residual = (int) (node + nat2int(reader.readZeta(CompressedGraphBuilder.RESIDUAL_ZETA_K)));
+			} else {
+				residual = previous + (int) reader.readZeta(CompressedGraphBuilder.RESIDUAL_ZETA_K) + 1;
+			}
+			while(copiedNext < numCopied && copied[copiedNext] < residual){
+				successors[next++] = copied[copiedNext++];
+			}
+			successors[next++] = residual;
+			previous = residual;
+		}
+		while(copiedNext < numCopied){
+			successors[next++] = copied[copiedNext++];
+		}
+		int[] measures = null;
+		if(weighted && withMeasures){
+			measures = new int[degree];
+			for (int k = 0; k < degree; k++) {
+				measures[k] = (int) nat2int(reader.readGamma());
+			}
+		}
+		return new DecodedList(node, firstArcs[node], successors, measures);
+	}
+
+	/**
+	 * Decodes the ids of the arcs reaching a node, compressing those of every node first
+	 * */
+	private DecodedList decodeArcsIn(int node) {
+		if(inBits == null){
+			compressArcsIn();
+		}
+		BitReader reader = new BitReader(inBits, inBitOffsets[node]);
+		int[] arcs = new int[inDegrees[node]];
+		for (int k = 0; k < arcs.length; k++) {
+			if(k == 0){
+				arcs[k] = (int) (firstArcs[node] + nat2int(reader.readZeta(CompressedGraphBuilder.RESIDUAL_ZETA_K)));
+			} else {
+				arcs[k] = arcs[k - 1] + (int) reader.readZeta(CompressedGraphBuilder.RESIDUAL_ZETA_K) + 1;
+			}
+		}
+		return new DecodedList(node, 0, arcs, null);
+	}
+
+	/**
+	 * Buckets the ids of the arcs by target node, which leaves each bucket sorted as the ids
+	 * follow the sources, and compresses the buckets
+	 * */
+	private void compressArcsIn() {
+		int[] ends = new int[nodeCount + 1];
+		for (int node = 0; node < nodeCount; node++) {
+			ends[node + 1] = ends[node] + inDegrees[node];
+		}
+		int[] arcsIn = new int[getNumArcs()];
+		NodeIterator iterator = nodeIterator();
+		while(iterator.hasNext()){
+			int node = iterator.nextNode();
+			int[] successors = iterator.successors();
+			for (int k = 0; k < successors.length; k++) {
+				arcsIn[ends[successors[k]]++] = firstArcs[node] + k;
+			}
+		}
+		BitWriter writer = new BitWriter(getNumArcs() * 8L);
+		long[] offsets = new long[nodeCount];
+		int arc = 0;
+		for (int node = 0; node < nodeCount; node++) {
+			offsets[node] = writer.length();
+			for (int k = 0; k < inDegrees[node]; k++, arc++) {
+				if(k == 0){
+					writer.writeZeta(CompressedGraphBuilder.int2nat((long) arcsIn[arc] - firstArcs[node]),
+							CompressedGraphBuilder.RESIDUAL_ZETA_K);
+				} else {
+					writer.writeZeta(arcsIn[arc] - arcsIn[arc - 1] - 1, CompressedGraphBuilder.RESIDUAL_ZETA_K);
+				}
+			}
+		}
+		this.inBits = writer.toArray();
+		this.inBitOffsets = offsets;
+	}
+
+	private int[] referenceList(int node, DecodedList[] window) {
+		if(window != null){
+			DecodedList list = window[node % window.length];
+			if(list != null && list.node == node){
+				return list.successors;
+			}
+		}
+		return decode(node, false, window).successors;
+	}
+
+	/**
+	 * @see CompressedGraphBuilder#int2nat(long)
+	 * */
+	private static long nat2int(long nat) {
+		return (nat & 1) == 0 ? nat >>> 1 : -((nat + 1) >>> 1);
+	}
+
+	/**
+	 * The compressed lists, where they start and the number of arcs reaching each node,
+	 * plus the compressed arcs reaching each node once they were read
+	 * */
+	@Override
+	protected long estimateAdjacencyBytes() {
+		long bytes = MemoryFootprint.arrayBytes(bits.length, Long.BYTES)
+				+ MemoryFootprint.arrayBytes(bitOffsets.length, Long.BYTES)
+				+ MemoryFootprint.arrayBytes(firstArcs.length, MemoryFootprint.INT_BYTES)
+				+ MemoryFootprint.arrayBytes(inDegrees.length, MemoryFootprint.INT_BYTES);
+		if(inBits != null){
+			bytes += MemoryFootprint.arrayBytes(inBits.length, Long.BYTES)
+					+ MemoryFootprint.arrayBytes(inBitOffsets.length, Long.BYTES);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Successors of a node, with the measures of its arcs on weighted graphs
+	 * */
+	private static class DecodedList {
+
+		final int node;
+
+		final int firstArc;
+
+		final int[] successors;
+
+		final int[] measures;
+
+		DecodedList(int node, int firstArc, int[] successors, int[] measures) {
+			this.node = node;
+			this.firstArc = firstArc;
+			this.successors = successors;
+			this.measures = measures;
+		}
+
+		boolean contains(int arc) {
+			return arc >= firstArc && arc < firstArc + successors.length;
+		}
+	}
+
+	/**
+	 * Decodes the lists of the nodes of the graph in order, keeping the last lists to copy
+	 * from instead of decoding them again. Faster than random access to visit the whole
+	 * graph. The arrays returned are shared, they must not be modified.
+	 * */
+	public class NodeIterator {
+
+		private final DecodedList[] window = new DecodedList[windowSize + 1];
+
+		private int next;
+
+		private DecodedList current;
+
+		public boolean hasNext() {
+			return next < nodeCount;
+		}
+
+		/**
+		 * Decodes the list of the next node
+		 * @return the index of the node
+		 * */
+		public int nextNode() {
+			if(!hasNext()){
+				throw new NoSuchElementException();
+			}
+			current = decode(next, true, window);
+			window[next % window.length] = current;
+			return next++;
+		}
+
+		/**
+		 * @return the successors of the last node, sorted
+		 * */
+		public int[] successors() {
+			return current().successors;
+		}
+
+		/**
+		 * @return the measures of the arcs of the last node, by successor, or null if the
+		 * graph isn't weighted
+		 * */
+		public int[] measures() {
+			return current().measures;
+		}
+
+		public int outDegree() {
+			return current().successors.length;
+		}
+
+		private DecodedList current() {
+			if(current == null){
+				throw new IllegalStateException("No node decoded yet");
+			}
+			return current;
+		}
+	}
+}
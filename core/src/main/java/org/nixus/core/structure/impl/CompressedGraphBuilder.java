@@ -0,0 +1,338 @@
+package org.nixus.core.structure.impl;
+
+import java.util.Arrays;
+
+import org.nixus.core.structure.auxiliary.BitWriter;
+
+/**
+ * Builds a {@link CompressedGraph} from the successors of its nodes, given node by node in
+ * order, compressing each list as it comes. Only the last few lists are kept in the heap,
+ * so graphs far larger than their uncompressed arcs would fit can be built from a stream.
+ * <p>
+ * Each list is sorted and written as, see {@link BitWriter} for the codes:
+ * <pre>
+ * outdegree:    gamma
+ * reference:    gamma, how many nodes back the list copies from, 0 for none. Only when
+ *               the window size is not 0.
+ * copy blocks:  with a reference only, gamma of the number of blocks and then the length
+ *               of each block, the first one in gamma and the rest in gamma minus one.
+ *               The blocks alternate between copying and skipping the successors of the
+ *               referenced list, starting by copying. The successors after the last block
+ *               are copied if the number of blocks is even.
+ * residuals:    the successors not copied, the first one in zeta of its signed distance
+ *               to the node and the rest in zeta of the gap minus one to the previous one
+ * measures:     on weighted graphs only, gamma of each signed measure, by successor
+ * </pre>
+ * Every list tries each of the previous lists within the window as reference and takes
+ * the shortest encoding. Lists can't reference lists already reached through more than the
+ * maximum number of references, which bounds the work of decoding a single list.
+ * */
+public class CompressedGraphBuilder {
+
+	public static final int DEFAULT_WINDOW_SIZE = 7;
+
+	public static final int DEFAULT_MAX_REFERENCE_COUNT = 3;
+
+	/**
+	 * Shrinking factor of the zeta codes of the residuals
+	 * */
+	static final int RESIDUAL_ZETA_K = 3;
+
+	private static final int[] NO_SUCCESSORS = new int[0];
+
+	private final int numNodes;
+
+	private final boolean weighted;
+
+	private final int windowSize;
+
+	private final int maxReferenceCount;
+
+	private BitWriter bits;
+
+	private long[] bitOffsets;
+
+	private int[] firstArcs;
+
+	private int[] inDegrees;
+
+	private int numAdded;
+
+	/**
+	 * Sorted successors of the last nodes added, by node modulo the window size plus one
+	 * */
+	private int[][] window;
+
+	private int[] windowLengths;
+
+	/**
+	 * Number of references to follow to decode the lists in the window
+	 * */
+	private int[] windowReferenceCounts;
+
+	/**
+	 * Successors of the node being added, sorted, and their measures
+	 * */
+	private int[] sorted = NO_SUCCESSORS;
+
+	private int[] sortedMeasures = NO_SUCCESSORS;
+
+	private long[] sortBuffer = new long[0];
+
+	/**
+	 * Whether each successor of the node being added is copied from the reference tried,
+	 * and the successors of the reference copied
+	 * */
+	private boolean[] copied = new boolean[0];
+
+	/**
+	 * @param numNodes number of nodes of the graph
+	 * @param weighted true to keep the measure of every arc, false if they all measure 1
+	 * */
+	public CompressedGraphBuilder(int numNodes, boolean weighted) {
+		this(numNodes, weighted, DEFAULT_WINDOW_SIZE, DEFAULT_MAX_REFERENCE_COUNT);
+	}
+
+	/**
+	 * @param numNodes number of nodes of the graph
+	 * @param weighted true to keep the measure of every arc, false if they all measure 1
+	 * @param windowSize how many of the previous lists each list may copy from, 0 for none.
+	 * Larger windows compress better but build slower.
+	 * @param maxReferenceCount most references followed to decode a list. Larger counts
+	 * compress better but decode slower.
+	 * */
+	public CompressedGraphBuilder(int numNodes, boolean weighted, int windowSize, int maxReferenceCount) {
+		if(numNodes < 0 || windowSize < 0 || maxReferenceCount < 0){
+			throw new IllegalArgumentException("Negative sizes: " + numNodes + ", " + windowSize + ", " + maxReferenceCount);
+		}
+		this.numNodes = numNodes;
+		this.weighted = weighted;
+		this.windowSize = windowSize;
+		this.maxReferenceCount = maxReferenceCount;
+		this.bits = new BitWriter(numNodes * 8L);
+		this.bitOffsets = new long[numNodes];
+		this.firstArcs = new int[numNodes + 1];
+		this.inDegrees = new int[numNodes];
+		this.window = new int[windowSize + 1][];
+		this.windowLengths = new int[windowSize + 1];
+		this.windowReferenceCounts = new int[windowSize + 1];
+		Arrays.fill(this.window, NO_SUCCESSORS);
+	}
+
+	/**
+	 * Adds the successors of the next node, in any order
+	 * @param successors indexes of the nodes reached by the arcs of the node, without repetitions
+	 * @param measures measures of the arcs, by successor. Ignored unless the graph is weighted.
+	 * @param count number of successors
+	 * @return the index of the node
+	 * */
+	public int addSuccessors(int[] successors, int[] measures, int count) {
+		if(bits == null){
+			throw new IllegalStateException("The graph was already built");
+		}
+		if(numAdded == numNodes){
+			throw new IllegalStateException("The successors of all the " + numNodes + " nodes were added");
+		}
+		if(weighted && measures == null){
+			throw new IllegalArgumentException("The arcs of a weighted graph need measures");
+		}
+		int node = numAdded;
+		long numArcs = (long) firstArcs[node] + count;
+		if(numArcs > Integer.MAX_VALUE){
+			throw new IllegalStateException("More than " + Integer.MAX_VALUE + " arcs");
+		}
+		sort(successors, measures, count);
+		int slot = node % window.length;
+		int reference = 0;
+		if(count > 0){
+			reference = chooseReference(node, count);
+		}
+		bitOffsets[node] = bits.length();
+		write(node, count, reference, bits);
+
+		for (int i = 0; i < count; i++) {
+			inDegrees[sorted[i]]++;
+		}
+		firstArcs[node + 1] = (int) numArcs;
+		if(window.length > 1){
+			if(window[slot].length < count){
+				window[slot] = new int[Math.max(count, window[slot].length * 2)];
+			}
+			System.arraycopy(sorted, 0, window[slot], 0, count);
+			windowLengths[slot] = count;
+			windowReferenceCounts[slot] = reference == 0 ? 0 : windowReferenceCounts[(node - reference) % window.length] + 1;
+		}
+		return numAdded++;
+	}
+
+	/**
+	 * Sorts the successors with their measures, checking they are nodes of the graph and
+	 * don't repeat
+	 * */
+	private void sort(int[] successors, int[] measures, int count) {
+		if(sorted.length < count){
+			sorted = new int[Math.max(count, sorted.length * 2)];
+			sortedMeasures = weighted ? new int[sorted.length] : NO_SUCCESSORS;
+		}
+		if(weighted){
+			if(sortBuffer.length < count){
+				sortBuffer = new long[sorted.length];
+			}
+			for (int i = 0; i < count; i++) {
+				sortBuffer[i] = ((long) successors[i] << 32) | i;
+			}
+			Arrays.sort(sortBuffer, 0, count);
+			for (int i = 0; i < count; i++) {
+				sorted[i] = (int) (sortBuffer[i] >> 32);
+				sortedMeasures[i] = measures[(int) sortBuffer[i]];
+			}
+		} else {
+			System.arraycopy(successors, 0, sorted, 0, count);
+			Arrays.sort(sorted, 0, count);
+		}
+		for (int i = 0; i < count; i++) {
+			if(sorted[i] < 0 || sorted[i] >= numNodes){
+				throw new IllegalArgumentException("Node " + sorted[i] + " of " + numNodes);
+			}
+			if(i > 0 && sorted[i] == sorted[i - 1]){
+				throw new IllegalArgumentException("Node " + numAdded + " reaches node " + sorted[i] + " more than once");
+			}
+		}
+	}
+
+	/**
+	 * @return how many nodes back is the list giving the shortest encoding, 0 for none
+	 * */
+	private int chooseReference(int node, int count) {
+		int best = 0;
+		long bestLength = write(node, count, 0, null);
+		for (int reference = 1; reference <= Math.min(windowSize, node); reference++) {
+			int slot = (node - reference) % window.length;
+			if(windowLengths[slot] > 0 && windowReferenceCounts[slot] < maxReferenceCount){
+				long length = write(node, count, reference, null);
+				if(length < bestLength){
+					best = reference;
+					bestLength = length;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Writes the sorted successors of the node, or only counts the bits they take
+	 * @param out the stream to write to, null to count only
+	 * @return the number of bits of the list
+	 * */
+	private long write(int node, int count, int reference, BitWriter out) {
+		long length = gamma(out, count);
+		if(count == 0){
+			return length;
+		}
+		if(windowSize > 0){
+			length += gamma(out, reference);
+		}
+		if(copied.length < count){
+			copied = new boolean[Math.max(count, copied.length * 2)];
+		}
+		Arrays.fill(copied, 0, count, false);
+		if(reference > 0){
+			length += writeCopyBlocks(node, count, reference, out);
+		}
+		int previous = -1;
+		for (int i = 0; i < count; i++) {
+			if(!copied[i]){
+				if(previous == -1){
+					length += zeta(out, int2nat((long) sorted[i] - node));
+				} else {
+					length += zeta(out, sorted[i] - sorted[previous] - 1);
+				}
+				previous = i;
+			}
+		}
+		if(weighted){
+			for (int i = 0; i < count; i++) {
+				length += gamma(out, int2nat(sortedMeasures[i]));
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Writes the blocks of successors of the reference copied, marking the successors copied
+	 * */
+	private long writeCopyBlocks(int node, int count, int reference, BitWriter out) {
+		int slot = (node - reference) % window.length;
+		int[] referenceList = window[slot];
+		int referenceLength = windowLengths[slot];
+		//the blocks are counted first, their number goes before them
+		int numBlocks = 0;
+		boolean copying = true;
+		int i = 0;
+		for (int k = 0; k < referenceLength; k++) {
+			while(i < count && sorted[i] < referenceList[k]){
+				i++;
+			}
+			boolean copy = i < count && sorted[i] == referenceList[k];
+			if(copy != copying){
+				numBlocks++;
+				copying = copy;
+			}
+		}
+		long length = gamma(out, numBlocks);
+		copying = true;
+		i = 0;
+		int blockLength = 0;
+		int block = 0;
+		for (int k = 0; k < referenceLength; k++) {
+			while(i < count && sorted[i] < referenceList[k]){
+				i++;
+			}
+			boolean copy = i < count && sorted[i] == referenceList[k];
+			if(copy != copying){
+				length += gamma(out, block == 0 ? blockLength : blockLength - 1);
+				block++;
+				blockLength = 0;
+				copying = copy;
+			}
+			if(copy){
+				copied[i] = true;
+			}
+			blockLength++;
+		}
+		return length;
+	}
+
+	private static int gamma(BitWriter out, long n) {
+		return out == null ? BitWriter.gammaLength(n) : out.writeGamma(n);
+	}
+
+	private static int zeta(BitWriter out, long n) {
+		return out == null ? BitWriter.zetaLength(n, RESIDUAL_ZETA_K) : out.writeZeta(n, RESIDUAL_ZETA_K);
+	}
+
+	/**
+	 * @return the natural interleaving the signed value, 0, -1, 1, -2...
+	 * */
+	static long int2nat(long value) {
+		return value >= 0 ? value << 1 : ((-value) << 1) - 1;
+	}
+
+	/**
+	 * Builds the graph, the nodes whose successors weren't added have none. The builder
+	 * can't be used afterwards.
+	 * */
+	public CompressedGraph build() {
+		if(bits == null){
+			throw new IllegalStateException("The graph was already built");
+		}
+		while(numAdded < numNodes){
+			addSuccessors(NO_SUCCESSORS, NO_SUCCESSORS, 0);
+		}
+		CompressedGraph graph = new CompressedGraph(numNodes, weighted, windowSize, bits.toArray(), bits.length(),
+				bitOffsets, firstArcs, inDegrees);
+		this.bits = null;
+		this.window = null;
+		return graph;
+	}
+}
@@ -0,0 +1,103 @@
+package org.nixus.core.structure.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.nixus.core.strategies.NodeOrdering;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.auxiliary.ConcurrentAppendList;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.impl.ConcurrentAdjacencyMapNode;
+
+/**
+ * {@link AdjacencyMapGraph} where many threads can add nodes and arcs at once. Each node
+ * guards its adjacency with its own monitor, so threads adding arcs between different
+ * nodes don't wait for each other, and the node and arc lists are appended without locking.
+ * <p>
+ * Adding an arc is atomic: it is linked to both of its nodes and added to the graph arcs
+ * while both nodes are locked, so the arc lists and the adjacency of every node always
+ * agree on the order of the arcs. Change listeners are called by the adding thread,
+ * with the nodes of the arc locked.
+ * <p>
+ * Queries, traversals included, must not run while arcs are being added: use a
+ * {@link VersionedGraph} to query a graph while it changes.
+ * */
+public class ConcurrentAdjacencyMapGraph extends AdjacencyMapGraph {
+
+	private static final long serialVersionUID = 2470165934461257013L;
+
+	private final ConcurrentAppendList<Node> nodeList;
+
+	protected ConcurrentAdjacencyMapGraph() {
+		this.nodeList = new ConcurrentAppendList<Node>();
+		this.nodes = this.nodeList;
+		this.arcs = new ConcurrentAppendList<Arc>();
+		this.indexTags(new ConcurrentHashMap<String, Node>());
+	}
+
+	@Override
+	public Node addNode(Measurable<? extends Object> content) {
+		return this.addNode(content, null);
+	}
+
+	/**
+	 * @param tag the tag of the node, null for the default one
+	 * */
+	@Override
+	public Node addNode(Measurable<? extends Object> content, String tag) {
+		Node node = new ConcurrentAdjacencyMapNode(this, content);
+		int index = this.nodeList.claim();
+		((HiddenNodeAbstraction)node).setInsertionOrder(index);
+		node.setTag(tag != null ? tag : defaultTag(index));
+		this.nodeList.publish(index, node);
+		this.fireNodeAdded(node);
+		return node;
+	}
+
+	/**
+	 * Only nodes already published are contained, without waiting for the ones being added,
+	 * which may be the node itself while it gets its tag
+	 * */
+	@Override
+	public boolean contains(Object o) {
+		if(!(o instanceof ConcurrentAdjacencyMapNode) || ((Node)o).getOwner() != this){
+			return false;
+		}
+		return this.nodeList.getIfPublished(((HiddenNodeAbstraction)o).getInsertionOrder()) == o;
+	}
+
+	/**
+	 * Not supported, the node and arc lists are append only
+	 * */
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("Nodes can't be removed");
+	}
+
+	/**
+	 * Not supported, the node and arc lists are append only
+	 * */
+	@Override
+	public boolean removeArc(Arc arc) {
+		throw new UnsupportedOperationException("Arcs can't be removed");
+	}
+
+	/**
+	 * Not supported, nodes keep their place in the append only node list
+	 * */
+	@Override
+	public void reorder(NodeOrdering ordering) {
+		throw new UnsupportedOperationException("Nodes can't be reordered");
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.nodeList.isEmpty();
+	}
+
+	@Override
+	public int size() {
+		return this.nodeList.size();
+	}
+}
@@ -0,0 +1,474 @@
+package org.nixus.core.structure.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+import org.nixus.core.jfr.JfrEvents;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.nodes.impl.AbstractNode;
+
+/**
+ * Builds a graph from arcs produced by several threads at once. Nodes are referenced by
+ * the order in which they were added to this builder, starting from 0.
+ * <p>
+ * Every producer thread appends its arcs to its own {@link ArcBuffer}, without locking.
+ * When building, the buffers are merged into the graph by a pool of threads. The arcs are
+ * first bucketed by range of their source and target nodes with a parallel counting sort,
+ * each thread taking a chunk of the arcs. Then each thread links the arcs leaving a range of
+ * nodes, and afterwards the arcs reaching a range of nodes, reading only the arcs of its
+ * bucket, so no node is ever touched by two threads at the same time.
+ * The result is a regular graph from {@link GraphFactory}.
+ * */
+public class ConcurrentGraphBuilder {
+
+	private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+	/**
+	 * Node ranges per building thread, so threads with dense ranges don't stall the rest
+	 * */
+	private static final int RANGES_PER_THREAD = 4;
+
+	private Measurable<?>[] nodeContents;
+
+	/**
+	 * Node tags, null when the node should get the graph default tag
+	 * */
+	private String[] nodeTags;
+
+	private int numNodes;
+
+	/**
+	 * Lock free registry of the producer buffers
+	 * */
+	private final ConcurrentLinkedQueue<ArcBuffer> buffers;
+
+	private final ThreadLocal<ArcBuffer> threadBuffer;
+
+	/**
+	 * Creates a builder expecting a few nodes
+	 * */
+	public ConcurrentGraphBuilder() {
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * @param expectedNodes number of nodes the builder is expected to hold. It will grow if needed.
+	 * */
+	public ConcurrentGraphBuilder(int expectedNodes) {
+		this.nodeContents = new Measurable<?>[Math.max(expectedNodes, 1)];
+		this.nodeTags = new String[this.nodeContents.length];
+		this.buffers = new ConcurrentLinkedQueue<ArcBuffer>();
+		this.threadBuffer = new ThreadLocal<ArcBuffer>() {
+			@Override
+			protected ArcBuffer initialValue() {
+				return newArcBuffer();
+			}
+		};
+	}
+
+	/**
+	 * Adds a node with the specified content. Its tag will be the graph default one.
+	 * @return the index of the node within this builder
+	 * */
+	public int addNode(Measurable<? extends Object> content) {
+		return addNode(content, null);
+	}
+
+	/**
+	 * Adds a node with the specified content and tag.
+	 * @return the index of the node within this builder
+	 * */
+	public synchronized int addNode(Measurable<? extends Object> content, String tag) {
+		if(numNodes == nodeContents.length){
+			nodeContents = Arrays.copyOf(nodeContents, numNodes * 2);
+			nodeTags = Arrays.copyOf(nodeTags, numNodes * 2);
+		}
+		nodeContents[numNodes] = content;
+		nodeTags[numNodes] = tag;
+		return numNodes++;
+	}
+
+	/**
+	 * @return the number of nodes added so far
+	 * */
+	public synchronized int getNumNodes() {
+		return numNodes;
+	}
+
+	/**
+	 * Creates a buffer for arcs of a single producer thread. Buffers are not thread safe,
+	 * each thread must use its own.
+	 * */
+	public ArcBuffer newArcBuffer() {
+		ArcBuffer buffer = new ArcBuffer();
+		this.buffers.add(buffer);
+		return buffer;
+	}
+
+	/**
+	 * Adds an arc to the buffer of the calling thread. Safe to be called from many threads
+	 * at once, see {@link GraphBuilder#addArcTo(int, int, Measurable)}.
+	 * */
+	public void addArcTo(int source, int target, Measurable<? extends Object> content) {
+		threadBuffer.get().addArcTo(source, target, content);
+	}
+
+	/**
+	 * Creates a concurrent collector that adds an arc to this builder for every element
+	 * of a stream, so parallel streams can feed the builder directly.
+	 * @param source gets the source node index of an element
+	 * @param target gets the target node index of an element
+	 * @param content gets the arc content of an element
+	 * */
+	public <T> Collector<T, ConcurrentGraphBuilder, ConcurrentGraphBuilder> arcCollector(ToIntFunction<? super T> source,
+			ToIntFunction<? super T> target, Function<? super T, ? extends Measurable<?>> content) {
+		return new ArcCollector<T>(source, target, content);
+	}
+
+	/**
+	 * Fills the given graph with the nodes and arcs of this builder using as many threads as
+	 * processors are available. See {@link #build(Graph, int)}.
+	 * */
+	public Graph build(Graph emptyGraph) {
+		return build(emptyGraph, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Fills the given graph with the nodes and arcs of this builder. Producers must have
+	 * finished adding arcs before building.
+	 * @param emptyGraph a graph without nodes, as returned by {@link GraphFactory}
+	 * @param numThreads number of threads used to link the arcs
+	 * @return the given graph
+	 * @throws IllegalArgumentException if the graph isn't empty
+	 * @throws IndexOutOfBoundsException if an arc references a node that wasn't added
+	 * */
+	public Graph build(Graph emptyGraph, int numThreads) {
+		Object event = JfrEvents.bulkLoadStarted();
+		Graph graph = fill(emptyGraph, numThreads);
+		if(event != null){
+			JfrEvents.bulkLoadFinished(event, ConcurrentGraphBuilder.class, graph.getClass(), graph.size(),
+					graph.getArcs().size(), numThreads);
+		}
+		return graph;
+	}
+
+	private Graph fill(Graph emptyGraph, int numThreads) {
+		if(!emptyGraph.isEmpty()){
+			throw new IllegalArgumentException("Graphs can only be built from scratch");
+		}
+		final AbstractGraph graph = (AbstractGraph) emptyGraph;
+		//graphs stored by index link the arcs themselves
+		IndexedGraph indexedGraph = graph instanceof IndexedGraph ? (IndexedGraph) graph : null;
+		ArcBuffer[] arcBuffers = buffers.toArray(new ArcBuffer[0]);
+		int totalArcs = 0;
+		for (ArcBuffer buffer : arcBuffers) {
+			totalArcs += buffer.size;
+		}
+		//the buffers are copied one after the other, so each arc has a single index
+		final int numArcs = totalArcs;
+		final int[] sources = new int[numArcs];
+		final int[] targets = new int[numArcs];
+		final Measurable<?>[] contents = new Measurable<?>[numArcs];
+		int offset = 0;
+		for (ArcBuffer buffer : arcBuffers) {
+			System.arraycopy(buffer.sources, 0, sources, offset, buffer.size);
+			System.arraycopy(buffer.targets, 0, targets, offset, buffer.size);
+			System.arraycopy(buffer.contents, 0, contents, offset, buffer.size);
+			offset += buffer.size;
+		}
+		final int nodes = getNumNodes();
+		graph.ensureCapacity(nodes, numArcs);
+
+		final AbstractNode[] graphNodes = new AbstractNode[nodes];
+		final Arc[] arcs = indexedGraph == null ? new Arc[numArcs] : null;
+		final int[] numArcsOut = new int[nodes];
+		final int[] numArcsIn = new int[nodes];
+		final int numRanges = Math.max(1, Math.min(nodes, numThreads * RANGES_PER_THREAD));
+		final int numChunks = Math.max(1, Math.min(numArcs, numThreads));
+		//arcs counted by chunk and by range of their source and target, turned into the
+		//place where each chunk puts the arcs of each range in the buckets
+		final int[][] outPlaces = new int[numChunks][numRanges];
+		final int[][] inPlaces = new int[numChunks][numRanges];
+		final int[] outBuckets = new int[numArcs];
+		final int[] inBuckets = new int[numArcs];
+		final int[] firstOut = new int[numRanges + 1];
+		final int[] firstIn = new int[numRanges + 1];
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, numThreads));
+		try {
+			List<Callable<Void>> countTasks = new ArrayList<Callable<Void>>(numChunks);
+			List<Callable<Void>> bucketTasks = new ArrayList<Callable<Void>>(numChunks);
+			for (int c = 0; c < numChunks; c++) {
+				final int from = (int) ((long) numArcs * c / numChunks);
+				final int to = (int) ((long) numArcs * (c + 1) / numChunks);
+				final int[] outCounts = outPlaces[c];
+				final int[] inCounts = inPlaces[c];
+				countTasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						countArcs(sources, targets, from, to, nodes, numRanges, outCounts, inCounts);
+						return null;
+					}
+				});
+				bucketTasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						for (int i = from; i < to; i++) {
+							outBuckets[outCounts[rangeOf(sources[i], nodes, numRanges)]++] = i;
+							inBuckets[inCounts[rangeOf(targets[i], nodes, numRanges)]++] = i;
+						}
+						return null;
+					}
+				});
+			}
+			List<Callable<Void>> nodeCountTasks = new ArrayList<Callable<Void>>(numRanges);
+			List<Callable<Void>> linkOutTasks = new ArrayList<Callable<Void>>(numRanges);
+			List<Callable<Void>> linkInTasks = new ArrayList<Callable<Void>>(numRanges);
+			for (int r = 0; r < numRanges; r++) {
+				final int range = r;
+				nodeCountTasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						for (int k = firstOut[range]; k < firstOut[range + 1]; k++) {
+							numArcsOut[sources[outBuckets[k]]]++;
+						}
+						for (int k = firstIn[range]; k < firstIn[range + 1]; k++) {
+							numArcsIn[targets[inBuckets[k]]]++;
+						}
+						return null;
+					}
+				});
+				linkOutTasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						int from = (int) ((long) nodes * range / numRanges);
+						int to = (int) ((long) nodes * (range + 1) / numRanges);
+						for (int i = from; i < to; i++) {
+							graphNodes[i].ensureArcCapacity(numArcsOut[i], numArcsIn[i]);
+						}
+						for (int k = firstOut[range]; k < firstOut[range + 1]; k++) {
+							int arc = outBuckets[k];
+							AbstractNode sourceNode = graphNodes[sources[arc]];
+							arcs[arc] = new ArcImpl(sourceNode, graphNodes[targets[arc]], contents[arc]);
+							sourceNode.linkArcOut(arcs[arc]);
+						}
+						return null;
+					}
+				});
+				linkInTasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						for (int k = firstIn[range]; k < firstIn[range + 1]; k++) {
+							int arc = inBuckets[k];
+							graphNodes[targets[arc]].linkArcIn(arcs[arc]);
+						}
+						return null;
+					}
+				});
+			}
+			runAll(executor, countTasks);
+			toPlaces(outPlaces, firstOut);
+			toPlaces(inPlaces, firstIn);
+			runAll(executor, bucketTasks);
+			runAll(executor, nodeCountTasks);
+			for (int i = 0; i < nodes; i++) {
+				String tag = nodeTags[i];
+				graphNodes[i] = (AbstractNode) (tag == null ? graph.addNode(nodeContents[i]) : graph.addNode(nodeContents[i], tag));
+			}
+			if(indexedGraph != null){
+				createIndexedArcs(indexedGraph, sources, targets, contents, graphNodes, numArcsOut, numArcsIn);
+				return graph;
+			}
+			runAll(executor, linkOutTasks);
+			runAll(executor, linkInTasks);
+		} finally {
+			executor.shutdown();
+		}
+
+		graph.addArcs(Arrays.asList(arcs));
+		return graph;
+	}
+
+	/**
+	 * Counts the arcs in [from, to) by range of their source and target nodes, validating
+	 * them on the way
+	 * */
+	private static void countArcs(int[] sources, int[] targets, int from, int to, int numNodes, int numRanges,
+			int[] outCounts, int[] inCounts) {
+		for (int i = from; i < to; i++) {
+			int source = sources[i];
+			int target = targets[i];
+			if(source < 0 || source >= numNodes || target < 0 || target >= numNodes){
+				throw new IndexOutOfBoundsException("Arc references a node that wasn't added: ["
+						+ source + ", " + target + "]");
+			}
+			outCounts[rangeOf(source, numNodes, numRanges)]++;
+			inCounts[rangeOf(target, numNodes, numRanges)]++;
+		}
+	}
+
+	/**
+	 * @return the range holding the node, range r being [numNodes * r / numRanges, numNodes * (r + 1) / numRanges)
+	 * */
+	private static int rangeOf(int node, int numNodes, int numRanges) {
+		return (int) (((long) (node + 1) * numRanges + numNodes - 1) / numNodes) - 1;
+	}
+
+	/**
+	 * Turns the counts of arcs by chunk and range into where each chunk starts placing the
+	 * arcs of each range, the arcs of a range going together in chunk order
+	 * @param firstArcs filled with where the arcs of each range start, plus the number of arcs
+	 * */
+	private static void toPlaces(int[][] counts, int[] firstArcs) {
+		int place = 0;
+		for (int r = 0; r < firstArcs.length - 1; r++) {
+			firstArcs[r] = place;
+			for (int[] chunkCounts : counts) {
+				int count = chunkCounts[r];
+				chunkCounts[r] = place;
+				place += count;
+			}
+		}
+		firstArcs[firstArcs.length - 1] = place;
+	}
+
+	/**
+	 * Creates the arcs on a graph stored by index, which can't be linked by several threads
+	 * */
+	private static void createIndexedArcs(IndexedGraph graph, int[] sources, int[] targets, Measurable<?>[] contents,
+			AbstractNode[] nodes, int[] numArcsOut, int[] numArcsIn) {
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i].ensureArcCapacity(numArcsOut[i], numArcsIn[i]);
+		}
+		for (int i = 0; i < sources.length; i++) {
+			graph.createArc(sources[i], targets[i], contents[i]);
+		}
+	}
+
+	private static void runAll(ExecutorService executor, List<Callable<Void>> tasks) {
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while building the graph", e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException){
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Arcs added by a single producer thread. Not thread safe.
+	 * */
+	public static final class ArcBuffer {
+
+		private int[] sources = new int[DEFAULT_EXPECTED_SIZE];
+
+		private int[] targets = new int[DEFAULT_EXPECTED_SIZE];
+
+		private Measurable<?>[] contents = new Measurable<?>[DEFAULT_EXPECTED_SIZE];
+
+		private int size;
+
+		private ArcBuffer() {
+		}
+
+		/**
+		 * Adds an arc between the nodes with the given indexes,
+		 * see {@link GraphBuilder#addArcTo(int, int, Measurable)}
+		 * */
+		public void addArcTo(int source, int target, Measurable<? extends Object> content) {
+			if(size == sources.length){
+				sources = Arrays.copyOf(sources, size * 2);
+				targets = Arrays.copyOf(targets, size * 2);
+				contents = Arrays.copyOf(contents, size * 2);
+			}
+			sources[size] = source;
+			targets[size] = target;
+			contents[size] = content;
+			size++;
+		}
+	}
+
+	/**
+	 * Collector adding the elements of a stream as arcs of this builder. Elements are added
+	 * concurrently through the per thread buffers.
+	 * */
+	private final class ArcCollector<T> implements Collector<T, ConcurrentGraphBuilder, ConcurrentGraphBuilder> {
+
+		private final ToIntFunction<? super T> source;
+
+		private final ToIntFunction<? super T> target;
+
+		private final Function<? super T, ? extends Measurable<?>> content;
+
+		private ArcCollector(ToIntFunction<? super T> source, ToIntFunction<? super T> target,
+				Function<? super T, ? extends Measurable<?>> content) {
+			this.source = source;
+			this.target = target;
+			this.content = content;
+		}
+
+		@Override
+		public Supplier<ConcurrentGraphBuilder> supplier() {
+			return new Supplier<ConcurrentGraphBuilder>() {
+				@Override
+				public ConcurrentGraphBuilder get() {
+					return ConcurrentGraphBuilder.this;
+				}
+			};
+		}
+
+		@Override
+		public BiConsumer<ConcurrentGraphBuilder, T> accumulator() {
+			return new BiConsumer<ConcurrentGraphBuilder, T>() {
+				@Override
+				public void accept(ConcurrentGraphBuilder builder, T element) {
+					builder.addArcTo(source.applyAsInt(element), target.applyAsInt(element), content.apply(element));
+				}
+			};
+		}
+
+		@Override
+		public BinaryOperator<ConcurrentGraphBuilder> combiner() {
+			return new BinaryOperator<ConcurrentGraphBuilder>() {
+				@Override
+				public ConcurrentGraphBuilder apply(ConcurrentGraphBuilder left, ConcurrentGraphBuilder right) {
+					return left;
+				}
+			};
+		}
+
+		@Override
+		public Function<ConcurrentGraphBuilder, ConcurrentGraphBuilder> finisher() {
+			return Function.identity();
+		}
+
+		@Override
+		public Set<Characteristics> characteristics() {
+			return Collections.unmodifiableSet(EnumSet.of(Characteristics.CONCURRENT,
+					Characteristics.UNORDERED, Characteristics.IDENTITY_FINISH));
+		}
+	}
+}
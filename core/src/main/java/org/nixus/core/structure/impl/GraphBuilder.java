@@ -0,0 +1,224 @@
+package org.nixus.core.structure.impl;
+
+import java.util.Arrays;
+
+import org.nixus.core.jfr.JfrEvents;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.nodes.impl.AbstractNode;
+
+/**
+ * Builds a graph from nodes and arcs given in bulk. Nodes are referenced by the order
+ * in which they were added to this builder, starting from 0.
+ * The arcs are bucketed by source node once and the graph is filled in a single pass,
+ * without validating every arc and with all the graph structures allocated up front.
+ * A builder can fill any number of graphs, see {@link #build(Graph)}.
+ * */
+public class GraphBuilder {
+
+	private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+	private Measurable<?>[] nodeContents;
+
+	/**
+	 * Node tags, null when the node should get the graph default tag
+	 * */
+	private String[] nodeTags;
+
+	private int numNodes;
+
+	private int[] arcSources;
+
+	private int[] arcTargets;
+
+	private Measurable<?>[] arcContents;
+
+	private int numArcs;
+
+	/**
+	 * Creates a builder expecting a few nodes and arcs
+	 * */
+	public GraphBuilder() {
+		this(DEFAULT_EXPECTED_SIZE, DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * @param expectedNodes number of nodes the builder is expected to hold. It will grow if needed.
+	 * @param expectedArcs number of arcs the builder is expected to hold. It will grow if needed.
+	 * */
+	public GraphBuilder(int expectedNodes, int expectedArcs) {
+		this.nodeContents = new Measurable<?>[Math.max(expectedNodes, 1)];
+		this.nodeTags = new String[this.nodeContents.length];
+		this.arcSources = new int[Math.max(expectedArcs, 1)];
+		this.arcTargets = new int[this.arcSources.length];
+		this.arcContents = new Measurable<?>[this.arcSources.length];
+	}
+
+	/**
+	 * Adds a node with the specified content. Its tag will be the graph default one.
+	 * @return the index of the node within this builder
+	 * */
+	public int addNode(Measurable<? extends Object> content) {
+		return addNode(content, null);
+	}
+
+	/**
+	 * Adds a node with the specified content and tag.
+	 * @return the index of the node within this builder
+	 * */
+	public int addNode(Measurable<? extends Object> content, String tag) {
+		ensureNodeCapacity(numNodes + 1);
+		nodeContents[numNodes] = content;
+		nodeTags[numNodes] = tag;
+		return numNodes++;
+	}
+
+	/**
+	 * Adds a node for each of the contents, with the graph default tags.
+	 * @return the index of the first added node within this builder, the rest
+	 * follow it consecutively.
+	 * */
+	public int addNodes(Measurable<?>[] contents) {
+		int first = numNodes;
+		ensureNodeCapacity(numNodes + contents.length);
+		System.arraycopy(contents, 0, nodeContents, numNodes, contents.length);
+		numNodes += contents.length;
+		return first;
+	}
+
+	/**
+	 * Adds an arc between the nodes with the given indexes. As with
+	 * {@link org.nixus.core.structure.nodes.Node#addArcTo(org.nixus.core.structure.nodes.Node, Measurable)}
+	 * the arc has a single direction unless the built graph is undirected.
+	 * Indexes are validated when building.
+	 * */
+	public void addArcTo(int source, int target, Measurable<? extends Object> content) {
+		ensureArcCapacity(numArcs + 1);
+		arcSources[numArcs] = source;
+		arcTargets[numArcs] = target;
+		arcContents[numArcs] = content;
+		numArcs++;
+	}
+
+	/**
+	 * Adds an arc for each position of the given arrays, see {@link #addArcTo(int, int, Measurable)}
+	 * */
+	public void addArcsTo(int[] sources, int[] targets, Measurable<?>[] contents) {
+		int length = sources.length;
+		if(targets.length != length || contents.length != length){
+			throw new IllegalArgumentException("Sources, targets and contents must have the same length");
+		}
+		ensureArcCapacity(numArcs + length);
+		System.arraycopy(sources, 0, arcSources, numArcs, length);
+		System.arraycopy(targets, 0, arcTargets, numArcs, length);
+		System.arraycopy(contents, 0, arcContents, numArcs, length);
+		numArcs += length;
+	}
+
+	/**
+	 * @return the number of nodes added so far
+	 * */
+	public int getNumNodes() {
+		return numNodes;
+	}
+
+	/**
+	 * @return the number of arcs added so far
+	 * */
+	public int getNumArcs() {
+		return numArcs;
+	}
+
+	/**
+	 * Fills the given graph with the nodes and arcs of this builder.
+	 * @param emptyGraph a graph without nodes, as returned by {@link GraphFactory}
+	 * @return the given graph
+	 * @throws IllegalArgumentException if the graph isn't empty
+	 * @throws IndexOutOfBoundsException if an arc references a node that wasn't added
+	 * */
+	public Graph build(Graph emptyGraph) {
+		if(!emptyGraph.isEmpty()){
+			throw new IllegalArgumentException("Graphs can only be built from scratch");
+		}
+		Object event = JfrEvents.bulkLoadStarted();
+		validateArcs();
+		AbstractGraph graph = (AbstractGraph) emptyGraph;
+		graph.ensureCapacity(numNodes, numArcs);
+
+		AbstractNode[] nodes = new AbstractNode[numNodes];
+		for (int i = 0; i < numNodes; i++) {
+			String tag = nodeTags[i];
+			nodes[i] = (AbstractNode) (tag == null ? graph.addNode(nodeContents[i]) : graph.addNode(nodeContents[i], tag));
+		}
+
+		//bucket arcs by source node, firstArc[i] is where the arcs of node i start on arcsBySource
+		int[] firstArc = new int[numNodes + 1];
+		int[] numArcsIn = new int[numNodes];
+		for (int i = 0; i < numArcs; i++) {
+			firstArc[arcSources[i] + 1]++;
+			numArcsIn[arcTargets[i]]++;
+		}
+		for (int i = 0; i < numNodes; i++) {
+			firstArc[i + 1] += firstArc[i];
+		}
+		int[] nextArc = Arrays.copyOf(firstArc, numNodes);
+		int[] arcsBySource = new int[numArcs];
+		for (int i = 0; i < numArcs; i++) {
+			arcsBySource[nextArc[arcSources[i]]++] = i;
+		}
+
+		//graphs stored by index link the arcs themselves
+		IndexedGraph indexedGraph = graph instanceof IndexedGraph ? (IndexedGraph) graph : null;
+
+		//single pass linking each node arcs
+		Arc[] arcs = new Arc[numArcs];
+		for (int source = 0; source < numNodes; source++) {
+			AbstractNode sourceNode = nodes[source];
+			sourceNode.ensureArcCapacity(firstArc[source + 1] - firstArc[source], numArcsIn[source]);
+			for (int k = firstArc[source]; k < firstArc[source + 1]; k++) {
+				int arcIndex = arcsBySource[k];
+				if(indexedGraph != null){
+					indexedGraph.createArc(source, arcTargets[arcIndex], arcContents[arcIndex]);
+					continue;
+				}
+				AbstractNode targetNode = nodes[arcTargets[arcIndex]];
+				Arc arc = new ArcImpl(sourceNode, targetNode, arcContents[arcIndex]);
+				sourceNode.linkArcOut(arc);
+				targetNode.linkArcIn(arc);
+				arcs[k] = arc;
+			}
+		}
+		if(indexedGraph == null){
+			graph.addArcs(Arrays.asList(arcs));
+		}
+		JfrEvents.bulkLoadFinished(event, GraphBuilder.class, graph.getClass(), numNodes, numArcs, 1);
+		return graph;
+	}
+
+	private void validateArcs() {
+		for (int i = 0; i < numArcs; i++) {
+			if(arcSources[i] < 0 || arcSources[i] >= numNodes || arcTargets[i] < 0 || arcTargets[i] >= numNodes){
+				throw new IndexOutOfBoundsException("Arc " + i + " references a node that wasn't added: ["
+						+ arcSources[i] + ", " + arcTargets[i] + "]");
+			}
+		}
+	}
+
+	private void ensureNodeCapacity(int capacity) {
+		if(capacity > nodeContents.length){
+			int newCapacity = Math.max(capacity, nodeContents.length * 2);
+			nodeContents = Arrays.copyOf(nodeContents, newCapacity);
+			nodeTags = Arrays.copyOf(nodeTags, newCapacity);
+		}
+	}
+
+	private void ensureArcCapacity(int capacity) {
+		if(capacity > arcSources.length){
+			int newCapacity = Math.max(capacity, arcSources.length * 2);
+			arcSources = Arrays.copyOf(arcSources, newCapacity);
+			arcTargets = Arrays.copyOf(arcTargets, newCapacity);
+			arcContents = Arrays.copyOf(arcContents, newCapacity);
+		}
+	}
+}
@@ -14,6 +14,38 @@ public class GraphFactory {
 		return new AdjacencyMapGraph();
 	}
 	
+	/**
+	 * Instantiates an AdjacencyMapGraph where many threads can add nodes and arcs at once.
+	 * See {@link ConcurrentAdjacencyMapGraph}.
+	 * */
+	public static Graph instantiateConcurrentAdjacencyMapGraph() {
+		return new ConcurrentAdjacencyMapGraph();
+	}
+	
+	/**
+	 * Instantiates an AdjacencyMapGraph to be queried by many threads while others change it,
+	 * reading optimistically. See {@link OptimisticAdjacencyMapGraph}.
+	 * */
+	public static OptimisticAdjacencyMapGraph instantiateOptimisticAdjacencyMapGraph() {
+		return new OptimisticAdjacencyMapGraph();
+	}
+	
+	/**
+	 * Instantiates a new UndirectedAdjacencyMapGraph. Its arcs connect both nodes in 
+	 * both directions and are stored only once.
+	 * */
+	public static Graph instantiateUndirectedAdjacencyMapGraph() {
+		return new UndirectedAdjacencyMapGraph();
+	}
+	
+	/**
+	 * Instantiates a directed graph that keeps its arcs as an AdjacencyMapGraph until it 
+	 * gets dense enough for an adjacency matrix to take less memory. See {@link AdaptiveGraph}.
+	 * */
+	public static AdaptiveGraph instantiateAdaptiveGraph() {
+		return new AdaptiveGraph();
+	}
+	
 	/**
 	 * Creates a graph with the initial size of the underling adjacency matrix being 64 
 	 * and the growth factor 1.5 
@@ -30,6 +62,73 @@ public class GraphFactory {
 	public static Graph instantiateAdjacencyMatrixGraph(final int initialSize, final int growthFactor) {
 		return new AdjacencyMatrixGraph(initialSize, growthFactor);
 	}
-	 
+	
+	/**
+	 * Creates an undirected graph with the initial size of the underling adjacency matrix 
+	 * being 64 and the growth factor 1.5. Its arcs connect both nodes in both directions 
+	 * and are stored only once.
+	 * */
+	public static Graph instantiateUndirectedAdjacencyMatrixGraph() {
+		return new UndirectedAdjacencyMatrixGraph();
+	}
+	
+	/**
+	 * Creates a graph kept out of the java heap, expecting a few nodes and arcs.
+	 * Its memory must be released by {@link OffHeapGraph#close()}.
+	 * */
+	public static OffHeapGraph instantiateOffHeapGraph() {
+		return new OffHeapGraph(true, 0, 0);
+	}
+	
+	/**
+	 * Creates a graph kept out of the java heap. Its memory must be released by 
+	 * {@link OffHeapGraph#close()}.
+	 * @param expectedNodes number of nodes the graph holds before growing
+	 * @param expectedArcs number of arcs the graph holds before growing
+	 * */
+	public static OffHeapGraph instantiateOffHeapGraph(int expectedNodes, int expectedArcs) {
+		return new OffHeapGraph(true, expectedNodes, expectedArcs);
+	}
+	
+	/**
+	 * Creates an undirected graph kept out of the java heap. Its memory must be released 
+	 * by {@link OffHeapGraph#close()}.
+	 * @param expectedNodes number of nodes the graph holds before growing
+	 * @param expectedArcs number of arcs the graph holds before growing
+	 * */
+	public static OffHeapGraph instantiateUndirectedOffHeapGraph(int expectedNodes, int expectedArcs) {
+		return new OffHeapGraph(false, expectedNodes, expectedArcs);
+	}
+	
+	/**
+	 * Creates a graph that publishes an immutable version after every change, for
+	 * readers to query while another thread changes it. See {@link VersionedGraph}.
+	 * */
+	public static VersionedGraph instantiateVersionedGraph() {
+		return new VersionedGraph(true);
+	}
+	
+	/**
+	 * Creates an undirected graph that publishes an immutable version after every change.
+	 * See {@link VersionedGraph}.
+	 * */
+	public static VersionedGraph instantiateUndirectedVersionedGraph() {
+		return new VersionedGraph(false);
+	}
+	
+	/**
+	 * Creates an empty immutable graph, changed by creating new graphs that share
+	 * the unchanged parts with it. See {@link PersistentGraph}.
+	 * */
+	public static PersistentGraph instantiatePersistentGraph() {
+		return new PersistentGraph(true);
+	}
+	
+	/**
+	 * Creates an empty immutable undirected graph. See {@link PersistentGraph}.
+	 * */
+	public static PersistentGraph instantiateUndirectedPersistentGraph() {
+		return new PersistentGraph(false);
+	}
 
 }
@@ -0,0 +1,65 @@
+package org.nixus.core.structure.impl;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.auxiliary.ConstantMeasure;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Arc handle of an {@link IndexedGraph}. Handles are created on demand, two handles
+ * of the same arc are equal.
+ * */
+public class IndexedArc implements Arc {
+
+	private static final long serialVersionUID = 3404717469218312806L;
+
+	private final IndexedGraph owner;
+
+	private final int id;
+
+	public IndexedArc(IndexedGraph owner, int id) {
+		this.owner = owner;
+		this.id = id;
+	}
+
+	/**
+	 * @return the id of this arc within its graph
+	 * */
+	public int getId() {
+		return id;
+	}
+
+	@Override
+	public Node getSourceNode() {
+		return owner.getNode(owner.getArcSource(id));
+	}
+
+	@Override
+	public Measurable<? extends Object> getArcContent() {
+		return ConstantMeasure.valueOf(owner.getArcMeasure(id));
+	}
+
+	@Override
+	public Node getTargetNode() {
+		return owner.getNode(owner.getArcTarget(id));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(!(obj instanceof IndexedArc)){
+			return false;
+		}
+		IndexedArc arc = (IndexedArc) obj;
+		return arc.owner == this.owner && arc.id == this.id;
+	}
+
+	@Override
+	public int hashCode() {
+		return id;
+	}
+
+	@Override
+	public String toString() {
+		return "[ "+getSourceNode()+", "+getTargetNode()+"]";
+	}
+}
@@ -0,0 +1,292 @@
+package org.nixus.core.structure.impl;
+
+import java.util.AbstractList;
+import java.util.Collection;
+
+import org.nixus.core.strategies.NodeOrdering;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.impl.IndexedNode;
+
+/**
+ * Base for graphs that keep their nodes and arcs in flat storage addressed by index
+ * instead of as objects, e.g. mapped files or off-heap memory. Nodes are indexed by
+ * insertion order and arcs by an id from 0 to the number of arcs.
+ * <p>
+ * {@link Node} handles are created on demand and cached, so the same node is always
+ * the same object. {@link Arc}s are created on every access and compared by id.
+ * The node and arc lists of this graph are views over the storage.
+ * <p>
+ * Graphs are read only unless the subclass supports {@link #addNode(Measurable, String)},
+ * {@link #createArc(int, int, Measurable)} and {@link #setNodeTag(int, String)}.
+ * */
+public abstract class IndexedGraph extends AbstractGraph {
+
+	private static final long serialVersionUID = -1958317276024785217L;
+
+	/**
+	 * Node handles by index, created when first accessed
+	 * */
+	private transient IndexedNode[] handles;
+
+	protected IndexedGraph() {
+		this.nodes = new NodeList();
+		this.arcs = new ArcList();
+	}
+
+	/**
+	 * @return the number of arcs of this graph
+	 * */
+	public abstract int getNumArcs();
+
+	/**
+	 * @return the number of arcs leaving the node. On undirected graphs, the number
+	 * of arcs the node is an end of.
+	 * */
+	public abstract int getOutDegree(int node);
+
+	/**
+	 * @return the id of the k-th arc leaving the node
+	 * */
+	public abstract int getArcOut(int node, int k);
+
+	/**
+	 * @return the number of arcs reaching the node. On undirected graphs, same
+	 * as {@link #getOutDegree(int)}.
+	 * */
+	public abstract int getInDegree(int node);
+
+	/**
+	 * @return the id of the k-th arc reaching the node
+	 * */
+	public abstract int getArcIn(int node, int k);
+
+	/**
+	 * @return the index of the source node of the arc
+	 * */
+	public abstract int getArcSource(int arc);
+
+	/**
+	 * @return the index of the target node of the arc
+	 * */
+	public abstract int getArcTarget(int arc);
+
+	/**
+	 * @return the measure of the content of the arc
+	 * */
+	public abstract int getArcMeasure(int arc);
+
+	/**
+	 * @return the measure of the content of the node
+	 * */
+	public abstract int getNodeMeasure(int node);
+
+	/**
+	 * @return the tag of the node
+	 * */
+	public abstract String getNodeTag(int node);
+
+	/**
+	 * Sets the tag of the node. Not supported by default.
+	 * */
+	public void setNodeTag(int node, String tag) {
+		throw new UnsupportedOperationException("Read only graph");
+	}
+
+	/**
+	 * Adds an arc between the nodes. Not supported by default.
+	 * @return the added arc
+	 * */
+	public Arc createArc(int source, int target, Measurable<? extends Object> content) {
+		throw new UnsupportedOperationException("Read only graph");
+	}
+
+	/**
+	 * Hints the graph about how many arcs the node will hold, see
+	 * {@link org.nixus.core.structure.nodes.impl.AbstractNode#ensureArcCapacity(int, int)}.
+	 * Does nothing by default.
+	 * */
+	public void ensureArcCapacity(int node, int numArcsOut, int numArcsIn) {
+	}
+
+	/**
+	 * Not supported by default.
+	 * */
+	@Override
+	public Node addNode(Measurable<? extends Object> content, String tag) {
+		throw new UnsupportedOperationException("Read only graph");
+	}
+
+	/**
+	 * @return the handle of the node with the given index
+	 * */
+	public IndexedNode getNode(int index) {
+		if(index < 0 || index >= nodeCount){
+			throw new IndexOutOfBoundsException("Node " + index + " of " + nodeCount);
+		}
+		if(handles == null){
+			handles = new IndexedNode[nodeCount];
+		} else if(index >= handles.length){
+			IndexedNode[] newHandles = new IndexedNode[Math.max(nodeCount, handles.length * 2)];
+			System.arraycopy(handles, 0, newHandles, 0, handles.length);
+			handles = newHandles;
+		}
+		IndexedNode node = handles[index];
+		if(node == null){
+			node = createNode(index);
+			handles[index] = node;
+		}
+		return node;
+	}
+
+	/**
+	 * @return an arc handle for the given id
+	 * */
+	public Arc getArc(int arc) {
+		return new IndexedArc(this, arc);
+	}
+
+	/**
+	 * Creates the handle of a node
+	 * */
+	protected IndexedNode createNode(int index) {
+		return new IndexedNode(this, index);
+	}
+
+	/**
+	 * Arcs are created from the storage, they can't be added as objects
+	 * */
+	@Override
+	public void addArc(Arc arc) {
+		throw new UnsupportedOperationException("Arcs must be added by index");
+	}
+
+	/**
+	 * Arcs are created from the storage, they can't be added as objects
+	 * */
+	@Override
+	public void addArcs(Collection<Arc> arcs) {
+		throw new UnsupportedOperationException("Arcs must be added by index");
+	}
+
+	@Override
+	public void ensureCapacity(int numNodes, int numArcs) {
+	}
+
+	/**
+	 * Only the node handles created so far. The storage belongs to the subclass, and may 
+	 * not even be on the heap.
+	 * */
+	@Override
+	protected long estimateNodeBytes() {
+		if(handles == null){
+			return 0;
+		}
+		long bytes = MemoryFootprint.arrayBytes(handles.length, MemoryFootprint.REFERENCE_BYTES);
+		for (IndexedNode node : handles) {
+			if(node != null){
+				bytes += node.estimateNodeBytes();
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * None, arcs are created on every access
+	 * */
+	@Override
+	protected long estimateArcBytes() {
+		return 0;
+	}
+
+	/**
+	 * None, the adjacency is in the storage of the subclass
+	 * */
+	@Override
+	protected long estimateAdjacencyBytes() {
+		return 0;
+	}
+
+	/**
+	 * None, the tags are in the storage of the subclass
+	 * */
+	@Override
+	protected long estimateTagBytes() {
+		return 0;
+	}
+
+	/**
+	 * Not supported, the storage is append only
+	 * */
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("Nodes can't be removed");
+	}
+
+	/**
+	 * Not supported, the storage is append only
+	 * */
+	@Override
+	public boolean removeArc(Arc arc) {
+		throw new UnsupportedOperationException("Arcs can't be removed");
+	}
+
+	/**
+	 * Not supported, nodes are stored by index
+	 * */
+	@Override
+	public void reorder(NodeOrdering ordering) {
+		throw new UnsupportedOperationException("Nodes can't be renumbered");
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return o instanceof IndexedNode && ((IndexedNode) o).getOwner() == this;
+	}
+
+	/**
+	 * Read only view of the nodes, creating the handles on access
+	 * */
+	private class NodeList extends AbstractList<Node> {
+
+		@Override
+		public Node get(int index) {
+			return getNode(index);
+		}
+
+		@Override
+		public int size() {
+			return nodeCount;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return IndexedGraph.this.contains(o);
+		}
+
+		@Override
+		public int indexOf(Object o) {
+			return contains(o) ? ((IndexedNode) o).getInsertionOrder() : -1;
+		}
+	}
+
+	/**
+	 * Read only view of the arcs, by id
+	 * */
+	private class ArcList extends AbstractList<Arc> {
+
+		@Override
+		public Arc get(int index) {
+			if(index < 0 || index >= getNumArcs()){
+				throw new IndexOutOfBoundsException("Arc " + index + " of " + getNumArcs());
+			}
+			return getArc(index);
+		}
+
+		@Override
+		public int size() {
+			return getNumArcs();
+		}
+	}
+}
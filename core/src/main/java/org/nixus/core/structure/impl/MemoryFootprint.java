@@ -0,0 +1,281 @@
+package org.nixus.core.structure.impl;
+
+/**
+ * Estimate of the heap retained by a graph, see {@link AbstractGraph#getMemoryFootprint()}.
+ * Sizes follow the object layout of a 64 bit JVM with compressed references: 12 bytes of
+ * object header, 16 of array header, 4 per reference and objects aligned to 8 bytes.
+ * Node and arc contents belong to the caller and aren't counted.
+ * <p>
+ * It also estimates the size of an adjacency map and an adjacency matrix graph with the same
+ * nodes and arcs, to tell which representation is smaller.
+ * */
+public final class MemoryFootprint {
+
+	public static final int REFERENCE_BYTES = 4;
+
+	public static final int INT_BYTES = 4;
+
+	private static final int OBJECT_HEADER_BYTES = 12;
+
+	private static final int ARRAY_HEADER_BYTES = 16;
+
+	private static final int ALIGNMENT = 8;
+
+	/**
+	 * Fields of {@link org.nixus.core.structure.nodes.impl.AbstractNode}: content, owner and
+	 * tag, insertion order and number of incoming arcs
+	 * */
+	private static final int NODE_FIELD_BYTES = 3 * REFERENCE_BYTES + 2 * INT_BYTES;
+
+	/**
+	 * Fields of {@link ArcImpl}: content, source, target, tag and removed flag
+	 * */
+	private static final int ARC_FIELD_BYTES = 4 * REFERENCE_BYTES + 1;
+
+	/**
+	 * Graph representations compared by {@link MemoryFootprint#getRecommendedRepresentation()}
+	 * */
+	public enum Representation {
+		ADJACENCY_MAP, ADJACENCY_MATRIX
+	}
+
+	private final int numNodes;
+
+	private final int numArcs;
+
+	private final boolean directed;
+
+	private final long nodeBytes;
+
+	private final long arcBytes;
+
+	private final long adjacencyBytes;
+
+	private final long matrixSlackBytes;
+
+	private final long tagBytes;
+
+	MemoryFootprint(int numNodes, int numArcs, boolean directed, long nodeBytes, long arcBytes,
+			long adjacencyBytes, long matrixSlackBytes, long tagBytes) {
+		this.numNodes = numNodes;
+		this.numArcs = numArcs;
+		this.directed = directed;
+		this.nodeBytes = nodeBytes;
+		this.arcBytes = arcBytes;
+		this.adjacencyBytes = adjacencyBytes;
+		this.matrixSlackBytes = matrixSlackBytes;
+		this.tagBytes = tagBytes;
+	}
+
+	public int getNumNodes() {
+		return numNodes;
+	}
+
+	public int getNumArcs() {
+		return numArcs;
+	}
+
+	/**
+	 * @return bytes of the node objects and of the list holding them
+	 * */
+	public long getNodeBytes() {
+		return nodeBytes;
+	}
+
+	/**
+	 * @return bytes of the arc objects and of the list holding them, the removed arcs
+	 * included until the graph is compacted
+	 * */
+	public long getArcBytes() {
+		return arcBytes;
+	}
+
+	/**
+	 * @return bytes of the structures linking the nodes to their arcs: the maps and lists of
+	 * the nodes, the rows of the adjacency matrix in use, and the cached weight snapshots
+	 * */
+	public long getAdjacencyBytes() {
+		return adjacencyBytes;
+	}
+
+	/**
+	 * @return bytes of the adjacency matrix beyond the rows and columns of the nodes, left by
+	 * its growth or by removed nodes. Zero on graphs without a matrix.
+	 * */
+	public long getMatrixSlackBytes() {
+		return matrixSlackBytes;
+	}
+
+	/**
+	 * @return bytes of the tag strings of the nodes and arcs, and of the tag index
+	 * */
+	public long getTagBytes() {
+		return tagBytes;
+	}
+
+	public long getTotalBytes() {
+		return nodeBytes + arcBytes + adjacencyBytes + matrixSlackBytes + tagBytes;
+	}
+
+	/**
+	 * @return the estimated bytes of an adjacency map graph with as many nodes and arcs,
+	 * tags aside
+	 * */
+	public long getAdjacencyMapBytes() {
+		return estimateAdjacencyMapGraph(numNodes, numArcs, directed);
+	}
+
+	/**
+	 * @return the estimated bytes of an adjacency matrix graph with as many nodes and arcs
+	 * and a matrix of the exact size, tags aside
+	 * */
+	public long getAdjacencyMatrixBytes() {
+		return estimateAdjacencyMatrixGraph(numNodes, numArcs);
+	}
+
+	/**
+	 * @return the representation that would take less memory for these nodes and arcs
+	 * */
+	public Representation getRecommendedRepresentation() {
+		return getAdjacencyMatrixBytes() < getAdjacencyMapBytes() ? Representation.ADJACENCY_MATRIX : Representation.ADJACENCY_MAP;
+	}
+
+	/**
+	 * Every node keeps a linked hash map of its arcs out, and on directed graphs a linked
+	 * list of its arcs in, as in {@link AdjacencyMapGraph}. Arcs are assumed evenly spread
+	 * over the nodes.
+	 * */
+	public static long estimateAdjacencyMapGraph(int numNodes, int numArcs, boolean directed) {
+		long bytes = arrayListBytes(numNodes) + arcsBytes(numArcs);
+		if(numNodes == 0){
+			return bytes;
+		}
+		//undirected arcs are in the map of both of its nodes
+		long numEntries = directed ? numArcs : 2L * numArcs;
+		int entriesPerNode = (int) (numEntries / numNodes);
+		bytes += numNodes * (nodeBytes(directed ? 2 : 1, 0) + linkedHashMapBytes(entriesPerNode))
+				+ (numEntries - (long) numNodes * entriesPerNode) * linkedHashMapEntryBytes();
+		if(directed){
+			bytes += numNodes * linkedListBytes(0) + numArcs * linkedListNodeBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * Nodes index a matrix with a cell for each pair of them, as in {@link AdjacencyMatrixGraph}
+	 * */
+	public static long estimateAdjacencyMatrixGraph(int numNodes, int numArcs) {
+		return arrayListBytes(numNodes) + arcsBytes(numArcs) + numNodes * nodeBytes(0, INT_BYTES)
+				+ matrixBytes(numNodes);
+	}
+
+	/**
+	 * @return bytes of an object with fields taking the given bytes
+	 * */
+	public static long objectBytes(int fieldBytes) {
+		return align(OBJECT_HEADER_BYTES + fieldBytes);
+	}
+
+	public static long arrayBytes(int length, int elementBytes) {
+		return align(ARRAY_HEADER_BYTES + (long) length * elementBytes);
+	}
+
+	/**
+	 * @return bytes of a node with the given fields on top of those of
+	 * {@link org.nixus.core.structure.nodes.impl.AbstractNode}
+	 * */
+	public static long nodeBytes(int numReferences, int primitiveBytes) {
+		return objectBytes(NODE_FIELD_BYTES + numReferences * REFERENCE_BYTES + primitiveBytes);
+	}
+
+	/**
+	 * @return bytes of an {@link ArcImpl}, its tag aside
+	 * */
+	public static long arcBytes() {
+		return objectBytes(ARC_FIELD_BYTES);
+	}
+
+	/**
+	 * @return bytes of a square matrix of references with the given number of rows
+	 * */
+	public static long matrixBytes(int numRows) {
+		return (numRows + 1) * arrayBytes(numRows, REFERENCE_BYTES);
+	}
+
+	public static long arrayListBytes(int size) {
+		//elementData, size and modCount
+		return objectBytes(REFERENCE_BYTES + 2 * INT_BYTES) + arrayBytes(size, REFERENCE_BYTES);
+	}
+
+	public static long linkedListBytes(int size) {
+		//first, last, size and modCount
+		return objectBytes(2 * REFERENCE_BYTES + 2 * INT_BYTES) + size * linkedListNodeBytes();
+	}
+
+	private static long linkedListNodeBytes() {
+		//item, next and prev
+		return objectBytes(3 * REFERENCE_BYTES);
+	}
+
+	/**
+	 * @return bytes of a hash map holding the given number of entries, with the table grown
+	 * from the default capacity. Maps never used have no table yet.
+	 * */
+	public static long hashMapBytes(int size) {
+		//table, entrySet, keySet and values, then size, modCount, threshold and loadFactor
+		long bytes = objectBytes(4 * REFERENCE_BYTES + 4 * INT_BYTES);
+		//hash, key, value and next
+		return bytes + tableBytes(size) + size * objectBytes(INT_BYTES + 3 * REFERENCE_BYTES);
+	}
+
+	public static long linkedHashMapBytes(int size) {
+		//head, tail and accessOrder on top of a hash map
+		long bytes = objectBytes(6 * REFERENCE_BYTES + 4 * INT_BYTES + 1);
+		return bytes + tableBytes(size) + size * linkedHashMapEntryBytes();
+	}
+
+	private static long linkedHashMapEntryBytes() {
+		//before and after on top of a hash map entry
+		return objectBytes(INT_BYTES + 5 * REFERENCE_BYTES);
+	}
+
+	private static long tableBytes(int size) {
+		if(size == 0){
+			return 0;
+		}
+		int capacity = 16;
+		while(size > capacity * 0.75F){
+			capacity *= 2;
+		}
+		return arrayBytes(capacity, REFERENCE_BYTES);
+	}
+
+	/**
+	 * @return bytes of the string and its characters, stored a byte each when they all fit
+	 * */
+	public static long stringBytes(String string) {
+		int charBytes = 1;
+		for (int i = 0; i < string.length(); i++) {
+			if(string.charAt(i) > 0xFF){
+				charBytes = 2;
+				break;
+			}
+		}
+		//value, hash, coder and hashIsZero
+		return objectBytes(REFERENCE_BYTES + INT_BYTES + 2) + arrayBytes(string.length(), charBytes);
+	}
+
+	private static long arcsBytes(int numArcs) {
+		return arrayListBytes(numArcs) + numArcs * arcBytes();
+	}
+
+	private static long align(long bytes) {
+		return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+
+	@Override
+	public String toString() {
+		return "nodes " + nodeBytes + " B, arcs " + arcBytes + " B, adjacency " + adjacencyBytes
+				+ " B, matrix slack " + matrixSlackBytes + " B, tags " + tagBytes + " B, total " + getTotalBytes() + " B";
+	}
+}
@@ -0,0 +1,421 @@
+package org.nixus.core.structure.impl;
+
+import java.io.Closeable;
+import java.nio.charset.Charset;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.auxiliary.OffHeapIntArray;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Graph whose nodes, arcs and adjacency live in direct memory, so the garbage collector
+ * never scans them no matter how large the graph gets. Only the {@link Node} handles
+ * are kept in the heap, created as the nodes are accessed.
+ * <p>
+ * Contents are stored by their measure only, nodes and arcs return them as
+ * {@link org.nixus.core.structure.auxiliary.ConstantMeasure}s.
+ * The adjacency of each node is a block of arc ids within a shared arena that doubles
+ * when full. Outgrown blocks are left behind and dropped when the arena grows.
+ * <p>
+ * The memory is released by {@link #close()}, the graph can't be used afterwards.
+ * Like the other graphs, it isn't thread safe and it must not be closed while queried.
+ * */
+public class OffHeapGraph extends IndexedGraph implements Closeable {
+
+	private static final long serialVersionUID = -2893152210483616339L;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final int MIN_BLOCK_SIZE = 4;
+
+	/**
+	 * Tag length of the nodes with the graph default tag
+	 * */
+	private static final int DEFAULT_TAG = -1;
+
+	private final boolean directed;
+
+	private int numArcs;
+
+	private transient OffHeapIntArray nodeMeasures;
+
+	private transient OffHeapIntArray outBlocks;
+
+	private transient OffHeapIntArray outCounts;
+
+	private transient OffHeapIntArray outCapacities;
+
+	/**
+	 * Reverse adjacency, null on undirected graphs
+	 * */
+	private transient OffHeapIntArray inBlocks;
+
+	private transient OffHeapIntArray inCounts;
+
+	private transient OffHeapIntArray inCapacities;
+
+	/**
+	 * Start of the tag of each node in tagData
+	 * */
+	private transient OffHeapIntArray tagStarts;
+
+	/**
+	 * Length in bytes of the tag of each node
+	 * */
+	private transient OffHeapIntArray tagLengths;
+
+	/**
+	 * UTF-8 bytes of the tags, 4 per int
+	 * */
+	private transient OffHeapIntArray tagData;
+
+	private int tagDataEnd;
+
+	private transient OffHeapIntArray arcSources;
+
+	private transient OffHeapIntArray arcTargets;
+
+	private transient OffHeapIntArray arcMeasures;
+
+	/**
+	 * Blocks of arc ids of every node
+	 * */
+	private transient OffHeapIntArray adjacency;
+
+	private int adjacencyEnd;
+
+	/**
+	 * Size of the blocks in use within the adjacency
+	 * */
+	private long liveSlots;
+
+	private boolean closed;
+
+	/**
+	 * @param directed false if every arc connects both of its nodes in both directions
+	 * @param expectedNodes number of nodes the graph holds before growing
+	 * @param expectedArcs number of arcs the graph holds before growing
+	 * */
+	protected OffHeapGraph(boolean directed, int expectedNodes, int expectedArcs) {
+		this.directed = directed;
+		this.nodeMeasures = new OffHeapIntArray(expectedNodes);
+		this.outBlocks = new OffHeapIntArray(expectedNodes);
+		this.outCounts = new OffHeapIntArray(expectedNodes);
+		this.outCapacities = new OffHeapIntArray(expectedNodes);
+		if(directed){
+			this.inBlocks = new OffHeapIntArray(expectedNodes);
+			this.inCounts = new OffHeapIntArray(expectedNodes);
+			this.inCapacities = new OffHeapIntArray(expectedNodes);
+		}
+		this.tagStarts = new OffHeapIntArray(expectedNodes);
+		this.tagLengths = new OffHeapIntArray(expectedNodes);
+		this.tagData = new OffHeapIntArray(0);
+		this.arcSources = new OffHeapIntArray(expectedArcs);
+		this.arcTargets = new OffHeapIntArray(expectedArcs);
+		this.arcMeasures = new OffHeapIntArray(expectedArcs);
+		this.adjacency = new OffHeapIntArray(expectedArcs * 2);
+	}
+
+	@Override
+	public boolean isDirected() {
+		return directed;
+	}
+
+	@Override
+	public Node addNode(Measurable<? extends Object> content, String tag) {
+		int node = nodeCount;
+		ensureCapacity(node + 1, numArcs);
+		nodeMeasures.set(node, measureOf(content));
+		outCounts.set(node, 0);
+		outCapacities.set(node, 0);
+		if(directed){
+			inCounts.set(node, 0);
+			inCapacities.set(node, 0);
+		}
+		storeTag(node, tag);
+		nodeCount++;
+		Node handle = getNode(node);
+		fireNodeAdded(handle);
+		return handle;
+	}
+
+	@Override
+	public Arc createArc(int source, int target, Measurable<? extends Object> content) {
+		if(source < 0 || source >= nodeCount || target < 0 || target >= nodeCount){
+			throw new IndexOutOfBoundsException("Arc [" + source + ", " + target + "] of a graph of " + nodeCount + " nodes");
+		}
+		int arc = numArcs;
+		ensureCapacity(nodeCount, arc + 1);
+		arcSources.set(arc, source);
+		arcTargets.set(arc, target);
+		arcMeasures.set(arc, measureOf(content));
+		appendArc(outBlocks, outCounts, outCapacities, source, arc);
+		if(directed){
+			appendArc(inBlocks, inCounts, inCapacities, target, arc);
+		} else if(target != source){
+			appendArc(outBlocks, outCounts, outCapacities, target, arc);
+		}
+		numArcs++;
+		Arc handle = getArc(arc);
+		fireArcAdded(handle);
+		return handle;
+	}
+
+	@Override
+	public void setNodeTag(int node, String tag) {
+		checkNode(node);
+		storeTag(node, tag);
+	}
+
+	@Override
+	public void ensureCapacity(int numNodes, int numArcs) {
+		checkOpen();
+		if(numNodes > nodeMeasures.capacity()){
+			nodeMeasures.ensureCapacity(numNodes);
+			outBlocks.ensureCapacity(numNodes);
+			outCounts.ensureCapacity(numNodes);
+			outCapacities.ensureCapacity(numNodes);
+			if(directed){
+				inBlocks.ensureCapacity(numNodes);
+				inCounts.ensureCapacity(numNodes);
+				inCapacities.ensureCapacity(numNodes);
+			}
+			tagStarts.ensureCapacity(numNodes);
+			tagLengths.ensureCapacity(numNodes);
+		}
+		if(numArcs > arcSources.capacity()){
+			arcSources.ensureCapacity(numArcs);
+			arcTargets.ensureCapacity(numArcs);
+			arcMeasures.ensureCapacity(numArcs);
+		}
+	}
+
+	@Override
+	public void ensureArcCapacity(int node, int numArcsOut, int numArcsIn) {
+		checkNode(node);
+		if(directed){
+			reserveBlock(outBlocks, outCounts, outCapacities, node, numArcsOut);
+			reserveBlock(inBlocks, inCounts, inCapacities, node, numArcsIn);
+		} else {
+			reserveBlock(outBlocks, outCounts, outCapacities, node, numArcsOut + numArcsIn);
+		}
+	}
+
+	@Override
+	public int getNumArcs() {
+		return numArcs;
+	}
+
+	@Override
+	public int getOutDegree(int node) {
+		return outCounts.get(node);
+	}
+
+	@Override
+	public int getArcOut(int node, int k) {
+		return adjacency.get(outBlocks.get(node) + k);
+	}
+
+	@Override
+	public int getInDegree(int node) {
+		if(!directed){
+			return getOutDegree(node);
+		}
+		return inCounts.get(node);
+	}
+
+	@Override
+	public int getArcIn(int node, int k) {
+		if(!directed){
+			return getArcOut(node, k);
+		}
+		return adjacency.get(inBlocks.get(node) + k);
+	}
+
+	@Override
+	public int getArcSource(int arc) {
+		return arcSources.get(arc);
+	}
+
+	@Override
+	public int getArcTarget(int arc) {
+		return arcTargets.get(arc);
+	}
+
+	@Override
+	public int getArcMeasure(int arc) {
+		return arcMeasures.get(arc);
+	}
+
+	@Override
+	public int getNodeMeasure(int node) {
+		return nodeMeasures.get(node);
+	}
+
+	@Override
+	public String getNodeTag(int node) {
+		int length = tagLengths.get(node);
+		if(length == DEFAULT_TAG){
+			return defaultTag(node);
+		}
+		int start = tagStarts.get(node);
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = (byte) (tagData.get(start + (i >> 2)) >>> ((3 - (i & 3)) << 3));
+		}
+		return new String(bytes, UTF_8);
+	}
+
+	/**
+	 * Releases the memory of this graph. Any later use of the graph or its nodes
+	 * throws an {@link IllegalStateException}.
+	 * */
+	@Override
+	public void close() {
+		if(closed){
+			return;
+		}
+		closed = true;
+		OffHeapIntArray[] arrays = new OffHeapIntArray[]{nodeMeasures, outBlocks, outCounts, outCapacities,
+				inBlocks, inCounts, inCapacities, tagStarts, tagLengths, tagData, arcSources, arcTargets,
+				arcMeasures, adjacency};
+		for (OffHeapIntArray array : arrays) {
+			if(array != null){
+				array.free();
+			}
+		}
+	}
+
+	/**
+	 * @return true if the memory of this graph was released
+	 * */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	private void checkOpen() {
+		if(closed){
+			throw new IllegalStateException("Graph already closed");
+		}
+	}
+
+	private void checkNode(int node) {
+		checkOpen();
+		if(node < 0 || node >= nodeCount){
+			throw new IndexOutOfBoundsException("Node " + node + " of " + nodeCount);
+		}
+	}
+
+	private static int measureOf(Measurable<? extends Object> content) {
+		return content == null ? 0 : content.measure();
+	}
+
+	private void storeTag(int node, String tag) {
+		if(tag == null || tag.equals(defaultTag(node))){
+			tagLengths.set(node, DEFAULT_TAG);
+			return;
+		}
+		byte[] bytes = tag.getBytes(UTF_8);
+		int numInts = (bytes.length + 3) >> 2;
+		if((long) tagDataEnd + numInts > Integer.MAX_VALUE){
+			throw new IllegalStateException("Too many tag bytes for an off heap graph");
+		}
+		tagData.ensureCapacity(tagDataEnd + numInts);
+		for (int i = 0; i < numInts; i++) {
+			int packed = 0;
+			for (int b = 0; b < 4; b++) {
+				int index = (i << 2) + b;
+				packed = (packed << 8) | (index < bytes.length ? bytes[index] & 0xFF : 0);
+			}
+			tagData.set(tagDataEnd + i, packed);
+		}
+		tagStarts.set(node, tagDataEnd);
+		tagLengths.set(node, bytes.length);
+		tagDataEnd += numInts;
+	}
+
+	/**
+	 * Adds the arc at the end of the block of the node, moving the block if it is full
+	 * */
+	private void appendArc(OffHeapIntArray blocks, OffHeapIntArray counts, OffHeapIntArray capacities, int node, int arc) {
+		int count = counts.get(node);
+		int capacity = capacities.get(node);
+		if(count == capacity){
+			reserveBlock(blocks, counts, capacities, node, Math.max(MIN_BLOCK_SIZE, capacity * 2));
+		}
+		adjacency.set(blocks.get(node) + count, arc);
+		counts.set(node, count + 1);
+	}
+
+	/**
+	 * Moves the block of the node to a new one of the given size, unless it is already as large
+	 * */
+	private void reserveBlock(OffHeapIntArray blocks, OffHeapIntArray counts, OffHeapIntArray capacities, int node, int size) {
+		int capacity = capacities.get(node);
+		if(size <= capacity){
+			return;
+		}
+		int block = allocateSlots(size);
+		int oldBlock = blocks.get(node);
+		int count = counts.get(node);
+		for (int k = 0; k < count; k++) {
+			adjacency.set(block + k, adjacency.get(oldBlock + k));
+		}
+		blocks.set(node, block);
+		capacities.set(node, size);
+		liveSlots -= capacity;
+	}
+
+	/**
+	 * @return the start of a free block of the given size within the adjacency
+	 * */
+	private int allocateSlots(int size) {
+		if((long) adjacencyEnd + size > adjacency.capacity()){
+			compactAdjacency(size);
+		}
+		int block = adjacencyEnd;
+		adjacencyEnd += size;
+		liveSlots += size;
+		return block;
+	}
+
+	/**
+	 * Copies the blocks in use into a new arena with room for the given number of slots,
+	 * dropping the outgrown ones
+	 * */
+	private void compactAdjacency(int size) {
+		long needed = liveSlots + size;
+		long newCapacity = Math.max(needed * 2, adjacency.capacity());
+		if(needed > Integer.MAX_VALUE){
+			throw new IllegalStateException("Too many arcs for an off heap graph");
+		}
+		OffHeapIntArray arena = new OffHeapIntArray((int) Math.min(newCapacity, Integer.MAX_VALUE));
+		int end = 0;
+		end = moveBlocks(arena, end, outBlocks, outCounts, outCapacities);
+		if(directed){
+			end = moveBlocks(arena, end, inBlocks, inCounts, inCapacities);
+		}
+		adjacency.free();
+		adjacency = arena;
+		adjacencyEnd = end;
+	}
+
+	private int moveBlocks(OffHeapIntArray arena, int end, OffHeapIntArray blocks, OffHeapIntArray counts,
+			OffHeapIntArray capacities) {
+		for (int node = 0; node < nodeCount; node++) {
+			int capacity = capacities.get(node);
+			if(capacity == 0){
+				continue;
+			}
+			int block = blocks.get(node);
+			int count = counts.get(node);
+			for (int k = 0; k < count; k++) {
+				arena.set(end + k, adjacency.get(block + k));
+			}
+			blocks.set(node, end);
+			end += capacity;
+		}
+		return end;
+	}
+}
@@ -0,0 +1,253 @@
+package org.nixus.core.structure.impl;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+import org.nixus.core.strategies.NodeOrdering;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.auxiliary.NodeVisitor;
+import org.nixus.core.structure.exceptions.NotADirectedAcyclicGraphException;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.impl.OptimisticAdjacencyMapNode;
+
+/**
+ * {@link AdjacencyMapGraph} to be shared by many reading threads and a few writing ones,
+ * guarded by a graph wide {@link StampedLock}.
+ * <p>
+ * Adding nodes and arcs takes the write lock. Traversals and shortest path queries run
+ * without locking and check at the end that no write happened meanwhile. Only when one
+ * did, the query is run again holding the read lock. A write in the middle of an optimistic
+ * query can make it fail, such failures are dropped as well.
+ * <p>
+ * Removals take the write lock too and compact the graph at once, so readers never meet
+ * removed nodes.
+ * <p>
+ * The node and arc lists and the node adjacency collections are not guarded, reading them
+ * directly while other threads write is not safe. Visitors are called once the traversal
+ * is over, without any lock held. Queries must not change the graph, e.g. from their
+ * {@link Measurable}s.
+ * */
+public class OptimisticAdjacencyMapGraph extends AdjacencyMapGraph {
+
+	private static final long serialVersionUID = 5283361092713617408L;
+
+	private final StampedLock lock = new StampedLock();
+
+	/**
+	 * Reads in progress on each thread, nested reads run within the outer one
+	 * */
+	private transient ThreadLocal<int[]> readDepth;
+
+	/**
+	 * Thread holding the write lock, its nested reads and writes run within the outer write
+	 * */
+	private transient Thread writer;
+
+	protected OptimisticAdjacencyMapGraph() {
+		this.readDepth = newReadDepth();
+		//built up front, so lookups never build it without the write lock
+		this.indexTags(new HashMap<String, Node>());
+		this.setCompactionThreshold(0);
+	}
+
+	/**
+	 * Runs the query optimistically, and again holding the read lock if the graph was
+	 * changed meanwhile.
+	 * @return the query result
+	 * */
+	public <T> T read(Supplier<T> query) {
+		int[] depth = this.readDepth.get();
+		if(depth[0] > 0 || this.writer == Thread.currentThread()){
+			return query.get();
+		}
+		depth[0]++;
+		try {
+			long stamp = this.lock.tryOptimisticRead();
+			if(stamp != 0){
+				try {
+					T result = query.get();
+					if(this.lock.validate(stamp)){
+						return result;
+					}
+				} catch (RuntimeException e) {
+					if(this.lock.validate(stamp)){
+						throw e;
+					}
+					//broken by a write, the query is run again
+				}
+			}
+			stamp = this.lock.readLock();
+			try {
+				return query.get();
+			} finally {
+				this.lock.unlockRead(stamp);
+			}
+		} finally {
+			depth[0]--;
+		}
+	}
+
+	/**
+	 * Runs the change holding the write lock, at once if the thread already holds it
+	 * @return the change result
+	 * */
+	public <T> T write(Supplier<T> change) {
+		if(this.writer == Thread.currentThread()){
+			return change.get();
+		}
+		long stamp = this.lock.writeLock();
+		this.writer = Thread.currentThread();
+		try {
+			return change.get();
+		} finally {
+			this.writer = null;
+			this.lock.unlockWrite(stamp);
+		}
+	}
+
+	@Override
+	public Node addNode(final Measurable<? extends Object> content) {
+		return write(new Supplier<Node>() {
+			@Override
+			public Node get() {
+				return OptimisticAdjacencyMapGraph.super.addNode(content, defaultTag(nodeCount));
+			}
+		});
+	}
+
+	@Override
+	public Node addNode(final Measurable<? extends Object> content, final String tag) {
+		return write(new Supplier<Node>() {
+			@Override
+			public Node get() {
+				return OptimisticAdjacencyMapGraph.super.addNode(content, tag);
+			}
+		});
+	}
+
+	/**
+	 * Creates the node of this graph, locking through it
+	 * */
+	@Override
+	protected Node createNode(Measurable<? extends Object> content) {
+		return new OptimisticAdjacencyMapNode(this, content);
+	}
+
+	@Override
+	public boolean remove(final Object o) {
+		return write(new Supplier<Boolean>() {
+			@Override
+			public Boolean get() {
+				return OptimisticAdjacencyMapGraph.super.remove(o);
+			}
+		});
+	}
+
+	@Override
+	public boolean removeArc(final Arc arc) {
+		return write(new Supplier<Boolean>() {
+			@Override
+			public Boolean get() {
+				return OptimisticAdjacencyMapGraph.super.removeArc(arc);
+			}
+		});
+	}
+
+	@Override
+	public void reorder(final NodeOrdering ordering) {
+		write(new Supplier<Void>() {
+			@Override
+			public Void get() {
+				OptimisticAdjacencyMapGraph.super.reorder(ordering);
+				return null;
+			}
+		});
+	}
+
+	@Override
+	public Node getNodeById(final int id) {
+		return read(new Supplier<Node>() {
+			@Override
+			public Node get() {
+				return OptimisticAdjacencyMapGraph.super.getNodeById(id);
+			}
+		});
+	}
+
+	@Override
+	public Node getNodeByTag(final String tag) {
+		return read(new Supplier<Node>() {
+			@Override
+			public Node get() {
+				return OptimisticAdjacencyMapGraph.super.getNodeByTag(tag);
+			}
+		});
+	}
+
+	@Override
+	public List<Node> depthFirstTraversal(final Node start) {
+		return read(new Supplier<List<Node>>() {
+			@Override
+			public List<Node> get() {
+				return OptimisticAdjacencyMapGraph.super.depthFirstTraversal(start);
+			}
+		});
+	}
+
+	@Override
+	public List<Node> depthFirstTraversal(Node start, NodeVisitor transformer) {
+		return visit(depthFirstTraversal(start), transformer);
+	}
+
+	@Override
+	public List<Node> breathFirstTraversal(final Node start) {
+		return read(new Supplier<List<Node>>() {
+			@Override
+			public List<Node> get() {
+				return OptimisticAdjacencyMapGraph.super.breathFirstTraversal(start);
+			}
+		});
+	}
+
+	@Override
+	public List<Node> breathFirstTraversal(Node start, NodeVisitor transformer) {
+		return visit(breathFirstTraversal(start), transformer);
+	}
+
+	@Override
+	public List<Node> getNodesInTopologicalOrder() throws NotADirectedAcyclicGraphException {
+		return read(new Supplier<List<Node>>() {
+			@Override
+			public List<Node> get() {
+				return OptimisticAdjacencyMapGraph.super.getNodesInTopologicalOrder();
+			}
+		});
+	}
+
+	private static List<Node> visit(List<Node> nodes, NodeVisitor transformer) {
+		for (Node node : nodes) {
+			transformer.visit(node);
+		}
+		return nodes;
+	}
+
+	private static ThreadLocal<int[]> newReadDepth() {
+		return new ThreadLocal<int[]>() {
+			@Override
+			protected int[] initialValue() {
+				return new int[1];
+			}
+		};
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.readDepth = newReadDepth();
+		this.indexTags(new HashMap<String, Node>());
+	}
+}
@@ -0,0 +1,250 @@
+package org.nixus.core.structure.impl;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.auxiliary.PersistentIntVector;
+import org.nixus.core.structure.auxiliary.PersistentVector;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Immutable graph, changed by creating new graphs that share all their storage with it but
+ * the changed parts. Nodes, tags, arcs and adjacency are kept in persistent vectors, so a
+ * new node or arc costs a few small array copies, O(log n), whatever the size of the graph.
+ * Many variants of a graph can be kept in memory for the cost of their differences.
+ * <p>
+ * The {@link org.nixus.core.structure.Graph} methods that change a graph aren't supported,
+ * {@link #withNode(Measurable, String)} and {@link #withArc(int, int, Measurable)} return the
+ * changed graph instead. Nodes keep their index across versions and can be used to add arcs
+ * to later versions, their handles belong to the version they were taken from though.
+ * <p>
+ * Contents are stored by their measure only, nodes and arcs return them as
+ * {@link org.nixus.core.structure.auxiliary.ConstantMeasure}s. Node handles are cached as
+ * they are first accessed, so each graph object must be queried by one thread at a time,
+ * see {@link #copy()}.
+ * */
+public class PersistentGraph extends IndexedGraph {
+
+	private static final long serialVersionUID = 8297154093710351841L;
+
+	private final boolean directed;
+
+	private final long version;
+
+	private final transient PersistentIntVector nodeMeasures;
+
+	/**
+	 * Tags of the nodes, null for the default tag
+	 * */
+	private final transient PersistentVector<String> nodeTags;
+
+	/**
+	 * Arc ids leaving each node, or of both directions on undirected graphs
+	 * */
+	private final transient PersistentVector<PersistentIntVector> outArcs;
+
+	/**
+	 * Arc ids reaching each node, null on undirected graphs
+	 * */
+	private final transient PersistentVector<PersistentIntVector> inArcs;
+
+	private final transient PersistentIntVector arcSources;
+
+	private final transient PersistentIntVector arcTargets;
+
+	private final transient PersistentIntVector arcMeasures;
+
+	/**
+	 * Empty graph
+	 * */
+	protected PersistentGraph(boolean directed) {
+		this(directed, 0, PersistentIntVector.empty(), PersistentVector.<String>empty(),
+				PersistentVector.<PersistentIntVector>empty(), directed ? PersistentVector.<PersistentIntVector>empty() : null,
+				PersistentIntVector.empty(), PersistentIntVector.empty(), PersistentIntVector.empty());
+	}
+
+	private PersistentGraph(boolean directed, long version, PersistentIntVector nodeMeasures, PersistentVector<String> nodeTags,
+			PersistentVector<PersistentIntVector> outArcs, PersistentVector<PersistentIntVector> inArcs,
+			PersistentIntVector arcSources, PersistentIntVector arcTargets, PersistentIntVector arcMeasures) {
+		this.directed = directed;
+		this.version = version;
+		this.nodeMeasures = nodeMeasures;
+		this.nodeTags = nodeTags;
+		this.outArcs = outArcs;
+		this.inArcs = inArcs;
+		this.arcSources = arcSources;
+		this.arcTargets = arcTargets;
+		this.arcMeasures = arcMeasures;
+		this.nodeCount = nodeMeasures.size();
+	}
+
+	/**
+	 * @return the same graph with its own node handles, to be queried by another thread
+	 * */
+	public PersistentGraph copy() {
+		return new PersistentGraph(directed, version, nodeMeasures, nodeTags, outArcs, inArcs, arcSources, arcTargets, arcMeasures);
+	}
+
+	/**
+	 * @return a graph made of every node and arc of the given graph, in the same order
+	 * */
+	public static PersistentGraph copyOf(Graph graph) {
+		PersistentGraph copy = new PersistentGraph(graph.isDirected());
+		int[] positions = getNodePositions(graph);
+		int index = 0;
+		for (Node node : graph.getNodes()) {
+			String tag = node.getTag();
+			copy = copy.plusNode(node.getContent().measure(), tag == null || tag.equals(defaultTag(index)) ? null : tag);
+			index++;
+		}
+		for (Arc arc : graph.getArcs()) {
+			copy = copy.plusArc(positions[indexOf(arc.getSourceNode())], positions[indexOf(arc.getTargetNode())], arc.getArcContent().measure());
+		}
+		return copy;
+	}
+
+	/**
+	 * @return the number of changes made to the graph since it was empty
+	 * */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return this graph with a new node, with the default tag
+	 * */
+	public PersistentGraph withNode(Measurable<? extends Object> content) {
+		return plusNode(measureOf(content), null);
+	}
+
+	/**
+	 * @return this graph with a new node, last in insertion order
+	 * */
+	public PersistentGraph withNode(Measurable<? extends Object> content, String tag) {
+		return plusNode(measureOf(content), tag == null || tag.equals(defaultTag(nodeCount)) ? null : tag);
+	}
+
+	/**
+	 * @return this graph with a new arc between the nodes with the given indexes
+	 * */
+	public PersistentGraph withArc(int source, int target, Measurable<? extends Object> content) {
+		if(source < 0 || source >= nodeCount || target < 0 || target >= nodeCount){
+			throw new IndexOutOfBoundsException("Arc [" + source + ", " + target + "] of a graph of " + nodeCount + " nodes");
+		}
+		return plusArc(source, target, measureOf(content));
+	}
+
+	/**
+	 * @param source a node of this graph or of any version it comes from
+	 * @param target a node of this graph or of any version it comes from
+	 * @return this graph with a new arc between the nodes
+	 * */
+	public PersistentGraph withArc(Node source, Node target, Measurable<? extends Object> content) {
+		return withArc(indexOf(source), indexOf(target), content);
+	}
+
+	/**
+	 * @return this graph with the tag of the node replaced
+	 * */
+	public PersistentGraph withNodeTag(int node, String tag) {
+		if(node < 0 || node >= nodeCount){
+			throw new IndexOutOfBoundsException("Node " + node + " of " + nodeCount);
+		}
+		return plusTag(node, tag == null || tag.equals(defaultTag(node)) ? null : tag);
+	}
+
+	PersistentGraph plusNode(int measure, String tag) {
+		return new PersistentGraph(directed, version + 1, nodeMeasures.plus(measure), nodeTags.plus(tag),
+				outArcs.plus(PersistentIntVector.empty()), directed ? inArcs.plus(PersistentIntVector.empty()) : null,
+				arcSources, arcTargets, arcMeasures);
+	}
+
+	PersistentGraph plusArc(int source, int target, int measure) {
+		int arc = arcSources.size();
+		PersistentVector<PersistentIntVector> newOutArcs = outArcs.with(source, outArcs.get(source).plus(arc));
+		PersistentVector<PersistentIntVector> newInArcs = inArcs;
+		if(directed){
+			newInArcs = inArcs.with(target, inArcs.get(target).plus(arc));
+		} else if(target != source){
+			newOutArcs = newOutArcs.with(target, newOutArcs.get(target).plus(arc));
+		}
+		return new PersistentGraph(directed, version + 1, nodeMeasures, nodeTags, newOutArcs, newInArcs,
+				arcSources.plus(source), arcTargets.plus(target), arcMeasures.plus(measure));
+	}
+
+	PersistentGraph plusTag(int node, String tag) {
+		return new PersistentGraph(directed, version + 1, nodeMeasures, nodeTags.with(node, tag),
+				outArcs, inArcs, arcSources, arcTargets, arcMeasures);
+	}
+
+	@Override
+	public boolean isDirected() {
+		return directed;
+	}
+
+	@Override
+	public int getNumArcs() {
+		return arcSources.size();
+	}
+
+	@Override
+	public int getOutDegree(int node) {
+		return outArcs.get(node).size();
+	}
+
+	@Override
+	public int getArcOut(int node, int k) {
+		return outArcs.get(node).get(k);
+	}
+
+	@Override
+	public int getInDegree(int node) {
+		if(!directed){
+			return getOutDegree(node);
+		}
+		return inArcs.get(node).size();
+	}
+
+	@Override
+	public int getArcIn(int node, int k) {
+		if(!directed){
+			return getArcOut(node, k);
+		}
+		return inArcs.get(node).get(k);
+	}
+
+	@Override
+	public int getArcSource(int arc) {
+		return arcSources.get(arc);
+	}
+
+	@Override
+	public int getArcTarget(int arc) {
+		return arcTargets.get(arc);
+	}
+
+	@Override
+	public int getArcMeasure(int arc) {
+		return arcMeasures.get(arc);
+	}
+
+	@Override
+	public int getNodeMeasure(int node) {
+		return nodeMeasures.get(node);
+	}
+
+	@Override
+	public String getNodeTag(int node) {
+		String tag = nodeTags.get(node);
+		return tag == null ? defaultTag(node) : tag;
+	}
+
+	static int measureOf(Measurable<? extends Object> content) {
+		return content == null ? 0 : content.measure();
+	}
+
+	private static int indexOf(Node node) {
+		return ((HiddenNodeAbstraction) node).getInsertionOrder();
+	}
+}
@@ -0,0 +1,33 @@
+package org.nixus.core.structure.impl;
+
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.impl.UndirectedAdjacencyMapNode;
+
+/**
+ * Adjacency map graph whose arcs have no direction. Each arc is stored only once, 
+ * both in the graph arcs and in the adjacency maps of its nodes.
+ * */
+public class UndirectedAdjacencyMapGraph extends AdjacencyMapGraph {
+
+	private static final long serialVersionUID = 2529018720963452417L;
+
+	/**
+	 * Instantiates a new UndirectedAdjacencyMapGraph
+	 * */
+	protected UndirectedAdjacencyMapGraph() {
+		super();
+	}
+	
+	@Override
+	public Node addNode(Measurable<? extends Object> content, String tag) {
+		Node node = new UndirectedAdjacencyMapNode(this, content);
+		super.commonNodeAdd(node, tag);
+		return node;
+	}
+	
+	@Override
+	public boolean isDirected() {
+		return false;
+	}
+}
@@ -0,0 +1,41 @@
+package org.nixus.core.structure.impl;
+
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.impl.UndirectedAdjacencyMatrixNode;
+
+/**
+ * Adjacency matrix graph whose arcs have no direction. Each arc is stored only once 
+ * in the graph arcs and referenced from both of its cells of the adjacency matrix.
+ * */
+public class UndirectedAdjacencyMatrixGraph extends AdjacencyMatrixGraph {
+
+	private static final long serialVersionUID = -1326372734066339071L;
+
+	/**
+	 * Creates a graph with the initial size of the underling adjacency matrix being 64 
+	 * and the growth factor 1.5 
+	 * */
+	protected UndirectedAdjacencyMatrixGraph() {
+		super();
+	}
+	
+	/**
+	 * @param initialSize specifies the initial size of the underling adjacency matrix
+	 * @param growthFactor a number(must be grater than 1) that specifies by how much 
+	 * 	will grow the underling adjacency matrix if space isn't enough to hold a new node.   
+	 * */
+	protected UndirectedAdjacencyMatrixGraph(final int initialSize, final float growthFactor) {
+		super(initialSize, growthFactor);
+	}
+	
+	@Override
+	protected Node createNode(Measurable<? extends Object> content, int index) {
+		return new UndirectedAdjacencyMatrixNode(this, content, index);
+	}
+	
+	@Override
+	public boolean isDirected() {
+		return false;
+	}
+}
@@ -0,0 +1,127 @@
+package org.nixus.core.structure.impl;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Graph that publishes an immutable {@link PersistentGraph} after every change, so it can
+ * be queried by many threads while it is changed by another one. Readers take the
+ * current version and query it instead of this graph: they never block nor see the
+ * changes made meanwhile, and writers never wait for them.
+ * <p>
+ * Writers are serialized. Queries on this graph itself see the latest version and must
+ * not run concurrently with the changes, like on any other graph.
+ * Contents are stored by their measure only, nodes and arcs return them as
+ * {@link org.nixus.core.structure.auxiliary.ConstantMeasure}s.
+ * */
+public class VersionedGraph extends IndexedGraph {
+
+	private static final long serialVersionUID = -4730182284610873920L;
+
+	private transient volatile PersistentGraph current;
+
+	protected VersionedGraph(boolean directed) {
+		this.current = new PersistentGraph(directed);
+	}
+
+	/**
+	 * @return the latest version of this graph, as a new object to be queried by a
+	 * single thread. It doesn't change as this graph does.
+	 * */
+	public PersistentGraph getCurrentVersion() {
+		return current.copy();
+	}
+
+	/**
+	 * @return the number of changes made to this graph
+	 * */
+	public long getVersion() {
+		return current.getVersion();
+	}
+
+	@Override
+	public boolean isDirected() {
+		return current.isDirected();
+	}
+
+	@Override
+	public synchronized Node addNode(Measurable<? extends Object> content, String tag) {
+		String nodeTag = tag == null || tag.equals(defaultTag(nodeCount)) ? null : tag;
+		current = current.plusNode(PersistentGraph.measureOf(content), nodeTag);
+		Node node = getNode(nodeCount++);
+		fireNodeAdded(node);
+		return node;
+	}
+
+	@Override
+	public synchronized Arc createArc(int source, int target, Measurable<? extends Object> content) {
+		if(source < 0 || source >= nodeCount || target < 0 || target >= nodeCount){
+			throw new IndexOutOfBoundsException("Arc [" + source + ", " + target + "] of a graph of " + nodeCount + " nodes");
+		}
+		PersistentGraph version = current.plusArc(source, target, PersistentGraph.measureOf(content));
+		current = version;
+		Arc arc = getArc(version.getNumArcs() - 1);
+		fireArcAdded(arc);
+		return arc;
+	}
+
+	@Override
+	public synchronized void setNodeTag(int node, String tag) {
+		if(node < 0 || node >= nodeCount){
+			throw new IndexOutOfBoundsException("Node " + node + " of " + nodeCount);
+		}
+		current = current.plusTag(node, tag == null || tag.equals(defaultTag(node)) ? null : tag);
+	}
+
+	@Override
+	public int getNumArcs() {
+		return current.getNumArcs();
+	}
+
+	@Override
+	public int getOutDegree(int node) {
+		return current.getOutDegree(node);
+	}
+
+	@Override
+	public int getArcOut(int node, int k) {
+		return current.getArcOut(node, k);
+	}
+
+	@Override
+	public int getInDegree(int node) {
+		return current.getInDegree(node);
+	}
+
+	@Override
+	public int getArcIn(int node, int k) {
+		return current.getArcIn(node, k);
+	}
+
+	@Override
+	public int getArcSource(int arc) {
+		return current.getArcSource(arc);
+	}
+
+	@Override
+	public int getArcTarget(int arc) {
+		return current.getArcTarget(arc);
+	}
+
+	@Override
+	public int getArcMeasure(int arc) {
+		return current.getArcMeasure(arc);
+	}
+
+	@Override
+	public int getNodeMeasure(int node) {
+		return current.getNodeMeasure(node);
+	}
+
+	@Override
+	public String getNodeTag(int node) {
+		return current.getNodeTag(node);
+	}
+
+}
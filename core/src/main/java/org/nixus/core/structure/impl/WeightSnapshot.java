@@ -0,0 +1,181 @@
+package org.nixus.core.structure.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.nixus.core.strategies.WeightType;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.auxiliary.DoubleMeasurable;
+import org.nixus.core.structure.auxiliary.LongMeasurable;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Arc weights of a graph read once into primitive arrays, so the shortest path strategies 
+ * don't call {@link Measurable#measure()} on every relaxation. The arcs leaving each node 
+ * are numbered consecutively, by insertion order of the node: those of node <code>n</code> 
+ * go from <code>offsets[n]</code> to <code>offsets[n + 1]</code>, with the insertion order 
+ * of the node they reach in <code>targets</code> and their weight in the array of the 
+ * weight type. Undirected arcs are numbered once from each of its nodes.
+ * <p>
+ * A snapshot doesn't follow the changes of its graph, nor of the arc contents. The arrays 
+ * are shared, they must not be modified.
+ * */
+public final class WeightSnapshot {
+
+	private final WeightType weightType;
+
+	private final long modificationCount;
+
+	private final int[] offsets;
+
+	private final int[] targets;
+
+	private final int[] intWeights;
+
+	private final long[] longWeights;
+
+	private final double[] doubleWeights;
+
+	private WeightSnapshot(WeightType weightType, long modificationCount, int[] offsets, int[] targets,
+			int[] intWeights, long[] longWeights, double[] doubleWeights) {
+		this.weightType = weightType;
+		this.modificationCount = modificationCount;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.intWeights = intWeights;
+		this.longWeights = longWeights;
+		this.doubleWeights = doubleWeights;
+	}
+
+	/**
+	 * Reads the weights of every arc of the graph, in a single pass over the adjacency of its nodes
+	 * */
+	public static WeightSnapshot of(AbstractGraph graph, WeightType weightType) {
+		long modificationCount = graph.getModificationCount();
+		List<Node> nodes = graph.getNodesById();
+		int numIds = nodes.size();
+		int capacity = Math.max(16, graph.getArcs().size() * (graph.isDirected() ? 1 : 2));
+		int[] offsets = new int[numIds + 1];
+		int[] targets = new int[capacity];
+		int[] intWeights = weightType == WeightType.INT ? new int[capacity] : null;
+		long[] longWeights = weightType == WeightType.LONG ? new long[capacity] : null;
+		double[] doubleWeights = weightType == WeightType.DOUBLE ? new double[capacity] : null;
+		int numArcs = 0;
+		for (int id = 0; id < numIds; id++) {
+			Node node = nodes.get(id);
+			if(node != null){
+				for (Arc arc : node.getArcsOut()) {
+					if(numArcs == targets.length){
+						int newCapacity = targets.length * 2;
+						targets = Arrays.copyOf(targets, newCapacity);
+						if(intWeights != null){
+							intWeights = Arrays.copyOf(intWeights, newCapacity);
+						} else if(longWeights != null){
+							longWeights = Arrays.copyOf(longWeights, newCapacity);
+						} else {
+							doubleWeights = Arrays.copyOf(doubleWeights, newCapacity);
+						}
+					}
+					Node target = arc.getTargetNode() != node ? arc.getTargetNode() : arc.getSourceNode();
+					targets[numArcs] = ((HiddenNodeAbstraction)target).getInsertionOrder();
+					Measurable<? extends Object> content = arc.getArcContent();
+					switch (weightType) {
+						case LONG:
+							longWeights[numArcs] = measureLong(content);
+							break;
+						case DOUBLE:
+							doubleWeights[numArcs] = measureDouble(content);
+							break;
+						default:
+							intWeights[numArcs] = content.measure();
+							break;
+					}
+					numArcs++;
+				}
+			}
+			offsets[id + 1] = numArcs;
+		}
+		return new WeightSnapshot(weightType, modificationCount, offsets, targets, intWeights, longWeights, doubleWeights);
+	}
+
+	/**
+	 * @return the weight of the content as read by {@link WeightType#LONG} queries
+	 * */
+	public static long measureLong(Measurable<? extends Object> content) {
+		return content instanceof LongMeasurable ? ((LongMeasurable<?>)content).measureLong() : content.measure();
+	}
+
+	/**
+	 * @return the weight of the content as read by {@link WeightType#DOUBLE} queries
+	 * */
+	public static double measureDouble(Measurable<? extends Object> content) {
+		return content instanceof DoubleMeasurable ? ((DoubleMeasurable<?>)content).measureDouble() : measureLong(content);
+	}
+
+	/**
+	 * @return an estimate in bytes of the heap taken by the arrays of this snapshot
+	 * */
+	long estimateBytes() {
+		long bytes = MemoryFootprint.arrayBytes(offsets.length, MemoryFootprint.INT_BYTES)
+				+ MemoryFootprint.arrayBytes(targets.length, MemoryFootprint.INT_BYTES);
+		if(intWeights != null){
+			bytes += MemoryFootprint.arrayBytes(intWeights.length, MemoryFootprint.INT_BYTES);
+		}
+		if(longWeights != null){
+			bytes += MemoryFootprint.arrayBytes(longWeights.length, 8);
+		}
+		if(doubleWeights != null){
+			bytes += MemoryFootprint.arrayBytes(doubleWeights.length, 8);
+		}
+		return bytes;
+	}
+
+	public WeightType getWeightType() {
+		return weightType;
+	}
+
+	/**
+	 * @return the modification count of the graph when the snapshot was taken
+	 * */
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * @return the number of the first arc of each node, by insertion order, plus the 
+	 * number of arcs at the end
+	 * */
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	/**
+	 * @return the insertion order of the node each arc reaches
+	 * */
+	public int[] getTargets() {
+		return targets;
+	}
+
+	/**
+	 * @return the weight of each arc, null unless the weights are ints
+	 * */
+	public int[] getIntWeights() {
+		return intWeights;
+	}
+
+	/**
+	 * @return the weight of each arc, null unless the weights are longs
+	 * */
+	public long[] getLongWeights() {
+		return longWeights;
+	}
+
+	/**
+	 * @return the weight of each arc, null unless the weights are doubles
+	 * */
+	public double[] getDoubleWeights() {
+		return doubleWeights;
+	}
+}
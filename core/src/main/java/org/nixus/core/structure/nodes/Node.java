@@ -6,10 +6,16 @@ import java.util.List;
 import java.util.Map;
 
 import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.strategies.WeightType;
 import org.nixus.core.structure.Arc;
 import org.nixus.core.structure.Graph;
 import org.nixus.core.structure.auxiliary.Measurable;
 
+/**
+ * Node of a {@link Graph}. Nodes compare by insertion order, so sorted collections keep them 
+ * in the order they were added to their graph. They used to compare by the distance found by 
+ * the last shortest path query, which the queries now keep apart from the nodes.
+ * */
 public interface Node extends Serializable, Comparable<Node>{
 
 	/**
@@ -86,10 +92,23 @@ public interface Node extends Serializable, Comparable<Node>{
 	 * */
 	NodePath findShortestPathTo(Node destination, ShortestPathStrategy strategy);
 	
+	/**
+	 * Finds the shortest path from this node to the destination Node, summing the arc weights as 
+	 * the given type. See {@link WeightType} for the distance of an unreachable node.
+	 * */
+	NodePath findShortestPathTo(Node destination, ShortestPathStrategy strategy, WeightType weightType);
+	
 	/**
 	 * Finds the shortest path from this node to every other node in this graph. If target node could not be reached, 
 	 * the distance in the node path will be Integer.MAX_VALUE
 	 * @return a map with all the paths with the destination node as its key.
 	 * */
 	Map<Node, NodePath> findShortestPathToEveryOtherNode(ShortestPathStrategy strategy);
+	
+	/**
+	 * Finds the shortest path from this node to every other node in this graph, summing the arc 
+	 * weights as the given type.
+	 * @return a map with all the paths with the destination node as its key.
+	 * */
+	Map<Node, NodePath> findShortestPathToEveryOtherNode(ShortestPathStrategy strategy, WeightType weightType);
 }
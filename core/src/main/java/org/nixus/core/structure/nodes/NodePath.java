@@ -5,21 +5,45 @@ import java.util.List;
 public class NodePath {
 	private List<Node> path;
 	private long pathTotalDistance;
+	private double pathTotalWeight;
 	
 	public NodePath(List<Node> path, long pathTotalDistance) {
 		super();
 		this.path = path;
 		this.pathTotalDistance = pathTotalDistance;
+		this.pathTotalWeight = pathTotalDistance;
+	}
+	
+	/**
+	 * Path found summing double weights
+	 * */
+	public NodePath(List<Node> path, double pathTotalWeight) {
+		super();
+		this.path = path;
+		this.pathTotalDistance = (long) pathTotalWeight;
+		this.pathTotalWeight = pathTotalWeight;
 	}
 
 	public List<Node> getPath() {
 		return path;
 	}
 
+	/**
+	 * @return the total distance of the path, rounded towards zero when it was found 
+	 * summing double weights
+	 * */
 	public long getPathTotalDistance() {
 		return pathTotalDistance;
 	}
 	
+	/**
+	 * @return the total weight of the path, with its fractional part when it was found 
+	 * summing double weights
+	 * */
+	public double getPathTotalWeight() {
+		return pathTotalWeight;
+	}
+	
 	/**
 	 * Convenience method to know whether a path was 
 	 * found or not to destination 
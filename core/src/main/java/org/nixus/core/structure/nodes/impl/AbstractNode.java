@@ -3,21 +3,31 @@ package org.nixus.core.structure.nodes.impl;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.strategies.WeightType;
 import org.nixus.core.structure.Arc;
 import org.nixus.core.structure.Graph;
 import org.nixus.core.structure.auxiliary.Measurable;
 import org.nixus.core.structure.auxiliary.NodeBasedBinaryHeap;
 import org.nixus.core.structure.auxiliary.NullNodeContent;
+import org.nixus.core.structure.auxiliary.QueryPhase;
+import org.nixus.core.structure.auxiliary.QueryProbe;
+import org.nixus.core.structure.auxiliary.QueryType;
 import org.nixus.core.structure.exceptions.NegativeWeightCycleFoundException;
 import org.nixus.core.structure.exceptions.NodeNotInThisGraphException;
 import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.impl.ArcImpl;
+import org.nixus.core.structure.impl.MemoryFootprint;
+import org.nixus.core.structure.impl.WeightSnapshot;
 import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
 import org.nixus.core.structure.nodes.Node;
 import org.nixus.core.structure.nodes.NodePath;
@@ -41,42 +51,30 @@ public abstract class AbstractNode implements Node, HiddenNodeAbstraction{
 	 */
 	protected Graph owner;
 
-	private boolean wasVisited;
-
 	/**
 	 * This nodes tag
 	 * */
 	private String tag;
 
-	/**
-	 * Node distance, used for path algorithms
-	 * */
-	private int distance; 
-	
 	/**
 	 * Node insertion order starting from 0
 	 * */
 	private int insertionOrder = 0;
 
-	/**
-	 * Parent on the last traversal, null if no one was the parent
-	 * */
-	private AbstractNode traversalParent;
-
-	/**
-	 * Number of hops to reach  this node during the last traversal
-	 * */
-	private int traversalHops;
-
 	/**
 	 * Number of incoming arcs/edges this node has
 	 * */
 	private int numIncomingArcs;
 
 	/**
-	 * Used for some algorithms (e.g. topological order)
+	 * State of the deprecated topological sort and traversal methods, by node. Kept out of 
+	 * the nodes as none of the algorithms uses it, so it only takes memory for old callers.
 	 * */
-	private int numCurrentIncomingArcs;
+	private static final Set<AbstractNode> VISITED = 
+			Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<AbstractNode, Boolean>()));
+
+	private static final Map<AbstractNode, Integer> CURRENT_INCOMING_ARCS = 
+			Collections.synchronizedMap(new WeakHashMap<AbstractNode, Integer>());
 	
 	
 	/**
@@ -86,18 +84,14 @@ public abstract class AbstractNode implements Node, HiddenNodeAbstraction{
 	 */
 	protected AbstractNode(Graph owner, Measurable<? extends Object> content) {
 		this.owner = owner;
-		this.wasVisited = false;
 
 		this.numIncomingArcs = 0;
-		this.numCurrentIncomingArcs = 0;
 		
 		if(content == null){
 			this.content = new NullNodeContent();
 		} else {
 			this.content = content;
 		}
-		
-		this.distance = 0;
 	}
 
 	@Override
@@ -111,14 +105,21 @@ public abstract class AbstractNode implements Node, HiddenNodeAbstraction{
 		return this.owner;
 	}
 	
+	/**
+	 * Checks both this node and the given one are in the graph, removed nodes are not
+	 * @throws NodeNotInThisGraphException otherwise
+	 * */
 	protected void validateNodeIsInTheSameGraph(Node aNode) {
-		if(this.getOwner() != aNode.getOwner()){
-			new NodeNotInThisGraphException("The from node passed is not contained in this graph!", aNode);
+		if(!this.owner.contains(this)){
+			throw new NodeNotInThisGraphException("This node was removed from its graph", this);
+		}
+		if(this.getOwner() != aNode.getOwner() || !this.owner.contains(aNode)){
+			throw new NodeNotInThisGraphException("The from node passed is not contained in this graph!", aNode);
 		}
 	} 
 
 	@Override
-	public List<Arc> getArcs() {
+	public Collection<Arc> getArcs() {
 		List<Arc> arcs = new LinkedList<Arc>();
 		arcs.addAll(this.getArcsOut());
 		arcs.addAll(this.getArcsIn());
@@ -129,31 +130,106 @@ public abstract class AbstractNode implements Node, HiddenNodeAbstraction{
 	public List<Node> getReachableNeighbors() {
 		List<Node> reachableNeighbors = new LinkedList<Node>();
 		for (Arc arc : this.getArcsOut()) {
-			Node targetNode = arc.getTargetNode();
+			Node targetNode = this.getOppositeNode(arc);
 			reachableNeighbors.add(targetNode);
 		}
 		return reachableNeighbors;
 	}
 	
+	/**
+	 * Gets the node on the other end of an arc of this node. Undirected graphs share 
+	 * a single arc between both of its ends, so the target node isn't always the neighbor.
+	 * */
+	protected Node getOppositeNode(Arc arc) {
+		Node targetNode = arc.getTargetNode();
+		return targetNode != this ? targetNode : arc.getSourceNode();
+	}
+	
 	@Override
 	public Arc addArcTo(Node targetNode, Measurable<? extends Object> arcContent){
-		Arc arc = addArcToImplementation(targetNode, arcContent);
+		this.validateNodeIsInTheSameGraph(targetNode);
+		Arc arc = new ArcImpl(this, targetNode, arcContent);
+		this.linkArcOut(arc);
+		((AbstractNode)targetNode).linkArcIn(arc);
 		((AbstractGraph)this.getOwner()).addArc(arc);
-		((AbstractNode)targetNode).incrementIncomingArcs();
+		return arc;
+	}
+	
+	@Override
+	public Arc addArc(Node aNode, Measurable<? extends Object> arcContent) {
+		Arc arc = this.addArcTo(aNode, arcContent);
+		aNode.addArcTo(this, arcContent);
 		return arc;
 	}
 	
 	private void incrementIncomingArcs() {
 		this.numIncomingArcs++;
-		this.numCurrentIncomingArcs++;
 	}
 
-	protected abstract Arc addArcToImplementation(Node targetNode,
-			Measurable<? extends Object> arcContent);
+	/**
+	 * Stores an arc leaving this node in the adjacency structure of this node. The arc 
+	 * is neither validated nor added to the owner graph arcs.
+	 * */
+	public abstract void linkArcOut(Arc arc);
+	
+	/**
+	 * Stores an arc reaching this node in the adjacency structure of this node. The arc 
+	 * is neither validated nor added to the owner graph arcs.
+	 * */
+	public void linkArcIn(Arc arc) {
+		this.incrementIncomingArcs();
+	}
+	
+	/**
+	 * Removes an arc leaving this node from the adjacency structure of this node, 
+	 * the counterpart of {@link #linkArcOut(Arc)}.
+	 * */
+	public abstract void unlinkArcOut(Arc arc);
+	
+	/**
+	 * Removes an arc reaching this node from the adjacency structure of this node, 
+	 * the counterpart of {@link #linkArcIn(Arc)}.
+	 * */
+	public void unlinkArcIn(Arc arc) {
+		this.numIncomingArcs--;
+	}
+	
+	/**
+	 * Hints this node about how many arcs it will hold, so its adjacency structure can be 
+	 * allocated once. Used by bulk loaders, does nothing by default. 
+	 * */
+	public void ensureArcCapacity(int numArcsOut, int numArcsIn) {
+	}
+	
+	/**
+	 * @return an estimate in bytes of the heap taken by this node object, see 
+	 * {@link MemoryFootprint}
+	 * */
+	public long estimateNodeBytes() {
+		return MemoryFootprint.nodeBytes(0, 0);
+	}
+	
+	/**
+	 * @return an estimate in bytes of the heap taken by the structures holding the arcs 
+	 * of this node, none by default
+	 * */
+	public long estimateAdjacencyBytes() {
+		return 0;
+	}
+	
+	/**
+	 * @return the initial capacity of a hash map that holds the given number of 
+	 * entries without rehashing
+	 * */
+	protected static int mapCapacityFor(int numEntries) {
+		return (int)(numEntries / 0.75F) + 1;
+	}
 
 	@Override
 	public void setTag(String tag) {
+		String oldTag = this.tag;
 		this.tag = tag;
+		((AbstractGraph)this.getOwner()).nodeTagChanged(this, oldTag);
 	}
 
 	@Override
@@ -168,38 +244,47 @@ public abstract class AbstractNode implements Node, HiddenNodeAbstraction{
 	
 	@Override
 	public Map<Node,NodePath> findShortestPathToEveryOtherNode(ShortestPathStrategy strategy) {
-		int numNodes = this.owner.size();
-		List<Node> nodes = owner.getNodes();
-		initializeGraphForShortestPath(nodes);
-		
-		if(numNodes > 0){
-			switch (strategy) {
-				case BINARY_DIJKSTRA:
-					allShortestPathsBinaryDijkstra(nodes);
-					break;
-				case BELLMAN_FORD:
-					shortestPathBellmanFordAlgorithm(nodes);
-					break;
-				case DAG:
-					shortestPathDAGAlgorithm(nodes);
-					break;
-				default:
-					break;
+		return this.findShortestPathToEveryOtherNode(strategy, WeightType.INT);
+	}
+	
+	@Override
+	public Map<Node,NodePath> findShortestPathToEveryOtherNode(ShortestPathStrategy strategy, WeightType weightType) {
+		QueryProbe probe = ((AbstractGraph)owner).getQueryListener().queryStarted(owner, QueryType.SHORTEST_PATH_TO_EVERY_OTHER_NODE, this, strategy);
+		try {
+			probe.phaseStarted(QueryPhase.INITIALIZATION);
+			PathState state = PathState.create(weightType, (AbstractGraph)owner, this, probe);
+			
+			if(state.nodes.length > 0){
+				switch (strategy) {
+					case BINARY_DIJKSTRA:
+						allShortestPathsBinaryDijkstra(state);
+						break;
+					case BELLMAN_FORD:
+						shortestPathBellmanFordAlgorithm(state);
+						break;
+					case DAG:
+						shortestPathDAGAlgorithm(state);
+						break;
+					default:
+						break;
+				}
 			}
+			
+			probe.phaseStarted(QueryPhase.PATH_BUILDING);
+			Map<Node,NodePath> nodePaths = new LinkedHashMap<Node, NodePath>();
+	
+			//Build all paths
+			for (Node node : state.nodes) {
+				addNodePath(state, nodePaths, node);
+			}
+			
+			return nodePaths;
+		} finally {
+			probe.queryFinished();
 		}
-		
-		
-		Map<Node,NodePath> nodePaths = new LinkedHashMap<Node, NodePath>();
-
-		//Build all paths
-		for (Node node : nodes) {
-			addNodePath(nodePaths, node);
-		}
-		
-		return nodePaths;
 	}
 
-	private List<Node> addNodePath(Map<Node, NodePath> nodePaths, Node node) {
+	private List<Node> addNodePath(PathState state, Map<Node, NodePath> nodePaths, Node node) {
 		if(node == null){
 			return new LinkedList<Node>();
 		}
@@ -211,102 +296,115 @@ public abstract class AbstractNode implements Node, HiddenNodeAbstraction{
 			
 			List<Node> nodePath = new LinkedList<Node>();
 			
-			AbstractNode parent = cNode.traversalParent;
+			Node parent = state.parentOf(cNode);
 			NodePath parentPath = nodePaths.get(parent);
 			//was parent node path already build? 
 			if(parentPath != null){
 				nodePath.addAll(parentPath.getPath());
 			} else {
-				nodePath.addAll(addNodePath(nodePaths, parent));
+				nodePath.addAll(addNodePath(state, nodePaths, parent));
 			}
 			if(nodePath.size()>0 || cNode == this){
 				nodePath.add(cNode);
 			}
 			
-			nodePathBuild = buildNodePath(nodePath);
+			nodePathBuild = state.toNodePath(nodePath);
 			nodePaths.put(cNode, nodePathBuild);
 			return nodePath;
 		}
 	}
 
-	private NodePath buildNodePath(List<Node> shortestPath) {
-		int numHops = shortestPath.size();
-		int totalDistance = Integer.MAX_VALUE;
-		if(numHops > 0){
-			totalDistance = ((AbstractNode)shortestPath.get(numHops-1)).distance;
-		} 
-		NodePath nodePath = new NodePath(shortestPath, totalDistance);
-		return nodePath;
-	};
-	
 	@Override
 	public NodePath findShortestPathTo(Node destination,
 			ShortestPathStrategy strategy) {
-		int numNodes = this.owner.size();
-		List<Node> nodes = owner.getNodes();
-		initializeGraphForShortestPath(nodes);
-		
-		if(numNodes > 0){
-			switch (strategy) {
-				case BINARY_DIJKSTRA:
-					singleShortestPathBinaryDijkstra(destination, nodes);
-					break;
-				case BELLMAN_FORD:
-					shortestPathBellmanFordAlgorithm(nodes);
-					break;
-				case DAG:
-					shortestPathDAGAlgorithm(nodes);
-					break;
-				default:
-					break;
+		return this.findShortestPathTo(destination, strategy, WeightType.INT);
+	}
+	
+	@Override
+	public NodePath findShortestPathTo(Node destination,
+			ShortestPathStrategy strategy, WeightType weightType) {
+		QueryProbe probe = ((AbstractGraph)owner).getQueryListener().queryStarted(owner, QueryType.SHORTEST_PATH, this, strategy);
+		try {
+			probe.phaseStarted(QueryPhase.INITIALIZATION);
+			PathState state = PathState.create(weightType, (AbstractGraph)owner, this, probe);
+			
+			if(state.nodes.length > 0){
+				switch (strategy) {
+					case BINARY_DIJKSTRA:
+						singleShortestPathBinaryDijkstra(destination, state);
+						break;
+					case BELLMAN_FORD:
+						shortestPathBellmanFordAlgorithm(state);
+						break;
+					case DAG:
+						shortestPathDAGAlgorithm(state);
+						break;
+					default:
+						break;
+				}
 			}
+			
+			probe.phaseStarted(QueryPhase.PATH_BUILDING);
+			List<Node> shortestPath = state.createTraversalNodePath((AbstractNode)destination, this);
+			NodePath nodePath = state.toNodePath(shortestPath);
+			
+			return nodePath;
+		} finally {
+			probe.queryFinished();
 		}
-		
-		List<Node> shortestPath = ((AbstractNode)destination).createTraversalNodePath(this);
-		NodePath nodePath = buildNodePath(shortestPath);
-		
-		return nodePath;
 	}
 
 	private void singleShortestPathBinaryDijkstra(Node destination,
-			List<Node> nodes) {
-		NodeBasedBinaryHeap pq = asNodeBasedBinaryHeap(nodes);
+			PathState state) {
+		NodeBasedBinaryHeap pq = asNodeBasedBinaryHeap(state);
 		
 		AbstractNode currentNode = null;
 		while(!destination.equals(currentNode) && !pq.isEmpty()){
-			currentNode = dijkstraInnerLoop(pq);
+			currentNode = dijkstraInnerLoop(state, pq);
 		}
 	}
 
-	private void allShortestPathsBinaryDijkstra(List<Node> nodes) {
-		NodeBasedBinaryHeap pq = asNodeBasedBinaryHeap(nodes);
+	private void allShortestPathsBinaryDijkstra(PathState state) {
+		NodeBasedBinaryHeap pq = asNodeBasedBinaryHeap(state);
 		
 		while(!pq.isEmpty()){
-			dijkstraInnerLoop(pq);
+			dijkstraInnerLoop(state, pq);
 		}
 	}
 	
-	private NodeBasedBinaryHeap asNodeBasedBinaryHeap(List<Node> nodes) {
+	/**
+	 * The path state orders the nodes by distance. Filling the heap is the last step of 
+	 * the initialization.
+	 * */
+	private NodeBasedBinaryHeap asNodeBasedBinaryHeap(PathState state) {
 		@SuppressWarnings({ "unchecked", "rawtypes" })
-		NodeBasedBinaryHeap pq = new NodeBasedBinaryHeap((Collection) nodes, new Comparator<AbstractNode>() {
-			@Override
-			public int compare(AbstractNode o1, AbstractNode o2) {
-				return o1.distance - o2.distance;
-			}
-		});
+		NodeBasedBinaryHeap pq = new NodeBasedBinaryHeap((Collection) owner.getNodes(), state, state.probe);
+		state.probe.phaseStarted(QueryPhase.SEARCH);
 		return pq;
 	}
 
 	/**
 	 * Gets the current node in the queue and relaxes its neighbors
 	 * */
-	private AbstractNode dijkstraInnerLoop(NodeBasedBinaryHeap pq) {
+	private AbstractNode dijkstraInnerLoop(PathState state, NodeBasedBinaryHeap pq) {
 		AbstractNode currentNode;
 		currentNode = (AbstractNode) pq.poll();
+		state.probe.nodeSettled();
+		if(state.weights != null){
+			int node = currentNode.insertionOrder;
+			int[] offsets = state.weights.getOffsets();
+			for(int arc = offsets[node]; arc < offsets[node + 1]; arc++){
+				if(state.relaxArc(node, arc)){
+					AbstractNode neigboringNode = (AbstractNode) state.nodes[state.targets[arc]];
+					pq.remove(neigboringNode);
+					pq.add(neigboringNode);
+				}
+			}
+			return currentNode;
+		}
 		for (Arc arc : currentNode.getArcsOut()) {
-			AbstractNode neigboringNode = (AbstractNode) arc.getTargetNode();
-			int distance = arc.getArcContent().measure();
-			boolean relaxationOccurred = relax(currentNode, neigboringNode, distance);
+			AbstractNode neigboringNode = (AbstractNode) currentNode.getOppositeNode(arc);
+			boolean relaxationOccurred = state.relax(currentNode, neigboringNode, arc.getArcContent());
 			//update priority queue
 			if(relaxationOccurred){
 				pq.remove(neigboringNode);
@@ -316,90 +414,88 @@ public abstract class AbstractNode implements Node, HiddenNodeAbstraction{
 		return currentNode;
 	}
 
-	private void shortestPathDAGAlgorithm(List<Node> nodes) {
+	private void shortestPathDAGAlgorithm(PathState state) {
 		List<Node> nodesInTopologicalOrder = this.owner.getNodesInTopologicalOrder();
+		state.probe.phaseStarted(QueryPhase.SEARCH);
 		for (Node node : nodesInTopologicalOrder) {
+			AbstractNode nodeImpl = (AbstractNode) node;
+			state.probe.nodeSettled();
+			if(state.weights != null){
+				int[] offsets = state.weights.getOffsets();
+				for(int arc = offsets[nodeImpl.insertionOrder]; arc < offsets[nodeImpl.insertionOrder + 1]; arc++){
+					state.relaxArc(nodeImpl.insertionOrder, arc);
+				}
+				continue;
+			}
 			for (Arc arc : node.getArcsOut()) {
-				relax((AbstractNode)node, (AbstractNode)arc.getTargetNode(), arc.getArcContent().measure());
+				state.relax(nodeImpl, (AbstractNode)nodeImpl.getOppositeNode(arc), arc.getArcContent());
 			}
 		}
 	}
 
-	private void shortestPathBellmanFordAlgorithm(List<Node> nodes) {
+	private void shortestPathBellmanFordAlgorithm(PathState state) {
+		state.probe.phaseStarted(QueryPhase.SEARCH);
+		if(state.weights != null){
+			shortestPathBellmanFordOnSnapshot(state);
+			return;
+		}
+		//undirected arcs are stored once, so they are relaxed in both directions
+		boolean undirected = !this.owner.isDirected();
 		//Relax all edges #nodes - 1 times
-		for(int i = 1; i < nodes.size(); i++){
+		for(int i = 1; i < state.nodes.length; i++){
 			for (Arc arc : owner.getArcs()) {
-				relax(((AbstractNode)arc.getSourceNode()), ((AbstractNode)arc.getTargetNode()), arc.getArcContent().measure());
-			}				
+				AbstractNode src = (AbstractNode) arc.getSourceNode();
+				AbstractNode dest = (AbstractNode) arc.getTargetNode();
+				Measurable<? extends Object> weight = arc.getArcContent();
+				state.relax(src, dest, weight);
+				if(undirected){
+					state.relax(dest, src, weight);
+				}
+			}
+			state.probe.bellmanFordPassDone();
 		}
 		//check for negative-weight cycles
 		for (Arc arc : owner.getArcs()) {
 			AbstractNode src = (AbstractNode) arc.getSourceNode();
 			AbstractNode dest = (AbstractNode) arc.getTargetNode();
-			//casting because of possible carries
-			if(dest.distance > (long)src.distance + arc.getArcContent().measure()){
+			Measurable<? extends Object> weight = arc.getArcContent();
+			if(state.isRelaxable(src, dest, weight) || (undirected && state.isRelaxable(dest, src, weight))){
 				throw new NegativeWeightCycleFoundException();
 			}
 		}
 	}
 
-	private List<Node> createTraversalNodePath(AbstractNode source) {
-		int size = this.traversalHops + 1;
-		if(size <= 1){
-			return new ArrayList<Node>();
-		}
-		Node[] result = new Node[size];
-		AbstractNode cNode = this;
-		for(int i = size-1; i >= 0; i--){
-			result[i] = cNode;
-			cNode = cNode.traversalParent;
-		}
-		//Did we got an answer?
-		if(!result[0].equals(source)){
-			return new ArrayList<Node>();
-		}
-		return Arrays.asList(result);
-	}
-
 	/**
-	 * initializes this node's owner to start a path algorithm 
+	 * Same as {@link #shortestPathBellmanFordAlgorithm(PathState)} reading the weights from 
+	 * the snapshot, where undirected arcs are already numbered in both directions
 	 * */
-	private void initializeGraphForShortestPath(List<Node> nodes) {
-		for (Node node : nodes) {
-			AbstractNode nodeImpl = (AbstractNode) node;
-			nodeImpl.distance = Integer.MAX_VALUE;
-			nodeImpl.traversalParent = null;
-			nodeImpl.traversalHops = 0;
+	private void shortestPathBellmanFordOnSnapshot(PathState state) {
+		int[] offsets = state.weights.getOffsets();
+		int numIds = state.nodes.length;
+		for(int i = 1; i < numIds; i++){
+			for(int node = 0; node < numIds; node++){
+				for(int arc = offsets[node]; arc < offsets[node + 1]; arc++){
+					state.relaxArc(node, arc);
+				}
+			}
+			state.probe.bellmanFordPassDone();
 		}
-		this.distance = 0;
-	}
-
-	/**
-	 * @return true if a relaxation of the neighbor occurred
-	 * **/
-	private boolean relax(AbstractNode minNode, AbstractNode neighbor, int distanceBetween){
-		long uDistance = (long)minNode.distance + distanceBetween;
-		if(neighbor.distance > uDistance){
-			neighbor.distance = (int)uDistance;
-			neighbor.traversalParent = minNode;
-			neighbor.traversalHops = minNode.traversalHops + 1;
-			return true;
+		for(int node = 0; node < numIds; node++){
+			for(int arc = offsets[node]; arc < offsets[node + 1]; arc++){
+				if(state.isArcRelaxable(node, arc)){
+					throw new NegativeWeightCycleFoundException();
+				}
+			}
 		}
-		return false;
-	}
-
-	public boolean wasVisited() {
-		return this.wasVisited;
-	}
-	
-	public void setVisited(boolean wasVisited) {
-		this.wasVisited = wasVisited;
 	}
 	
+	/**
+	 * Node ordering for sorted collections, by insertion order
+	 * */
 	@Override
 	public int compareTo(Node node) {
 		AbstractNode nodeImpl = (AbstractNode) node;
-		return (int) (this.distance - nodeImpl.distance);
+		return this.insertionOrder < nodeImpl.insertionOrder ? -1 : (this.insertionOrder == nodeImpl.insertionOrder ? 0 : 1);
 	}
 	
 	@Override
@@ -412,24 +508,397 @@ public abstract class AbstractNode implements Node, HiddenNodeAbstraction{
 		this.insertionOrder = insertionOrder;
 	}
 
+	/**
+	 * @return the number of arcs reaching this node, as counted by {@link #linkArcIn(Arc)}
+	 * */
+	public int getNumIncomingArcs() {
+		return this.numIncomingArcs;
+	}
+
+	/**
+	 * @deprecated the traversals keep the nodes they visit apart from the nodes, so queries 
+	 * can run at once. Only tells whether {@link #setVisited(boolean)} marked this node.
+	 * */
+	@Deprecated
+	public boolean wasVisited() {
+		return VISITED.contains(this);
+	}
+
+	/**
+	 * @deprecated see {@link #wasVisited()}
+	 * */
+	@Deprecated
+	public void setVisited(boolean wasVisited) {
+		if(wasVisited){
+			VISITED.add(this);
+		} else {
+			VISITED.remove(this);
+		}
+	}
+
 	/**
 	 * Used for topological sort algorithm
+	 * @deprecated the topological order counts the arcs left of each node by itself. 
+	 * Starts the count of {@link #decCurrentIncomingArcs()} again from 
+	 * {@link #getNumIncomingArcs()}, where it starts anyway.
 	 * */
+	@Deprecated
 	public void resetCurrentIncomingArcs() {
-		this.numCurrentIncomingArcs = this.numIncomingArcs;
+		CURRENT_INCOMING_ARCS.remove(this);
 	}
 
 	/**
 	 * Used for topological sort algorithm
+	 * @deprecated see {@link #resetCurrentIncomingArcs()}
 	 * */
+	@Deprecated
 	public void decCurrentIncomingArcs() {
-		this.numCurrentIncomingArcs--;
+		synchronized (CURRENT_INCOMING_ARCS) {
+			CURRENT_INCOMING_ARCS.put(this, this.getCurrentIncomingArcs() - 1);
+		}
 	}
 
 	/**
 	 * Used for topological sort algorithm
+	 * @deprecated see {@link #resetCurrentIncomingArcs()}
 	 * */
+	@Deprecated
 	public boolean hasNoMoreIncomingArcs() {
-		return this.numCurrentIncomingArcs == 0;
+		return this.getCurrentIncomingArcs() == 0;
+	}
+
+	private int getCurrentIncomingArcs() {
+		Integer count = CURRENT_INCOMING_ARCS.get(this);
+		return count == null ? this.getNumIncomingArcs() : count;
+	}
+
+	/**
+	 * Parents found by a path algorithm, indexed by the insertion order of the nodes. Kept 
+	 * apart from the nodes so queries running at once on the same graph don't step on each 
+	 * other. Every weight type keeps its distances in its own primitive array.
+	 * Orders the nodes by distance.
+	 * */
+	private abstract static class PathState implements Comparator<AbstractNode> {
+		
+		/**
+		 * Nodes of the graph by insertion order, null in the place of the removed ones
+		 * */
+		final Node[] nodes;
+		
+		/**
+		 * Insertion order of the parent of each node on the last relaxation, -1 if none
+		 * */
+		final int[] parents;
+		
+		/**
+		 * Number of hops to reach each node
+		 * */
+		final int[] hops;
+		
+		/**
+		 * Weights to relax the arcs by number, null to read them from the arcs
+		 * */
+		final WeightSnapshot weights;
+		
+		/**
+		 * Node reached by each arc of the weights
+		 * */
+		final int[] targets;
+		
+		/**
+		 * Told about the arcs scanned and the relaxations
+		 * */
+		final QueryProbe probe;
+		
+		PathState(AbstractGraph graph, WeightType weightType, QueryProbe probe) {
+			List<Node> graphNodes = graph.getNodesById();
+			int numNodes = graphNodes.size();
+			this.nodes = new Node[numNodes];
+			graphNodes.toArray(this.nodes);
+			this.parents = new int[numNodes];
+			this.hops = new int[numNodes];
+			Arrays.fill(this.parents, -1);
+			this.weights = graph.isSnapshotWeights() ? graph.getWeightSnapshot(weightType) : null;
+			this.targets = this.weights != null ? this.weights.getTargets() : null;
+			this.probe = probe;
+		}
+		
+		static PathState create(WeightType weightType, AbstractGraph graph, AbstractNode source, QueryProbe probe) {
+			switch (weightType) {
+				case LONG:
+					return new LongPathState(graph, source, probe);
+				case DOUBLE:
+					return new DoublePathState(graph, source, probe);
+				default:
+					return new IntPathState(graph, source, probe);
+			}
+		}
+		
+		Node parentOf(AbstractNode node) {
+			int parent = parents[node.insertionOrder];
+			return parent < 0 ? null : nodes[parent];
+		}
+		
+		/**
+		 * Records that the neighbor is reached through the node
+		 * */
+		void setParent(int node, int neighbor) {
+			parents[neighbor] = node;
+			hops[neighbor] = hops[node] + 1;
+			probe.relaxed();
+		}
+		
+		/**
+		 * Relaxes the neighbor through the arc weight. Unreachable nodes relax nothing.
+		 * @return true if a relaxation of the neighbor occurred
+		 * **/
+		abstract boolean relax(AbstractNode node, AbstractNode neighbor, Measurable<? extends Object> weight);
+		
+		abstract boolean isRelaxable(AbstractNode src, AbstractNode dest, Measurable<? extends Object> weight);
+		
+		/**
+		 * Same as {@link #relax(AbstractNode, AbstractNode, Measurable)} for an arc of the weights
+		 * */
+		abstract boolean relaxArc(int node, int arc);
+		
+		abstract boolean isArcRelaxable(int node, int arc);
+		
+		/**
+		 * @return the path with the distance of its last node
+		 * */
+		abstract NodePath toNodePath(List<Node> path);
+		
+		List<Node> createTraversalNodePath(AbstractNode destination, AbstractNode source) {
+			int size = hops[destination.insertionOrder] + 1;
+			if(size <= 1){
+				return new ArrayList<Node>();
+			}
+			Node[] result = new Node[size];
+			int cNode = destination.insertionOrder;
+			for(int i = size-1; i >= 0; i--){
+				result[i] = nodes[cNode];
+				cNode = parents[cNode];
+			}
+			//Did we got an answer?
+			if(!result[0].equals(source)){
+				return new ArrayList<Node>();
+			}
+			return Arrays.asList(result);
+		}
+		
+		static int lastOf(List<Node> path) {
+			return ((AbstractNode)path.get(path.size() - 1)).insertionOrder;
+		}
+	}
+	
+	private static final class IntPathState extends PathState {
+		
+		final int[] distances;
+		
+		final int[] arcWeights;
+		
+		IntPathState(AbstractGraph graph, AbstractNode source, QueryProbe probe) {
+			super(graph, WeightType.INT, probe);
+			this.distances = new int[this.nodes.length];
+			Arrays.fill(this.distances, Integer.MAX_VALUE);
+			this.distances[source.insertionOrder] = 0;
+			this.arcWeights = this.weights != null ? this.weights.getIntWeights() : null;
+		}
+		
+		@Override
+		boolean relax(AbstractNode node, AbstractNode neighbor, Measurable<? extends Object> weight) {
+			return relax(node.insertionOrder, neighbor.insertionOrder, weight.measure());
+		}
+		
+		@Override
+		boolean relaxArc(int node, int arc) {
+			return relax(node, targets[arc], arcWeights[arc]);
+		}
+		
+		private boolean relax(int node, int neighbor, int weight) {
+			probe.arcScanned();
+			int nodeDistance = distances[node];
+			if(nodeDistance == Integer.MAX_VALUE){
+				return false;
+			}
+			//summed as longs so it can't wrap around, it fits back if it is shorter
+			long distance = Math.max((long)nodeDistance + weight, Integer.MIN_VALUE);
+			if(distances[neighbor] > distance){
+				distances[neighbor] = (int)distance;
+				setParent(node, neighbor);
+				return true;
+			}
+			return false;
+		}
+		
+		@Override
+		boolean isRelaxable(AbstractNode src, AbstractNode dest, Measurable<? extends Object> weight) {
+			return isRelaxable(src.insertionOrder, dest.insertionOrder, weight.measure());
+		}
+		
+		@Override
+		boolean isArcRelaxable(int node, int arc) {
+			return isRelaxable(node, targets[arc], arcWeights[arc]);
+		}
+		
+		private boolean isRelaxable(int src, int dest, int weight) {
+			probe.arcScanned();
+			int srcDistance = distances[src];
+			return srcDistance != Integer.MAX_VALUE && distances[dest] > (long)srcDistance + weight;
+		}
+		
+		@Override
+		public int compare(AbstractNode o1, AbstractNode o2) {
+			return Integer.compare(distances[o1.insertionOrder], distances[o2.insertionOrder]);
+		}
+		
+		@Override
+		NodePath toNodePath(List<Node> path) {
+			return new NodePath(path, path.isEmpty() ? Integer.MAX_VALUE : distances[lastOf(path)]);
+		}
+	}
+	
+	private static final class LongPathState extends PathState {
+		
+		final long[] distances;
+		
+		final long[] arcWeights;
+		
+		LongPathState(AbstractGraph graph, AbstractNode source, QueryProbe probe) {
+			super(graph, WeightType.LONG, probe);
+			this.distances = new long[this.nodes.length];
+			Arrays.fill(this.distances, Long.MAX_VALUE);
+			this.distances[source.insertionOrder] = 0;
+			this.arcWeights = this.weights != null ? this.weights.getLongWeights() : null;
+		}
+		
+		/**
+		 * @return the sum, or the closest long to it when it overflows
+		 * */
+		static long saturatedAdd(long a, long b) {
+			long sum = a + b;
+			//overflows only when both have the same sign and the sum the other one
+			if(((a ^ sum) & (b ^ sum)) < 0){
+				return b > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+			}
+			return sum;
+		}
+		
+		@Override
+		boolean relax(AbstractNode node, AbstractNode neighbor, Measurable<? extends Object> weight) {
+			return relax(node.insertionOrder, neighbor.insertionOrder, WeightSnapshot.measureLong(weight));
+		}
+		
+		@Override
+		boolean relaxArc(int node, int arc) {
+			return relax(node, targets[arc], arcWeights[arc]);
+		}
+		
+		private boolean relax(int node, int neighbor, long weight) {
+			probe.arcScanned();
+			long nodeDistance = distances[node];
+			if(nodeDistance == Long.MAX_VALUE){
+				return false;
+			}
+			long distance = saturatedAdd(nodeDistance, weight);
+			if(distances[neighbor] > distance){
+				distances[neighbor] = distance;
+				setParent(node, neighbor);
+				return true;
+			}
+			return false;
+		}
+		
+		@Override
+		boolean isRelaxable(AbstractNode src, AbstractNode dest, Measurable<? extends Object> weight) {
+			return isRelaxable(src.insertionOrder, dest.insertionOrder, WeightSnapshot.measureLong(weight));
+		}
+		
+		@Override
+		boolean isArcRelaxable(int node, int arc) {
+			return isRelaxable(node, targets[arc], arcWeights[arc]);
+		}
+		
+		private boolean isRelaxable(int src, int dest, long weight) {
+			probe.arcScanned();
+			long srcDistance = distances[src];
+			return srcDistance != Long.MAX_VALUE && distances[dest] > saturatedAdd(srcDistance, weight);
+		}
+		
+		@Override
+		public int compare(AbstractNode o1, AbstractNode o2) {
+			return Long.compare(distances[o1.insertionOrder], distances[o2.insertionOrder]);
+		}
+		
+		@Override
+		NodePath toNodePath(List<Node> path) {
+			return new NodePath(path, path.isEmpty() ? Long.MAX_VALUE : distances[lastOf(path)]);
+		}
+	}
+	
+	private static final class DoublePathState extends PathState {
+		
+		final double[] distances;
+		
+		final double[] arcWeights;
+		
+		DoublePathState(AbstractGraph graph, AbstractNode source, QueryProbe probe) {
+			super(graph, WeightType.DOUBLE, probe);
+			this.distances = new double[this.nodes.length];
+			Arrays.fill(this.distances, Double.POSITIVE_INFINITY);
+			this.distances[source.insertionOrder] = 0;
+			this.arcWeights = this.weights != null ? this.weights.getDoubleWeights() : null;
+		}
+		
+		@Override
+		boolean relax(AbstractNode node, AbstractNode neighbor, Measurable<? extends Object> weight) {
+			return relax(node.insertionOrder, neighbor.insertionOrder, WeightSnapshot.measureDouble(weight));
+		}
+		
+		@Override
+		boolean relaxArc(int node, int arc) {
+			return relax(node, targets[arc], arcWeights[arc]);
+		}
+		
+		private boolean relax(int node, int neighbor, double weight) {
+			probe.arcScanned();
+			double nodeDistance = distances[node];
+			if(nodeDistance == Double.POSITIVE_INFINITY){
+				return false;
+			}
+			double distance = nodeDistance + weight;
+			if(distances[neighbor] > distance){
+				distances[neighbor] = distance;
+				setParent(node, neighbor);
+				return true;
+			}
+			return false;
+		}
+		
+		@Override
+		boolean isRelaxable(AbstractNode src, AbstractNode dest, Measurable<? extends Object> weight) {
+			return isRelaxable(src.insertionOrder, dest.insertionOrder, WeightSnapshot.measureDouble(weight));
+		}
+		
+		@Override
+		boolean isArcRelaxable(int node, int arc) {
+			return isRelaxable(node, targets[arc], arcWeights[arc]);
+		}
+		
+		private boolean isRelaxable(int src, int dest, double weight) {
+			probe.arcScanned();
+			double srcDistance = distances[src];
+			return srcDistance != Double.POSITIVE_INFINITY && distances[dest] > srcDistance + weight;
+		}
+		
+		@Override
+		public int compare(AbstractNode o1, AbstractNode o2) {
+			return Double.compare(distances[o1.insertionOrder], distances[o2.insertionOrder]);
+		}
+		
+		@Override
+		NodePath toNodePath(List<Node> path) {
+			return new NodePath(path, path.isEmpty() ? Double.POSITIVE_INFINITY : distances[lastOf(path)]);
+		}
 	}
 }
@@ -0,0 +1,180 @@
+package org.nixus.core.structure.nodes.impl;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.impl.AdaptiveGraph;
+import org.nixus.core.structure.impl.MemoryFootprint;
+import org.nixus.core.structure.nodes.Node;
+
+
+/**
+ * Node implementation for {@link AdaptiveGraph}'s. While the graph is sparse the node keeps
+ * its arcs in a map and a list, as an {@link AdjacencyMapNode}. Once the graph moves to its
+ * adjacency matrix, they are in the row and column of its insertion order, as an
+ * {@link AdjacencyMatrixNode}.
+ * */
+public class AdaptiveNode extends AbstractNode {
+
+	private static final long serialVersionUID = 2412470624093917836L;
+
+	/**
+	 * Arcs out by target node, null while the arcs are in the adjacency matrix
+	 * */
+	private Map<Node, Arc> arcsOut;
+
+	/**
+	 * Arcs in, null while the arcs are in the adjacency matrix
+	 * */
+	private List<Arc> arcsIn;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public AdaptiveNode(AdaptiveGraph owner, Measurable<? extends Object> content) {
+		super(owner, content);
+		if(!owner.isDense()){
+			this.createArcMaps(0);
+		}
+	}
+
+	private Arc[][] adjacencyMatrix() {
+		return ((AdaptiveGraph)owner).getAdjacencyMatrix();
+	}
+
+	/**
+	 * Starts keeping the arcs of this node in a map and a list, empty until the arcs are
+	 * linked again
+	 * @param numArcsOut the number of arcs out to size the map for, 0 for the default size
+	 * */
+	public void createArcMaps(int numArcsOut) {
+		this.arcsOut = numArcsOut == 0 ? new LinkedHashMap<Node, Arc>() : new LinkedHashMap<Node, Arc>(mapCapacityFor(numArcsOut));
+		this.arcsIn = new LinkedList<Arc>();
+	}
+
+	/**
+	 * Leaves the arcs of this node to the adjacency matrix of the graph
+	 * */
+	public void dropArcMaps() {
+		this.arcsOut = null;
+		this.arcsIn = null;
+	}
+
+	/**
+	 * Links again an arc this node was already counted as target of, when moving the arcs
+	 * out of the adjacency matrix
+	 * */
+	public void relinkArcIn(Arc arc) {
+		this.arcsIn.add(arc);
+	}
+
+	@Override
+	public void linkArcOut(Arc arc) {
+		if(this.arcsOut != null){
+			this.arcsOut.put(arc.getTargetNode(), arc);
+		} else {
+			this.adjacencyMatrix()[this.getInsertionOrder()][((AdaptiveNode)arc.getTargetNode()).getInsertionOrder()] = arc;
+		}
+	}
+
+	@Override
+	public void linkArcIn(Arc arc) {
+		super.linkArcIn(arc);
+		if(this.arcsIn != null){
+			this.arcsIn.add(arc);
+		}
+	}
+
+	@Override
+	public void unlinkArcOut(Arc arc) {
+		if(this.arcsOut != null){
+			this.arcsOut.remove(arc.getTargetNode(), arc);
+		} else {
+			Arc[] row = this.adjacencyMatrix()[this.getInsertionOrder()];
+			int target = ((AdaptiveNode)arc.getTargetNode()).getInsertionOrder();
+			if(row[target] == arc){
+				row[target] = null;
+			}
+		}
+	}
+
+	@Override
+	public void unlinkArcIn(Arc arc) {
+		super.unlinkArcIn(arc);
+		if(this.arcsIn != null){
+			this.arcsIn.remove(arc);
+		}
+	}
+
+	@Override
+	public void ensureArcCapacity(int numArcsOut, int numArcsIn) {
+		if(this.arcsOut != null && this.arcsOut.isEmpty()){
+			this.arcsOut = new LinkedHashMap<Node, Arc>(mapCapacityFor(numArcsOut));
+		}
+	}
+
+	@Override
+	public long estimateNodeBytes() {
+		return MemoryFootprint.nodeBytes(2, 0);
+	}
+
+	@Override
+	public long estimateAdjacencyBytes() {
+		if(this.arcsOut == null){
+			return 0;
+		}
+		return MemoryFootprint.linkedHashMapBytes(this.arcsOut.size()) + MemoryFootprint.linkedListBytes(this.arcsIn.size());
+	}
+
+	@Override
+	public boolean isConnectedTo(Node aNode) {
+		return this.isDirectionallyConnectedTo(aNode) && aNode.isDirectionallyConnectedTo(this);
+	}
+
+	@Override
+	public boolean isDirectionallyConnectedTo(Node aNode) {
+		if(this.arcsOut != null){
+			return this.arcsOut.containsKey(aNode);
+		}
+		return this.adjacencyMatrix()[this.getInsertionOrder()][((AdaptiveNode)aNode).getInsertionOrder()] != null;
+	}
+
+	@Override
+	public Collection<Arc> getArcsIn() {
+		if(this.arcsIn != null){
+			return this.arcsIn;
+		}
+		List<Arc> arcs = new LinkedList<Arc>();
+		Arc[][] adjacencyMatrix = this.adjacencyMatrix();
+		int numIds = ((AdaptiveGraph)owner).getNodesById().size();
+		int index = this.getInsertionOrder();
+		for(int i = 0; i < numIds; i++){
+			Arc cArc = adjacencyMatrix[i][index];
+			if(cArc != null){
+				arcs.add(cArc);
+			}
+		}
+		return arcs;
+	}
+
+	@Override
+	public Collection<Arc> getArcsOut() {
+		if(this.arcsOut != null){
+			return this.arcsOut.values();
+		}
+		List<Arc> arcs = new LinkedList<Arc>();
+		Arc[] row = this.adjacencyMatrix()[this.getInsertionOrder()];
+		int numIds = ((AdaptiveGraph)owner).getNodesById().size();
+		for(int i = 0; i < numIds; i++){
+			if(row[i] != null){
+				arcs.add(row[i]);
+			}
+		}
+		return arcs;
+	}
+}
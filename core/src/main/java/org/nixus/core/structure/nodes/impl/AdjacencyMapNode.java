@@ -9,8 +9,7 @@ import java.util.Map;
 import org.nixus.core.structure.Arc;
 import org.nixus.core.structure.Graph;
 import org.nixus.core.structure.auxiliary.Measurable;
-import org.nixus.core.structure.impl.AbstractGraph;
-import org.nixus.core.structure.impl.ArcImpl;
+import org.nixus.core.structure.impl.MemoryFootprint;
 import org.nixus.core.structure.nodes.Node;
 
 
@@ -34,24 +33,44 @@ public class AdjacencyMapNode extends AbstractNode {
 	}
 
 	@Override
-	public Arc addArcToImplementation(Node targetNode, Measurable<? extends Object> arcContent) {
-		this.validateNodeIsInTheSameGraph(targetNode);
-		Arc arc = new ArcImpl(this, targetNode, arcContent);
-		this.arcsOut.put(targetNode, arc);
-		((AdjacencyMapNode)targetNode).addArcIn(arc);
-		return arc;
+	public void linkArcOut(Arc arc) {
+		this.arcsOut.put(arc.getTargetNode(), arc);
 	}
 	
 	@Override
-	public Arc addArc(Node aNode, Measurable<? extends Object> arcContent) {
-		this.validateNodeIsInTheSameGraph(aNode);
-		Arc arc = new ArcImpl(this, aNode, arcContent);
-		this.arcsOut.put(aNode, arc);
-		((AbstractGraph)this.getOwner()).addArc(arc);
-		aNode.addArcTo(this, arcContent);
-		return arc;
+	public void linkArcIn(Arc arc) {
+		super.linkArcIn(arc);
+		this.arcsIn.add(arc);
 	}
-
+	
+	@Override
+	public void unlinkArcOut(Arc arc) {
+		this.arcsOut.remove(arc.getTargetNode(), arc);
+	}
+	
+	@Override
+	public void unlinkArcIn(Arc arc) {
+		super.unlinkArcIn(arc);
+		this.arcsIn.remove(arc);
+	}
+	
+	@Override
+	public void ensureArcCapacity(int numArcsOut, int numArcsIn) {
+		if(this.arcsOut.isEmpty()){
+			this.arcsOut = new LinkedHashMap<Node, Arc>(mapCapacityFor(numArcsOut));
+		}
+	}
+	
+	@Override
+	public long estimateNodeBytes() {
+		return MemoryFootprint.nodeBytes(2, 0);
+	}
+	
+	@Override
+	public long estimateAdjacencyBytes() {
+		return MemoryFootprint.linkedHashMapBytes(this.arcsOut.size()) + MemoryFootprint.linkedListBytes(this.arcsIn.size());
+	}
+	
 	@Override
 	public boolean isConnectedTo(Node aNode) {
 		return this.arcsOut.containsKey(aNode) && aNode.isDirectionallyConnectedTo(this);
@@ -71,8 +90,4 @@ public class AdjacencyMapNode extends AbstractNode {
 	public Collection<Arc> getArcsOut() {
 		return this.arcsOut.values();
 	}
-
-	private void addArcIn(Arc arcIn){
-		this.arcsIn.add(arcIn);
-	}
 }
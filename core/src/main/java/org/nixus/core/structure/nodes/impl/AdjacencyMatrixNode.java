@@ -7,9 +7,8 @@ import java.util.List;
 import org.nixus.core.structure.Arc;
 import org.nixus.core.structure.Graph;
 import org.nixus.core.structure.auxiliary.Measurable;
-import org.nixus.core.structure.impl.AbstractGraph;
 import org.nixus.core.structure.impl.AdjacencyMatrixGraph;
-import org.nixus.core.structure.impl.ArcImpl;
+import org.nixus.core.structure.impl.MemoryFootprint;
 import org.nixus.core.structure.nodes.Node;
 
 
@@ -32,22 +31,36 @@ public class AdjacencyMatrixNode extends AbstractNode {
 	}
 
 	@Override
-	public Arc addArcToImplementation(Node targetNode, Measurable<? extends Object> arcContent) {
-		this.validateNodeIsInTheSameGraph(targetNode);
-		Arc arc = new ArcImpl(this, targetNode, arcContent);
-		((AdjacencyMatrixGraph)owner).getAdjacencyMatrix()[this.index][((AdjacencyMatrixNode)targetNode).index] = arc;
-		return arc;
+	public void linkArcOut(Arc arc) {
+		((AdjacencyMatrixGraph)owner).getAdjacencyMatrix()[this.index][((AdjacencyMatrixNode)arc.getTargetNode()).index] = arc;
 	}
 	
 	@Override
-	public Arc addArc(Node aNode, Measurable<? extends Object> arcContent) {
-		this.validateNodeIsInTheSameGraph(aNode);
-		Arc arc = new ArcImpl(this, aNode, arcContent);
-		((AdjacencyMatrixGraph)owner).getAdjacencyMatrix()[this.index][((AdjacencyMatrixNode)aNode).index] = arc;
-		((AbstractGraph)this.getOwner()).addArc(arc);
-		aNode.addArcTo(this, arcContent);
-		return arc;
+	public void unlinkArcOut(Arc arc) {
+		Arc[][] adjacencyMatrix = ((AdjacencyMatrixGraph)owner).getAdjacencyMatrix();
+		int targetIndex = ((AdjacencyMatrixNode)arc.getTargetNode()).index;
+		if(adjacencyMatrix[this.index][targetIndex] == arc){
+			adjacencyMatrix[this.index][targetIndex] = null;
+		}
+	}
+	
+	/**
+	 * The matrix index follows the insertion order, which changes on compactions
+	 * */
+	@Override
+	public void setInsertionOrder(int insertionOrder) {
+		super.setInsertionOrder(insertionOrder);
+		this.index = insertionOrder;
 	}
+	
+	/**
+	 * Its arcs are in the adjacency matrix of the graph, see {@link AdjacencyMatrixGraph}
+	 * */
+	@Override
+	public long estimateNodeBytes() {
+		return MemoryFootprint.nodeBytes(0, MemoryFootprint.INT_BYTES);
+	}
+	
 	private Arc getArcTo(Node aNode) {
 		return ((AdjacencyMatrixGraph)owner).getAdjacencyMatrix()[this.index][((AdjacencyMatrixNode)aNode).index];
 	}
@@ -69,7 +82,8 @@ public class AdjacencyMatrixNode extends AbstractNode {
 	public Collection<Arc> getArcsIn() {
 		List<Arc> arcsOut = new LinkedList<Arc>();
 		Arc[][] adjacencyMatrix = ((AdjacencyMatrixGraph)owner).getAdjacencyMatrix();
-		for(int i = 0; i < owner.size(); i++){
+		int numIds = ((AdjacencyMatrixGraph)owner).getNodesById().size();
+		for(int i = 0; i < numIds; i++){
 			Arc cArc = adjacencyMatrix[i][this.index];
 			if(cArc != null){
 				arcsOut.add(cArc);
@@ -82,7 +96,8 @@ public class AdjacencyMatrixNode extends AbstractNode {
 	public Collection<Arc> getArcsOut() {
 		List<Arc> arcsOut = new LinkedList<Arc>();
 		Arc[][] adjacencyMatrix = ((AdjacencyMatrixGraph)owner).getAdjacencyMatrix();
-		for(int i = 0; i < owner.size(); i++){
+		int numIds = ((AdjacencyMatrixGraph)owner).getNodesById().size();
+		for(int i = 0; i < numIds; i++){
 			Arc cArc = adjacencyMatrix[this.index][i];
 			if(cArc != null){
 				arcsOut.add(cArc);
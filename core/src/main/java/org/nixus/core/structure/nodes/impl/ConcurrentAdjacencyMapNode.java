@@ -0,0 +1,58 @@
+package org.nixus.core.structure.nodes.impl;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.impl.ArcImpl;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Node of a {@link org.nixus.core.structure.impl.ConcurrentAdjacencyMapGraph}. Its
+ * adjacency is guarded by its own monitor, arcs lock both of their nodes while they are linked.
+ * */
+public class ConcurrentAdjacencyMapNode extends AdjacencyMapNode {
+
+	private static final long serialVersionUID = -3017632741409125837L;
+
+	public ConcurrentAdjacencyMapNode(Graph owner, Measurable<? extends Object> content) {
+		super(owner, content);
+	}
+
+	/**
+	 * Links the arc to both nodes and adds it to the graph atomically. Nodes are locked
+	 * by insertion order so threads adding arcs in opposite directions don't deadlock.
+	 * */
+	@Override
+	public Arc addArcTo(Node targetNode, Measurable<? extends Object> arcContent) {
+		this.validateNodeIsInTheSameGraph(targetNode);
+		Arc arc = new ArcImpl(this, targetNode, arcContent);
+		ConcurrentAdjacencyMapNode target = (ConcurrentAdjacencyMapNode) targetNode;
+		boolean thisFirst = this.getInsertionOrder() <= target.getInsertionOrder();
+		Object first = thisFirst ? this : target;
+		Object second = thisFirst ? target : this;
+		synchronized (first) {
+			synchronized (second) {
+				this.linkArcOut(arc);
+				target.linkArcIn(arc);
+				((AbstractGraph)this.getOwner()).addArc(arc);
+			}
+		}
+		return arc;
+	}
+
+	@Override
+	public synchronized void ensureArcCapacity(int numArcsOut, int numArcsIn) {
+		super.ensureArcCapacity(numArcsOut, numArcsIn);
+	}
+
+	@Override
+	public boolean isConnectedTo(Node aNode) {
+		return this.isDirectionallyConnectedTo(aNode) && aNode.isDirectionallyConnectedTo(this);
+	}
+
+	@Override
+	public synchronized boolean isDirectionallyConnectedTo(Node aNode) {
+		return super.isDirectionallyConnectedTo(aNode);
+	}
+}
@@ -0,0 +1,166 @@
+package org.nixus.core.structure.nodes.impl;
+
+import java.util.AbstractList;
+import java.util.Collection;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.auxiliary.ConstantMeasure;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.impl.IndexedGraph;
+import org.nixus.core.structure.impl.MemoryFootprint;
+import org.nixus.core.structure.nodes.Node;
+
+/**
+ * Node handle of an {@link IndexedGraph}. Its content, tag and arcs are read from
+ * the graph storage on every access, the handle only knows its index.
+ * */
+public class IndexedNode extends AbstractNode {
+
+	private static final long serialVersionUID = -6178389645962467215L;
+
+	private final int index;
+
+	public IndexedNode(IndexedGraph owner, int index) {
+		super(owner, null);
+		this.index = index;
+		this.setInsertionOrder(index);
+	}
+
+	@Override
+	public long estimateNodeBytes() {
+		return MemoryFootprint.nodeBytes(0, MemoryFootprint.INT_BYTES);
+	}
+
+	private IndexedGraph graph() {
+		return (IndexedGraph) this.owner;
+	}
+
+	@Override
+	public Measurable<? extends Object> getContent() {
+		return ConstantMeasure.valueOf(graph().getNodeMeasure(index));
+	}
+
+	@Override
+	public String getTag() {
+		return graph().getNodeTag(index);
+	}
+
+	@Override
+	public void setTag(String tag) {
+		String oldTag = this.getTag();
+		graph().setNodeTag(index, tag);
+		graph().nodeTagChanged(this, oldTag);
+	}
+
+	@Override
+	public Arc addArcTo(Node targetNode, Measurable<? extends Object> arcContent) {
+		this.validateNodeIsInTheSameGraph(targetNode);
+		return graph().createArc(index, ((IndexedNode) targetNode).index, arcContent);
+	}
+
+	@Override
+	public Arc addArc(Node aNode, Measurable<? extends Object> arcContent) {
+		if(!this.owner.isDirected()){
+			return this.addArcTo(aNode, arcContent);
+		}
+		return super.addArc(aNode, arcContent);
+	}
+
+	/**
+	 * Arcs are linked by the graph storage
+	 * */
+	@Override
+	public void linkArcOut(Arc arc) {
+		throw new UnsupportedOperationException("Arcs must be added by index");
+	}
+
+	/**
+	 * Arcs are never removed from the graph storage
+	 * */
+	@Override
+	public void unlinkArcOut(Arc arc) {
+		throw new UnsupportedOperationException("Arcs can't be removed");
+	}
+
+	/**
+	 * Arcs are linked by the graph storage
+	 * */
+	@Override
+	public void linkArcIn(Arc arc) {
+		throw new UnsupportedOperationException("Arcs must be added by index");
+	}
+
+	@Override
+	public void ensureArcCapacity(int numArcsOut, int numArcsIn) {
+		graph().ensureArcCapacity(index, numArcsOut, numArcsIn);
+	}
+
+	@Override
+	public int getNumIncomingArcs() {
+		return graph().getInDegree(index);
+	}
+
+	@Override
+	public boolean isDirectionallyConnectedTo(Node aNode) {
+		if(aNode.getOwner() != this.owner){
+			return false;
+		}
+		int other = ((IndexedNode) aNode).index;
+		IndexedGraph graph = graph();
+		int degree = graph.getOutDegree(index);
+		for (int k = 0; k < degree; k++) {
+			int arc = graph.getArcOut(index, k);
+			int target = graph.getArcTarget(arc);
+			if(target == other || (target == index && graph.getArcSource(arc) == other)){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean isConnectedTo(Node aNode) {
+		if(!this.owner.isDirected()){
+			return this.isDirectionallyConnectedTo(aNode);
+		}
+		return this.isDirectionallyConnectedTo(aNode) && aNode.isDirectionallyConnectedTo(this);
+	}
+
+	@Override
+	public Collection<Arc> getArcsOut() {
+		return new AbstractList<Arc>() {
+			@Override
+			public Arc get(int k) {
+				return graph().getArc(graph().getArcOut(index, k));
+			}
+
+			@Override
+			public int size() {
+				return graph().getOutDegree(index);
+			}
+		};
+	}
+
+	@Override
+	public Collection<Arc> getArcsIn() {
+		return new AbstractList<Arc>() {
+			@Override
+			public Arc get(int k) {
+				return graph().getArc(graph().getArcIn(index, k));
+			}
+
+			@Override
+			public int size() {
+				return graph().getInDegree(index);
+			}
+		};
+	}
+
+	@Override
+	public Collection<Arc> getArcs() {
+		if(!this.owner.isDirected()){
+			return this.getArcsOut();
+		}
+		return super.getArcs();
+	}
+}
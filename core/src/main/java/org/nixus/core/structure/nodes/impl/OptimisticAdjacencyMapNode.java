@@ -0,0 +1,123 @@
+package org.nixus.core.structure.nodes.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.strategies.WeightType;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.impl.OptimisticAdjacencyMapGraph;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.NodePath;
+
+/**
+ * Node of an {@link OptimisticAdjacencyMapGraph}. Arcs are added and tags changed holding the
+ * graph write lock and queries are run as optimistic graph reads.
+ * */
+public class OptimisticAdjacencyMapNode extends AdjacencyMapNode {
+
+	private static final long serialVersionUID = -8418036628714929337L;
+
+	public OptimisticAdjacencyMapNode(OptimisticAdjacencyMapGraph owner, Measurable<? extends Object> content) {
+		super(owner, content);
+	}
+
+	private OptimisticAdjacencyMapGraph graph() {
+		return (OptimisticAdjacencyMapGraph) this.owner;
+	}
+
+	@Override
+	public Arc addArcTo(final Node targetNode, final Measurable<? extends Object> arcContent) {
+		return graph().write(new Supplier<Arc>() {
+			@Override
+			public Arc get() {
+				return OptimisticAdjacencyMapNode.super.addArcTo(targetNode, arcContent);
+			}
+		});
+	}
+
+	/**
+	 * Adds both arcs at once
+	 * */
+	@Override
+	public Arc addArc(final Node aNode, final Measurable<? extends Object> arcContent) {
+		return graph().write(new Supplier<Arc>() {
+			@Override
+			public Arc get() {
+				Arc arc = OptimisticAdjacencyMapNode.super.addArcTo(aNode, arcContent);
+				((OptimisticAdjacencyMapNode) aNode).addArcToUnlocked(OptimisticAdjacencyMapNode.this, arcContent);
+				return arc;
+			}
+		});
+	}
+
+	/**
+	 * Changes the tag holding the write lock, as it updates the graph tag index
+	 * */
+	@Override
+	public void setTag(final String tag) {
+		graph().write(new Supplier<Void>() {
+			@Override
+			public Void get() {
+				OptimisticAdjacencyMapNode.super.setTag(tag);
+				return null;
+			}
+		});
+	}
+
+	private Arc addArcToUnlocked(Node targetNode, Measurable<? extends Object> arcContent) {
+		return super.addArcTo(targetNode, arcContent);
+	}
+
+	@Override
+	public NodePath findShortestPathTo(final Node destination, final ShortestPathStrategy strategy, final WeightType weightType) {
+		return graph().read(new Supplier<NodePath>() {
+			@Override
+			public NodePath get() {
+				return OptimisticAdjacencyMapNode.super.findShortestPathTo(destination, strategy, weightType);
+			}
+		});
+	}
+
+	@Override
+	public Map<Node, NodePath> findShortestPathToEveryOtherNode(final ShortestPathStrategy strategy, final WeightType weightType) {
+		return graph().read(new Supplier<Map<Node, NodePath>>() {
+			@Override
+			public Map<Node, NodePath> get() {
+				return OptimisticAdjacencyMapNode.super.findShortestPathToEveryOtherNode(strategy, weightType);
+			}
+		});
+	}
+
+	@Override
+	public List<Node> getReachableNeighbors() {
+		return graph().read(new Supplier<List<Node>>() {
+			@Override
+			public List<Node> get() {
+				return OptimisticAdjacencyMapNode.super.getReachableNeighbors();
+			}
+		});
+	}
+
+	@Override
+	public boolean isConnectedTo(final Node aNode) {
+		return graph().read(new Supplier<Boolean>() {
+			@Override
+			public Boolean get() {
+				return OptimisticAdjacencyMapNode.super.isConnectedTo(aNode);
+			}
+		});
+	}
+
+	@Override
+	public boolean isDirectionallyConnectedTo(final Node aNode) {
+		return graph().read(new Supplier<Boolean>() {
+			@Override
+			public Boolean get() {
+				return OptimisticAdjacencyMapNode.super.isDirectionallyConnectedTo(aNode);
+			}
+		});
+	}
+}
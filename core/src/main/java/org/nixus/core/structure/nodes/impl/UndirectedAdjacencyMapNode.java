@@ -0,0 +1,106 @@
+package org.nixus.core.structure.nodes.impl;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.impl.MemoryFootprint;
+import org.nixus.core.structure.nodes.Node;
+
+
+/**
+ * Node implementation for {@link UndirectedAdjacencyMapGraph}'s. Every arc is 
+ * stored once and shared by both of its nodes.
+ * */
+public class UndirectedAdjacencyMapNode extends AbstractNode {
+
+	private static final long serialVersionUID = -2214360151924411787L;
+	
+	/**
+	 * Arcs of this node by its neighbor node
+	 * */
+	private Map<Node, Arc> arcs;
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public UndirectedAdjacencyMapNode(Graph owner, Measurable<? extends Object> content) {
+		super(owner, content);
+		this.arcs = new LinkedHashMap<Node, Arc>();
+	}
+
+	@Override
+	public void linkArcOut(Arc arc) {
+		this.arcs.put(arc.getTargetNode(), arc);
+	}
+	
+	@Override
+	public void linkArcIn(Arc arc) {
+		super.linkArcIn(arc);
+		this.arcs.put(arc.getSourceNode(), arc);
+	}
+	
+	@Override
+	public void unlinkArcOut(Arc arc) {
+		this.arcs.remove(arc.getTargetNode(), arc);
+	}
+	
+	@Override
+	public void unlinkArcIn(Arc arc) {
+		super.unlinkArcIn(arc);
+		this.arcs.remove(arc.getSourceNode(), arc);
+	}
+	
+	@Override
+	public void ensureArcCapacity(int numArcsOut, int numArcsIn) {
+		if(this.arcs.isEmpty()){
+			this.arcs = new LinkedHashMap<Node, Arc>(mapCapacityFor(numArcsOut + numArcsIn));
+		}
+	}
+	
+	/**
+	 * Same as {@link #addArcTo(Node, Measurable)}, arcs have no direction on this kind of node.
+	 * */
+	@Override
+	public Arc addArc(Node aNode, Measurable<? extends Object> arcContent) {
+		return this.addArcTo(aNode, arcContent);
+	}
+
+	@Override
+	public long estimateNodeBytes() {
+		return MemoryFootprint.nodeBytes(1, 0);
+	}
+	
+	@Override
+	public long estimateAdjacencyBytes() {
+		return MemoryFootprint.linkedHashMapBytes(this.arcs.size());
+	}
+	
+	@Override
+	public boolean isConnectedTo(Node aNode) {
+		return this.arcs.containsKey(aNode);
+	}
+
+	@Override
+	public boolean isDirectionallyConnectedTo(Node aNode) {
+		return this.arcs.containsKey(aNode);
+	}
+
+	@Override
+	public Collection<Arc> getArcsIn() {
+		return this.arcs.values();
+	}
+
+	@Override
+	public Collection<Arc> getArcsOut() {
+		return this.arcs.values();
+	}
+	
+	@Override
+	public Collection<Arc> getArcs() {
+		return this.arcs.values();
+	}
+}
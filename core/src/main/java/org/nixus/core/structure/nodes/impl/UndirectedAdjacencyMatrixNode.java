@@ -0,0 +1,63 @@
+package org.nixus.core.structure.nodes.impl;
+
+import java.util.Collection;
+
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.impl.AdjacencyMatrixGraph;
+import org.nixus.core.structure.nodes.Node;
+
+
+/**
+ * Node implementation for {@link UndirectedAdjacencyMatrixGraph}'s. Every arc is 
+ * stored once and referenced from both of its cells of the adjacency matrix.
+ * */
+public class UndirectedAdjacencyMatrixNode extends AdjacencyMatrixNode {
+
+	private static final long serialVersionUID = 3161920386520436468L;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public UndirectedAdjacencyMatrixNode(Graph owner, Measurable<? extends Object> content, int index) {
+		super(owner, content, index);
+	}
+
+	@Override
+	public void linkArcOut(Arc arc) {
+		Arc[][] adjacencyMatrix = ((AdjacencyMatrixGraph)owner).getAdjacencyMatrix();
+		int targetIndex = ((AdjacencyMatrixNode)arc.getTargetNode()).index;
+		adjacencyMatrix[this.index][targetIndex] = arc;
+		adjacencyMatrix[targetIndex][this.index] = arc;
+	}
+	
+	@Override
+	public void unlinkArcOut(Arc arc) {
+		Arc[][] adjacencyMatrix = ((AdjacencyMatrixGraph)owner).getAdjacencyMatrix();
+		int sourceIndex = ((AdjacencyMatrixNode)arc.getSourceNode()).index;
+		int targetIndex = ((AdjacencyMatrixNode)arc.getTargetNode()).index;
+		if(adjacencyMatrix[sourceIndex][targetIndex] == arc){
+			adjacencyMatrix[sourceIndex][targetIndex] = null;
+			adjacencyMatrix[targetIndex][sourceIndex] = null;
+		}
+	}
+	
+	/**
+	 * Same as {@link #addArcTo(Node, Measurable)}, arcs have no direction on this kind of node.
+	 * */
+	@Override
+	public Arc addArc(Node aNode, Measurable<? extends Object> arcContent) {
+		return this.addArcTo(aNode, arcContent);
+	}
+	
+	@Override
+	public boolean isConnectedTo(Node aNode) {
+		return this.isDirectionallyConnectedTo(aNode);
+	}
+	
+	@Override
+	public Collection<Arc> getArcs() {
+		return this.getArcsOut();
+	}
+}
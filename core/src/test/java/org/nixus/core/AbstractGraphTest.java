@@ -1,5 +1,6 @@
 package org.nixus.core;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +13,7 @@ import org.nixus.core.structure.Graph;
 import org.nixus.core.structure.auxiliary.Measurable;
 import org.nixus.core.structure.auxiliary.NodeVisitor;
 import org.nixus.core.structure.exceptions.NegativeWeightCycleFoundException;
+import org.nixus.core.structure.exceptions.NodeNotInThisGraphException;
 import org.nixus.core.structure.exceptions.NotADirectedAcyclicGraphException;
 import org.nixus.core.structure.nodes.Node;
 import org.nixus.core.structure.nodes.NodePath;
@@ -805,22 +807,171 @@ public abstract class AbstractGraphTest extends TestCase {
 		assertFalse(nodePath0.pathFound());
 	}
 	
-	private class MockContent implements Measurable<MockContent>{
+	public void testGetNodeById(){
+		Graph aGraph = buildGraph();
 		
-		int distance;
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent(), "second");
 		
-		public MockContent(int i) {
-			this.distance = i;
+		assertSame(node0, aGraph.getNodeById(0));
+		assertSame(node1, aGraph.getNodeById(1));
+		assertTrue(aGraph.contains(node1));
+		assertFalse(aGraph.contains(buildGraph().addNode(new MockContent())));
+		try {
+			aGraph.getNodeById(2);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			//Expected
 		}
-
-		public MockContent() {
-			this(0);
+	}
+	
+	public void testGetNodeByTag(){
+		Graph aGraph = buildGraph();
+		
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent(), "shared");
+		
+		assertSame(node0, aGraph.getNodeByTag("Node 0"));
+		assertSame(node1, aGraph.getNodeByTag("shared"));
+		assertNull(aGraph.getNodeByTag("missing"));
+		
+		//nodes added and retagged after the index was built
+		Node node2 = aGraph.addNode(new MockContent(), "shared");
+		Node node3 = aGraph.addNode(new MockContent());
+		assertSame(node1, aGraph.getNodeByTag("shared"));
+		assertSame(node3, aGraph.getNodeByTag("Node 3"));
+		
+		node1.setTag("renamed");
+		assertSame(node1, aGraph.getNodeByTag("renamed"));
+		assertSame(node2, aGraph.getNodeByTag("shared"));
+		node2.setTag("other");
+		assertNull(aGraph.getNodeByTag("shared"));
+	}
+	
+	public void testRemoveNode(){
+		Graph aGraph = buildGraph();
+		
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		Node node3 = aGraph.addNode(new MockContent());
+		node0.addArcTo(node1, new MockContent(1));
+		node1.addArcTo(node2, new MockContent(1));
+		node0.addArcTo(node2, new MockContent(5));
+		node2.addArcTo(node3, new MockContent(1));
+		
+		assertTrue(aGraph.remove(node1));
+		assertFalse(aGraph.remove(node1));
+		
+		assertEquals(3, aGraph.size());
+		assertFalse(aGraph.contains(node1));
+		assertEquals(Arrays.asList(node0, node2, node3), aGraph.getNodes());
+		assertEquals(2, aGraph.getArcs().size());
+		assertFalse(node0.isDirectionallyConnectedTo(node1));
+		assertEquals(1, node2.getArcsIn().size());
+		assertNull(aGraph.getNodeByTag("Node 1"));
+		assertEquals(Arrays.asList(node0, node2, node3), aGraph.breathFirstTraversal(node0));
+		assertEquals(Arrays.asList(node0, node2, node3), aGraph.getNodesInTopologicalOrder());
+		for (ShortestPathStrategy strategy : ShortestPathStrategy.values()) {
+			NodePath nodePath = node0.findShortestPathTo(node3, strategy);
+			assertEquals(6, nodePath.getPathTotalDistance());
+			assertEquals(Arrays.asList(node0, node2, node3), nodePath.getPath());
 		}
+		assertEquals(3, node0.findShortestPathToEveryOtherNode(ShortestPathStrategy.BINARY_DIJKSTRA).size());
+		
+		//ids are reclaimed by the compaction
+		aGraph.compact();
+		assertSame(node2, aGraph.getNodeById(1));
+		assertSame(node3, aGraph.getNodeById(2));
+		assertEquals(6, node0.findShortestPathTo(node3, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		Node node4 = aGraph.addNode(new MockContent(), "new");
+		node3.addArcTo(node4, new MockContent(1));
+		assertSame(node4, aGraph.getNodeById(3));
+		assertEquals(7, node0.findShortestPathTo(node4, ShortestPathStrategy.BELLMAN_FORD).getPathTotalDistance());
+	}
+	
+	public void testRemovedNodesTakeNoArcs(){
+		Graph aGraph = buildGraph();
 		
-		@Override
-		public int measure() {
-			return distance;
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		aGraph.remove(node0);
+		aGraph.remove(node1);
+		//the compaction gives the place of node0 to node2
+		aGraph.compact();
+		
+		try {
+			node0.addArcTo(node2, new MockContent(1));
+			fail();
+		} catch (NodeNotInThisGraphException e) {
+			//Expected
+		}
+		try {
+			node2.addArcTo(node1, new MockContent(1));
+			fail();
+		} catch (NodeNotInThisGraphException e) {
+			//Expected
+		}
+		try {
+			node2.addArc(node0, new MockContent(1));
+			fail();
+		} catch (NodeNotInThisGraphException e) {
+			//Expected
+		}
+		try {
+			node2.addArcTo(buildGraph().addNode(new MockContent()), new MockContent(1));
+			fail();
+		} catch (NodeNotInThisGraphException e) {
+			//Expected
 		}
+		assertTrue(aGraph.getArcs().isEmpty());
+		assertFalse(node2.isDirectionallyConnectedTo(node2));
+		assertTrue(node2.getArcsIn().isEmpty());
+	}
+	
+	public void testRemoveArc(){
+		Graph aGraph = buildGraph();
+		
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		Arc arc01 = node0.addArcTo(node1, new MockContent(1));
+		node1.addArcTo(node2, new MockContent(1));
+		node0.addArcTo(node2, new MockContent(5));
+		
+		assertTrue(aGraph.removeArc(arc01));
+		assertFalse(aGraph.removeArc(arc01));
+		
+		assertFalse(node0.isDirectionallyConnectedTo(node1));
+		assertTrue(node1.getArcsIn().isEmpty());
+		assertEquals(2, aGraph.getArcs().size());
+		assertFalse(aGraph.getArcs().contains(arc01));
+		assertEquals(5, node0.findShortestPathTo(node2, ShortestPathStrategy.BELLMAN_FORD).getPathTotalDistance());
+		assertEquals(2, aGraph.getNodesInTopologicalOrder().size() - 1);
+	}
+	
+	public void testRemoveAllAndClear(){
+		Graph aGraph = buildGraph();
+		
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		node0.addArcTo(node1, new MockContent(1));
+		node1.addArcTo(node2, new MockContent(1));
+		
+		assertTrue(aGraph.removeAll(Arrays.asList(node0, node1)));
+		assertFalse(aGraph.removeAll(Arrays.asList(node0)));
+		assertEquals(Arrays.asList(node2), aGraph.getNodes());
+		assertTrue(aGraph.getArcs().isEmpty());
+		assertTrue(node2.getArcsIn().isEmpty());
+		
+		aGraph.clear();
+		assertTrue(aGraph.isEmpty());
+		assertTrue(aGraph.getNodes().isEmpty());
+		Node node = aGraph.addNode(new MockContent());
+		assertSame(node, aGraph.getNodeById(0));
+		assertEquals("Node 0", node.getTag());
 	}
 	
 	private static class TraversalCountContent implements Measurable<TraversalCountContent>{
@@ -0,0 +1,218 @@
+package org.nixus.core;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.exceptions.NegativeWeightCycleFoundException;
+import org.nixus.core.structure.exceptions.NotADirectedAcyclicGraphException;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.NodePath;
+
+public abstract class AbstractUndirectedGraphTest extends TestCase {
+	protected abstract Graph buildGraph();
+	
+	public void testIsNotDirected(){
+		Graph aGraph = buildGraph();
+		
+		assertFalse(aGraph.isDirected());
+	}
+	
+	public void testArcIsStoredOnce(){
+		Graph aGraph = buildGraph();
+		
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		
+		Arc arc12 = node1.addArc(node2, new MockContent());
+		
+		assertEquals(1, aGraph.getArcs().size());
+		assertEquals(1, node1.getArcs().size());
+		assertEquals(1, node2.getArcs().size());
+		assertTrue(node1.getArcsOut().contains(arc12));
+		assertTrue(node1.getArcsIn().contains(arc12));
+		assertTrue(node2.getArcsOut().contains(arc12));
+		assertTrue(node2.getArcsIn().contains(arc12));
+	}
+	
+	public void testConnection(){
+		Graph aGraph = buildGraph();
+		
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		Node node3 = aGraph.addNode(new MockContent());
+
+		node1.addArcTo(node2, new MockContent());
+		
+		assertTrue(node1.isDirectionallyConnectedTo(node2));
+		assertTrue(node2.isDirectionallyConnectedTo(node1));
+		assertTrue(node1.isConnectedTo(node2));
+		assertTrue(node2.isConnectedTo(node1));
+		assertFalse(node3.isConnectedTo(node2));
+		assertFalse(node3.isConnectedTo(node1));
+	}
+	
+	public void testReachableNeighbors(){
+		Graph aGraph = buildGraph();
+		
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		Node node3 = aGraph.addNode(new MockContent());
+		
+		node1.addArc(node2, new MockContent());
+		node3.addArc(node2, new MockContent());
+		
+		List<Node> neighbors = node2.getReachableNeighbors();
+		
+		assertEquals(2, neighbors.size());
+		assertTrue(neighbors.contains(node1));
+		assertTrue(neighbors.contains(node3));
+	}
+	
+	public void testBreathFirstTraversal(){
+		Graph aGraph = buildGraph();
+		
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		Node node3 = aGraph.addNode(new MockContent());
+		
+		node1.addArc(node0, new MockContent());
+		node2.addArc(node1, new MockContent());
+		node3.addArc(node2, new MockContent());
+		
+		List<Node> bftResult = aGraph.breathFirstTraversal(node3);
+		
+		assertEquals(4, bftResult.size());
+		assertEquals(node3, bftResult.get(0));
+		assertEquals(node2, bftResult.get(1));
+		assertEquals(node1, bftResult.get(2));
+		assertEquals(node0, bftResult.get(3));
+	}
+	
+	public void testBinaryDijkstra(){
+		Graph aGraph = buildGraph();
+		
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		Node node3 = aGraph.addNode(new MockContent());
+		
+		node1.addArc(node0, new MockContent(20));
+		node2.addArc(node0, new MockContent(5));
+		node2.addArc(node1, new MockContent(5));
+		node3.addArc(node1, new MockContent(1));
+		
+		NodePath shortestPath = node0.findShortestPathTo(node3, ShortestPathStrategy.BINARY_DIJKSTRA);
+		
+		assertTrue(shortestPath.pathFound());
+		assertEquals(11, shortestPath.getPathTotalDistance());
+		List<Node> path = shortestPath.getPath();
+		assertEquals(4, path.size());
+		assertEquals(node0, path.get(0));
+		assertEquals(node2, path.get(1));
+		assertEquals(node1, path.get(2));
+		assertEquals(node3, path.get(3));
+	}
+	
+	public void testBellmanFord(){
+		Graph aGraph = buildGraph();
+		
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		Node node3 = aGraph.addNode(new MockContent());
+		
+		node1.addArc(node0, new MockContent(20));
+		node2.addArc(node0, new MockContent(5));
+		node2.addArc(node1, new MockContent(5));
+		node3.addArc(node1, new MockContent(1));
+		
+		NodePath shortestPath = node3.findShortestPathTo(node0, ShortestPathStrategy.BELLMAN_FORD);
+		
+		assertTrue(shortestPath.pathFound());
+		assertEquals(11, shortestPath.getPathTotalDistance());
+		List<Node> path = shortestPath.getPath();
+		assertEquals(4, path.size());
+		assertEquals(node3, path.get(0));
+		assertEquals(node1, path.get(1));
+		assertEquals(node2, path.get(2));
+		assertEquals(node0, path.get(3));
+	}
+	
+	public void testBellmanFordNegativeArc(){
+		Graph aGraph = buildGraph();
+		
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		
+		node0.addArc(node1, new MockContent(-1));
+		
+		try {
+			node0.findShortestPathTo(node1, ShortestPathStrategy.BELLMAN_FORD);
+			fail();
+		} catch (NegativeWeightCycleFoundException e) {
+			//Expected, an undirected negative arc is a negative cycle
+		}
+	}
+	
+	public void testTopologicalOrder(){
+		Graph aGraph = buildGraph();
+		
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		
+		node0.addArc(node1, new MockContent());
+		
+		try {
+			aGraph.getNodesInTopologicalOrder();
+			fail();
+		} catch (NotADirectedAcyclicGraphException e) {
+			//Expected
+		}
+	}
+	
+	public void testRemoveNode(){
+		Graph aGraph = buildGraph();
+		
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		Node node3 = aGraph.addNode(new MockContent());
+		node0.addArc(node1, new MockContent(1));
+		node1.addArc(node2, new MockContent(1));
+		node2.addArc(node0, new MockContent(5));
+		node2.addArc(node3, new MockContent(1));
+		
+		assertTrue(aGraph.remove(node1));
+		
+		assertEquals(2, aGraph.getArcs().size());
+		assertFalse(node0.isConnectedTo(node1));
+		assertEquals(1, node0.getArcs().size());
+		assertEquals(2, node2.getArcs().size());
+		assertEquals(6, node3.findShortestPathTo(node0, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		
+		aGraph.compact();
+		assertTrue(node2.isConnectedTo(node0));
+		assertTrue(node3.isConnectedTo(node2));
+		assertEquals(6, node0.findShortestPathTo(node3, ShortestPathStrategy.BELLMAN_FORD).getPathTotalDistance());
+	}
+	
+	public void testRemoveArc(){
+		Graph aGraph = buildGraph();
+		
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Arc arc = node0.addArc(node1, new MockContent());
+		
+		assertTrue(aGraph.removeArc(arc));
+		
+		assertFalse(node0.isConnectedTo(node1));
+		assertFalse(node1.isConnectedTo(node0));
+		assertTrue(node1.getArcs().isEmpty());
+		assertTrue(aGraph.getArcs().isEmpty());
+	}
+}
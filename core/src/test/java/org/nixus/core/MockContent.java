@@ -0,0 +1,24 @@
+package org.nixus.core;
+
+import org.nixus.core.structure.auxiliary.Measurable;
+
+/**
+ * Content of the nodes and arcs of the tests, measuring the given distance
+ * */
+public class MockContent implements Measurable<MockContent>{
+
+	int distance;
+
+	public MockContent(int i) {
+		this.distance = i;
+	}
+
+	public MockContent() {
+		this(0);
+	}
+
+	@Override
+	public int measure() {
+		return distance;
+	}
+}
@@ -0,0 +1,142 @@
+package org.nixus.core;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.generators.GraphGenerator;
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.impl.AdaptiveGraph;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.NodePath;
+
+public class TestAdaptiveGraph extends TestCase {
+
+	public void testSparseGraphsKeepTheirMaps(){
+		AdaptiveGraph aGraph = (AdaptiveGraph) new GraphGenerator(1).erdosRenyi(GraphFactory.instantiateAdaptiveGraph(), 1000, 0.002);
+
+		assertFalse(aGraph.isDense());
+		assertNull(aGraph.getAdjacencyMatrix());
+		Graph expected = new GraphGenerator(1).erdosRenyi(GraphFactory.instantiateAdjacencyMapGraph(), 1000, 0.002);
+		assertEquals(distances(expected), distances(aGraph));
+	}
+
+	public void testDenseBulkLoadsGoToTheMatrix(){
+		AdaptiveGraph aGraph = (AdaptiveGraph) new GraphGenerator(1).erdosRenyi(GraphFactory.instantiateAdaptiveGraph(), 200, 0.5);
+
+		assertTrue(aGraph.isDense());
+		//sized from the announced number of nodes
+		assertEquals(200, aGraph.getAdjacencyMatrix().length);
+		Graph expected = new GraphGenerator(1).erdosRenyi(GraphFactory.instantiateAdjacencyMapGraph(), 200, 0.5);
+		assertEquals(distances(expected), distances(aGraph));
+	}
+
+	public void testMovesToTheMatrixWhileBuilt(){
+		AdaptiveGraph aGraph = GraphFactory.instantiateAdaptiveGraph();
+		Node[] nodes = new Node[100];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = aGraph.addNode(new MockContent());
+		}
+		Arc first = nodes[0].addArcTo(nodes[1], new MockContent(1));
+		for (int i = 0; i < nodes.length && !aGraph.isDense(); i++) {
+			for (int j = 0; j < nodes.length; j++) {
+				if(i != j && !(i == 0 && j == 1)){
+					nodes[i].addArcTo(nodes[j], new MockContent(1 + (i * j) % 7));
+				}
+			}
+		}
+
+		assertTrue(aGraph.isDense());
+		assertSame(nodes[0], aGraph.getNodeById(0));
+		assertSame(first, aGraph.getAdjacencyMatrix()[0][1]);
+		assertTrue(nodes[0].isDirectionallyConnectedTo(nodes[1]));
+		assertEquals(99, nodes[0].getArcsOut().size());
+		int numArcsIn = 0;
+		for (Arc arc : aGraph.getArcs()) {
+			if(arc.getTargetNode() == nodes[1]){
+				numArcsIn++;
+			}
+		}
+		assertEquals(numArcsIn, nodes[1].getArcsIn().size());
+
+		int numArcs = aGraph.getArcs().size();
+		aGraph.removeArc(first);
+		assertFalse(nodes[0].isDirectionallyConnectedTo(nodes[1]));
+		assertEquals(numArcs - 1, aGraph.getArcs().size());
+	}
+
+	public void testSmallGraphsStaySparse(){
+		AdaptiveGraph aGraph = (AdaptiveGraph) new GraphGenerator(1).erdosRenyi(GraphFactory.instantiateAdaptiveGraph(), 20, 1);
+
+		assertFalse(aGraph.isDense());
+		aGraph.adaptRepresentation();
+		assertTrue(aGraph.isDense());
+		assertEquals(0, aGraph.getMemoryFootprint().getMatrixSlackBytes());
+		assertEquals(19, aGraph.getNodeById(3).getArcsIn().size());
+	}
+
+	public void testBackToTheMaps(){
+		AdaptiveGraph aGraph = GraphFactory.instantiateAdaptiveGraph();
+		aGraph.ensureCapacity(100, 5000);
+		assertTrue(aGraph.isDense());
+		Node[] nodes = new Node[100];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = aGraph.addNode(new MockContent());
+		}
+		for (int i = 1; i < nodes.length; i++) {
+			nodes[i - 1].addArcTo(nodes[i], new MockContent(1));
+		}
+		Map<Integer, Long> expected = distances(aGraph);
+
+		aGraph.adaptRepresentation();
+		assertFalse(aGraph.isDense());
+		assertEquals(expected, distances(aGraph));
+		assertEquals(1, nodes[50].getArcsIn().size());
+		assertSame(nodes[49], nodes[50].getArcsIn().iterator().next().getSourceNode());
+		//it is done adapting, however dense it gets
+		for (int i = 0; i < nodes.length; i++) {
+			for (int j = 0; j < nodes.length; j++) {
+				nodes[i].addArcTo(nodes[j], new MockContent(1));
+			}
+		}
+		assertFalse(aGraph.isDense());
+	}
+
+	public void testMatrixGrowthAndCompaction(){
+		AdaptiveGraph aGraph = (AdaptiveGraph) new GraphGenerator(1).erdosRenyi(GraphFactory.instantiateAdaptiveGraph(), 100, 0.6);
+		assertTrue(aGraph.isDense());
+		Node extra = aGraph.addNode(new MockContent());
+		aGraph.getNodeById(0).addArcTo(extra, new MockContent(1));
+		assertTrue(aGraph.getAdjacencyMatrix().length > 100);
+		assertTrue(aGraph.getNodeById(0).isDirectionallyConnectedTo(extra));
+
+		Node node5 = aGraph.getNodeById(5);
+		Node node6 = aGraph.getNodeById(6);
+		boolean connected = node5.isDirectionallyConnectedTo(node6);
+		aGraph.remove(aGraph.getNodeById(1));
+		aGraph.compact();
+		assertEquals(4, ((HiddenNodeAbstraction)node5).getInsertionOrder());
+		assertEquals(connected, node5.isDirectionallyConnectedTo(node6));
+		assertTrue(aGraph.getNodeById(0).isDirectionallyConnectedTo(extra));
+		for (Arc arc : aGraph.getArcs()) {
+			assertTrue(arc.getSourceNode().getArcsOut().contains(arc));
+		}
+	}
+
+	/**
+	 * Distances from the first node to the others, by insertion order
+	 * */
+	private static Map<Integer, Long> distances(Graph aGraph) {
+		Map<Integer, Long> distances = new TreeMap<Integer, Long>();
+		Map<Node, NodePath> paths = aGraph.getNodes().get(0).findShortestPathToEveryOtherNode(ShortestPathStrategy.BINARY_DIJKSTRA);
+		for (Map.Entry<Node, NodePath> entry : paths.entrySet()) {
+			distances.put(((HiddenNodeAbstraction)entry.getKey()).getInsertionOrder(), entry.getValue().getPathTotalDistance());
+		}
+		return distances;
+	}
+}
@@ -2,6 +2,8 @@ package org.nixus.core;
 
 import org.nixus.core.structure.Graph;
 import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.impl.AbstractNode;
 
 public class TestAdjacencyMapGraph extends AbstractGraphTest {
 	
@@ -10,4 +12,54 @@ public class TestAdjacencyMapGraph extends AbstractGraphTest {
 		Graph aGraph = GraphFactory.instantiateAdjacencyMapGraph();
 		return aGraph;
 	}
+	
+	public void testRemovedNodesKeepTheirIdsUntilCompaction(){
+		Graph aGraph = buildGraph();
+		Node[] nodes = new Node[4];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = aGraph.addNode(new MockContent());
+		}
+		
+		aGraph.remove(nodes[1]);
+		assertSame(nodes[2], aGraph.getNodeById(2));
+		try {
+			aGraph.getNodeById(1);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			//Expected
+		}
+		assertEquals("Node 4", aGraph.addNode(new MockContent()).getTag());
+		
+		aGraph.remove(nodes[0]);
+		aGraph.remove(nodes[2]);
+		//more than half of the places were empty
+		assertSame(nodes[3], aGraph.getNodeById(0));
+		assertEquals(2, aGraph.getNodes().size());
+	}
+	
+	@SuppressWarnings("deprecation")
+	public void testDeprecatedNodeState(){
+		Graph aGraph = buildGraph();
+		AbstractNode nodeA = (AbstractNode) aGraph.addNode(new MockContent());
+		AbstractNode nodeB = (AbstractNode) aGraph.addNode(new MockContent());
+		nodeA.addArcTo(nodeB, new MockContent(1));
+		nodeA.addArcTo(aGraph.addNode(new MockContent()), new MockContent(1));
+		aGraph.addNode(new MockContent()).addArcTo(nodeB, new MockContent(1));
+		
+		assertFalse(nodeB.wasVisited());
+		nodeB.setVisited(true);
+		assertTrue(nodeB.wasVisited());
+		assertFalse(nodeA.wasVisited());
+		nodeB.setVisited(false);
+		assertFalse(nodeB.wasVisited());
+		
+		assertTrue(nodeA.hasNoMoreIncomingArcs());
+		assertFalse(nodeB.hasNoMoreIncomingArcs());
+		nodeB.decCurrentIncomingArcs();
+		assertFalse(nodeB.hasNoMoreIncomingArcs());
+		nodeB.decCurrentIncomingArcs();
+		assertTrue(nodeB.hasNoMoreIncomingArcs());
+		nodeB.resetCurrentIncomingArcs();
+		assertFalse(nodeB.hasNoMoreIncomingArcs());
+	}
 }
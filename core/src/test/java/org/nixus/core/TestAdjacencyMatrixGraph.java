@@ -1,7 +1,9 @@
 package org.nixus.core;
 
+import org.nixus.core.strategies.ShortestPathStrategy;
 import org.nixus.core.structure.Graph;
 import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.nodes.Node;
 
 
 public class TestAdjacencyMatrixGraph extends AbstractGraphTest {
@@ -12,4 +14,23 @@ public class TestAdjacencyMatrixGraph extends AbstractGraphTest {
 		return aGraph;
 	}
 	
+	public void testCompactionMovesMatrixRows(){
+		Graph aGraph = buildGraph();
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		Node node3 = aGraph.addNode(new MockContent());
+		node2.addArcTo(node3, new MockContent(2));
+		node3.addArcTo(node0, new MockContent(3));
+		
+		aGraph.remove(node1);
+		aGraph.compact();
+		
+		assertTrue(node2.isDirectionallyConnectedTo(node3));
+		assertTrue(node3.isDirectionallyConnectedTo(node0));
+		assertFalse(node0.isDirectionallyConnectedTo(node2));
+		assertEquals(1, node3.getArcsIn().size());
+		assertEquals(1, node3.getArcsOut().size());
+		assertEquals(5, node2.findShortestPathTo(node0, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+	}
 }
@@ -0,0 +1,216 @@
+package org.nixus.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.io.BinaryGraphFormat;
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.ConstantMeasure;
+import org.nixus.core.structure.exceptions.GraphFormatException;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.nodes.Node;
+
+public class TestBinaryGraphFormat extends TestCase {
+
+	public void testAdjacencyMapGraphRoundTrip() throws IOException{
+		Graph original = buildSampleGraph(GraphFactory.instantiateAdjacencyMapGraph());
+
+		Graph read = roundTrip(original, GraphFactory.instantiateAdjacencyMapGraph());
+
+		assertSameGraph(original, read);
+		//the arcs of each node are written sorted by target
+		Iterator<Arc> arcs = read.getNodes().get(0).getArcsOut().iterator();
+		assertEquals("second", arcs.next().getTargetNode().getTag());
+		assertEquals("Node 3", arcs.next().getTargetNode().getTag());
+	}
+
+	public void testParallelArcsRoundTrip() throws IOException{
+		Graph original = buildSampleGraph(GraphFactory.instantiateAdjacencyMapGraph());
+		List<Node> nodes = original.getNodes();
+		nodes.get(0).addArcTo(nodes.get(1), ConstantMeasure.valueOf(7));
+		nodes.get(4).addArcTo(nodes.get(0), ConstantMeasure.valueOf(2));
+		nodes.get(0).addArcTo(nodes.get(1), ConstantMeasure.valueOf(9));
+
+		Graph read = roundTrip(original, GraphFactory.instantiateAdjacencyMapGraph());
+
+		assertEquals(9, read.getArcs().size());
+		List<String> measures = new ArrayList<String>();
+		for (Arc arc : read.getArcs()) {
+			if(arc.getSourceNode() == read.getNodes().get(0)){
+				measures.add(arc.getTargetNode().getTag() + ":" + arc.getArcContent().measure());
+			}
+		}
+		assertEquals("[second:20, second:7, second:9, Node 3:4]", measures.toString());
+		assertSameGraph(read, roundTrip(read, GraphFactory.instantiateAdjacencyMapGraph()));
+	}
+
+	public void testAdjacencyMatrixGraphRoundTrip() throws IOException{
+		Graph original = buildSampleGraph(GraphFactory.instantiateAdjacencyMatrixGraph());
+
+		assertSameGraph(original, roundTrip(original, GraphFactory.instantiateAdjacencyMatrixGraph()));
+	}
+
+	public void testAcrossImplementations() throws IOException{
+		Graph original = buildSampleGraph(GraphFactory.instantiateAdjacencyMapGraph());
+
+		assertSameGraph(original, roundTrip(original, GraphFactory.instantiateAdjacencyMatrixGraph()));
+	}
+
+	public void testUndirectedRoundTrip() throws IOException{
+		Graph original = buildSampleGraph(GraphFactory.instantiateUndirectedAdjacencyMapGraph());
+
+		Graph read = roundTrip(original, GraphFactory.instantiateUndirectedAdjacencyMatrixGraph());
+
+		assertSameGraph(original, read);
+		assertEquals(original.getArcs().size(), read.getArcs().size());
+	}
+
+	public void testDirectionMismatch() throws IOException{
+		Graph original = buildSampleGraph(GraphFactory.instantiateUndirectedAdjacencyMapGraph());
+
+		try {
+			roundTrip(original, GraphFactory.instantiateAdjacencyMapGraph());
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+	}
+
+	public void testLongChain() throws IOException{
+		Graph original = GraphFactory.instantiateAdjacencyMapGraph();
+		int length = 100000;
+		Node previous = original.addNode(ConstantMeasure.valueOf(0));
+		for (int i = 1; i < length; i++) {
+			Node node = original.addNode(ConstantMeasure.valueOf(i));
+			previous.addArcTo(node, ConstantMeasure.valueOf(1));
+			previous = node;
+		}
+
+		Graph read = roundTrip(original, GraphFactory.instantiateAdjacencyMapGraph());
+
+		assertEquals(length, read.size());
+		assertEquals(length - 1, read.getArcs().size());
+		Node first = read.getNodes().get(0);
+		Node last = read.getNodes().get(length - 1);
+		assertEquals(length - 1, first.findShortestPathTo(last, ShortestPathStrategy.DAG).getPathTotalDistance());
+	}
+
+	public void testGraphWithRemovedNodes() throws IOException{
+		Graph original = buildSampleGraph(GraphFactory.instantiateAdjacencyMapGraph());
+		original.remove(original.getNodes().get(3));
+
+		Graph read = roundTrip(original, GraphFactory.instantiateAdjacencyMapGraph());
+
+		assertSameGraph(original, read);
+		//the nodes are renumbered, keeping the tags they had
+		assertEquals("Node 4", read.getNodes().get(3).getTag());
+	}
+
+	public void testFileRoundTrip() throws IOException{
+		Graph original = buildSampleGraph(GraphFactory.instantiateAdjacencyMapGraph());
+		Path file = Files.createTempFile("graph", ".bin");
+		try {
+			BinaryGraphFormat.write(original, file);
+			assertSameGraph(original, BinaryGraphFormat.read(file, GraphFactory.instantiateAdjacencyMapGraph()));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	public void testNotABinaryGraph() throws IOException{
+		byte[] data = "not a graph at all".getBytes("UTF-8");
+
+		try {
+			BinaryGraphFormat.read(Channels.newChannel(new ByteArrayInputStream(data)), GraphFactory.instantiateAdjacencyMapGraph());
+			fail();
+		} catch (GraphFormatException e) {
+			//Expected
+		}
+	}
+
+	public void testTruncatedData() throws IOException{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryGraphFormat.write(buildSampleGraph(GraphFactory.instantiateAdjacencyMapGraph()), Channels.newChannel(out));
+		byte[] data = out.toByteArray();
+		byte[] truncated = new byte[data.length - 3];
+		System.arraycopy(data, 0, truncated, 0, truncated.length);
+
+		try {
+			BinaryGraphFormat.read(Channels.newChannel(new ByteArrayInputStream(truncated)), GraphFactory.instantiateAdjacencyMapGraph());
+			fail();
+		} catch (IOException e) {
+			//Expected
+		}
+	}
+
+	/**
+	 * Arcs of a node as text, sorted as matrix graphs don't keep insertion order
+	 * */
+	private List<String> describeArcs(Node node) {
+		List<String> arcs = new ArrayList<String>();
+		for (Arc arc : node.getArcsOut()) {
+			arcs.add(arc.getSourceNode().getTag() + "->" + arc.getTargetNode().getTag() + ":" + arc.getArcContent().measure());
+		}
+		Collections.sort(arcs);
+		return arcs;
+	}
+
+	private Graph roundTrip(Graph original, Graph emptyGraph) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryGraphFormat.write(original, Channels.newChannel(out));
+		return BinaryGraphFormat.read(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())), emptyGraph);
+	}
+
+	private Graph buildSampleGraph(Graph aGraph) {
+		Node node0 = aGraph.addNode(ConstantMeasure.valueOf(3));
+		Node node1 = aGraph.addNode(ConstantMeasure.valueOf(-7), "second");
+		Node node2 = aGraph.addNode(ConstantMeasure.valueOf(5000), "tercero \u00e1");
+		Node node3 = aGraph.addNode(null);
+		Node node4 = aGraph.addNode(ConstantMeasure.valueOf(0));
+
+		node0.addArcTo(node3, ConstantMeasure.valueOf(4));
+		node0.addArcTo(node1, ConstantMeasure.valueOf(20));
+		node1.addArcTo(node2, ConstantMeasure.valueOf(-2));
+		node3.addArcTo(node2, ConstantMeasure.valueOf(100000));
+		node2.addArcTo(node4, ConstantMeasure.valueOf(1));
+		node4.addArcTo(node4, ConstantMeasure.valueOf(0));
+		return aGraph;
+	}
+
+	private void assertSameGraph(Graph expected, Graph actual) {
+		assertEquals(expected.isDirected(), actual.isDirected());
+		assertEquals(expected.size(), actual.size());
+		assertEquals(expected.getArcs().size(), actual.getArcs().size());
+		List<Node> expectedNodes = expected.getNodes();
+		List<Node> actualNodes = actual.getNodes();
+		for (int i = 0; i < expectedNodes.size(); i++) {
+			Node expectedNode = expectedNodes.get(i);
+			Node actualNode = actualNodes.get(i);
+			assertEquals(expectedNode.getTag(), actualNode.getTag());
+			assertEquals(expectedNode.getContent().measure(), actualNode.getContent().measure());
+			assertEquals(describeArcs(expectedNode), describeArcs(actualNode));
+		}
+		if(!expected.isDirected()){
+			//the negative sample arc is a negative cycle both ways
+			return;
+		}
+		for (int i = 0; i < expectedNodes.size(); i++) {
+			Node expectedSource = expectedNodes.get(0);
+			Node actualSource = actualNodes.get(0);
+			assertEquals(expectedSource.findShortestPathTo(expectedNodes.get(i), ShortestPathStrategy.BELLMAN_FORD).getPathTotalDistance(),
+					actualSource.findShortestPathTo(actualNodes.get(i), ShortestPathStrategy.BELLMAN_FORD).getPathTotalDistance());
+		}
+	}
+}
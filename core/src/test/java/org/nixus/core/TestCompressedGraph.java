@@ -0,0 +1,289 @@
+package org.nixus.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.generators.GraphGenerator;
+import org.nixus.core.generators.WeightDistribution;
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.BitReader;
+import org.nixus.core.structure.auxiliary.BitWriter;
+import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.impl.CompressedGraph;
+import org.nixus.core.structure.impl.CompressedGraphBuilder;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.NodePath;
+
+public class TestCompressedGraph extends TestCase {
+
+	public void testCodes(){
+		Random random = new Random(5);
+		long[] values = new long[1000];
+		for (int i = 0; i < values.length; i++) {
+			//every magnitude, and the edges of the ranges of each code
+			values[i] = i < 70 ? i : (random.nextLong() >>> (1 + random.nextInt(40))) + (i % 3) - 1;
+			values[i] = Math.max(0, values[i]);
+		}
+		BitWriter writer = new BitWriter(0);
+		long expectedLength = 0;
+		for (long value : values) {
+			assertEquals(BitWriter.gammaLength(value), writer.writeGamma(value));
+			assertEquals(BitWriter.zetaLength(value, 3), writer.writeZeta(value, 3));
+			assertEquals(BitWriter.zetaLength(value, 1), writer.writeZeta(value, 1));
+			writer.writeBits(value, 37);
+			writer.writeUnary((int) (value % 70));
+			expectedLength += BitWriter.gammaLength(value) + BitWriter.zetaLength(value, 3) + BitWriter.zetaLength(value, 1)
+					+ 37 + value % 70 + 1;
+		}
+		assertEquals(expectedLength, writer.length());
+		BitReader reader = new BitReader(writer.toArray(), 0);
+		for (long value : values) {
+			assertEquals(value, reader.readGamma());
+			assertEquals(value, reader.readZeta(3));
+			assertEquals(value, reader.readZeta(1));
+			assertEquals(value & ((1L << 37) - 1), reader.readBits(37));
+			assertEquals(value % 70, reader.readUnary());
+		}
+		assertEquals(expectedLength, reader.getPosition());
+	}
+
+	public void testSameGraph(){
+		GraphGenerator generator = new GraphGenerator(3);
+		generator.setWeights(WeightDistribution.uniform(-3, 50));
+		Graph expected = generator.scaleFree(GraphFactory.instantiateAdjacencyMapGraph(), 2000, 12000, 2.2);
+
+		CompressedGraph aGraph = CompressedGraph.compress(expected);
+
+		assertTrue(aGraph.isWeighted());
+		assertEquals(expected.size(), aGraph.size());
+		int numArcs = 0;
+		int[] inDegrees = new int[expected.size()];
+		for (Node node : expected.getNodes()) {
+			for (Node neighbor : node.getReachableNeighbors()) {
+				inDegrees[((HiddenNodeAbstraction)neighbor).getInsertionOrder()]++;
+			}
+		}
+		CompressedGraph.NodeIterator iterator = aGraph.nodeIterator();
+		for (Node node : expected.getNodes()) {
+			int index = ((HiddenNodeAbstraction)node).getInsertionOrder();
+			Map<Integer, Integer> arcs = new TreeMap<Integer, Integer>();
+			for (Arc arc : node.getArcsOut()) {
+				arcs.put(((HiddenNodeAbstraction)arc.getTargetNode()).getInsertionOrder(), arc.getArcContent().measure());
+			}
+			Map<Integer, Integer> compressedArcs = new TreeMap<Integer, Integer>();
+			for (Arc arc : aGraph.getNodeById(index).getArcsOut()) {
+				assertEquals(index, ((HiddenNodeAbstraction)arc.getSourceNode()).getInsertionOrder());
+				compressedArcs.put(((HiddenNodeAbstraction)arc.getTargetNode()).getInsertionOrder(), arc.getArcContent().measure());
+			}
+			assertEquals(arcs, compressedArcs);
+			numArcs += arcs.size();
+			assertEquals(inDegrees[index], aGraph.getNodeById(index).getArcsIn().size());
+			Map<Integer, Integer> arcsIn = new TreeMap<Integer, Integer>();
+			for (Arc arc : node.getArcsIn()) {
+				arcsIn.put(((HiddenNodeAbstraction)arc.getSourceNode()).getInsertionOrder(), arc.getArcContent().measure());
+			}
+			Map<Integer, Integer> compressedArcsIn = new TreeMap<Integer, Integer>();
+			for (Arc arc : aGraph.getNodeById(index).getArcsIn()) {
+				assertEquals(index, ((HiddenNodeAbstraction)arc.getTargetNode()).getInsertionOrder());
+				compressedArcsIn.put(((HiddenNodeAbstraction)arc.getSourceNode()).getInsertionOrder(), arc.getArcContent().measure());
+			}
+			assertEquals(arcsIn, compressedArcsIn);
+
+			assertEquals(index, iterator.nextNode());
+			assertTrue(Arrays.equals(aGraph.getSuccessors(index), iterator.successors()));
+			assertEquals(arcs.size(), iterator.outDegree());
+			int k = 0;
+			for (int measure : arcs.values()) {
+				assertEquals(measure, iterator.measures()[k++]);
+			}
+		}
+		assertFalse(iterator.hasNext());
+		//the map graphs list the parallel arcs their maps don't keep
+		assertEquals(numArcs, aGraph.getArcs().size());
+	}
+
+	public void testSameQueries(){
+		Graph expected = new GraphGenerator(4).erdosRenyi(GraphFactory.instantiateAdjacencyMapGraph(), 1500, 0.004);
+
+		CompressedGraph aGraph = CompressedGraph.compress(expected);
+
+		assertFalse(aGraph.isWeighted());
+		Node expectedStart = expected.getNodeById(0);
+		Node start = aGraph.getNodeById(0);
+		//the compressed lists are sorted, the nodes are reached in another order
+		assertEquals(indexes(expected.breathFirstTraversal(expectedStart)), indexes(aGraph.breathFirstTraversal(start)));
+		for (ShortestPathStrategy strategy : new ShortestPathStrategy[]{ShortestPathStrategy.BINARY_DIJKSTRA, ShortestPathStrategy.BELLMAN_FORD}) {
+			assertEquals(distances(expectedStart.findShortestPathToEveryOtherNode(strategy)),
+					distances(start.findShortestPathToEveryOtherNode(strategy)));
+		}
+		for (Node node : expected.getNodes()) {
+			Node compressedNode = aGraph.getNodeById(((HiddenNodeAbstraction)node).getInsertionOrder());
+			for (Node other : expected.getNodes().subList(0, 50)) {
+				assertEquals(node.isDirectionallyConnectedTo(other),
+						compressedNode.isDirectionallyConnectedTo(aGraph.getNodeById(((HiddenNodeAbstraction)other).getInsertionOrder())));
+			}
+		}
+
+		Graph dag = new GraphGenerator(4).randomDag(GraphFactory.instantiateAdjacencyMapGraph(), 500, 4);
+		CompressedGraph compressedDag = CompressedGraph.compress(dag);
+		assertEquals(distances(dag.getNodeById(0).findShortestPathToEveryOtherNode(ShortestPathStrategy.DAG)),
+				distances(compressedDag.getNodeById(0).findShortestPathToEveryOtherNode(ShortestPathStrategy.DAG)));
+	}
+
+	/**
+	 * Neighbors with close indexes sharing most of their successors, as pages of a site do
+	 * */
+	public void testLinkGraphsCompressWell(){
+		int numNodes = 5000;
+		Random random = new Random(7);
+		CompressedGraphBuilder builder = new CompressedGraphBuilder(numNodes, false);
+		CompressedGraphBuilder noReferences = new CompressedGraphBuilder(numNodes, false, 0, 0);
+		int[][] lists = new int[numNodes][];
+		for (int node = 0; node < numNodes; node++) {
+			int site = node / 100 * 100;
+			int[] successors = new int[30];
+			for (int i = 0; i < 20; i++) {
+				//the navigation of the site
+				successors[i] = site + i;
+			}
+			for (int i = 20; i < successors.length; i++) {
+				successors[i] = Math.min(numNodes - 1, node + 1 + random.nextInt(50));
+			}
+			int count = distinct(successors);
+			lists[node] = Arrays.copyOf(successors, count);
+			builder.addSuccessors(successors, null, count);
+			noReferences.addSuccessors(successors, null, count);
+		}
+		CompressedGraph aGraph = builder.build();
+		CompressedGraph unreferenced = noReferences.build();
+
+		assertTrue(String.valueOf(aGraph.getBitsPerArc()), aGraph.getBitsPerArc() < 4);
+		assertTrue(aGraph.getBitsPerArc() + " " + unreferenced.getBitsPerArc(), aGraph.getNumBits() < unreferenced.getNumBits() * 2 / 3);
+		//far less than the 32 bit ids of an uncompressed array
+		assertTrue(aGraph.getMemoryFootprint().getTotalBytes() < aGraph.getNumArcs() * 2L);
+		CompressedGraph.NodeIterator iterator = aGraph.nodeIterator();
+		for (int node = numNodes - 1; node >= 0; node--) {
+			assertTrue(Arrays.equals(lists[node], aGraph.getSuccessors(node)));
+			assertTrue(Arrays.equals(lists[node], unreferenced.getSuccessors(node)));
+		}
+		for (int node = 0; node < numNodes; node++) {
+			iterator.nextNode();
+			assertTrue(Arrays.equals(lists[node], iterator.successors()));
+		}
+	}
+
+	public void testBuilderValidation(){
+		CompressedGraphBuilder builder = new CompressedGraphBuilder(3, true);
+		try {
+			builder.addSuccessors(new int[]{1, 2, 1}, new int[]{1, 1, 1}, 3);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+		try {
+			builder.addSuccessors(new int[]{3}, new int[]{1}, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+		try {
+			builder.addSuccessors(new int[]{1}, null, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+		assertEquals(0, builder.addSuccessors(new int[]{2, 0, 1, 5}, new int[]{-7, 0, Integer.MAX_VALUE, 5}, 3));
+		assertEquals(1, builder.addSuccessors(new int[]{2}, new int[]{Integer.MIN_VALUE}, 1));
+		CompressedGraph aGraph = builder.build();
+		try {
+			builder.addSuccessors(new int[0], new int[0], 0);
+			fail();
+		} catch (IllegalStateException e) {
+			//Expected
+		}
+
+		assertEquals(3, aGraph.size());
+		assertEquals(4, aGraph.getNumArcs());
+		assertTrue(Arrays.equals(new int[]{0, 1, 2}, aGraph.getSuccessors(0)));
+		assertEquals(0, aGraph.getSuccessors(2).length);
+		assertEquals(Integer.MAX_VALUE, aGraph.getArc(1).getArcContent().measure());
+		assertEquals(-7, aGraph.getArc(2).getArcContent().measure());
+		assertEquals(Integer.MIN_VALUE, aGraph.getArc(3).getArcContent().measure());
+		assertEquals(2, aGraph.getNodeById(2).getArcsIn().size());
+		assertSame(aGraph.getNodeById(1), aGraph.getArc(3).getSourceNode());
+	}
+
+	public void testReadOnly(){
+		CompressedGraph aGraph = CompressedGraph.compress(new GraphGenerator(1).grid(GraphFactory.instantiateAdjacencyMapGraph(), 5, 5));
+		Node node = aGraph.getNodeById(6);
+		try {
+			aGraph.addNode(new MockContent());
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//Expected
+		}
+		try {
+			node.addArcTo(aGraph.getNodeById(0), new MockContent(1));
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//Expected
+		}
+		//the grid links each node to its neighbors in both directions
+		List<Node> sources = new ArrayList<Node>();
+		for (Arc arc : node.getArcsIn()) {
+			assertSame(node, arc.getTargetNode());
+			sources.add(arc.getSourceNode());
+		}
+		assertEquals(Arrays.asList(aGraph.getNodeById(1), aGraph.getNodeById(5), aGraph.getNodeById(7),
+				aGraph.getNodeById(11)), sources);
+		assertEquals(8, node.getArcs().size());
+		assertEquals(AbstractGraph.defaultTag(6), node.getTag());
+		assertSame(node, aGraph.getNodeByTag(node.getTag()));
+
+		try {
+			CompressedGraph.compress(GraphFactory.instantiateUndirectedAdjacencyMapGraph());
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+	}
+
+	private static int distinct(int[] values) {
+		Arrays.sort(values);
+		int count = 0;
+		for (int i = 0; i < values.length; i++) {
+			if(i == 0 || values[i] != values[i - 1]){
+				values[count++] = values[i];
+			}
+		}
+		return count;
+	}
+
+	private static Set<Integer> indexes(List<Node> nodes) {
+		Set<Integer> indexes = new TreeSet<Integer>();
+		for (Node node : nodes) {
+			indexes.add(((HiddenNodeAbstraction)node).getInsertionOrder());
+		}
+		return indexes;
+	}
+
+	private static Map<Integer, Long> distances(Map<Node, NodePath> paths) {
+		Map<Integer, Long> distances = new TreeMap<Integer, Long>();
+		for (Map.Entry<Node, NodePath> entry : paths.entrySet()) {
+			distances.put(((HiddenNodeAbstraction)entry.getKey()).getInsertionOrder(), entry.getValue().getPathTotalDistance());
+		}
+		return distances;
+	}
+}
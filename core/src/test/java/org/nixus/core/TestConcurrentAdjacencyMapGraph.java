@@ -0,0 +1,280 @@
+package org.nixus.core;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.nixus.core.strategies.NodeOrdering;
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.GraphChangeListener;
+import org.nixus.core.structure.exceptions.NodeNotInThisGraphException;
+import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
+import org.nixus.core.structure.nodes.Node;
+
+public class TestConcurrentAdjacencyMapGraph extends AbstractGraphTest {
+
+	private static final int NUM_THREADS = 8;
+
+	@Override
+	protected Graph buildGraph() {
+		return GraphFactory.instantiateConcurrentAdjacencyMapGraph();
+	}
+
+	public void testConcurrentNodes() throws InterruptedException{
+		final Graph aGraph = buildGraph();
+		final int nodesPerThread = 2000;
+
+		runConcurrently(new Task() {
+			@Override
+			public void run(int thread) {
+				for (int i = 0; i < nodesPerThread; i++) {
+					aGraph.addNode(new MockContent(thread));
+				}
+			}
+		});
+
+		assertEquals(NUM_THREADS * nodesPerThread, aGraph.size());
+		List<Node> nodes = aGraph.getNodes();
+		Set<String> tags = new HashSet<String>();
+		for (int i = 0; i < nodes.size(); i++) {
+			assertEquals(i, ((HiddenNodeAbstraction) nodes.get(i)).getInsertionOrder());
+			assertEquals("Node " + i, nodes.get(i).getTag());
+			tags.add(nodes.get(i).getTag());
+		}
+		assertEquals(nodes.size(), tags.size());
+	}
+
+	/**
+	 * Every thread links its own chain while all of them add arcs into and out of a shared hub
+	 * */
+	public void testConcurrentArcs() throws InterruptedException{
+		final Graph aGraph = buildGraph();
+		final Node hub = aGraph.addNode(new MockContent());
+		final int chainLength = 1500;
+
+		runConcurrently(new Task() {
+			@Override
+			public void run(int thread) {
+				Node previous = hub;
+				for (int i = 0; i < chainLength; i++) {
+					Node node = aGraph.addNode(new MockContent());
+					previous.addArcTo(node, new MockContent(1));
+					node.addArcTo(hub, new MockContent(thread));
+					previous = node;
+				}
+			}
+		});
+
+		assertEquals(NUM_THREADS * chainLength * 2, aGraph.getArcs().size());
+		assertEquals(NUM_THREADS, hub.getArcsOut().size());
+		assertEquals(NUM_THREADS * chainLength, hub.getArcsIn().size());
+		int linkedArcs = 0;
+		for (Node node : aGraph.getNodes()) {
+			linkedArcs += node.getArcsOut().size();
+		}
+		assertEquals(aGraph.getArcs().size(), linkedArcs);
+		Node last = aGraph.getNodes().get(aGraph.size() - 1);
+		assertEquals(chainLength, hub.findShortestPathTo(last, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+	}
+
+	/**
+	 * Threads adding arcs between the same nodes in opposite directions
+	 * */
+	public void testOppositeArcsDontDeadlock() throws InterruptedException{
+		final Graph aGraph = buildGraph();
+		final Node nodeA = aGraph.addNode(new MockContent());
+		final Node nodeB = aGraph.addNode(new MockContent());
+		final int arcsPerThread = 5000;
+
+		runConcurrently(new Task() {
+			@Override
+			public void run(int thread) {
+				for (int i = 0; i < arcsPerThread; i++) {
+					if(thread % 2 == 0){
+						nodeA.addArcTo(nodeB, new MockContent(i));
+					} else {
+						nodeB.addArcTo(nodeA, new MockContent(i));
+					}
+				}
+			}
+		});
+
+		assertEquals(NUM_THREADS * arcsPerThread, aGraph.getArcs().size());
+		assertEquals(NUM_THREADS * arcsPerThread / 2, nodeA.getArcsIn().size());
+		assertTrue(nodeA.isConnectedTo(nodeB));
+		//the adjacency keeps the last arc to each node, which is the last one in the graph arcs
+		Arc lastToB = null;
+		for (Arc arc : aGraph.getArcs()) {
+			if(arc.getTargetNode() == nodeB){
+				lastToB = arc;
+			}
+		}
+		assertSame(lastToB, nodeA.getArcsOut().iterator().next());
+	}
+
+	/**
+	 * Listeners are told about every node, arc and retag, while nodes being added are tagged
+	 * */
+	public void testChangeListener() throws InterruptedException{
+		final Graph aGraph = buildGraph();
+		final AtomicInteger numNodes = new AtomicInteger();
+		final AtomicInteger numArcs = new AtomicInteger();
+		final AtomicInteger numRetags = new AtomicInteger();
+		((AbstractGraph) aGraph).addChangeListener(new GraphChangeListener() {
+			@Override
+			public void nodeAdded(Node node) {
+				numNodes.incrementAndGet();
+			}
+			@Override
+			public void arcAdded(Arc arc) {
+				numArcs.incrementAndGet();
+			}
+			@Override
+			public void nodeTagChanged(Node node, String oldTag) {
+				numRetags.incrementAndGet();
+			}
+			@Override
+			public void nodeRemoved(Node node) {
+			}
+			@Override
+			public void arcRemoved(Arc arc) {
+			}
+			@Override
+			public void nodesRenumbered() {
+			}
+		});
+		final int nodesPerThread = 500;
+
+		runConcurrently(new Task() {
+			@Override
+			public void run(int thread) {
+				Node previous = aGraph.addNode(new MockContent(), "First " + thread);
+				for (int i = 1; i < nodesPerThread; i++) {
+					Node node = aGraph.addNode(new MockContent());
+					previous.addArcTo(node, new MockContent(1));
+					previous = node;
+				}
+				previous.setTag("Last " + thread);
+			}
+		});
+
+		assertEquals(NUM_THREADS * nodesPerThread, numNodes.get());
+		assertEquals(NUM_THREADS * (nodesPerThread - 1), numArcs.get());
+		assertEquals(NUM_THREADS, numRetags.get());
+		for (int t = 0; t < NUM_THREADS; t++) {
+			assertEquals(nodesPerThread - 1, aGraph.getNodeByTag("First " + t).findShortestPathTo(
+					aGraph.getNodeByTag("Last " + t), ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		}
+	}
+
+	/**
+	 * Removals are not supported
+	 * */
+	@Override
+	public void testRemoveNode(){
+		Graph aGraph = buildGraph();
+		Node node = aGraph.addNode(new MockContent());
+		try {
+			aGraph.remove(node);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//Expected
+		}
+		assertTrue(aGraph.contains(node));
+	}
+
+	@Override
+	public void testRemoveArc(){
+		Graph aGraph = buildGraph();
+		Node node = aGraph.addNode(new MockContent());
+		Arc arc = node.addArcTo(aGraph.addNode(new MockContent()), new MockContent());
+		try {
+			aGraph.removeArc(arc);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//Expected
+		}
+		assertTrue(node.getArcsOut().contains(arc));
+	}
+
+	@Override
+	public void testRemoveAllAndClear(){
+		Graph aGraph = buildGraph();
+		aGraph.addNode(new MockContent());
+		try {
+			aGraph.clear();
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//Expected
+		}
+		assertEquals(1, aGraph.size());
+	}
+
+	public void testReorder(){
+		Graph aGraph = buildGraph();
+		Node node = aGraph.addNode(new MockContent());
+		node.addArcTo(aGraph.addNode(new MockContent()), new MockContent(1));
+		try {
+			((AbstractGraph) aGraph).reorder(NodeOrdering.BREADTH_FIRST);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//Expected
+		}
+		assertSame(node, aGraph.getNodes().get(0));
+	}
+
+	/**
+	 * Nodes are never removed, only those of other graphs are refused
+	 * */
+	@Override
+	public void testRemovedNodesTakeNoArcs(){
+		Graph aGraph = buildGraph();
+		Node node = aGraph.addNode(new MockContent());
+		try {
+			node.addArcTo(buildGraph().addNode(new MockContent()), new MockContent(1));
+			fail();
+		} catch (NodeNotInThisGraphException e) {
+			//Expected
+		}
+		assertTrue(aGraph.getArcs().isEmpty());
+	}
+
+	private void runConcurrently(final Task task) throws InterruptedException {
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		Thread[] threads = new Thread[NUM_THREADS];
+		for (int t = 0; t < NUM_THREADS; t++) {
+			final int thread = t;
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						task.run(thread);
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+			});
+			threads[t].start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		if(failure.get() != null){
+			throw new AssertionError(failure.get());
+		}
+	}
+
+	private interface Task {
+		void run(int thread);
+	}
+}
@@ -0,0 +1,198 @@
+package org.nixus.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.impl.ConcurrentGraphBuilder;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.nodes.Node;
+
+public class TestConcurrentGraphBuilder extends TestCase {
+
+	private static final int NUM_NODES = 300;
+
+	private static final int NUM_PRODUCERS = 4;
+
+	public void testBuildAdjacencyMapGraph() throws InterruptedException{
+		assertRing(buildRing(GraphFactory.instantiateAdjacencyMapGraph()), 1);
+	}
+
+	public void testBuildAdjacencyMatrixGraph() throws InterruptedException{
+		assertRing(buildRing(GraphFactory.instantiateAdjacencyMatrixGraph()), 1);
+	}
+
+	public void testBuildUndirectedGraph() throws InterruptedException{
+		Graph aGraph = buildRing(GraphFactory.instantiateUndirectedAdjacencyMapGraph());
+
+		assertRing(aGraph, 2);
+		Node first = aGraph.getNodes().get(0);
+		Node last = aGraph.getNodes().get(NUM_NODES - 1);
+		assertEquals(1, first.findShortestPathTo(last, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+	}
+
+	public void testArcCollector(){
+		ConcurrentGraphBuilder builder = new ConcurrentGraphBuilder(NUM_NODES);
+		for (int i = 0; i < NUM_NODES; i++) {
+			builder.addNode(new MockContent());
+		}
+
+		IntStream.range(0, NUM_NODES).boxed().parallel().collect(builder.arcCollector(
+				new ToIntFunction<Integer>() {
+					@Override
+					public int applyAsInt(Integer value) {
+						return value;
+					}
+				},
+				new ToIntFunction<Integer>() {
+					@Override
+					public int applyAsInt(Integer value) {
+						return (value + 1) % NUM_NODES;
+					}
+				},
+				new Function<Integer, Measurable<?>>() {
+					@Override
+					public Measurable<?> apply(Integer value) {
+						return new MockContent(1);
+					}
+				}));
+
+		assertRing(builder.build(GraphFactory.instantiateAdjacencyMapGraph(), 3), 1);
+	}
+
+	/**
+	 * Every size and number of threads links all the arcs, each node keeping them in the order
+	 * they were added. There are no parallel arcs, as the adjacency map keeps only the last one.
+	 * */
+	public void testRangesAndChunks(){
+		Random random = new Random(7);
+		for (int numNodes = 1; numNodes < 40; numNodes += 3) {
+			int numArcs = random.nextInt(numNodes * numNodes / 2 + 1);
+			int[] sources = new int[numArcs];
+			int[] targets = new int[numArcs];
+			boolean[][] linked = new boolean[numNodes][numNodes];
+			StringBuilder arcs = new StringBuilder();
+			StringBuilder[] arcsOut = new StringBuilder[numNodes];
+			StringBuilder[] arcsIn = new StringBuilder[numNodes];
+			for (int i = 0; i < numNodes; i++) {
+				arcsOut[i] = new StringBuilder();
+				arcsIn[i] = new StringBuilder();
+			}
+			for (int i = 0; i < numArcs; i++) {
+				do {
+					sources[i] = random.nextInt(numNodes);
+					targets[i] = random.nextInt(numNodes);
+				} while(linked[sources[i]][targets[i]]);
+				linked[sources[i]][targets[i]] = true;
+				arcs.append(i).append(' ');
+				arcsOut[sources[i]].append(' ').append(i);
+				arcsIn[targets[i]].append(' ').append(i);
+			}
+			StringBuilder expected = arcs;
+			for (int i = 0; i < numNodes; i++) {
+				expected.append("\nNode ").append(i).append(':').append(arcsOut[i]).append(" /").append(arcsIn[i]);
+			}
+			for (int numThreads = 1; numThreads <= 5; numThreads++) {
+				ConcurrentGraphBuilder builder = new ConcurrentGraphBuilder();
+				for (int i = 0; i < numNodes; i++) {
+					builder.addNode(new MockContent());
+				}
+				for (int i = 0; i < numArcs; i++) {
+					builder.addArcTo(sources[i], targets[i], new MockContent(i));
+				}
+				Graph aGraph = builder.build(GraphFactory.instantiateAdjacencyMapGraph(), numThreads);
+				assertEquals(expected.toString(), describe(aGraph));
+			}
+		}
+	}
+
+	public void testArcToMissingNode(){
+		ConcurrentGraphBuilder builder = new ConcurrentGraphBuilder();
+		builder.addNode(new MockContent());
+		builder.newArcBuffer().addArcTo(0, 1, new MockContent());
+		Graph aGraph = GraphFactory.instantiateAdjacencyMapGraph();
+
+		try {
+			builder.build(aGraph, 2);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			assertTrue(aGraph.isEmpty());
+		}
+	}
+
+	/**
+	 * Arcs of the graph and of each node, in order, as text
+	 * */
+	private String describe(Graph aGraph) {
+		StringBuilder description = new StringBuilder();
+		for (Arc arc : aGraph.getArcs()) {
+			description.append(arc.getArcContent().measure()).append(' ');
+		}
+		for (Node node : aGraph.getNodes()) {
+			description.append('\n').append(node.getTag()).append(':');
+			for (Arc arc : node.getArcsOut()) {
+				description.append(' ').append(arc.getArcContent().measure());
+			}
+			description.append(" /");
+			for (Arc arc : node.getArcsIn()) {
+				description.append(' ').append(arc.getArcContent().measure());
+			}
+		}
+		return description.toString();
+	}
+
+	/**
+	 * Builds a directed ring adding its arcs from several threads
+	 * */
+	private Graph buildRing(Graph emptyGraph) throws InterruptedException {
+		final ConcurrentGraphBuilder builder = new ConcurrentGraphBuilder();
+		for (int i = 0; i < NUM_NODES; i++) {
+			builder.addNode(new MockContent());
+		}
+		List<Thread> producers = new ArrayList<Thread>();
+		for (int p = 0; p < NUM_PRODUCERS; p++) {
+			final int producer = p;
+			producers.add(new Thread() {
+				@Override
+				public void run() {
+					for (int i = producer; i < NUM_NODES; i += NUM_PRODUCERS) {
+						builder.addArcTo(i, (i + 1) % NUM_NODES, new MockContent(1));
+					}
+				}
+			});
+		}
+		for (Thread producer : producers) {
+			producer.start();
+		}
+		for (Thread producer : producers) {
+			producer.join();
+		}
+		return builder.build(emptyGraph, 3);
+	}
+
+	private void assertRing(Graph aGraph, int arcsPerNode) {
+		assertEquals(NUM_NODES, aGraph.size());
+		assertEquals(NUM_NODES, aGraph.getArcs().size());
+		List<Node> nodes = aGraph.getNodes();
+		for (int i = 0; i < NUM_NODES; i++) {
+			Node node = nodes.get(i);
+			Node next = nodes.get((i + 1) % NUM_NODES);
+			assertTrue(node.isDirectionallyConnectedTo(next));
+			assertEquals(arcsPerNode, node.getArcsOut().size());
+			assertEquals(arcsPerNode, node.getArcsIn().size());
+		}
+		Node first = nodes.get(0);
+		Node beforeLast = nodes.get(NUM_NODES - 2);
+		assertEquals(arcsPerNode == 1 ? NUM_NODES - 2 : 2,
+				first.findShortestPathTo(beforeLast, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+	}
+}
@@ -0,0 +1,147 @@
+package org.nixus.core;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.impl.GraphBuilder;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.NodePath;
+
+public class TestGraphBuilder extends TestCase {
+
+	public void testBuildAdjacencyMapGraph(){
+		assertBuiltGraph(buildSampleGraph(GraphFactory.instantiateAdjacencyMapGraph()));
+	}
+
+	public void testBuildAdjacencyMatrixGraph(){
+		assertBuiltGraph(buildSampleGraph(GraphFactory.instantiateAdjacencyMatrixGraph()));
+	}
+
+	public void testBuildBeyondInitialMatrixSize(){
+		GraphBuilder builder = new GraphBuilder();
+		for (int i = 0; i < 200; i++) {
+			builder.addNode(new MockContent());
+		}
+		for (int i = 1; i < 200; i++) {
+			builder.addArcTo(i - 1, i, new MockContent(1));
+		}
+		Graph aGraph = builder.build(GraphFactory.instantiateAdjacencyMatrixGraph());
+
+		assertEquals(200, aGraph.size());
+		assertEquals(199, aGraph.getArcs().size());
+		Node first = aGraph.getNodes().get(0);
+		Node last = aGraph.getNodes().get(199);
+		NodePath path = first.findShortestPathTo(last, ShortestPathStrategy.BINARY_DIJKSTRA);
+		assertEquals(199, path.getPathTotalDistance());
+	}
+
+	public void testBuildUndirectedGraph(){
+		GraphBuilder builder = new GraphBuilder(2, 1);
+		builder.addNode(new MockContent());
+		builder.addNode(new MockContent());
+		builder.addArcTo(0, 1, new MockContent(3));
+
+		Graph aGraph = builder.build(GraphFactory.instantiateUndirectedAdjacencyMapGraph());
+
+		Node node0 = aGraph.getNodes().get(0);
+		Node node1 = aGraph.getNodes().get(1);
+		assertEquals(1, aGraph.getArcs().size());
+		assertTrue(node1.isDirectionallyConnectedTo(node0));
+		assertEquals(3, node1.findShortestPathTo(node0, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+	}
+
+	public void testTags(){
+		GraphBuilder builder = new GraphBuilder();
+		builder.addNode(new MockContent());
+		builder.addNode(new MockContent(), "tagged");
+
+		Graph aGraph = builder.build(GraphFactory.instantiateAdjacencyMapGraph());
+
+		assertEquals("Node 0", aGraph.getNodes().get(0).getTag());
+		assertEquals("tagged", aGraph.getNodes().get(1).getTag());
+	}
+
+	public void testArcToMissingNode(){
+		GraphBuilder builder = new GraphBuilder();
+		builder.addNode(new MockContent());
+		builder.addArcTo(0, 1, new MockContent());
+
+		try {
+			builder.build(GraphFactory.instantiateAdjacencyMapGraph());
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			//Expected
+		}
+	}
+
+	public void testNonEmptyGraph(){
+		Graph aGraph = GraphFactory.instantiateAdjacencyMapGraph();
+		aGraph.addNode(new MockContent());
+
+		try {
+			new GraphBuilder().build(aGraph);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+	}
+
+	/**
+	 * Same graph as AbstractGraphTest.testBinaryDijkstra, given to the builder out of order
+	 * */
+	private Graph buildSampleGraph(Graph emptyGraph) {
+		GraphBuilder builder = new GraphBuilder(8, 4);
+		builder.addNodes(new Measurable<?>[]{new MockContent(), new MockContent(), new MockContent(),
+				new MockContent(), new MockContent(), new MockContent(), new MockContent()});
+		builder.addArcsTo(new int[]{5, 0, 3, 1, 0, 2}, new int[]{6, 1, 6, 3, 2, 4},
+				new Measurable<?>[]{new MockContent(12), new MockContent(20), new MockContent(7),
+				new MockContent(3), new MockContent(10), new MockContent(17)});
+		builder.addArcTo(3, 2, new MockContent(15));
+		builder.addArcTo(1, 5, new MockContent(9));
+
+		assertEquals(7, builder.getNumNodes());
+		assertEquals(8, builder.getNumArcs());
+		return builder.build(emptyGraph);
+	}
+
+	private void assertBuiltGraph(Graph aGraph) {
+		assertEquals(7, aGraph.size());
+		assertEquals(8, aGraph.getArcs().size());
+
+		List<Node> nodes = aGraph.getNodes();
+		Node node0 = nodes.get(0);
+		Node node1 = nodes.get(1);
+		Node node2 = nodes.get(2);
+		Node node3 = nodes.get(3);
+		Node node6 = nodes.get(6);
+
+		assertTrue(node0.isDirectionallyConnectedTo(node1));
+		assertFalse(node1.isDirectionallyConnectedTo(node0));
+		assertEquals(2, node0.getArcsOut().size());
+		assertEquals(2, node2.getArcsIn().size());
+		for (Arc arc : node0.getArcsOut()) {
+			assertEquals(node0, arc.getSourceNode());
+			assertTrue(arc.getTargetNode().getArcsIn().contains(arc));
+		}
+
+		NodePath shortestPath = node0.findShortestPathTo(node6, ShortestPathStrategy.BINARY_DIJKSTRA);
+
+		assertEquals(30, shortestPath.getPathTotalDistance());
+		List<Node> path = shortestPath.getPath();
+		assertEquals(4, path.size());
+		assertEquals(node0, path.get(0));
+		assertEquals(node1, path.get(1));
+		assertEquals(node3, path.get(2));
+		assertEquals(node6, path.get(3));
+
+		List<Node> topologicalOrder = aGraph.getNodesInTopologicalOrder();
+		assertEquals(7, topologicalOrder.size());
+		assertEquals(node0, topologicalOrder.get(0));
+	}
+}
@@ -0,0 +1,474 @@
+package org.nixus.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.io.BinaryGraphFormat;
+import org.nixus.core.io.GraphChangeLog;
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.exceptions.GraphFormatException;
+import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.impl.OffHeapGraph;
+import org.nixus.core.structure.nodes.Node;
+
+public class TestGraphChangeLog extends TestCase {
+
+	private Path directory;
+
+	private Path snapshot;
+
+	private Path log;
+
+	@Override
+	protected void setUp() throws Exception {
+		directory = Files.createTempDirectory("changelog");
+		snapshot = directory.resolve("graph.bin");
+		log = directory.resolve("graph.log");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (Path file : Files.newDirectoryStream(directory)) {
+			Files.delete(file);
+		}
+		Files.delete(directory);
+	}
+
+	public void testReplay() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 3);
+		buildSample(changeLog.getGraph());
+		assertEquals(15, changeLog.getNumRecords());
+		changeLog.close();
+		assertFalse(Files.exists(snapshot));
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMatrixGraph(), 3);
+		assertSample(changeLog.getGraph());
+		assertEquals(15, changeLog.getNumRecords());
+		changeLog.close();
+	}
+
+	public void testKeepsLoggingAfterReplay() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		Graph aGraph = changeLog.getGraph();
+		Node nodeA = aGraph.addNode(new MockContent(1), "A");
+		changeLog.close();
+		//no longer logged
+		aGraph.addNode(new MockContent(2));
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		aGraph = changeLog.getGraph();
+		assertEquals(1, aGraph.size());
+		aGraph.getNodes().get(0).addArcTo(aGraph.addNode(new MockContent(3), "\u00e1rbol"), new MockContent(4));
+		changeLog.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		aGraph = changeLog.getGraph();
+		List<Node> nodes = aGraph.getNodes();
+		assertEquals(2, aGraph.size());
+		assertEquals(nodeA.getTag(), nodes.get(0).getTag());
+		assertEquals("\u00e1rbol", nodes.get(1).getTag());
+		assertEquals(3, nodes.get(1).getContent().measure());
+		assertTrue(nodes.get(0).isDirectionallyConnectedTo(nodes.get(1)));
+		changeLog.close();
+	}
+
+	public void testTagChangesAreReplayed() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		buildSample(changeLog.getGraph());
+		List<Node> nodes = changeLog.getGraph().getNodes();
+		nodes.get(0).setTag("First");
+		nodes.get(1).setTag("Node 1");
+		nodes.get(0).setTag("Start");
+		assertEquals(18, changeLog.getNumRecords());
+		changeLog.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		Graph aGraph = changeLog.getGraph();
+		assertEquals("Start", aGraph.getNodes().get(0).getTag());
+		assertEquals("Node 1", aGraph.getNodes().get(1).getTag());
+		assertSame(aGraph.getNodes().get(0), aGraph.getNodeByTag("Start"));
+		assertNull(aGraph.getNodeByTag("First"));
+		assertNull(aGraph.getNodeByTag("Node B"));
+		//a tag changed after the snapshot
+		changeLog.compact();
+		aGraph.getNodes().get(6).setTag("End");
+		changeLog.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		assertEquals("Start", changeLog.getGraph().getNodes().get(0).getTag());
+		assertEquals("End", changeLog.getGraph().getNodes().get(6).getTag());
+		assertEquals(1, changeLog.getNumRecords());
+		changeLog.close();
+	}
+
+	public void testTornFrameIsDropped() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 100);
+		Graph aGraph = changeLog.getGraph();
+		aGraph.addNode(new MockContent(1));
+		aGraph.addNode(new MockContent(2));
+		changeLog.sync();
+		long syncedSize = changeLog.getLogSize();
+		aGraph.addNode(new MockContent(3));
+		changeLog.close();
+
+		//a crash in the middle of the last frame
+		FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE);
+		channel.truncate(channel.size() - 2);
+		channel.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 100);
+		assertEquals(2, changeLog.getGraph().size());
+		assertEquals(syncedSize, changeLog.getLogSize());
+		changeLog.getGraph().addNode(new MockContent(4));
+		changeLog.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 100);
+		assertEquals(3, changeLog.getGraph().size());
+		assertEquals(4, changeLog.getGraph().getNodes().get(2).getContent().measure());
+		changeLog.close();
+	}
+
+	public void testCorruptFrameIsDropped() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		changeLog.getGraph().addNode(new MockContent(1));
+		changeLog.getGraph().addNode(new MockContent(2));
+		long size = changeLog.getLogSize();
+		changeLog.close();
+
+		FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE);
+		channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), size - 1);
+		channel.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		assertEquals(1, changeLog.getGraph().size());
+		changeLog.close();
+	}
+
+	public void testCompaction() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 4);
+		buildSample(changeLog.getGraph());
+		long logSize = changeLog.getLogSize();
+		changeLog.compact();
+
+		assertTrue(Files.exists(snapshot));
+		assertTrue(changeLog.getLogSize() < logSize);
+		assertEquals(0, changeLog.getNumRecords());
+		changeLog.getGraph().addNode(new MockContent(9), "Last");
+		changeLog.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 4);
+		Graph aGraph = changeLog.getGraph();
+		assertEquals(8, aGraph.size());
+		assertEquals("Last", aGraph.getNodes().get(7).getTag());
+		assertEquals(1, changeLog.getNumRecords());
+		assertSample(aGraph);
+		changeLog.close();
+	}
+
+	public void testCompactionWithParallelArcs() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		buildSample(changeLog.getGraph());
+		List<Node> nodes = changeLog.getGraph().getNodes();
+		nodes.get(0).addArcTo(nodes.get(2), new MockContent(8));
+		changeLog.compact();
+		changeLog.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		assertEquals(9, changeLog.getGraph().getArcs().size());
+		assertEquals(8, changeLog.getGraph().getNodes().get(0).findShortestPathTo(changeLog.getGraph().getNodes().get(2),
+				ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		changeLog.close();
+	}
+
+	public void testAutomaticCompaction() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		changeLog.setCompactionThreshold(64);
+		buildSample(changeLog.getGraph());
+		assertTrue(Files.exists(snapshot));
+		assertTrue(changeLog.getLogSize() <= 64);
+		changeLog.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		assertSample(changeLog.getGraph());
+		changeLog.close();
+	}
+
+	public void testCrashBeforeLogReset() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		buildSample(changeLog.getGraph());
+		changeLog.close();
+		byte[] oldLog = Files.readAllBytes(log);
+
+		//the snapshot was replaced but the log still has every record
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		changeLog.compact();
+		changeLog.close();
+		Files.write(log, oldLog);
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		assertSample(changeLog.getGraph());
+		changeLog.getGraph().addNode(new MockContent(9));
+		changeLog.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		assertEquals(8, changeLog.getGraph().size());
+		changeLog.close();
+	}
+
+	public void testRemovalsAreReplayed() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 2);
+		Graph aGraph = changeLog.getGraph();
+		buildSample(aGraph);
+		List<Node> nodes = aGraph.getNodes();
+		assertTrue(aGraph.removeArc(arcBetween(nodes.get(0), nodes.get(2))));
+		assertTrue(aGraph.remove(nodes.get(5)));
+		nodes.get(6).addArcTo(aGraph.addNode(new MockContent(7)), new MockContent(1));
+		assertEquals(19, changeLog.getNumRecords());
+		changeLog.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMatrixGraph(), 2);
+		aGraph = changeLog.getGraph();
+		nodes = aGraph.getNodes();
+		assertEquals(7, aGraph.size());
+		assertEquals(6, aGraph.getArcs().size());
+		assertEquals("Node 6", nodes.get(5).getTag());
+		assertEquals("Node 7", nodes.get(6).getTag());
+		assertEquals(38, nodes.get(0).findShortestPathTo(nodes.get(2), ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		assertEquals(31, nodes.get(0).findShortestPathTo(nodes.get(6), ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		//the removed node left a place, given up when the log was opened
+		assertEquals(20, changeLog.getNumRecords());
+		nodes.get(6).addArcTo(nodes.get(5), new MockContent(2));
+		changeLog.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 2);
+		nodes = changeLog.getGraph().getNodes();
+		assertTrue(nodes.get(6).isDirectionallyConnectedTo(nodes.get(5)));
+		assertEquals(7, changeLog.getGraph().getArcs().size());
+		changeLog.compact();
+		changeLog.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 2);
+		assertEquals(7, changeLog.getGraph().size());
+		assertEquals(7, changeLog.getGraph().getArcs().size());
+		assertEquals(0, changeLog.getNumRecords());
+		changeLog.close();
+	}
+
+	/**
+	 * The logged graph compacts itself, the restored one compacts at the same time even if it
+	 * wouldn't by itself, so the nodes added afterwards get the same ids
+	 * */
+	public void testRemovalsAcrossGraphCompaction() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		Graph aGraph = changeLog.getGraph();
+		buildSample(aGraph);
+		List<Node> nodes = new ArrayList<Node>(aGraph.getNodes());
+		for (int i = 2; i < 6; i++) {
+			aGraph.remove(nodes.get(i));
+		}
+		assertEquals(6, aGraph.getNodeById(2).getContent().measure());
+		Node last = aGraph.addNode(new MockContent(9), "Last");
+		aGraph.getNodeById(2).addArcTo(last, new MockContent(4));
+		aGraph.getNodeById(0).addArcTo(aGraph.getNodeById(2), new MockContent(1));
+		last.setTag("End");
+		changeLog.close();
+
+		AbstractGraph restored = (AbstractGraph) GraphFactory.instantiateAdjacencyMapGraph();
+		restored.setCompactionThreshold(1);
+		changeLog = GraphChangeLog.open(snapshot, log, restored, 1);
+		assertEquals(4, restored.size());
+		assertEquals(3, restored.getArcs().size());
+		assertSame(restored.getNodeByTag("End"), restored.getNodeById(3));
+		assertEquals(5, restored.getNodeById(0).findShortestPathTo(restored.getNodeByTag("End"),
+				ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		changeLog.close();
+	}
+
+	public void testRemovalOfHiddenParallelArc() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		Graph aGraph = changeLog.getGraph();
+		buildSample(aGraph);
+		List<Node> nodes = aGraph.getNodes();
+		Arc hidden = arcBetween(nodes.get(0), nodes.get(2));
+		nodes.get(0).addArcTo(nodes.get(2), new MockContent(8));
+		assertTrue(aGraph.removeArc(hidden));
+		changeLog.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		nodes = changeLog.getGraph().getNodes();
+		assertEquals(8, changeLog.getGraph().getArcs().size());
+		assertEquals(8, arcBetween(nodes.get(0), nodes.get(2)).getArcContent().measure());
+		changeLog.close();
+	}
+
+	/**
+	 * A crash after the snapshot was replaced, whose nodes and arcs add up to those of the old one
+	 * */
+	public void testCrashBeforeLogResetWithRemovals() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		buildSample(changeLog.getGraph());
+		changeLog.compact();
+		Graph aGraph = changeLog.getGraph();
+		List<Node> nodes = aGraph.getNodes();
+		aGraph.remove(nodes.get(6));
+		Node last = aGraph.addNode(new MockContent(9));
+		nodes.get(4).addArcTo(last, new MockContent(1));
+		nodes.get(5).addArcTo(last, new MockContent(1));
+		changeLog.close();
+		byte[] oldSnapshot = Files.readAllBytes(snapshot);
+		byte[] oldLog = Files.readAllBytes(log);
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		changeLog.compact();
+		changeLog.close();
+		writeWithSnapshotRecord(oldLog);
+		assertCrashedGraph();
+
+		//before the new snapshot was moved
+		Files.write(snapshot, oldSnapshot);
+		Files.write(directory.resolve("graph.bin.tmp"), new byte[]{1, 2, 3});
+		writeWithSnapshotRecord(oldLog);
+		assertCrashedGraph();
+		assertFalse(Files.exists(directory.resolve("graph.bin.tmp")));
+	}
+
+	private void assertCrashedGraph() throws IOException {
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		Graph aGraph = changeLog.getGraph();
+		assertEquals(7, aGraph.size());
+		assertEquals(8, aGraph.getArcs().size());
+		assertEquals(9, aGraph.getNodes().get(6).getContent().measure());
+		changeLog.close();
+	}
+
+	private Arc arcBetween(Node source, Node target) {
+		for (Arc arc : source.getArcsOut()) {
+			if(arc.getTargetNode() == target){
+				return arc;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Writes the given log followed by the record of a compaction
+	 * */
+	private void writeWithSnapshotRecord(byte[] oldLog) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(7);
+		ByteBuffer frame = ByteBuffer.allocate(oldLog.length + 9);
+		frame.put(oldLog).putInt(1).putInt((int) crc.getValue()).put((byte) 7);
+		Files.write(log, frame.array());
+	}
+
+	public void testOffHeapGraph() throws IOException{
+		OffHeapGraph aGraph = GraphFactory.instantiateOffHeapGraph();
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, aGraph, 5);
+		buildSample(aGraph);
+		changeLog.close();
+		aGraph.close();
+
+		aGraph = GraphFactory.instantiateOffHeapGraph();
+		try {
+			changeLog = GraphChangeLog.open(snapshot, log, aGraph, 5);
+			assertSample(aGraph);
+			changeLog.close();
+		} finally {
+			aGraph.close();
+		}
+	}
+
+	public void testUndirectedGraph() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateUndirectedAdjacencyMapGraph(), 2);
+		Graph aGraph = changeLog.getGraph();
+		Node nodeA = aGraph.addNode(new MockContent(1));
+		Node nodeB = aGraph.addNode(new MockContent(2));
+		nodeB.addArcTo(nodeA, new MockContent(5));
+		changeLog.close();
+
+		try {
+			GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 2);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateUndirectedAdjacencyMapGraph(), 2);
+		List<Node> nodes = changeLog.getGraph().getNodes();
+		assertEquals(1, changeLog.getGraph().getArcs().size());
+		assertTrue(nodes.get(0).isConnectedTo(nodes.get(1)));
+		changeLog.getGraph().removeArc(changeLog.getGraph().getArcs().get(0));
+		changeLog.close();
+
+		changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateUndirectedAdjacencyMapGraph(), 2);
+		assertTrue(changeLog.getGraph().getArcs().isEmpty());
+		changeLog.close();
+	}
+
+	public void testNotALog() throws IOException{
+		Files.write(log, "not a graph change log".getBytes("UTF-8"));
+		try {
+			GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+			fail();
+		} catch (GraphFormatException e) {
+			//Expected
+		}
+	}
+
+	public void testLogAheadOfSnapshot() throws IOException{
+		GraphChangeLog changeLog = GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+		buildSample(changeLog.getGraph());
+		changeLog.compact();
+		changeLog.close();
+		//an older snapshot than the one the log follows
+		BinaryGraphFormat.write(GraphFactory.instantiateAdjacencyMapGraph(), snapshot);
+
+		try {
+			GraphChangeLog.open(snapshot, log, GraphFactory.instantiateAdjacencyMapGraph(), 1);
+			fail();
+		} catch (GraphFormatException e) {
+			//Expected
+		}
+	}
+
+	/**
+	 * Same graph as AbstractGraphTest.testBinaryDijkstra
+	 * */
+	private void buildSample(Graph aGraph) {
+		Node node0 = aGraph.addNode(new MockContent(0));
+		Node node1 = aGraph.addNode(new MockContent(1), "Node B");
+		Node node2 = aGraph.addNode(new MockContent(2));
+		Node node3 = aGraph.addNode(new MockContent(3));
+		Node node4 = aGraph.addNode(new MockContent(4));
+		Node node5 = aGraph.addNode(new MockContent(5));
+		Node node6 = aGraph.addNode(new MockContent(6));
+		node0.addArcTo(node1, new MockContent(20));
+		node0.addArcTo(node2, new MockContent(10));
+		node3.addArcTo(node6, new MockContent(7));
+		node1.addArcTo(node3, new MockContent(3));
+		node3.addArcTo(node2, new MockContent(15));
+		node2.addArcTo(node4, new MockContent(17));
+		node1.addArcTo(node5, new MockContent(9));
+		node5.addArcTo(node6, new MockContent(12));
+	}
+
+	private void assertSample(Graph aGraph) {
+		List<Node> nodes = aGraph.getNodes();
+		assertEquals(8, aGraph.getArcs().size());
+		assertEquals("Node 0", nodes.get(0).getTag());
+		assertEquals("Node B", nodes.get(1).getTag());
+		assertEquals(6, nodes.get(6).getContent().measure());
+		assertEquals(30, nodes.get(0).findShortestPathTo(nodes.get(6), ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+	}
+}
@@ -0,0 +1,169 @@
+package org.nixus.core;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.generators.GraphGenerator;
+import org.nixus.core.generators.WeightDistribution;
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.impl.OffHeapGraph;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
+import org.nixus.core.structure.nodes.Node;
+
+public class TestGraphGenerator extends TestCase {
+
+	public void testSameSeedSameGraph(){
+		GraphGenerator generator = new GraphGenerator(7);
+		generator.setWeights(WeightDistribution.uniform(1, 1000));
+		generator.setNumThreads(1);
+		Graph expected = generator.rmat(GraphFactory.instantiateAdjacencyMapGraph(), 12, 200000);
+		generator.setNumThreads(4);
+		Graph aGraph = generator.rmat(GraphFactory.instantiateAdjacencyMapGraph(), 12, 200000);
+
+		assertEquals(4096, aGraph.size());
+		assertEquals(200000, aGraph.getArcs().size());
+		assertEquals(describe(expected), describe(aGraph));
+
+		Graph other = new GraphGenerator(8).rmat(GraphFactory.instantiateAdjacencyMapGraph(), 12, 200000);
+		assertFalse(describe(expected).equals(describe(other)));
+	}
+
+	public void testRmatIsSkewed(){
+		Graph aGraph = new GraphGenerator(1).rmat(GraphFactory.instantiateAdjacencyMapGraph(), 10, 20000);
+
+		//the first node gets the a^scale corner of the matrix
+		assertTrue(aGraph.getNodes().get(0).getArcsOut().size() > 20000 / 1024 * 10);
+	}
+
+	public void testErdosRenyi(){
+		GraphGenerator generator = new GraphGenerator(3);
+		Graph complete = generator.erdosRenyi(GraphFactory.instantiateAdjacencyMapGraph(), 20, 1);
+		assertEquals(20 * 19, complete.getArcs().size());
+		for (Arc arc : complete.getArcs()) {
+			assertNotSame(arc.getSourceNode(), arc.getTargetNode());
+		}
+
+		Graph undirected = generator.erdosRenyi(GraphFactory.instantiateUndirectedAdjacencyMapGraph(), 20, 1);
+		assertEquals(20 * 19 / 2, undirected.getArcs().size());
+
+		assertTrue(generator.erdosRenyi(GraphFactory.instantiateAdjacencyMapGraph(), 20, 0).getArcs().isEmpty());
+
+		int numArcs = generator.erdosRenyi(GraphFactory.instantiateAdjacencyMapGraph(), 1000, 0.01).getArcs().size();
+		assertTrue(numArcs > 9000 && numArcs < 11000);
+	}
+
+	public void testGrid(){
+		GraphGenerator generator = new GraphGenerator(5);
+		Graph aGraph = generator.grid(GraphFactory.instantiateUndirectedAdjacencyMapGraph(), 3, 4);
+		assertEquals(12, aGraph.size());
+		assertEquals(3 * 3 + 2 * 4, aGraph.getArcs().size());
+		List<Node> nodes = aGraph.getNodes();
+		assertEquals(5, nodes.get(0).findShortestPathTo(nodes.get(11), ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+
+		Graph directed = generator.grid(GraphFactory.instantiateAdjacencyMatrixGraph(), 3, 4);
+		assertEquals(2 * (3 * 3 + 2 * 4), directed.getArcs().size());
+		assertTrue(directed.getNodes().get(4).isConnectedTo(directed.getNodes().get(0)));
+	}
+
+	public void testRandomDag(){
+		Graph aGraph = new GraphGenerator(9).randomDag(GraphFactory.instantiateAdjacencyMapGraph(), 500, 4);
+
+		assertEquals(499 * 4 - 6, aGraph.getArcs().size());
+		assertEquals(500, aGraph.getNodesInTopologicalOrder().size());
+		for (Arc arc : aGraph.getArcs()) {
+			assertTrue(insertionOrder(arc.getSourceNode()) < insertionOrder(arc.getTargetNode()));
+		}
+
+		try {
+			new GraphGenerator(9).randomDag(GraphFactory.instantiateUndirectedAdjacencyMapGraph(), 5, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+	}
+
+	public void testScaleFree(){
+		Graph aGraph = new GraphGenerator(11).scaleFree(GraphFactory.instantiateAdjacencyMapGraph(), 10000, 100000, 2.5);
+
+		assertEquals(100000, aGraph.getArcs().size());
+		List<Node> nodes = aGraph.getNodes();
+		//the heaviest node is far above the average degree of 20
+		int hubDegree = nodes.get(0).getArcsOut().size() + nodes.get(0).getArcsIn().size();
+		assertTrue(hubDegree > 200);
+		for (Arc arc : aGraph.getArcs()) {
+			assertNotSame(arc.getSourceNode(), arc.getTargetNode());
+		}
+	}
+
+	public void testWeightDistributions(){
+		SplittableRandom random = new SplittableRandom(1);
+		WeightDistribution uniform = WeightDistribution.uniform(5, 7);
+		WeightDistribution exponential = WeightDistribution.exponential(10);
+		WeightDistribution normal = WeightDistribution.normal(100, 10, 0);
+		Set<Integer> uniformValues = new HashSet<Integer>();
+		long exponentialSum = 0;
+		long normalSum = 0;
+		int numSamples = 100000;
+		for (int i = 0; i < numSamples; i++) {
+			uniformValues.add(uniform.nextWeight(random));
+			int weight = exponential.nextWeight(random);
+			assertTrue(weight >= 1);
+			exponentialSum += weight;
+			normalSum += normal.nextWeight(random);
+		}
+		assertEquals(new HashSet<Integer>(Arrays.asList(5, 6, 7)), uniformValues);
+		assertEquals(10.5, (double) exponentialSum / numSamples, 0.5);
+		assertEquals(100, (double) normalSum / numSamples, 0.5);
+		assertEquals(3, WeightDistribution.constant(3).nextWeight(random));
+	}
+
+	public void testGeneratesIntoAnyGraph(){
+		GraphGenerator generator = new GraphGenerator(13);
+		generator.setWeights(WeightDistribution.uniform(1, 10));
+		String expected = describe(generator.randomDag(GraphFactory.instantiateAdjacencyMapGraph(), 300, 3));
+
+		assertEquals(expected, describe(generator.randomDag(GraphFactory.instantiateAdjacencyMatrixGraph(), 300, 3)));
+		OffHeapGraph offHeapGraph = GraphFactory.instantiateOffHeapGraph();
+		try {
+			assertEquals(expected, describe(generator.randomDag(offHeapGraph, 300, 3)));
+		} finally {
+			offHeapGraph.close();
+		}
+	}
+
+	public void testNonEmptyGraph(){
+		Graph aGraph = GraphFactory.instantiateAdjacencyMapGraph();
+		aGraph.addNode(null);
+		try {
+			new GraphGenerator(1).grid(aGraph, 2, 2);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+	}
+
+	private static int insertionOrder(Node node) {
+		return ((HiddenNodeAbstraction) node).getInsertionOrder();
+	}
+
+	/**
+	 * Arcs of the graph in order, as source, target and weight
+	 * */
+	private static String describe(Graph aGraph) {
+		StringBuilder description = new StringBuilder();
+		for (Arc arc : aGraph.getArcs()) {
+			description.append(insertionOrder(arc.getSourceNode())).append(' ')
+					.append(insertionOrder(arc.getTargetNode())).append(' ')
+					.append(arc.getArcContent().measure()).append('\n');
+		}
+		return description.toString();
+	}
+}
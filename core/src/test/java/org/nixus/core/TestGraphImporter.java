@@ -0,0 +1,204 @@
+package org.nixus.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.io.GraphFileFormat;
+import org.nixus.core.io.GraphImporter;
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.exceptions.GraphFormatException;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.impl.OffHeapGraph;
+import org.nixus.core.structure.nodes.Node;
+
+public class TestGraphImporter extends TestCase {
+
+	/**
+	 * Same graph as AbstractGraphTest.testBinaryDijkstra, with nodes numbered from 1
+	 * */
+	private static final String DIMACS = "c sample graph\n"
+			+ "p sp 7 8\n"
+			+ "c arcs\n"
+			+ "a 1 2 20\n"
+			+ "a 1 3 10\n"
+			+ "a 4 7 7\r\n"
+			+ "a 2 4 3\n"
+			+ "\n"
+			+ "a 4 3 15\n"
+			+ "a 3 5 17\n"
+			+ "a  2\t6 9\n"
+			+ "a 6 7 12";
+
+	private Path file;
+
+	@Override
+	protected void setUp() throws Exception {
+		file = Files.createTempFile("graph", ".txt");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Files.delete(file);
+	}
+
+	public void testDimacs() throws IOException{
+		write(DIMACS);
+
+		assertSampleGraph(GraphImporter.read(file, GraphFileFormat.DIMACS, GraphFactory.instantiateAdjacencyMapGraph()));
+	}
+
+	public void testDimacsInSmallChunks() throws IOException{
+		write(DIMACS);
+
+		//every chunk size splits the lines at a different place
+		for (int chunkSize = 1; chunkSize < 20; chunkSize++) {
+			assertSampleGraph(GraphImporter.read(file, GraphFileFormat.DIMACS,
+					GraphFactory.instantiateAdjacencyMapGraph(), 3, chunkSize));
+		}
+	}
+
+	public void testDimacsIntoOffHeapGraph() throws IOException{
+		write(DIMACS);
+		OffHeapGraph aGraph = GraphFactory.instantiateOffHeapGraph();
+		try {
+			assertSampleGraph(GraphImporter.read(file, GraphFileFormat.DIMACS, aGraph, 2, 7));
+		} finally {
+			aGraph.close();
+		}
+	}
+
+	public void testEdgeList() throws IOException{
+		write("# ids are arbitrary\n"
+				+ "100 -5 4\n"
+				+ "-5 7000000000\n"
+				+ "% another comment\n"
+				+ "7000000000 100 2\n"
+				+ "42 100\n");
+
+		for (int chunkSize = 4; chunkSize < 12; chunkSize++) {
+			Graph aGraph = GraphImporter.read(file, GraphFileFormat.EDGE_LIST,
+					GraphFactory.instantiateAdjacencyMatrixGraph(), 2, chunkSize);
+
+			List<Node> nodes = aGraph.getNodes();
+			assertEquals(4, aGraph.size());
+			assertEquals(4, aGraph.getArcs().size());
+			assertEquals("100", nodes.get(0).getTag());
+			assertEquals("-5", nodes.get(1).getTag());
+			assertEquals("7000000000", nodes.get(2).getTag());
+			assertEquals("42", nodes.get(3).getTag());
+			assertEquals(5, nodes.get(0).findShortestPathTo(nodes.get(2), ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+			assertEquals(1, nodes.get(3).findShortestPathTo(nodes.get(0), ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		}
+	}
+
+	public void testMetis() throws IOException{
+		//triangle 1-2-3 plus 3-4, with node and edge weights
+		write("% weighted\n"
+				+ "4 4 011\n"
+				+ "5 2 1 3 7\n"
+				+ "6 1 1 3 2\n"
+				+ "7 1 7 2 2 4 1\n"
+				+ "8 3 1\n");
+
+		for (int chunkSize = 3; chunkSize < 12; chunkSize++) {
+			Graph aGraph = GraphImporter.read(file, GraphFileFormat.METIS,
+					GraphFactory.instantiateUndirectedAdjacencyMapGraph(), 2, chunkSize);
+
+			List<Node> nodes = aGraph.getNodes();
+			assertEquals(4, aGraph.size());
+			assertEquals(4, aGraph.getArcs().size());
+			assertEquals(5, nodes.get(0).getContent().measure());
+			assertEquals(8, nodes.get(3).getContent().measure());
+			assertEquals(3, nodes.get(2).getArcs().size());
+			assertEquals(4, nodes.get(0).findShortestPathTo(nodes.get(3), ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		}
+	}
+
+	public void testMetisIntoDirectedGraph() throws IOException{
+		write("3 2\n"
+				+ "2\n"
+				+ "1 3\n"
+				+ "2\n");
+
+		Graph aGraph = GraphImporter.read(file, GraphFileFormat.METIS, GraphFactory.instantiateAdjacencyMapGraph());
+
+		List<Node> nodes = aGraph.getNodes();
+		assertEquals(4, aGraph.getArcs().size());
+		assertTrue(nodes.get(0).isConnectedTo(nodes.get(1)));
+		assertTrue(nodes.get(2).isConnectedTo(nodes.get(1)));
+		for (Arc arc : aGraph.getArcs()) {
+			assertEquals(1, arc.getArcContent().measure());
+		}
+	}
+
+	public void testMetisNodesWithoutNeighbors() throws IOException{
+		write("3 1\n"
+				+ "\n"
+				+ "3\n"
+				+ "2\n");
+
+		Graph aGraph = GraphImporter.read(file, GraphFileFormat.METIS, GraphFactory.instantiateUndirectedAdjacencyMapGraph());
+
+		List<Node> nodes = aGraph.getNodes();
+		assertTrue(nodes.get(0).getArcs().isEmpty());
+		assertTrue(nodes.get(1).isConnectedTo(nodes.get(2)));
+	}
+
+	public void testWrongArcCount() throws IOException{
+		write("p sp 2 2\na 1 2 1\n");
+
+		assertFormatError(GraphFileFormat.DIMACS);
+	}
+
+	public void testNodeOutOfRange() throws IOException{
+		write("p sp 2 1\na 1 3 1\n");
+
+		assertFormatError(GraphFileFormat.DIMACS);
+	}
+
+	public void testNotAnInteger() throws IOException{
+		write("1 2 1.5\n");
+
+		assertFormatError(GraphFileFormat.EDGE_LIST);
+	}
+
+	public void testMissingValue() throws IOException{
+		write("1 2\n3\n");
+
+		assertFormatError(GraphFileFormat.EDGE_LIST);
+	}
+
+	private void assertFormatError(GraphFileFormat format) throws IOException {
+		try {
+			GraphImporter.read(file, format, GraphFactory.instantiateAdjacencyMapGraph(), 2, 4);
+			fail();
+		} catch (GraphFormatException e) {
+			//Expected
+		}
+	}
+
+	private void assertSampleGraph(Graph aGraph) {
+		assertEquals(7, aGraph.size());
+		assertEquals(8, aGraph.getArcs().size());
+		List<Node> nodes = aGraph.getNodes();
+		Node node0 = nodes.get(0);
+		assertEquals("Node 0", node0.getTag());
+		assertEquals(2, node0.getArcsOut().size());
+		assertEquals(2, nodes.get(2).getArcsIn().size());
+		List<Node> path = node0.findShortestPathTo(nodes.get(6), ShortestPathStrategy.BINARY_DIJKSTRA).getPath();
+		assertEquals(4, path.size());
+		assertSame(nodes.get(1), path.get(1));
+		assertSame(nodes.get(3), path.get(2));
+		assertEquals(30, node0.findShortestPathTo(nodes.get(6), ShortestPathStrategy.BELLMAN_FORD).getPathTotalDistance());
+	}
+
+	private void write(String content) throws IOException {
+		Files.write(file, content.getBytes("UTF-8"));
+	}
+}
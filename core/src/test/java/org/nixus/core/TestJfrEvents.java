@@ -0,0 +1,159 @@
+package org.nixus.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+
+import org.nixus.core.jfr.JfrEvents;
+import org.nixus.core.jfr.JfrQueryListener;
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.NoOpQueryListener;
+import org.nixus.core.structure.auxiliary.QueryType;
+import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.impl.GraphBuilder;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.nodes.Node;
+
+public class TestJfrEvents extends TestCase {
+
+	private Recording recording;
+
+	private Path file;
+
+	@Override
+	protected void setUp() throws Exception {
+		file = Files.createTempFile("graph", ".jfr");
+		recording = new Recording();
+		recording.enable("org.nixus.core.Query");
+		recording.enable("org.nixus.core.MatrixExpansion");
+		recording.enable("org.nixus.core.BulkLoad");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		recording.close();
+		Files.delete(file);
+		AbstractGraph.setDefaultQueryListener(null);
+	}
+
+	public void testQueryEvents() throws IOException{
+		AbstractGraph aGraph = (AbstractGraph) GraphFactory.instantiateAdjacencyMapGraph();
+		aGraph.setQueryListener(JfrQueryListener.INSTANCE);
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		node0.addArcTo(node1, new MockContent(1));
+		node1.addArcTo(node2, new MockContent(1));
+
+		recording.start();
+		assertEquals(2, node0.findShortestPathTo(node2, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		aGraph.breathFirstTraversal(node0);
+		List<RecordedEvent> events = stop("org.nixus.core.Query");
+
+		assertEquals(2, events.size());
+		RecordedEvent event = events.get(0);
+		assertEquals(QueryType.SHORTEST_PATH.name(), event.getString("query"));
+		assertEquals("BINARY_DIJKSTRA", event.getString("strategy"));
+		assertEquals("AdjacencyMapGraph", event.getString("graphType"));
+		assertEquals(3, event.getInt("graphSize"));
+		assertEquals(3, event.getLong("exploredNodes"));
+		assertEquals(2, event.getLong("relaxations"));
+		assertFalse(event.getDuration().isNegative());
+		assertEquals(QueryType.BREATH_FIRST_TRAVERSAL.name(), events.get(1).getString("query"));
+		assertEquals("", events.get(1).getString("strategy"));
+	}
+
+	public void testNoRecordingNoProbe(){
+		Graph aGraph = GraphFactory.instantiateAdjacencyMapGraph();
+
+		assertSame(NoOpQueryListener.INSTANCE,
+				JfrQueryListener.INSTANCE.queryStarted(aGraph, QueryType.TOPOLOGICAL_ORDER, null, null));
+	}
+
+	/**
+	 * Events are only created while a recording has them enabled
+	 * */
+	public void testNoRecordingNoEvent(){
+		assertTrue(JfrEvents.isAvailable());
+		assertNull(JfrEvents.matrixExpansionStarted());
+		assertNull(JfrEvents.bulkLoadStarted());
+		//finishing an event that wasn't started does nothing
+		JfrEvents.bulkLoadFinished(null, GraphBuilder.class, Graph.class, 0, 0, 1);
+	}
+
+	public void testDefaultListener() throws IOException{
+		AbstractGraph.setDefaultQueryListener(JfrQueryListener.INSTANCE);
+		Graph aGraph = GraphFactory.instantiateAdjacencyMapGraph();
+		aGraph.addNode(new MockContent());
+
+		recording.start();
+		aGraph.getNodesInTopologicalOrder();
+		List<RecordedEvent> events = stop("org.nixus.core.Query");
+
+		assertEquals(1, events.size());
+		assertEquals(QueryType.TOPOLOGICAL_ORDER.name(), events.get(0).getString("query"));
+		assertEquals(1, events.get(0).getLong("exploredNodes"));
+	}
+
+	public void testMatrixExpansionEvents() throws IOException{
+		Graph aGraph = GraphFactory.instantiateAdjacencyMatrixGraph(4, 2);
+
+		recording.start();
+		for (int i = 0; i < 9; i++) {
+			aGraph.addNode(new MockContent());
+		}
+		List<RecordedEvent> events = stop("org.nixus.core.MatrixExpansion");
+
+		assertEquals(2, events.size());
+		assertEquals(4, events.get(0).getInt("oldCapacity"));
+		assertEquals(8, events.get(0).getInt("newCapacity"));
+		assertEquals(16, events.get(1).getInt("newCapacity"));
+	}
+
+	public void testBulkLoadEvents() throws IOException{
+		GraphBuilder builder = new GraphBuilder();
+		builder.addNode(new MockContent());
+		builder.addNode(new MockContent());
+		builder.addArcTo(0, 1, new MockContent(1));
+
+		recording.start();
+		builder.build(GraphFactory.instantiateAdjacencyMapGraph());
+		List<RecordedEvent> events = stop("org.nixus.core.BulkLoad");
+
+		assertEquals(1, events.size());
+		assertEquals("GraphBuilder", events.get(0).getString("loader"));
+		assertEquals(2, events.get(0).getInt("graphSize"));
+		assertEquals(1, events.get(0).getInt("numArcs"));
+	}
+
+	/**
+	 * Stops the recording and reads back the events of the given type, in the order they happened
+	 * */
+	private List<RecordedEvent> stop(String eventName) throws IOException {
+		recording.stop();
+		recording.dump(file);
+		List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+		for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+			if(event.getEventType().getName().equals(eventName)){
+				events.add(event);
+			}
+		}
+		Collections.sort(events, new Comparator<RecordedEvent>() {
+			@Override
+			public int compare(RecordedEvent o1, RecordedEvent o2) {
+				return o1.getStartTime().compareTo(o2.getStartTime());
+			}
+		});
+		return events;
+	}
+}
@@ -0,0 +1,43 @@
+package org.nixus.core;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.structure.auxiliary.LongIntHashMap;
+
+public class TestLongIntHashMap extends TestCase {
+
+	public void testPutAndGet(){
+		LongIntHashMap map = new LongIntHashMap(2);
+		int numKeys = 10000;
+		for (int i = 0; i < numKeys; i++) {
+			//keys spread over the whole long range, clustered ones included
+			assertEquals(-1, map.put(i * 0x100000001L - 5000, i));
+		}
+
+		assertEquals(numKeys, map.size());
+		for (int i = 0; i < numKeys; i++) {
+			assertEquals(i, map.get(i * 0x100000001L - 5000));
+		}
+		assertEquals(-1, map.get(3));
+		assertFalse(map.containsKey(Long.MAX_VALUE));
+	}
+
+	public void testPutIfAbsent(){
+		LongIntHashMap map = new LongIntHashMap();
+
+		assertEquals(-1, map.putIfAbsent(Long.MIN_VALUE, 0));
+		assertEquals(0, map.putIfAbsent(Long.MIN_VALUE, 1));
+		assertEquals(0, map.put(Long.MIN_VALUE, 2));
+		assertEquals(2, map.get(Long.MIN_VALUE));
+		assertEquals(1, map.size());
+	}
+
+	public void testNegativeValue(){
+		try {
+			new LongIntHashMap().put(1, -1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+	}
+}
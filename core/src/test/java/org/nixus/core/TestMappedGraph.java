@@ -0,0 +1,182 @@
+package org.nixus.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.io.MappedGraph;
+import org.nixus.core.io.MappedGraphFormat;
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.ConstantMeasure;
+import org.nixus.core.structure.exceptions.GraphFormatException;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.NodePath;
+
+public class TestMappedGraph extends TestCase {
+
+	private Path file;
+
+	@Override
+	protected void setUp() throws Exception {
+		file = Files.createTempFile("graph", ".mapped");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Files.delete(file);
+	}
+
+	public void testShortestPaths() throws IOException{
+		MappedGraph mapped = mapSampleGraph(GraphFactory.instantiateAdjacencyMapGraph());
+
+		assertTrue(mapped.isDirected());
+		assertEquals(7, mapped.size());
+		assertEquals(8, mapped.getArcs().size());
+		List<Node> nodes = mapped.getNodes();
+		Node node0 = nodes.get(0);
+		Node node6 = nodes.get(6);
+		for (ShortestPathStrategy strategy : ShortestPathStrategy.values()) {
+			NodePath path = node0.findShortestPathTo(node6, strategy);
+			assertEquals(30, path.getPathTotalDistance());
+			assertEquals(4, path.getPath().size());
+			assertSame(nodes.get(1), path.getPath().get(1));
+			assertSame(nodes.get(3), path.getPath().get(2));
+		}
+		assertEquals(node0, mapped.getNodesInTopologicalOrder().get(0));
+	}
+
+	public void testAdjacency() throws IOException{
+		MappedGraph mapped = mapSampleGraph(GraphFactory.instantiateAdjacencyMatrixGraph());
+		List<Node> nodes = mapped.getNodes();
+		Node node0 = nodes.get(0);
+		Node node1 = nodes.get(1);
+		Node node2 = nodes.get(2);
+
+		assertSame(node0, mapped.getNode(0));
+		assertTrue(mapped.contains(node2));
+		assertFalse(mapped.contains(GraphFactory.instantiateAdjacencyMapGraph().addNode(null)));
+		assertTrue(node0.isDirectionallyConnectedTo(node1));
+		assertFalse(node1.isDirectionallyConnectedTo(node0));
+		assertEquals(2, node0.getArcsOut().size());
+		assertEquals(2, node2.getArcsIn().size());
+		for (Arc arc : node2.getArcsIn()) {
+			assertSame(node2, arc.getTargetNode());
+			assertTrue(arc.getSourceNode().getArcsOut().contains(arc));
+		}
+		assertEquals("second", node1.getTag());
+		assertEquals("Node 2", node2.getTag());
+		assertEquals(-7, node1.getContent().measure());
+	}
+
+	public void testUndirected() throws IOException{
+		Graph original = GraphFactory.instantiateUndirectedAdjacencyMapGraph();
+		Node node0 = original.addNode(ConstantMeasure.valueOf(0));
+		Node node1 = original.addNode(ConstantMeasure.valueOf(0));
+		Node node2 = original.addNode(ConstantMeasure.valueOf(0));
+		node0.addArcTo(node1, ConstantMeasure.valueOf(5));
+		node2.addArcTo(node1, ConstantMeasure.valueOf(1));
+		node2.addArcTo(node2, ConstantMeasure.valueOf(1));
+		MappedGraphFormat.write(original, file);
+
+		MappedGraph mapped = MappedGraphFormat.open(file);
+		List<Node> nodes = mapped.getNodes();
+
+		assertFalse(mapped.isDirected());
+		assertEquals(3, mapped.getArcs().size());
+		assertEquals(2, nodes.get(1).getArcsOut().size());
+		assertEquals(2, nodes.get(2).getArcsOut().size());
+		assertTrue(nodes.get(1).isConnectedTo(nodes.get(2)));
+		assertEquals(6, nodes.get(2).findShortestPathTo(nodes.get(0), ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		assertEquals(6, nodes.get(2).findShortestPathTo(nodes.get(0), ShortestPathStrategy.BELLMAN_FORD).getPathTotalDistance());
+	}
+
+	public void testReadOnly() throws IOException{
+		MappedGraph mapped = mapSampleGraph(GraphFactory.instantiateAdjacencyMapGraph());
+		Node node0 = mapped.getNodes().get(0);
+
+		try {
+			mapped.addNode(null);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//Expected
+		}
+		try {
+			node0.addArcTo(mapped.getNodes().get(1), ConstantMeasure.valueOf(1));
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//Expected
+		}
+		try {
+			node0.setTag("changed");
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//Expected
+		}
+	}
+
+	public void testEmptyGraph() throws IOException{
+		MappedGraphFormat.write(GraphFactory.instantiateAdjacencyMapGraph(), file);
+
+		MappedGraph mapped = MappedGraphFormat.open(file);
+
+		assertTrue(mapped.isEmpty());
+		assertTrue(mapped.getArcs().isEmpty());
+	}
+
+	public void testNotAMappedGraph() throws IOException{
+		Files.write(file, "not a graph at all, but long enough".getBytes("UTF-8"));
+
+		try {
+			MappedGraphFormat.open(file);
+			fail();
+		} catch (GraphFormatException e) {
+			//Expected
+		}
+	}
+
+	public void testTruncatedFile() throws IOException{
+		mapSampleGraph(GraphFactory.instantiateAdjacencyMapGraph());
+		byte[] data = Files.readAllBytes(file);
+		byte[] truncated = new byte[data.length - 4];
+		System.arraycopy(data, 0, truncated, 0, truncated.length);
+		Files.write(file, truncated);
+
+		try {
+			MappedGraphFormat.open(file);
+			fail();
+		} catch (GraphFormatException e) {
+			//Expected
+		}
+	}
+
+	/**
+	 * Same graph as AbstractGraphTest.testBinaryDijkstra, written and mapped
+	 * */
+	private MappedGraph mapSampleGraph(Graph aGraph) throws IOException {
+		Node node0 = aGraph.addNode(ConstantMeasure.valueOf(0));
+		Node node1 = aGraph.addNode(ConstantMeasure.valueOf(-7), "second");
+		Node node2 = aGraph.addNode(ConstantMeasure.valueOf(0));
+		Node node3 = aGraph.addNode(ConstantMeasure.valueOf(0));
+		Node node4 = aGraph.addNode(ConstantMeasure.valueOf(0));
+		Node node5 = aGraph.addNode(ConstantMeasure.valueOf(0));
+		Node node6 = aGraph.addNode(ConstantMeasure.valueOf(0));
+
+		node0.addArcTo(node1, ConstantMeasure.valueOf(20));
+		node0.addArcTo(node2, ConstantMeasure.valueOf(10));
+		node1.addArcTo(node3, ConstantMeasure.valueOf(3));
+		node1.addArcTo(node5, ConstantMeasure.valueOf(9));
+		node2.addArcTo(node4, ConstantMeasure.valueOf(17));
+		node3.addArcTo(node2, ConstantMeasure.valueOf(15));
+		node3.addArcTo(node6, ConstantMeasure.valueOf(7));
+		node5.addArcTo(node6, ConstantMeasure.valueOf(12));
+
+		MappedGraphFormat.write(aGraph, file);
+		return MappedGraphFormat.open(file);
+	}
+}
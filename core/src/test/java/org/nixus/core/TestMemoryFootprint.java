@@ -0,0 +1,115 @@
+package org.nixus.core;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.generators.GraphGenerator;
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.impl.AdjacencyMatrixGraph;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.impl.MemoryFootprint;
+import org.nixus.core.structure.impl.MemoryFootprint.Representation;
+import org.nixus.core.structure.impl.OffHeapGraph;
+import org.nixus.core.structure.nodes.Node;
+
+public class TestMemoryFootprint extends TestCase {
+
+	public void testMapGraph(){
+		AbstractGraph aGraph = (AbstractGraph) GraphFactory.instantiateAdjacencyMapGraph();
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		MemoryFootprint before = aGraph.getMemoryFootprint();
+		node0.addArcTo(node1, new MockContent(1));
+		MemoryFootprint footprint = aGraph.getMemoryFootprint();
+
+		assertEquals(2, footprint.getNumNodes());
+		assertEquals(1, footprint.getNumArcs());
+		assertEquals(before.getNodeBytes(), footprint.getNodeBytes());
+		assertTrue(footprint.getArcBytes() > before.getArcBytes());
+		assertTrue(footprint.getAdjacencyBytes() > before.getAdjacencyBytes());
+		assertEquals(0, footprint.getMatrixSlackBytes());
+		assertEquals(footprint.getNodeBytes() + footprint.getArcBytes() + footprint.getAdjacencyBytes()
+				+ footprint.getTagBytes(), footprint.getTotalBytes());
+
+		//"Node 0" and "Node 1"
+		assertEquals(2 * MemoryFootprint.stringBytes("Node 0"), footprint.getTagBytes());
+		aGraph.getNodeByTag("Node 0");
+		assertTrue(aGraph.getMemoryFootprint().getTagBytes() > footprint.getTagBytes());
+	}
+
+	public void testMapEstimateMatchesTheGraph(){
+		//a ring, so every node has one arc out and one in as the estimate assumes
+		AbstractGraph aGraph = (AbstractGraph) GraphFactory.instantiateAdjacencyMapGraph();
+		Node[] nodes = new Node[100];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = aGraph.addNode(new MockContent());
+		}
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i].addArcTo(nodes[(i + 1) % nodes.length], new MockContent(1));
+		}
+		MemoryFootprint footprint = aGraph.getMemoryFootprint();
+
+		assertEquals(footprint.getTotalBytes() - footprint.getTagBytes(), footprint.getAdjacencyMapBytes());
+		assertEquals(MemoryFootprint.estimateAdjacencyMapGraph(100, 100, true), footprint.getAdjacencyMapBytes());
+	}
+
+	public void testMatrixSlack(){
+		AdjacencyMatrixGraph aGraph = (AdjacencyMatrixGraph) GraphFactory.instantiateAdjacencyMatrixGraph(4, 2);
+		for (int i = 0; i < 5; i++) {
+			aGraph.addNode(new MockContent());
+		}
+		MemoryFootprint footprint = aGraph.getMemoryFootprint();
+
+		assertEquals(8, aGraph.getMatrixCapacity());
+		assertEquals(MemoryFootprint.matrixBytes(5), footprint.getAdjacencyBytes());
+		assertEquals(MemoryFootprint.matrixBytes(8) - MemoryFootprint.matrixBytes(5), footprint.getMatrixSlackBytes());
+		//without the slack the matrix is the same size as the estimate of a compact one
+		assertEquals(footprint.getTotalBytes() - footprint.getTagBytes() - footprint.getMatrixSlackBytes(),
+				footprint.getAdjacencyMatrixBytes());
+
+		aGraph.remove(aGraph.getNodeById(4));
+		assertEquals(MemoryFootprint.matrixBytes(8) - MemoryFootprint.matrixBytes(4),
+				aGraph.getMemoryFootprint().getMatrixSlackBytes());
+	}
+
+	public void testWeightSnapshotsAreCounted(){
+		AbstractGraph aGraph = (AbstractGraph) new GraphGenerator(1).erdosRenyi(GraphFactory.instantiateAdjacencyMapGraph(), 100, 0.1);
+		aGraph.setSnapshotWeights(true);
+		long before = aGraph.getMemoryFootprint().getAdjacencyBytes();
+		aGraph.getNodes().get(0).findShortestPathToEveryOtherNode(ShortestPathStrategy.BINARY_DIJKSTRA);
+
+		assertTrue(aGraph.getMemoryFootprint().getAdjacencyBytes() > before);
+	}
+
+	public void testRecommendation(){
+		GraphGenerator generator = new GraphGenerator(1);
+		MemoryFootprint dense = ((AbstractGraph) generator.erdosRenyi(GraphFactory.instantiateAdjacencyMapGraph(), 50, 0.8))
+				.getMemoryFootprint();
+		MemoryFootprint sparse = ((AbstractGraph) generator.erdosRenyi(GraphFactory.instantiateAdjacencyMatrixGraph(), 1000, 0.002))
+				.getMemoryFootprint();
+
+		assertEquals(Representation.ADJACENCY_MATRIX, dense.getRecommendedRepresentation());
+		assertTrue(dense.getAdjacencyMatrixBytes() < dense.getAdjacencyMapBytes());
+		assertEquals(Representation.ADJACENCY_MAP, sparse.getRecommendedRepresentation());
+		assertTrue(sparse.getAdjacencyMapBytes() < sparse.getAdjacencyMatrixBytes());
+	}
+
+	public void testOffHeapGraphCountsItsHandlesOnly(){
+		OffHeapGraph aGraph = GraphFactory.instantiateOffHeapGraph();
+		try {
+			new GraphGenerator(1).erdosRenyi(aGraph, 100, 0.1);
+			MemoryFootprint footprint = aGraph.getMemoryFootprint();
+			MemoryFootprint onHeap = ((AbstractGraph) new GraphGenerator(1).erdosRenyi(
+					GraphFactory.instantiateAdjacencyMapGraph(), 100, 0.1)).getMemoryFootprint();
+
+			assertEquals(0, footprint.getArcBytes());
+			assertEquals(0, footprint.getAdjacencyBytes());
+			assertEquals(0, footprint.getTagBytes());
+			assertTrue(footprint.getTotalBytes() < onHeap.getTotalBytes());
+			//it still tells what the nodes and arcs would take on the heap
+			assertEquals(onHeap.getAdjacencyMapBytes(), footprint.getAdjacencyMapBytes());
+		} finally {
+			aGraph.close();
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package org.nixus.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.strategies.NodeOrdering;
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.GraphChangeListener;
+import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.impl.OffHeapGraph;
+import org.nixus.core.structure.nodes.HiddenNodeAbstraction;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.NodePath;
+
+public class TestNodeOrdering extends TestCase {
+
+	private static final int ROWS = 20;
+
+	private static final int COLUMNS = 30;
+
+	public void testReverseCuthillMcKeeNumbersAPathInOrder(){
+		AbstractGraph aGraph = shuffledGrid(GraphFactory.instantiateAdjacencyMapGraph(), 1, 50);
+
+		aGraph.reorder(NodeOrdering.REVERSE_CUTHILL_MCKEE);
+
+		assertEquals(1, bandwidth(aGraph));
+	}
+
+	public void testOrderingsNarrowTheBandwidth(){
+		for (NodeOrdering ordering : new NodeOrdering[]{NodeOrdering.BREADTH_FIRST, NodeOrdering.REVERSE_CUTHILL_MCKEE}) {
+			AbstractGraph aGraph = shuffledGrid(GraphFactory.instantiateAdjacencyMapGraph(), ROWS, COLUMNS);
+			int before = bandwidth(aGraph);
+
+			aGraph.reorder(ordering);
+
+			assertTrue(before > ROWS * COLUMNS / 2);
+			//a breadth first front of a grid crosses it diagonally
+			assertTrue(ordering + " " + bandwidth(aGraph), bandwidth(aGraph) <= 2 * ROWS);
+			assertEquals(ROWS * COLUMNS, aGraph.size());
+		}
+	}
+
+	public void testDegreeOrdering(){
+		AbstractGraph aGraph = (AbstractGraph) GraphFactory.instantiateAdjacencyMapGraph();
+		Node[] nodes = new Node[5];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = aGraph.addNode(new MockContent());
+		}
+		nodes[0].addArcTo(nodes[1], new MockContent(1));
+		nodes[3].addArcTo(nodes[4], new MockContent(1));
+		nodes[4].addArcTo(nodes[1], new MockContent(1));
+		nodes[2].addArcTo(nodes[4], new MockContent(1));
+
+		aGraph.reorder(NodeOrdering.DEGREE);
+
+		assertSame(nodes[4], aGraph.getNodeById(0));
+		assertSame(nodes[1], aGraph.getNodeById(1));
+		//same degree, same order
+		assertSame(nodes[0], aGraph.getNodeById(2));
+		assertSame(nodes[2], aGraph.getNodeById(3));
+		assertSame(nodes[3], aGraph.getNodeById(4));
+		assertSame(nodes[4], aGraph.getNodes().get(0));
+	}
+
+	public void testShortestPathsDontChange(){
+		for (Graph empty : new Graph[]{GraphFactory.instantiateAdjacencyMapGraph(), GraphFactory.instantiateAdjacencyMatrixGraph(),
+				GraphFactory.instantiateUndirectedAdjacencyMatrixGraph(), GraphFactory.instantiateAdaptiveGraph()}) {
+			AbstractGraph aGraph = shuffledGrid(empty, ROWS, COLUMNS);
+			aGraph.setSnapshotWeights(true);
+			Node start = aGraph.getNodeByTag("0 0");
+			aGraph.remove(aGraph.getNodeByTag("5 5"));
+			Map<String, Long> expected = distances(start);
+
+			aGraph.reorder(NodeOrdering.REVERSE_CUTHILL_MCKEE);
+
+			assertEquals(ROWS * COLUMNS - 1, aGraph.getNodesById().size());
+			assertEquals(expected, distances(start));
+			for (Arc arc : aGraph.getArcs()) {
+				assertTrue(arc.getSourceNode().isDirectionallyConnectedTo(arc.getTargetNode()));
+			}
+		}
+	}
+
+	public void testUnsupportedGraphs(){
+		OffHeapGraph offHeapGraph = GraphFactory.instantiateOffHeapGraph();
+		try {
+			offHeapGraph.reorder(NodeOrdering.BREADTH_FIRST);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//Expected
+		} finally {
+			offHeapGraph.close();
+		}
+
+		AbstractGraph aGraph = (AbstractGraph) GraphFactory.instantiateAdjacencyMapGraph();
+		aGraph.addChangeListener(new GraphChangeListener() {
+			@Override
+			public void nodeAdded(Node node) {
+			}
+			@Override
+			public void arcAdded(Arc arc) {
+			}
+			@Override
+			public void nodeTagChanged(Node node, String oldTag) {
+			}
+			@Override
+			public void nodeRemoved(Node node) {
+			}
+			@Override
+			public void arcRemoved(Arc arc) {
+			}
+			@Override
+			public void nodesRenumbered() {
+			}
+		});
+		try {
+			aGraph.reorder(NodeOrdering.BREADTH_FIRST);
+			fail();
+		} catch (IllegalStateException e) {
+			//Expected, the listeners know the nodes by id
+		}
+	}
+
+	/**
+	 * Grid of nodes tagged by row and column, added in random order
+	 * */
+	private AbstractGraph shuffledGrid(Graph aGraph, int rows, int columns) {
+		List<Integer> cells = new ArrayList<Integer>();
+		for (int i = 0; i < rows * columns; i++) {
+			cells.add(i);
+		}
+		Collections.shuffle(cells, new Random(3));
+		Node[] nodes = new Node[rows * columns];
+		for (int cell : cells) {
+			nodes[cell] = aGraph.addNode(new MockContent(), (cell / columns) + " " + (cell % columns));
+		}
+		for (int cell = 0; cell < nodes.length; cell++) {
+			if(cell % columns + 1 < columns){
+				nodes[cell].addArcTo(nodes[cell + 1], new MockContent(1 + cell % 3));
+			}
+			if(cell + columns < nodes.length){
+				nodes[cell].addArcTo(nodes[cell + columns], new MockContent(1 + cell % 5));
+			}
+		}
+		return (AbstractGraph) aGraph;
+	}
+
+	/**
+	 * @return the largest difference of insertion order between the nodes of an arc
+	 * */
+	private static int bandwidth(Graph aGraph) {
+		int bandwidth = 0;
+		for (Arc arc : aGraph.getArcs()) {
+			int source = ((HiddenNodeAbstraction)arc.getSourceNode()).getInsertionOrder();
+			int target = ((HiddenNodeAbstraction)arc.getTargetNode()).getInsertionOrder();
+			bandwidth = Math.max(bandwidth, Math.abs(source - target));
+		}
+		return bandwidth;
+	}
+
+	private static Map<String, Long> distances(Node start) {
+		Map<String, Long> distances = new HashMap<String, Long>();
+		for (Map.Entry<Node, NodePath> entry : start.findShortestPathToEveryOtherNode(ShortestPathStrategy.BINARY_DIJKSTRA).entrySet()) {
+			distances.put(entry.getKey().getTag(), entry.getValue().getPathTotalDistance());
+		}
+		return distances;
+	}
+}
@@ -0,0 +1,172 @@
+package org.nixus.core;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Arc;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.impl.GraphBuilder;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.impl.OffHeapGraph;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.NodePath;
+
+public class TestOffHeapGraph extends TestCase {
+
+	private OffHeapGraph aGraph;
+
+	@Override
+	protected void setUp() throws Exception {
+		aGraph = GraphFactory.instantiateOffHeapGraph();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		aGraph.close();
+	}
+
+	public void testShortestPaths(){
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		Node node3 = aGraph.addNode(new MockContent());
+		Node node4 = aGraph.addNode(new MockContent());
+		Node node5 = aGraph.addNode(new MockContent());
+		Node node6 = aGraph.addNode(new MockContent());
+
+		node0.addArcTo(node1, new MockContent(20));
+		node0.addArcTo(node2, new MockContent(10));
+		node3.addArcTo(node6, new MockContent(7));
+		node1.addArcTo(node3, new MockContent(3));
+		node3.addArcTo(node2, new MockContent(15));
+		node2.addArcTo(node4, new MockContent(17));
+		node1.addArcTo(node5, new MockContent(9));
+		node5.addArcTo(node6, new MockContent(12));
+
+		assertEquals(7, aGraph.size());
+		assertEquals(8, aGraph.getArcs().size());
+		for (ShortestPathStrategy strategy : ShortestPathStrategy.values()) {
+			NodePath path = node0.findShortestPathTo(node6, strategy);
+			assertEquals(30, path.getPathTotalDistance());
+			List<Node> nodes = path.getPath();
+			assertEquals(4, nodes.size());
+			assertSame(node1, nodes.get(1));
+			assertSame(node3, nodes.get(2));
+		}
+		assertSame(node0, aGraph.getNodesInTopologicalOrder().get(0));
+		assertEquals(2, node2.getArcsIn().size());
+		assertTrue(node0.isDirectionallyConnectedTo(node1));
+		assertFalse(node1.isDirectionallyConnectedTo(node0));
+	}
+
+	public void testGrowingAdjacency(){
+		int numNodes = 3000;
+		Node hub = aGraph.addNode(new MockContent(7));
+		Node previous = null;
+		for (int i = 1; i < numNodes; i++) {
+			Node node = aGraph.addNode(new MockContent(i));
+			hub.addArcTo(node, new MockContent(i));
+			node.addArcTo(hub, new MockContent(1));
+			if(previous != null){
+				previous.addArcTo(node, new MockContent(1));
+			}
+			previous = node;
+		}
+
+		assertEquals(numNodes, aGraph.size());
+		assertEquals(3 * (numNodes - 1) - 1, aGraph.getArcs().size());
+		assertEquals(numNodes - 1, hub.getArcsOut().size());
+		assertEquals(numNodes - 1, hub.getArcsIn().size());
+		int expectedTarget = 1;
+		for (Arc arc : hub.getArcsOut()) {
+			assertSame(hub, arc.getSourceNode());
+			assertEquals(expectedTarget, arc.getTargetNode().getContent().measure());
+			expectedTarget++;
+		}
+		Node last = aGraph.getNodes().get(numNodes - 1);
+		assertEquals(2, last.findShortestPathTo(aGraph.getNodes().get(1), ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+	}
+
+	public void testUndirected(){
+		OffHeapGraph undirected = GraphFactory.instantiateUndirectedOffHeapGraph(3, 3);
+		try {
+			Node node0 = undirected.addNode(new MockContent());
+			Node node1 = undirected.addNode(new MockContent());
+			Node node2 = undirected.addNode(new MockContent());
+			node0.addArcTo(node1, new MockContent(5));
+			node2.addArc(node1, new MockContent(1));
+			node2.addArcTo(node2, new MockContent(1));
+
+			assertFalse(undirected.isDirected());
+			assertEquals(3, undirected.getArcs().size());
+			assertEquals(2, node1.getArcsOut().size());
+			assertEquals(2, node2.getArcsIn().size());
+			assertTrue(node1.isConnectedTo(node0));
+			assertEquals(6, node2.findShortestPathTo(node0, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		} finally {
+			undirected.close();
+		}
+	}
+
+	public void testTags(){
+		Node node0 = aGraph.addNode(null);
+		Node node1 = aGraph.addNode(new MockContent(), "tagged \u00e1");
+
+		assertEquals("Node 0", node0.getTag());
+		assertEquals("tagged \u00e1", node1.getTag());
+		assertEquals(0, node0.getContent().measure());
+
+		node0.setTag("renamed");
+		node1.setTag("Node 1");
+
+		assertEquals("renamed", node0.getTag());
+		assertEquals("Node 1", node1.getTag());
+		assertSame(node0, aGraph.getNodeByTag("renamed"));
+		assertSame(node1, aGraph.getNodeByTag("Node 1"));
+		assertNull(aGraph.getNodeByTag("tagged \u00e1"));
+		assertSame(node1, aGraph.getNodeById(1));
+	}
+
+	public void testBuild(){
+		GraphBuilder builder = new GraphBuilder();
+		for (int i = 0; i < 200; i++) {
+			builder.addNode(new MockContent(i));
+		}
+		for (int i = 1; i < 200; i++) {
+			builder.addArcTo(i - 1, i, new MockContent(1));
+		}
+
+		Graph built = builder.build(aGraph);
+
+		assertSame(aGraph, built);
+		assertEquals(200, built.size());
+		assertEquals(199, built.getArcs().size());
+		Node first = built.getNodes().get(0);
+		Node last = built.getNodes().get(199);
+		assertEquals(199, first.findShortestPathTo(last, ShortestPathStrategy.DAG).getPathTotalDistance());
+	}
+
+	public void testClose(){
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		node0.addArcTo(node1, new MockContent(1));
+
+		aGraph.close();
+
+		assertTrue(aGraph.isClosed());
+		try {
+			node0.getArcsOut().size();
+			fail();
+		} catch (IllegalStateException e) {
+			//Expected
+		}
+		try {
+			aGraph.addNode(new MockContent());
+			fail();
+		} catch (IllegalStateException e) {
+			//Expected
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package org.nixus.core;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.Measurable;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.impl.OptimisticAdjacencyMapGraph;
+import org.nixus.core.structure.nodes.Node;
+
+public class TestOptimisticAdjacencyMapGraph extends AbstractGraphTest {
+
+	@Override
+	protected Graph buildGraph() {
+		return GraphFactory.instantiateOptimisticAdjacencyMapGraph();
+	}
+
+	/**
+	 * A write in the middle of a query makes it run again
+	 * */
+	public void testQueryRunAgainAfterWrite(){
+		final OptimisticAdjacencyMapGraph aGraph = GraphFactory.instantiateOptimisticAdjacencyMapGraph();
+		final Node nodeA = aGraph.addNode(new MockContent());
+		Node nodeB = aGraph.addNode(new MockContent());
+		final int[] measures = new int[1];
+		nodeA.addArcTo(nodeB, new Measurable<Object>() {
+			@Override
+			public int measure() {
+				if(measures[0]++ == 0){
+					//another thread writes while the query runs
+					Thread writer = new Thread(new Runnable() {
+						@Override
+						public void run() {
+							nodeA.addArcTo(aGraph.addNode(new MockContent()), new MockContent(1));
+						}
+					});
+					writer.start();
+					try {
+						writer.join();
+					} catch (InterruptedException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+				return 7;
+			}
+		});
+
+		assertEquals(7, nodeA.findShortestPathTo(nodeB, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		assertEquals(2, measures[0]);
+		assertEquals(3, aGraph.size());
+	}
+
+	/**
+	 * Readers query a chain while a writer extends it, every query sees a whole chain
+	 * */
+	public void testReadersWhileWriting() throws InterruptedException{
+		final OptimisticAdjacencyMapGraph aGraph = GraphFactory.instantiateOptimisticAdjacencyMapGraph();
+		final Node first = aGraph.addNode(new MockContent());
+		final int numNodes = 1500;
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		Thread[] readers = new Thread[4];
+		for (int r = 0; r < readers.length; r++) {
+			readers[r] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						int reached = 0;
+						while(reached < numNodes){
+							List<Node> chain = aGraph.depthFirstTraversal(first);
+							reached = chain.size();
+							Node last = chain.get(reached - 1);
+							if(reached > 1){
+								assertEquals(reached - 1, first.findShortestPathTo(last,
+										ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+							}
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+			});
+			readers[r].start();
+		}
+
+		Node previous = first;
+		for (int i = 1; i < numNodes; i++) {
+			Node node = aGraph.addNode(new MockContent());
+			previous.addArcTo(node, new MockContent(1));
+			previous = node;
+		}
+		for (Thread reader : readers) {
+			reader.join();
+		}
+
+		if(failure.get() != null){
+			throw new AssertionError(failure.get());
+		}
+	}
+
+	/**
+	 * Queries keep their state apart, so they can run at once on the same nodes
+	 * */
+	public void testConcurrentQueries() throws InterruptedException{
+		final Graph aGraph = buildGraph();
+		final int size = 40;
+		final Node[][] grid = new Node[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				grid[i][j] = aGraph.addNode(new MockContent());
+				if(i > 0){
+					grid[i - 1][j].addArc(grid[i][j], new MockContent(1));
+				}
+				if(j > 0){
+					grid[i][j - 1].addArc(grid[i][j], new MockContent(1));
+				}
+			}
+		}
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		Thread[] readers = new Thread[4];
+		for (int r = 0; r < readers.length; r++) {
+			final int row = r;
+			readers[r] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						for (int k = 0; k < 10; k++) {
+							int column = (k * 7) % (size - 1) + 1;
+							assertEquals(row + column, grid[0][0].findShortestPathTo(grid[row][column],
+									ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+							assertEquals(size - 1 - row + size - 1, grid[row][0].findShortestPathToEveryOtherNode(
+									ShortestPathStrategy.BINARY_DIJKSTRA).get(grid[size - 1][size - 1]).getPathTotalDistance());
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+			});
+			readers[r].start();
+		}
+		for (Thread reader : readers) {
+			reader.join();
+		}
+
+		if(failure.get() != null){
+			throw new AssertionError(failure.get());
+		}
+	}
+
+	/**
+	 * Threads retag their own nodes while others look tags up, the tag index ends up
+	 * with the last tag of every node
+	 * */
+	public void testConcurrentRetags() throws InterruptedException{
+		final Graph aGraph = buildGraph();
+		final int nodesPerThread = 200;
+		final int rounds = 5;
+		final Node[][] nodes = new Node[4][nodesPerThread];
+		for (int t = 0; t < nodes.length; t++) {
+			for (int i = 0; i < nodesPerThread; i++) {
+				nodes[t][i] = aGraph.addNode(new MockContent());
+			}
+		}
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		Thread[] threads = new Thread[nodes.length * 2];
+		for (int t = 0; t < nodes.length; t++) {
+			final int thread = t;
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						for (int round = 0; round < rounds; round++) {
+							for (int i = 0; i < nodesPerThread; i++) {
+								nodes[thread][i].setTag(thread + "-" + i + "-" + round);
+							}
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+			});
+			threads[nodes.length + t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						for (int round = 0; round < rounds; round++) {
+							for (int i = 0; i < nodesPerThread; i++) {
+								Node node = aGraph.getNodeByTag(thread + "-" + i + "-" + round);
+								assertTrue(node == null || node == nodes[thread][i]);
+							}
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+			});
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		if(failure.get() != null){
+			throw new AssertionError(failure.get());
+		}
+		for (int t = 0; t < nodes.length; t++) {
+			for (int i = 0; i < nodesPerThread; i++) {
+				assertSame(nodes[t][i], aGraph.getNodeByTag(t + "-" + i + "-" + (rounds - 1)));
+				assertNull(aGraph.getNodeByTag(t + "-" + i + "-0"));
+				assertNull(aGraph.getNodeByTag("Node " + (t * nodesPerThread + i)));
+			}
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package org.nixus.core;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.impl.PersistentGraph;
+import org.nixus.core.structure.nodes.Node;
+
+public class TestPersistentGraph extends TestCase {
+
+	public void testVariantsShareTheBase(){
+		PersistentGraph base = GraphFactory.instantiatePersistentGraph()
+				.withNode(new MockContent(1), "A")
+				.withNode(new MockContent(2), "B")
+				.withNode(new MockContent(3))
+				.withArc(0, 1, new MockContent(10))
+				.withArc(1, 2, new MockContent(10));
+
+		PersistentGraph shortcut = base.withArc(0, 2, new MockContent(5));
+		PersistentGraph detour = base.withNode(new MockContent(4), "D");
+		detour = detour.withArc(detour.getNodes().get(0), detour.getNodes().get(3), new MockContent(1))
+				.withArc(3, 2, new MockContent(1));
+
+		assertEquals(3, base.size());
+		assertEquals(2, base.getArcs().size());
+		assertEquals(20, distance(base, 0, 2));
+		assertEquals(5, distance(shortcut, 0, 2));
+		assertEquals(4, detour.size());
+		assertEquals(2, distance(detour, 0, 2));
+		assertEquals("D", detour.getNodes().get(3).getTag());
+		assertEquals("Node 2", detour.getNodes().get(2).getTag());
+		assertEquals(5, base.getVersion());
+		assertEquals(6, shortcut.getVersion());
+	}
+
+	public void testNodesOfOlderVersions(){
+		PersistentGraph aGraph = GraphFactory.instantiatePersistentGraph().withNode(new MockContent(1));
+		Node first = aGraph.getNodes().get(0);
+		aGraph = aGraph.withNode(new MockContent(2));
+
+		PersistentGraph changed = aGraph.withArc(first, aGraph.getNodes().get(1), new MockContent(3));
+
+		assertTrue(changed.getNodes().get(0).isDirectionallyConnectedTo(changed.getNodes().get(1)));
+		assertFalse(aGraph.getNodes().get(0).isDirectionallyConnectedTo(aGraph.getNodes().get(1)));
+		assertEquals(2, changed.getNodes().get(1).getContent().measure());
+	}
+
+	public void testTags(){
+		PersistentGraph aGraph = GraphFactory.instantiatePersistentGraph().withNode(new MockContent(1), "Node 0");
+		PersistentGraph tagged = aGraph.withNodeTag(0, "First");
+
+		assertEquals("Node 0", aGraph.getNodes().get(0).getTag());
+		assertEquals("First", tagged.getNodes().get(0).getTag());
+	}
+
+	public void testCopyOf(){
+		Graph source = GraphFactory.instantiateUndirectedAdjacencyMapGraph();
+		Node nodeA = source.addNode(new MockContent(1), "A");
+		Node nodeB = source.addNode(new MockContent(2));
+		Node nodeC = source.addNode(new MockContent(3));
+		nodeA.addArcTo(nodeB, new MockContent(4));
+		nodeC.addArcTo(nodeB, new MockContent(1));
+
+		PersistentGraph copy = PersistentGraph.copyOf(source);
+
+		List<Node> nodes = copy.getNodes();
+		assertFalse(copy.isDirected());
+		assertEquals(3, copy.size());
+		assertEquals(2, copy.getArcs().size());
+		assertEquals("A", nodes.get(0).getTag());
+		assertEquals(5, distance(copy, 0, 2));
+		assertEquals(5, distance(copy, 2, 0));
+	}
+
+	public void testReadOnly(){
+		PersistentGraph aGraph = GraphFactory.instantiatePersistentGraph().withNode(new MockContent(1));
+		try {
+			aGraph.addNode(new MockContent(1));
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//Expected
+		}
+		try {
+			aGraph.withArc(0, 1, new MockContent(1));
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			//Expected
+		}
+	}
+
+	/**
+	 * Thousands of variants of a large base take little more than the base
+	 * */
+	public void testManyVariants(){
+		PersistentGraph base = GraphFactory.instantiatePersistentGraph();
+		int numNodes = 5000;
+		for (int i = 0; i < numNodes; i++) {
+			base = base.withNode(new MockContent(i));
+			if(i > 0){
+				base = base.withArc(i - 1, i, new MockContent(1));
+			}
+		}
+
+		PersistentGraph[] variants = new PersistentGraph[2000];
+		for (int i = 0; i < variants.length; i++) {
+			variants[i] = base.withArc(0, i * 2 + 1, new MockContent(0));
+		}
+
+		for (int i = 0; i < variants.length; i += 250) {
+			assertEquals(numNodes - 1 - (i * 2 + 1), distance(variants[i], 0, numNodes - 1));
+		}
+		assertEquals(numNodes - 1, distance(base, 0, numNodes - 1));
+	}
+
+	private static long distance(Graph aGraph, int source, int target) {
+		List<Node> nodes = aGraph.getNodes();
+		return nodes.get(source).findShortestPathTo(nodes.get(target), ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance();
+	}
+}
@@ -0,0 +1,78 @@
+package org.nixus.core;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.structure.auxiliary.PersistentIntVector;
+import org.nixus.core.structure.auxiliary.PersistentVector;
+
+public class TestPersistentVector extends TestCase {
+
+	public void testAppend(){
+		PersistentVector<String> vector = PersistentVector.empty();
+		PersistentIntVector ints = PersistentIntVector.empty();
+		//enough elements for a three level tree
+		int size = 40000;
+		for (int i = 0; i < size; i++) {
+			vector = vector.plus("e" + i);
+			ints = ints.plus(i * 3);
+		}
+
+		assertEquals(size, vector.size());
+		assertEquals(size, ints.size());
+		for (int i = 0; i < size; i++) {
+			assertEquals("e" + i, vector.get(i));
+			assertEquals(i * 3, ints.get(i));
+		}
+	}
+
+	public void testOldVersionsDontChange(){
+		PersistentIntVector[] versions = new PersistentIntVector[2000];
+		versions[0] = PersistentIntVector.empty();
+		for (int i = 1; i < versions.length; i++) {
+			versions[i] = versions[i - 1].plus(i);
+		}
+		PersistentIntVector changed = versions[1500].with(10, -1).with(1499, -2);
+
+		for (int i = 0; i < versions.length; i++) {
+			assertEquals(i, versions[i].size());
+			for (int k = 0; k < i; k++) {
+				assertEquals(k + 1, versions[i].get(k));
+			}
+		}
+		assertEquals(-1, changed.get(10));
+		assertEquals(-2, changed.get(1499));
+		assertEquals(12, changed.get(11));
+	}
+
+	public void testWith(){
+		PersistentVector<Integer> vector = PersistentVector.empty();
+		for (int i = 0; i < 1100; i++) {
+			vector = vector.plus(i);
+		}
+		PersistentVector<Integer> changed = vector;
+		for (int i = 0; i < 1100; i += 7) {
+			changed = changed.with(i, -i);
+		}
+
+		for (int i = 0; i < 1100; i++) {
+			assertEquals(i, vector.get(i).intValue());
+			assertEquals(i % 7 == 0 ? -i : i, changed.get(i).intValue());
+		}
+	}
+
+	public void testOutOfBounds(){
+		PersistentIntVector ints = PersistentIntVector.empty().plus(1);
+		try {
+			ints.get(1);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			//Expected
+		}
+		try {
+			PersistentVector.empty().with(0, null);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			//Expected
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package org.nixus.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.auxiliary.NoOpQueryListener;
+import org.nixus.core.structure.auxiliary.QueryPhase;
+import org.nixus.core.structure.auxiliary.QueryStatistics;
+import org.nixus.core.structure.auxiliary.QueryType;
+import org.nixus.core.structure.exceptions.NegativeWeightCycleFoundException;
+import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.nodes.Node;
+
+public class TestQueryStatistics extends TestCase {
+
+	private AbstractGraph aGraph;
+
+	private Node[] nodes;
+
+	private List<QueryStatistics> queries;
+
+	@Override
+	protected void setUp() throws Exception {
+		aGraph = (AbstractGraph) GraphFactory.instantiateAdjacencyMapGraph();
+		nodes = new Node[7];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = aGraph.addNode(new MockContent());
+		}
+		nodes[0].addArcTo(nodes[1], new MockContent(20));
+		nodes[0].addArcTo(nodes[2], new MockContent(10));
+		nodes[3].addArcTo(nodes[6], new MockContent(7));
+		nodes[1].addArcTo(nodes[3], new MockContent(3));
+		nodes[3].addArcTo(nodes[2], new MockContent(15));
+		nodes[2].addArcTo(nodes[4], new MockContent(17));
+		nodes[1].addArcTo(nodes[5], new MockContent(9));
+		nodes[5].addArcTo(nodes[6], new MockContent(12));
+		queries = new ArrayList<QueryStatistics>();
+		aGraph.setQueryListener(QueryStatistics.samplingListener(1, new Consumer<QueryStatistics>() {
+			@Override
+			public void accept(QueryStatistics statistics) {
+				queries.add(statistics);
+			}
+		}));
+	}
+
+	public void testDijkstra(){
+		assertEquals(30, nodes[0].findShortestPathToEveryOtherNode(ShortestPathStrategy.BINARY_DIJKSTRA)
+				.get(nodes[6]).getPathTotalDistance());
+
+		assertEquals(1, queries.size());
+		QueryStatistics statistics = queries.get(0);
+		assertEquals(QueryType.SHORTEST_PATH_TO_EVERY_OTHER_NODE, statistics.getType());
+		assertSame(nodes[0], statistics.getSource());
+		assertEquals(7, statistics.getNodesSettled());
+		assertEquals(8, statistics.getArcsScanned());
+		//every node but the source is reached once, node 6 through node 3 before node 5
+		assertEquals(6, statistics.getRelaxations());
+		//every relaxation moves the node by removing and inserting it
+		assertEquals(6, statistics.getHeapInserts());
+		assertEquals(7 + 6, statistics.getHeapRemoves());
+		assertTrue(statistics.getHeapSifts() > 0);
+		assertEquals(0, statistics.getBellmanFordPasses());
+		long phases = 0;
+		for (QueryPhase phase : QueryPhase.values()) {
+			phases += statistics.getPhaseNanos(phase);
+		}
+		assertTrue(statistics.getTotalNanos() > 0);
+		assertTrue(phases <= statistics.getTotalNanos());
+	}
+
+	public void testSingleDestinationStopsEarly(){
+		nodes[0].findShortestPathTo(nodes[2], ShortestPathStrategy.BINARY_DIJKSTRA);
+
+		QueryStatistics statistics = queries.get(0);
+		assertEquals(QueryType.SHORTEST_PATH, statistics.getType());
+		//the source and node 2, the closest one
+		assertEquals(2, statistics.getNodesSettled());
+		assertEquals(2 + 1, statistics.getArcsScanned());
+	}
+
+	public void testBellmanFordPasses(){
+		nodes[0].findShortestPathTo(nodes[6], ShortestPathStrategy.BELLMAN_FORD);
+
+		QueryStatistics statistics = queries.get(0);
+		assertEquals(6, statistics.getBellmanFordPasses());
+		//every pass plus the negative cycle check
+		assertEquals(7 * 8, statistics.getArcsScanned());
+		assertEquals(0, statistics.getHeapInserts());
+	}
+
+	public void testDagReportsItsTopologicalOrder(){
+		nodes[0].findShortestPathTo(nodes[6], ShortestPathStrategy.DAG);
+
+		assertEquals(2, queries.size());
+		assertEquals(QueryType.TOPOLOGICAL_ORDER, queries.get(0).getType());
+		assertNull(queries.get(0).getSource());
+		assertEquals(7, queries.get(0).getNodesSettled());
+		assertEquals(QueryType.SHORTEST_PATH, queries.get(1).getType());
+		assertEquals(7, queries.get(1).getNodesSettled());
+	}
+
+	public void testTraversals(){
+		aGraph.breathFirstTraversal(nodes[1]);
+		aGraph.depthFirstTraversal(nodes[1]);
+
+		assertEquals(QueryType.BREATH_FIRST_TRAVERSAL, queries.get(0).getType());
+		assertEquals(aGraph.breathFirstTraversal(nodes[1]).size(), queries.get(0).getNodesSettled());
+		assertEquals(QueryType.DEPTH_FIRST_TRAVERSAL, queries.get(1).getType());
+		assertTrue(queries.get(1).getArcsScanned() > 0);
+	}
+
+	public void testFailedQueriesAreReported(){
+		nodes[6].addArcTo(nodes[0], new MockContent(-100));
+		try {
+			nodes[0].findShortestPathTo(nodes[6], ShortestPathStrategy.BELLMAN_FORD);
+			fail();
+		} catch (NegativeWeightCycleFoundException e) {
+			//Expected
+		}
+
+		assertEquals(1, queries.size());
+		assertTrue(queries.get(0).getTotalNanos() > 0);
+	}
+
+	public void testSampling(){
+		aGraph.setQueryListener(QueryStatistics.samplingListener(3, new Consumer<QueryStatistics>() {
+			@Override
+			public void accept(QueryStatistics statistics) {
+				queries.add(statistics);
+			}
+		}));
+		for (int i = 0; i < 7; i++) {
+			nodes[0].findShortestPathTo(nodes[6], ShortestPathStrategy.BINARY_DIJKSTRA);
+		}
+
+		assertEquals(3, queries.size());
+	}
+
+	public void testNoListener(){
+		aGraph.setQueryListener(null);
+
+		assertSame(NoOpQueryListener.INSTANCE, aGraph.getQueryListener());
+		assertEquals(30, nodes[0].findShortestPathTo(nodes[6], ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		assertTrue(queries.isEmpty());
+	}
+}
@@ -0,0 +1,13 @@
+package org.nixus.core;
+
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.impl.GraphFactory;
+
+public class TestUndirectedAdjacencyMatrixGraph extends AbstractUndirectedGraphTest {
+	
+	@Override
+	protected Graph buildGraph() {
+		Graph aGraph = GraphFactory.instantiateUndirectedAdjacencyMatrixGraph();
+		return aGraph;
+	}
+}
@@ -0,0 +1,169 @@
+package org.nixus.core;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.impl.PersistentGraph;
+import org.nixus.core.structure.impl.VersionedGraph;
+import org.nixus.core.structure.nodes.Node;
+
+public class TestVersionedGraph extends TestCase {
+
+	public void testVersionsDontChange(){
+		VersionedGraph aGraph = GraphFactory.instantiateVersionedGraph();
+		Node nodeA = aGraph.addNode(new MockContent(1), "A");
+		Node nodeB = aGraph.addNode(new MockContent(2));
+		PersistentGraph before = aGraph.getCurrentVersion();
+
+		Node nodeC = aGraph.addNode(new MockContent(3));
+		nodeA.addArcTo(nodeB, new MockContent(5));
+		nodeB.addArcTo(nodeC, new MockContent(6));
+		nodeB.setTag("B");
+		PersistentGraph after = aGraph.getCurrentVersion();
+
+		assertEquals(2, before.getVersion());
+		assertEquals(2, before.size());
+		assertEquals(0, before.getArcs().size());
+		assertEquals("Node 1", before.getNodes().get(1).getTag());
+		assertTrue(before.getNodes().get(0).getArcsOut().isEmpty());
+
+		assertEquals(6, after.getVersion());
+		assertEquals(3, after.size());
+		assertEquals(2, after.getArcs().size());
+		assertEquals("A", after.getNodes().get(0).getTag());
+		assertEquals("B", after.getNodes().get(1).getTag());
+		assertEquals(3, after.getNodes().get(2).getContent().measure());
+		assertEquals(11, after.getNodes().get(0).findShortestPathTo(after.getNodes().get(2),
+				ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		assertEquals(after.getVersion(), aGraph.getVersion());
+	}
+
+	public void testVersionsAreReadOnly(){
+		VersionedGraph aGraph = GraphFactory.instantiateVersionedGraph();
+		aGraph.addNode(new MockContent(1));
+		PersistentGraph version = aGraph.getCurrentVersion();
+		try {
+			version.addNode(new MockContent(1));
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//Expected
+		}
+		try {
+			version.getNodes().get(0).addArcTo(version.getNodes().get(0), new MockContent(1));
+			fail();
+		} catch (UnsupportedOperationException e) {
+			//Expected
+		}
+	}
+
+	public void testSampleGraph(){
+		assertSample(buildSample(GraphFactory.instantiateVersionedGraph()).getCurrentVersion());
+		assertSample(buildSample(GraphFactory.instantiateVersionedGraph()));
+	}
+
+	public void testUndirected(){
+		VersionedGraph aGraph = GraphFactory.instantiateUndirectedVersionedGraph();
+		Node nodeA = aGraph.addNode(new MockContent(1));
+		Node nodeB = aGraph.addNode(new MockContent(2));
+		nodeB.addArc(nodeA, new MockContent(4));
+		nodeA.addArcTo(nodeA, new MockContent(1));
+
+		PersistentGraph version = aGraph.getCurrentVersion();
+		assertFalse(version.isDirected());
+		assertEquals(2, version.getArcs().size());
+		assertEquals(2, version.getNodes().get(0).getArcs().size());
+		assertTrue(version.getNodes().get(0).isConnectedTo(version.getNodes().get(1)));
+	}
+
+	/**
+	 * Readers query pinned versions while a writer extends a chain of nodes
+	 * */
+	public void testConcurrentReaders() throws InterruptedException{
+		final VersionedGraph aGraph = GraphFactory.instantiateVersionedGraph();
+		final int numNodes = 2000;
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		aGraph.addNode(new MockContent(0));
+
+		Thread[] readers = new Thread[3];
+		for (int r = 0; r < readers.length; r++) {
+			readers[r] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						int size = 0;
+						while(size < numNodes){
+							PersistentGraph version = aGraph.getCurrentVersion();
+							size = version.size();
+							List<Node> nodes = version.getNodes();
+							//every arc added by the writer has its node, so the chain is complete
+							int arcs = version.getArcs().size();
+							assertTrue(arcs == size - 1 || arcs == size - 2);
+							Node last = nodes.get(arcs);
+							if(arcs > 0){
+								assertEquals(arcs, nodes.get(0).findShortestPathTo(last,
+										ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+							}
+							assertEquals(arcs + 1, version.depthFirstTraversal(nodes.get(0)).size());
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+			});
+			readers[r].start();
+		}
+
+		Node previous = aGraph.getNodes().get(0);
+		for (int i = 1; i < numNodes; i++) {
+			Node node = aGraph.addNode(new MockContent(i));
+			previous.addArcTo(node, new MockContent(1));
+			previous = node;
+		}
+		for (Thread reader : readers) {
+			reader.join();
+		}
+
+		if(failure.get() != null){
+			throw new AssertionError(failure.get());
+		}
+		assertEquals(numNodes - 1, aGraph.getArcs().size());
+	}
+
+	/**
+	 * Same graph as AbstractGraphTest.testBinaryDijkstra
+	 * */
+	private VersionedGraph buildSample(VersionedGraph aGraph) {
+		Node node0 = aGraph.addNode(new MockContent(0));
+		Node node1 = aGraph.addNode(new MockContent(1));
+		Node node2 = aGraph.addNode(new MockContent(2));
+		Node node3 = aGraph.addNode(new MockContent(3));
+		Node node4 = aGraph.addNode(new MockContent(4));
+		Node node5 = aGraph.addNode(new MockContent(5));
+		Node node6 = aGraph.addNode(new MockContent(6));
+		node0.addArcTo(node1, new MockContent(20));
+		node0.addArcTo(node2, new MockContent(10));
+		node3.addArcTo(node6, new MockContent(7));
+		node1.addArcTo(node3, new MockContent(3));
+		node3.addArcTo(node2, new MockContent(15));
+		node2.addArcTo(node4, new MockContent(17));
+		node1.addArcTo(node5, new MockContent(9));
+		node5.addArcTo(node6, new MockContent(12));
+		return aGraph;
+	}
+
+	private void assertSample(Graph aGraph) {
+		List<Node> nodes = aGraph.getNodes();
+		assertEquals(8, aGraph.getArcs().size());
+		assertEquals(2, nodes.get(2).getArcsIn().size());
+		List<Node> path = nodes.get(0).findShortestPathTo(nodes.get(6), ShortestPathStrategy.BINARY_DIJKSTRA).getPath();
+		assertEquals(4, path.size());
+		assertSame(nodes.get(1), path.get(1));
+		assertSame(nodes.get(3), path.get(2));
+		assertEquals(30, nodes.get(0).findShortestPathTo(nodes.get(6), ShortestPathStrategy.BELLMAN_FORD).getPathTotalDistance());
+	}
+}
@@ -0,0 +1,139 @@
+package org.nixus.core;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.strategies.WeightType;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.impl.AbstractGraph;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.impl.WeightSnapshot;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.NodePath;
+
+public class TestWeightSnapshot extends TestCase {
+
+	public void testSnapshotLayout(){
+		AbstractGraph aGraph = (AbstractGraph) GraphFactory.instantiateAdjacencyMapGraph();
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		node0.addArcTo(node1, new MockContent(4));
+		node0.addArcTo(node2, new MockContent(9));
+		node2.addArcTo(node1, new MockContent(2));
+
+		WeightSnapshot snapshot = WeightSnapshot.of(aGraph, WeightType.INT);
+
+		assertTrue(Arrays.equals(new int[]{0, 2, 2, 3}, snapshot.getOffsets()));
+		assertEquals(1, snapshot.getTargets()[2]);
+		assertEquals(2, snapshot.getIntWeights()[2]);
+		assertNull(snapshot.getLongWeights());
+		assertNull(snapshot.getDoubleWeights());
+	}
+
+	public void testUndirectedArcsAreNumberedFromBothNodes(){
+		AbstractGraph aGraph = (AbstractGraph) GraphFactory.instantiateUndirectedAdjacencyMatrixGraph();
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		node0.addArc(node1, new MockContent(3));
+
+		WeightSnapshot snapshot = WeightSnapshot.of(aGraph, WeightType.LONG);
+
+		assertTrue(Arrays.equals(new int[]{0, 1, 2}, snapshot.getOffsets()));
+		assertEquals(1, snapshot.getTargets()[0]);
+		assertEquals(0, snapshot.getTargets()[1]);
+		assertEquals(3L, snapshot.getLongWeights()[1]);
+	}
+
+	public void testSameResultsAsTheArcs(){
+		AbstractGraph aGraph = (AbstractGraph) GraphFactory.instantiateAdjacencyMapGraph();
+		Node[] nodes = new Node[7];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = aGraph.addNode(new MockContent());
+		}
+		nodes[0].addArcTo(nodes[1], new MockContent(20));
+		nodes[0].addArcTo(nodes[2], new MockContent(10));
+		nodes[3].addArcTo(nodes[6], new MockContent(7));
+		nodes[1].addArcTo(nodes[3], new MockContent(3));
+		nodes[3].addArcTo(nodes[2], new MockContent(15));
+		nodes[2].addArcTo(nodes[4], new MockContent(17));
+		nodes[1].addArcTo(nodes[5], new MockContent(9));
+		nodes[5].addArcTo(nodes[6], new MockContent(12));
+
+		for (WeightType weightType : WeightType.values()) {
+			for (ShortestPathStrategy strategy : ShortestPathStrategy.values()) {
+				aGraph.setSnapshotWeights(false);
+				NodePath expected = nodes[0].findShortestPathTo(nodes[6], strategy, weightType);
+				aGraph.setSnapshotWeights(true);
+				NodePath nodePath = nodes[0].findShortestPathTo(nodes[6], strategy, weightType);
+				assertEquals(30, nodePath.getPathTotalDistance());
+				assertEquals(expected.getPath(), nodePath.getPath());
+				assertEquals(expected.getPathTotalWeight(), nodePath.getPathTotalWeight());
+			}
+		}
+	}
+
+	public void testWeightsAreReadOncePerVersion(){
+		AbstractGraph aGraph = (AbstractGraph) GraphFactory.instantiateAdjacencyMapGraph();
+		aGraph.setSnapshotWeights(true);
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		CountingContent weight = new CountingContent(5);
+		node0.addArcTo(node1, weight);
+		node1.addArcTo(node2, new MockContent(5));
+
+		assertEquals(10, node0.findShortestPathTo(node2, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		WeightSnapshot snapshot = aGraph.getWeightSnapshot(WeightType.INT);
+		assertEquals(1, weight.numMeasures);
+		assertEquals(10, node0.findShortestPathTo(node2, ShortestPathStrategy.BELLMAN_FORD).getPathTotalDistance());
+		assertEquals(1, weight.numMeasures);
+		assertSame(snapshot, aGraph.getWeightSnapshot(WeightType.INT));
+
+		//contents changed in place are not seen until the graph changes
+		weight.distance = 50;
+		assertEquals(10, node0.findShortestPathTo(node2, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		node0.addArcTo(node2, new MockContent(40));
+		assertNotSame(snapshot, aGraph.getWeightSnapshot(WeightType.INT));
+		assertEquals(40, node0.findShortestPathTo(node2, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+	}
+
+	public void testSnapshotFollowsRemovals(){
+		AbstractGraph aGraph = (AbstractGraph) GraphFactory.instantiateAdjacencyMapGraph();
+		aGraph.setSnapshotWeights(true);
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		node0.addArcTo(node1, new MockContent(1));
+		node1.addArcTo(node2, new MockContent(1));
+		node0.addArcTo(node2, new MockContent(5));
+
+		assertEquals(2, node0.findShortestPathTo(node2, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		long modificationCount = aGraph.getModificationCount();
+		aGraph.remove(node1);
+		assertTrue(aGraph.getModificationCount() != modificationCount);
+		assertEquals(5, node0.findShortestPathTo(node2, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+		aGraph.compact();
+		assertEquals(5, node0.findShortestPathTo(node2, ShortestPathStrategy.BELLMAN_FORD).getPathTotalDistance());
+	}
+
+	/**
+	 * Counts how many times it was measured
+	 * */
+	private class CountingContent extends MockContent{
+
+		int numMeasures;
+
+		public CountingContent(int i) {
+			super(i);
+		}
+
+		@Override
+		public int measure() {
+			numMeasures++;
+			return super.measure();
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package org.nixus.core;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.nixus.core.strategies.ShortestPathStrategy;
+import org.nixus.core.strategies.WeightType;
+import org.nixus.core.structure.Graph;
+import org.nixus.core.structure.auxiliary.DoubleMeasurable;
+import org.nixus.core.structure.auxiliary.LongMeasurable;
+import org.nixus.core.structure.impl.GraphFactory;
+import org.nixus.core.structure.nodes.Node;
+import org.nixus.core.structure.nodes.NodePath;
+
+public class TestWeightType extends TestCase {
+
+	public void testLongWeights(){
+		Graph aGraph = GraphFactory.instantiateAdjacencyMapGraph();
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		node0.addArcTo(node1, new LongContent(3000000000L));
+		node1.addArcTo(node2, new LongContent(3000000000L));
+		node0.addArcTo(node2, new LongContent(7000000000L));
+
+		for (ShortestPathStrategy strategy : ShortestPathStrategy.values()) {
+			NodePath nodePath = node0.findShortestPathTo(node2, strategy, WeightType.LONG);
+			assertEquals(6000000000L, nodePath.getPathTotalDistance());
+			assertEquals(Arrays.asList(node0, node1, node2), nodePath.getPath());
+		}
+		Map<Node, NodePath> nodePaths = node0.findShortestPathToEveryOtherNode(ShortestPathStrategy.BINARY_DIJKSTRA, WeightType.LONG);
+		assertEquals(3000000000L, nodePaths.get(node1).getPathTotalDistance());
+
+		//clamped to ints the arcs weigh as much as an unreachable node
+		assertFalse(node0.findShortestPathTo(node2, ShortestPathStrategy.DAG).pathFound());
+	}
+
+	public void testIntDistancesDontWrapAround(){
+		Graph aGraph = GraphFactory.instantiateAdjacencyMapGraph();
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		node0.addArcTo(node1, new MockContent(Integer.MAX_VALUE - 1));
+		node1.addArcTo(node2, new MockContent(Integer.MAX_VALUE - 1));
+
+		for (ShortestPathStrategy strategy : ShortestPathStrategy.values()) {
+			NodePath nodePath = node0.findShortestPathTo(node2, strategy);
+			assertFalse(nodePath.pathFound());
+			assertEquals(Integer.MAX_VALUE, nodePath.getPathTotalDistance());
+		}
+		assertEquals(2L * (Integer.MAX_VALUE - 1),
+				node0.findShortestPathTo(node2, ShortestPathStrategy.BELLMAN_FORD, WeightType.LONG).getPathTotalDistance());
+	}
+
+	public void testLongDistancesSaturate(){
+		Graph aGraph = GraphFactory.instantiateAdjacencyMapGraph();
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		node0.addArcTo(node1, new LongContent(Long.MAX_VALUE - 10));
+		node1.addArcTo(node2, new LongContent(Long.MAX_VALUE - 10));
+
+		for (ShortestPathStrategy strategy : ShortestPathStrategy.values()) {
+			NodePath nodePath = node0.findShortestPathTo(node2, strategy, WeightType.LONG);
+			assertFalse(nodePath.pathFound());
+			assertEquals(Long.MAX_VALUE, nodePath.getPathTotalDistance());
+			assertEquals(Long.MAX_VALUE - 10, node0.findShortestPathTo(node1, strategy, WeightType.LONG).getPathTotalDistance());
+		}
+	}
+
+	public void testDoubleWeights(){
+		Graph aGraph = GraphFactory.instantiateUndirectedAdjacencyMatrixGraph();
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		Node node3 = aGraph.addNode(new MockContent());
+		node0.addArc(node1, new DoubleContent(0.25));
+		node1.addArc(node2, new DoubleContent(0.5));
+		node0.addArc(node2, new DoubleContent(0.8));
+
+		for (ShortestPathStrategy strategy : Arrays.asList(ShortestPathStrategy.BINARY_DIJKSTRA, ShortestPathStrategy.BELLMAN_FORD)) {
+			NodePath nodePath = node0.findShortestPathTo(node2, strategy, WeightType.DOUBLE);
+			assertEquals(0.75, nodePath.getPathTotalWeight(), 1e-9);
+			assertEquals(0, nodePath.getPathTotalDistance());
+			assertEquals(Arrays.asList(node0, node1, node2), nodePath.getPath());
+			assertEquals(Double.POSITIVE_INFINITY, node0.findShortestPathTo(node3, strategy, WeightType.DOUBLE).getPathTotalWeight());
+		}
+		//as ints every arc weighs 1
+		assertEquals(1, node0.findShortestPathTo(node2, ShortestPathStrategy.BINARY_DIJKSTRA).getPathTotalDistance());
+	}
+
+	public void testUnreachableNegativeCycleIsIgnored(){
+		Graph aGraph = GraphFactory.instantiateAdjacencyMapGraph();
+		Node node0 = aGraph.addNode(new MockContent());
+		Node node1 = aGraph.addNode(new MockContent());
+		Node node2 = aGraph.addNode(new MockContent());
+		node1.addArcTo(node2, new MockContent(-2));
+		node2.addArcTo(node1, new MockContent(1));
+
+		for (WeightType weightType : WeightType.values()) {
+			assertFalse(node0.findShortestPathTo(node2, ShortestPathStrategy.BELLMAN_FORD, weightType).pathFound());
+		}
+	}
+
+	private class LongContent implements LongMeasurable<LongContent>{
+
+		long distance;
+
+		public LongContent(long distance) {
+			this.distance = distance;
+		}
+
+		@Override
+		public int measure() {
+			return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, distance));
+		}
+
+		@Override
+		public long measureLong() {
+			return distance;
+		}
+	}
+
+	private class DoubleContent implements DoubleMeasurable<DoubleContent>{
+
+		double distance;
+
+		public DoubleContent(double distance) {
+			this.distance = distance;
+		}
+
+		@Override
+		public int measure() {
+			return (int) Math.round(distance);
+		}
+
+		@Override
+		public double measureDouble() {
+			return distance;
+		}
+	}
+}